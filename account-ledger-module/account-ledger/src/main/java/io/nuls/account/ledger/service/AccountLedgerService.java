@@ -189,6 +189,13 @@ public interface AccountLedgerService {
      */
     Result importLedgerByAddress(String address);
 
+    /**
+     * load the local ledger of several accounts at once, the blocks are scanned only once for all of them
+     * @param addresses address list
+     * @return Result
+     */
+    Result importLedgerByAddresses(List<String> addresses);
+
     /**
      *
      * @param address address
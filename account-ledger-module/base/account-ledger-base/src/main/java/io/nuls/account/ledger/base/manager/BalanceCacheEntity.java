@@ -35,6 +35,7 @@ public class BalanceCacheEntity {
     private Balance balance;
     long lowestLockHeigh;
     long earlistLockTime;
+    long version;
 
     public Balance getBalance() {
         return balance;
@@ -59,4 +60,12 @@ public class BalanceCacheEntity {
     public void setEarlistLockTime(long earlistLockTime) {
         this.earlistLockTime = earlistLockTime;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
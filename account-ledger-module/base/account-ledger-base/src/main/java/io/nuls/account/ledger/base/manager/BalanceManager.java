@@ -47,11 +47,17 @@ import io.nuls.kernel.model.Result;
 import io.nuls.kernel.utils.AddressTool;
 
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 管理与缓存本地账户的余额
+ * 余额缓存不加锁，每个地址有一个刷新版本号，缓存只在计算时的版本号仍是最新时有效，
+ * 这样并发计算写入的旧余额不会覆盖刷新
+ * <p>
+ * Manage and cache the balances of local accounts.
+ * The cache is lock-free: every address has a refresh version and a cached balance is only valid while the version
+ * it was calculated at is still current, so a stale balance written by a concurrent calculation never outlives a refresh.
  */
 
 @Component
@@ -62,9 +68,13 @@ public class BalanceManager {
     @Autowired
     private AccountService accountService;
 
-    private Map<String, BalanceCacheEntity> balanceMap = new HashMap<>();
+    private Map<String, BalanceCacheEntity> balanceMap = new ConcurrentHashMap<>();
 
-    private Lock lock = new ReentrantLock();
+    /**
+     * 每个地址的余额刷新版本号
+     * The balance refresh version of every address.
+     */
+    private Map<String, AtomicLong> versionMap = new ConcurrentHashMap<>();
 
     /**
      * 初始化缓存本地所有账户的余额信息
@@ -97,104 +107,103 @@ public class BalanceManager {
      * 获取账户余额
      */
     public Result<Balance> getBalance(byte[] address) {
-        lock.lock();
-        try {
-            if (address == null || address.length != Address.ADDRESS_LENGTH) {
-                return Result.getFailed(AccountLedgerErrorCode.PARAMETER_ERROR);
-            }
+        if (address == null || address.length != Address.ADDRESS_LENGTH) {
+            return Result.getFailed(AccountLedgerErrorCode.PARAMETER_ERROR);
+        }
 
-            String addressKey = AddressTool.getStringAddressByBytes(address);
-            BalanceCacheEntity entity = balanceMap.get(addressKey);
-            Balance balance = null;
-            if (entity == null || (entity.getEarlistLockTime() > 0L && entity.getEarlistLockTime() <= TimeService.currentTimeMillis())) {
-                try {
-                    balance = calBalanceByAddress(address);
-                } catch (NulsException e) {
-                    Log.info("getbalance of address[" + AddressTool.getStringAddressByBytes(address) + "] error");
-                }
-            } else {
-                balance = entity.getBalance();
+        String addressKey = AddressTool.getStringAddressByBytes(address);
+        BalanceCacheEntity entity = balanceMap.get(addressKey);
+        Balance balance = null;
+        if (entity == null || entity.getVersion() != getVersion(addressKey).get() ||
+                (entity.getEarlistLockTime() > 0L && entity.getEarlistLockTime() <= TimeService.currentTimeMillis())) {
+            try {
+                balance = calBalanceByAddress(address);
+            } catch (NulsException e) {
+                Log.info("getbalance of address[" + addressKey + "] error");
             }
-            return Result.getSuccess().setData(balance);
-        } finally {
-            lock.unlock();
+        } else {
+            balance = entity.getBalance();
         }
+        return Result.getSuccess().setData(balance);
     }
 
     /**
      * 刷新余额，其实就是删除缓存，下次获取时再重新计算
      */
     public void refreshBalance(byte[] address) {
-            if (address != null) {
-                balanceMap.remove(AddressTool.getStringAddressByBytes(address));
-            }
+        if (address != null) {
+            String addressKey = AddressTool.getStringAddressByBytes(address);
+            getVersion(addressKey).incrementAndGet();
+            balanceMap.remove(addressKey);
+        }
     }
 
     public void refreshBalance() {
-        lock.lock();
-        try {
-            balanceMap.clear();
-        } finally {
-            lock.unlock();
+        for (AtomicLong version : versionMap.values()) {
+            version.incrementAndGet();
         }
+        balanceMap.clear();
+    }
+
+    private AtomicLong getVersion(String addressKey) {
+        return versionMap.computeIfAbsent(addressKey, key -> new AtomicLong());
     }
 
     /**
-     * 计算账户的余额，这个方法应该和获取余额方法互斥，避免并发导致数据不准确
+     * 计算账户的余额，计算前记录刷新版本号，计算期间发生的刷新会使本次结果的缓存失效
+     * Calculate the balance of the account. The refresh version is taken before the calculation,
+     * a refresh happening meanwhile invalidates the cached result.
      */
     public Balance calBalanceByAddress(byte[] address) throws NulsException {
-        lock.lock();
-        try {
-            if (accountService.getAccount(address).isFailed()) {
-                return null;
-            }
-            List<Coin> coinList = getCoinListByAddress(address);
-            Collections.sort(coinList, CoinComparator.getInstance());
-
-            BalanceCacheEntity balanceCacheEntity = new BalanceCacheEntity();
-
-            Na usable = Na.ZERO;
-            Na locked = Na.ZERO;
-            for (Coin coin : coinList) {
-                if (coin.usable()) {
-                    usable = usable.add(coin.getNa());
-                } else {
-                    locked = locked.add(coin.getNa());
-                    long lockTime = coin.getLockTime();
-                    // the consensus lock type
-                    if (lockTime <= 0L) {
-                        continue;
-                    }
-                    // the height lock type
-                    if (balanceCacheEntity.getLowestLockHeigh() == 0L || (lockTime < NulsConstant.BlOCKHEIGHT_TIME_DIVIDE && lockTime < balanceCacheEntity.getLowestLockHeigh())) {
-                        balanceCacheEntity.setLowestLockHeigh(lockTime);
-                        continue;
-                    }
-                    // the time lock type
-                    if (balanceCacheEntity.getEarlistLockTime() == 0L || (lockTime > NulsConstant.BlOCKHEIGHT_TIME_DIVIDE && lockTime < balanceCacheEntity.getEarlistLockTime())) {
-                        balanceCacheEntity.setEarlistLockTime(lockTime);
-                        continue;
-                    }
+        if (accountService.getAccount(address).isFailed()) {
+            return null;
+        }
+        String addressKey = AddressTool.getStringAddressByBytes(address);
+        long version = getVersion(addressKey).get();
+        List<Coin> coinList = getCoinListByAddress(address);
+        Collections.sort(coinList, CoinComparator.getInstance());
+
+        BalanceCacheEntity balanceCacheEntity = new BalanceCacheEntity();
+
+        Na usable = Na.ZERO;
+        Na locked = Na.ZERO;
+        for (Coin coin : coinList) {
+            if (coin.usable()) {
+                usable = usable.add(coin.getNa());
+            } else {
+                locked = locked.add(coin.getNa());
+                long lockTime = coin.getLockTime();
+                // the consensus lock type
+                if (lockTime <= 0L) {
+                    continue;
+                }
+                // the height lock type
+                if (balanceCacheEntity.getLowestLockHeigh() == 0L || (lockTime < NulsConstant.BlOCKHEIGHT_TIME_DIVIDE && lockTime < balanceCacheEntity.getLowestLockHeigh())) {
+                    balanceCacheEntity.setLowestLockHeigh(lockTime);
+                    continue;
+                }
+                // the time lock type
+                if (balanceCacheEntity.getEarlistLockTime() == 0L || (lockTime > NulsConstant.BlOCKHEIGHT_TIME_DIVIDE && lockTime < balanceCacheEntity.getEarlistLockTime())) {
+                    balanceCacheEntity.setEarlistLockTime(lockTime);
+                    continue;
                 }
             }
+        }
 
+        Balance balance = new Balance();
+        balance.setUsable(usable);
+        balance.setLocked(locked);
+        balance.setBalance(usable.add(locked));
+        balanceCacheEntity.setBalance(balance);
+        balanceCacheEntity.setVersion(version);
 
-            Balance balance = new Balance();
-            balance.setUsable(usable);
-            balance.setLocked(locked);
-            balance.setBalance(usable.add(locked));
-            balanceCacheEntity.setBalance(balance);
-
-            balanceMap.put(AddressTool.getStringAddressByBytes(address), balanceCacheEntity);
-            return balance;
-        } finally {
-            lock.unlock();
-        }
+        balanceMap.put(addressKey, balanceCacheEntity);
+        return balance;
     }
 
     public List<Coin> getCoinListByAddress(byte[] address) {
-        List<Coin> coinList = new ArrayList<>();
-        Collection<Entry<byte[], byte[]>> rawList = localUtxoStorageService.loadAllCoinList();
+        List<Entry<byte[], byte[]>> rawList = localUtxoStorageService.loadCoinListByAddress(address);
+        List<Coin> coinList = new ArrayList<>(rawList.size());
         for (Entry<byte[], byte[]> coinEntry : rawList) {
             Coin coin = new Coin();
             try {
@@ -203,10 +212,8 @@ public class BalanceManager {
                 Log.info("parse coin form db error");
                 continue;
             }
-            if (Arrays.equals(coin.getOwner(), address)) {
-                coin.setOwner(coinEntry.getKey());
-                coinList.add(coin);
-            }
+            coin.setOwner(coinEntry.getKey());
+            coinList.add(coin);
         }
         return coinList;
     }
@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.account.ledger.base.manager;
+
+import io.nuls.account.ledger.base.service.LocalUtxoService;
+import io.nuls.account.ledger.base.service.TransactionInfoService;
+import io.nuls.account.ledger.constant.AccountLedgerConstant;
+import io.nuls.account.ledger.model.TransactionInfo;
+import io.nuls.account.ledger.storage.po.TransactionInfoPo;
+import io.nuls.account.ledger.storage.service.LedgerImportStorageService;
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.exception.NulsRuntimeException;
+import io.nuls.kernel.lite.annotation.Autowired;
+import io.nuls.kernel.lite.annotation.Component;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.Result;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
+import io.nuls.protocol.service.BlockService;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 按地址批量导入链上账本
+ * 区块按区间分批，多个区间并行读取并用地址集合过滤交易，再按高度顺序批量写入交易信息和UTXO，
+ * 每批写入后记录进度，导入中断后再次导入时从记录的高度继续
+ * <p>
+ * Bulk import of the chain ledger of a set of addresses.
+ * The blocks are split into height ranges, several ranges are read in parallel and their transactions filtered
+ * against the address set, then the transaction infos and UTXOs are written batch by batch in height order.
+ * A checkpoint is recorded after every batch, an interrupted import resumes from it on the next call.
+ */
+@Component
+public class LedgerImportManager {
+
+    /**
+     * 每批导入的区块数
+     * Blocks per import batch.
+     */
+    private static final int IMPORT_BATCH_SIZE = 200;
+
+    /**
+     * 输出进度日志的间隔时间
+     * Interval between two progress logs.
+     */
+    private static final long PROGRESS_LOG_INTERVAL = 10000L;
+
+    @Autowired
+    private BlockService blockService;
+
+    @Autowired
+    private TransactionInfoService transactionInfoService;
+
+    @Autowired
+    private LocalUtxoService localUtxoService;
+
+    @Autowired
+    private LedgerImportStorageService ledgerImportStorageService;
+
+    private ExecutorService scanExecutor;
+
+    /**
+     * 导入地址的账本，返回导入的交易数
+     * Import the ledger of the addresses, returns the number of imported transactions.
+     *
+     * @param addresses 地址列表/address list
+     * @return
+     */
+    public synchronized Result<Integer> importLedger(List<byte[]> addresses) {
+        if (addresses == null || addresses.isEmpty()) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        // 每个地址开始导入的高度，有进度记录时从记录的下一个高度开始
+        // The height to start importing from for every address, the one after the checkpoint if there is one.
+        TreeMap<Long, List<byte[]>> startMap = new TreeMap<>();
+        for (byte[] address : addresses) {
+            Long importedHeight = ledgerImportStorageService.getImportHeight(address);
+            long start = importedHeight == null ? 0L : importedHeight + 1;
+            List<byte[]> list = startMap.get(start);
+            if (list == null) {
+                list = new ArrayList<>();
+                startMap.put(start, list);
+            }
+            list.add(address);
+        }
+
+        ExecutorService executor = getScanExecutor();
+        long start = startMap.firstKey();
+        long end = NulsContext.getInstance().getBestHeight();
+        long startTime = System.currentTimeMillis();
+        long logTime = startTime;
+        int count = 0;
+        while (start <= end) {
+            Deque<ImportBatch> batchQueue = new ArrayDeque<>();
+            long next = start;
+            while (next <= end || !batchQueue.isEmpty()) {
+                while (next <= end && batchQueue.size() < Runtime.getRuntime().availableProcessors()) {
+                    // 区间不跨越任何地址的开始高度，这样一批内参与导入的地址是固定的
+                    // A range never crosses the start height of an address, so the addresses of a batch are fixed.
+                    long to = Math.min(next + IMPORT_BATCH_SIZE - 1, end);
+                    Long nextStart = startMap.higherKey(next);
+                    if (nextStart != null && nextStart <= to) {
+                        to = nextStart - 1;
+                    }
+                    List<byte[]> batchAddresses = new ArrayList<>();
+                    for (List<byte[]> list : startMap.headMap(next, true).values()) {
+                        batchAddresses.addAll(list);
+                    }
+                    ImportBatch newBatch = new ImportBatch(next, to, batchAddresses);
+                    newBatch.future = executor.submit(() -> scan(newBatch));
+                    batchQueue.add(newBatch);
+                    next = to + 1;
+                }
+                ImportBatch batch = batchQueue.poll();
+                Result result = save(batch);
+                if (result.isFailed()) {
+                    for (ImportBatch remaining : batchQueue) {
+                        remaining.future.cancel(true);
+                    }
+                    Log.error("import ledger failed at height " + batch.from + "-" + batch.to + ": " + result.getErrorCode().getMsg());
+                    return result;
+                }
+                count += (int) result.getData();
+                if (System.currentTimeMillis() - logTime > PROGRESS_LOG_INTERVAL) {
+                    logTime = System.currentTimeMillis();
+                    Log.info("import ledger of " + addresses.size() + " addresses: " + batch.to + "/" + end + ", " + count + " txs");
+                }
+            }
+            start = end + 1;
+            end = NulsContext.getInstance().getBestHeight();
+        }
+        ledgerImportStorageService.deleteImportHeight(addresses);
+        Log.info("import ledger of " + addresses.size() + " addresses finished: " + count + " txs, " + (System.currentTimeMillis() - startTime) + "ms");
+        return Result.getSuccess().setData(count);
+    }
+
+    /**
+     * 读取区间内的区块，找出和地址相关的交易
+     * Read the blocks of the range and find the transactions related to the addresses.
+     */
+    private List<Transaction> scan(ImportBatch batch) {
+        Set<ByteBuffer> addressSet = new HashSet<>();
+        for (byte[] address : batch.addresses) {
+            addressSet.add(ByteBuffer.wrap(address));
+        }
+        List<Transaction> txList = new ArrayList<>();
+        for (long height = batch.from; height <= batch.to; height++) {
+            Result<Block> result = blockService.getBlock(height);
+            if (result.isFailed() || result.getData() == null) {
+                Log.error("import ledger: block not found, height " + height);
+                throw new NulsRuntimeException(KernelErrorCode.DATA_ERROR);
+            }
+            for (Transaction tx : result.getData().getTxs()) {
+                List<byte[]> relativeAddresses = tx.getAllRelativeAddress();
+                for (byte[] address : relativeAddresses) {
+                    if (addressSet.contains(ByteBuffer.wrap(address))) {
+                        txList.add(tx);
+                        break;
+                    }
+                }
+            }
+        }
+        return txList;
+    }
+
+    /**
+     * 批量写入一批交易的交易信息和UTXO，然后记录进度
+     * Write the transaction infos and UTXOs of a batch, then record the checkpoint.
+     */
+    private Result<Integer> save(ImportBatch batch) {
+        List<Transaction> txList;
+        try {
+            txList = batch.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.getFailed(KernelErrorCode.SYS_UNKOWN_EXCEPTION);
+        } catch (ExecutionException e) {
+            Log.error(e.getCause());
+            return Result.getFailed(KernelErrorCode.DATA_ERROR);
+        }
+        if (!txList.isEmpty()) {
+            List<TransactionInfoPo> infoPoList = new ArrayList<>(txList.size());
+            for (Transaction tx : txList) {
+                TransactionInfoPo txInfoPo = new TransactionInfoPo(tx);
+                txInfoPo.setStatus(TransactionInfo.CONFIRMED);
+                infoPoList.add(txInfoPo);
+            }
+            Result result = transactionInfoService.batchSaveTransactionInfo(infoPoList, batch.addresses);
+            if (result.isFailed()) {
+                return result;
+            }
+            result = localUtxoService.batchSaveUtxoForAccount(txList, batch.addresses);
+            if (result.isFailed()) {
+                return result;
+            }
+        }
+        Result result = ledgerImportStorageService.saveImportHeight(batch.addresses, batch.to);
+        if (result.isFailed()) {
+            return result;
+        }
+        return Result.getSuccess().setData(txList.size());
+    }
+
+    private ExecutorService getScanExecutor() {
+        if (scanExecutor == null || scanExecutor.isShutdown()) {
+            scanExecutor = TaskManager.createThreadPool(Runtime.getRuntime().availableProcessors(), Integer.MAX_VALUE,
+                    new NulsThreadFactory(AccountLedgerConstant.MODULE_ID_ACCOUNTLEDGER, "ledger-import"));
+        }
+        return scanExecutor;
+    }
+
+    private static final class ImportBatch {
+        private final long from;
+        private final long to;
+        private final List<byte[]> addresses;
+        private Future<List<Transaction>> future;
+
+        private ImportBatch(long from, long to, List<byte[]> addresses) {
+            this.from = from;
+            this.to = to;
+            this.addresses = addresses;
+        }
+    }
+}
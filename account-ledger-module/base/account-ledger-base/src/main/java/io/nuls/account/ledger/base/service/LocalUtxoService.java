@@ -42,6 +42,12 @@ public interface LocalUtxoService {
 
     Result saveUtxoForAccount(Transaction tx, List<byte[]> addressesList);
 
+    /**
+     * 按区块顺序批量保存一组交易中属于这些地址的UTXO，一次写入存储
+     * Save the UTXOs of a list of transactions (in block order) that belong to the addresses, written to storage at once.
+     */
+    Result batchSaveUtxoForAccount(List<Transaction> txList, List<byte[]> addressesList);
+
     Result deleteUtxoOfTransaction(Transaction tx);
 
     Result<List<byte[]>> unlockCoinData(Transaction tx, long newLockTime);
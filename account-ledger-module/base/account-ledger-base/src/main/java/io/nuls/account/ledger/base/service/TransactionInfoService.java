@@ -43,5 +43,11 @@ public interface TransactionInfoService {
 
     Result<Integer> saveTransactionInfo(TransactionInfoPo infoPo, List<byte[]> addresses);
 
+    /**
+     * 批量保存交易信息，每条交易信息只为其关联地址中属于addresses的地址保存
+     * Save a batch of transaction infos, each one is only saved for its related addresses that are in the addresses.
+     */
+    Result<Integer> batchSaveTransactionInfo(List<TransactionInfoPo> infoPoList, List<byte[]> addresses);
+
     Result deleteTransactionInfo(TransactionInfoPo infoPo);
 }
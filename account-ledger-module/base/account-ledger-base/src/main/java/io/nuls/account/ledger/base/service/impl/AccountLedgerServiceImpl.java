@@ -27,6 +27,7 @@ package io.nuls.account.ledger.base.service.impl;
 
 import io.nuls.account.constant.AccountErrorCode;
 import io.nuls.account.ledger.base.manager.BalanceManager;
+import io.nuls.account.ledger.base.manager.LedgerImportManager;
 import io.nuls.account.ledger.base.service.LocalUtxoService;
 import io.nuls.account.ledger.base.service.TransactionInfoService;
 import io.nuls.account.ledger.base.util.AccountLegerUtils;
@@ -47,7 +48,6 @@ import io.nuls.core.tools.param.AssertUtil;
 import io.nuls.core.tools.str.StringUtils;
 import io.nuls.kernel.cfg.NulsConfig;
 import io.nuls.kernel.constant.KernelErrorCode;
-import io.nuls.kernel.context.NulsContext;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.func.TimeService;
@@ -63,7 +63,6 @@ import io.nuls.ledger.constant.LedgerErrorCode;
 import io.nuls.ledger.service.LedgerService;
 import io.nuls.ledger.util.LedgerUtil;
 import io.nuls.protocol.model.tx.TransferTransaction;
-import io.nuls.protocol.service.BlockService;
 import io.nuls.protocol.service.TransactionService;
 
 import java.io.IOException;
@@ -91,13 +90,13 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
     private BalanceManager balanceManager;
 
     @Autowired
-    private TransactionService transactionService;
+    private LedgerImportManager ledgerImportManager;
 
     @Autowired
-    private LedgerService ledgerService;
+    private TransactionService transactionService;
 
     @Autowired
-    private BlockService blockService;
+    private LedgerService ledgerService;
 
     @Autowired
     private TransactionInfoService transactionInfoService;
@@ -106,7 +105,7 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
     private Lock saveLock = new ReentrantLock();
 
     // 保存本地已使用的交易，Save locally used transactions
-    private Set<String> usedTxSets;
+    private Set<OutPointKey> usedTxSets;
 
     @Override
     public void afterPropertiesSet() throws NulsException {
@@ -202,7 +201,7 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
                 return result;
             }
             if (!tx.isSystemTx()) {
-                Map<String, Coin> toCoinMap = addToCoinMap(tx);
+                Map<OutPointKey, Coin> toCoinMap = addToCoinMap(tx);
                 if (usedTxSets == null) {
                     initUsedTxSets();
                 }
@@ -229,13 +228,13 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
             }
             List<Coin> froms = tx.getCoinData().getFrom();
             for (Coin from : froms) {
-                usedTxSets.add(LedgerUtil.asString(from.getOwner()));
+                usedTxSets.add(OutPointKey.wrap(from.getOwner()));
             }
         }
     }
 
-    private Map<String, Coin> addToCoinMap(Transaction transaction) {
-        Map<String, Coin> toMap = new HashMap<>();
+    private Map<OutPointKey, Coin> addToCoinMap(Transaction transaction) {
+        Map<OutPointKey, Coin> toMap = new HashMap<>();
 
         CoinData coinData = transaction.getCoinData();
         if (coinData == null) {
@@ -255,7 +254,7 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
                 if (unconfirmedTx != null) {
                     int index = LedgerUtil.getIndex(keyBytes);
                     Coin toCoin = unconfirmedTx.getCoinData().getTo().get(index);
-                    toMap.put(LedgerUtil.asString(keyBytes), toCoin);
+                    toMap.put(OutPointKey.wrap(keyBytes), toCoin);
                 }
             } catch (NulsException e) {
                 Log.error(e);
@@ -361,7 +360,7 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
             if (coinData != null) {
                 List<Coin> froms = tx.getCoinData().getFrom();
                 for (Coin from : froms) {
-                    usedTxSets.remove(LedgerUtil.asString(from.getOwner()));
+                    usedTxSets.remove(OutPointKey.wrap(from.getOwner()));
                 }
             }
         }
@@ -639,36 +638,32 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
      */
     @Override
     public Result importLedgerByAddress(String address) {
-        if (address == null || !AddressTool.validAddress(address)) {
-            return Result.getFailed(AccountLedgerErrorCode.ADDRESS_ERROR);
-        }
+        return importLedgerByAddresses(Collections.singletonList(address));
+    }
 
-        byte[] addressBytes = null;
-        try {
-            addressBytes = AddressTool.getAddress(address);
-        } catch (Exception e) {
+    @Override
+    public Result importLedgerByAddresses(List<String> addresses) {
+        if (addresses == null || addresses.isEmpty()) {
             return Result.getFailed(AccountLedgerErrorCode.ADDRESS_ERROR);
         }
-
-        long start = 0;
-        long end = NulsContext.getInstance().getBestHeight();
-        while (start <= end) {
-            for (long i = start; i <= end; i++) {
-                List<Transaction> txs = blockService.getBlock(i).getData().getTxs();
-                for (Transaction tx : txs) {
-                    importConfirmedTransaction(tx, addressBytes);
-                }
+        List<byte[]> addressBytesList = new ArrayList<>();
+        for (String address : addresses) {
+            if (address == null || !AddressTool.validAddress(address)) {
+                return Result.getFailed(AccountLedgerErrorCode.ADDRESS_ERROR);
             }
-            start = end;
-            end = NulsContext.getInstance().getBestHeight();
-            if (start == end) {
-                break;
+            try {
+                addressBytesList.add(AddressTool.getAddress(address));
+            } catch (Exception e) {
+                return Result.getFailed(AccountLedgerErrorCode.ADDRESS_ERROR);
             }
         }
-        try {
+
+        Result result = ledgerImportManager.importLedger(addressBytesList);
+        for (byte[] addressBytes : addressBytesList) {
             balanceManager.refreshBalance(addressBytes);
-        } catch (Exception e) {
-            Log.info(address);
+        }
+        if (result.isFailed()) {
+            return result;
         }
         return Result.getSuccess();
     }
@@ -713,29 +708,6 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
         return Result.getSuccess().setData(new Integer(i));
     }
 
-    protected Result<Integer> importConfirmedTransaction(Transaction tx, byte[] address) {
-
-        if (!AccountLegerUtils.isTxRelatedToAddress(tx, address)) {
-            return Result.getSuccess().setData(new Integer(0));
-        }
-
-        TransactionInfoPo txInfoPo = new TransactionInfoPo(tx);
-        txInfoPo.setStatus(TransactionInfo.CONFIRMED);
-
-        List<byte[]> addresses = new ArrayList<>();
-        addresses.add(address);
-        Result result = transactionInfoService.saveTransactionInfo(txInfoPo, addresses);
-
-        if (result.isFailed()) {
-            return result;
-        }
-        result = localUtxoService.saveUtxoForAccount(tx, address);
-        if (result.isFailed()) {
-            transactionInfoService.deleteTransactionInfo(txInfoPo);
-        }
-        return result;
-    }
-
     protected List<Transaction> filterLocalTransaction(List<Transaction> txs) {
         List<Transaction> resultTxs = new ArrayList<>();
         if (txs == null || txs.size() == 0) {
@@ -791,7 +763,7 @@ public class AccountLedgerServiceImpl implements AccountLedgerService, Initializ
         if (coinData != null) {
             List<Coin> froms = tx.getCoinData().getFrom();
             for (Coin from : froms) {
-                usedTxSets.remove(LedgerUtil.asString(from.getOwner()));
+                usedTxSets.remove(OutPointKey.wrap(from.getOwner()));
             }
         }
         return Result.getSuccess();
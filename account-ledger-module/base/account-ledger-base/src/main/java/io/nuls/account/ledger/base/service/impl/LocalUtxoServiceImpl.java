@@ -87,12 +87,65 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
 //            }
 //        }
 
+        List<Entry<byte[], byte[]>> fromsList = new ArrayList<>();
+        List<Entry<byte[], byte[]>> toList = new ArrayList<>();
+        Result result = collectUtxoForAccount(tx, addressesList, fromsList, toList);
+        if (result.isFailed()) {
+            return result;
+        }
+        result = localUtxoStorageService.batchSaveAndDeleteUTXO(toList, fromsList);
+        if (result.isFailed() || result.getData() == null || (int) result.getData() != toList.size() + fromsList.size()) {
+            return Result.getFailed();
+        }
+        return Result.getSuccess();
+    }
+
+    @Override
+    public Result batchSaveUtxoForAccount(List<Transaction> txList, List<byte[]> addressesList) {
+        if (txList == null || addressesList == null || addressesList.size() == 0) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        // 同一批内先产生后花费的UTXO互相抵消，不写入存储
+        // UTXOs created and spent inside the batch cancel each other out and are never written.
+        Map<String, Entry<byte[], byte[]>> saveMap = new LinkedHashMap<>();
+        List<Entry<byte[], byte[]>> deleteList = new ArrayList<>();
+        for (Transaction tx : txList) {
+            List<Entry<byte[], byte[]>> fromsList = new ArrayList<>();
+            List<Entry<byte[], byte[]>> toList = new ArrayList<>();
+            Result result = collectUtxoForAccount(tx, addressesList, fromsList, toList);
+            if (result.isFailed()) {
+                return result;
+            }
+            for (Entry<byte[], byte[]> from : fromsList) {
+                if (saveMap.remove(Hex.encode(from.getKey())) == null) {
+                    deleteList.add(from);
+                }
+            }
+            for (Entry<byte[], byte[]> to : toList) {
+                saveMap.put(Hex.encode(to.getKey()), to);
+            }
+        }
+        if (saveMap.isEmpty() && deleteList.isEmpty()) {
+            return Result.getSuccess();
+        }
+        List<Entry<byte[], byte[]>> saveList = new ArrayList<>(saveMap.values());
+        Result result = localUtxoStorageService.batchSaveAndDeleteUTXO(saveList, deleteList);
+        if (result.isFailed() || result.getData() == null || (int) result.getData() != saveList.size() + deleteList.size()) {
+            return Result.getFailed();
+        }
+        return Result.getSuccess();
+    }
+
+    /**
+     * 找出交易中属于这些地址的被花费的UTXO（key及所属地址）和新产生的UTXO（key及coin）
+     * Collect the spent (key and owner address) and the created (key and coin) UTXOs of the transaction that belong to the addresses.
+     */
+    private Result collectUtxoForAccount(Transaction tx, List<byte[]> addressesList, List<Entry<byte[], byte[]>> fromsList, List<Entry<byte[], byte[]>> toList) {
         CoinData coinData = tx.getCoinData();
 
         if (coinData != null) {
             // delete - from
             List<Coin> froms = coinData.getFrom();
-            List<byte[]> fromsList = new ArrayList<>();
             byte[] fromSource;
             byte[] utxoFromSource;
             byte[] fromIndex;
@@ -141,12 +194,11 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
                     continue;
                 }
 
-                fromsList.add(fromSource);
+                fromsList.add(new Entry<>(fromSource, toAddress));
             }
 
             // save utxo - to
             List<Coin> tos = coinData.getTo();
-            List<Entry<byte[], byte[]>> toList = new ArrayList<>();
             byte[] txHashBytes = null;
             try {
                 txHashBytes = tx.getHash().serialize();
@@ -178,10 +230,6 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
                     Log.error(e);
                 }
             }
-            Result result = localUtxoStorageService.batchSaveAndDeleteUTXO(toList, fromsList);
-            if (result.isFailed() || result.getData() == null || (int) result.getData() != toList.size() + fromsList.size()) {
-                return Result.getFailed();
-            }
         }
         return Result.getSuccess();
     }
@@ -196,7 +244,7 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
         if (coinData != null) {
             // delete utxo - to
             List<Coin> tos = coinData.getTo();
-            List<byte[]> toList = new ArrayList<>();
+            List<Entry<byte[], byte[]>> toList = new ArrayList<>();
             byte[] outKey;
             for (int i = 0, length = tos.size(); i < length; i++) {
                 try {
@@ -204,7 +252,7 @@ public class LocalUtxoServiceImpl implements LocalUtxoService {
                         continue;
                     }
                     outKey = ArraysTool.concatenate(tx.getHash().serialize(), new VarInt(i).encode());
-                    toList.add(outKey);
+                    toList.add(new Entry<>(outKey, tos.get(i).getOwner()));
                 } catch (IOException e) {
                     throw new NulsRuntimeException(e);
                 }
@@ -34,6 +34,7 @@ import io.nuls.account.ledger.storage.service.impl.TransactionInfoStorageService
 import io.nuls.consensus.constant.ConsensusConstant;
 import io.nuls.core.tools.array.ArraysTool;
 import io.nuls.core.tools.log.Log;
+import io.nuls.db.model.Entry;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.lite.annotation.Autowired;
@@ -43,9 +44,8 @@ import io.nuls.kernel.model.Result;
 import io.nuls.kernel.utils.AddressTool;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.*;
 
 /**
  * author Facjas
@@ -105,6 +105,43 @@ public class TransactionInfoServiceImpl implements TransactionInfoService {
         return Result.getSuccess().setData(new Integer(addresses.size()));
     }
 
+    @Override
+    public Result<Integer> batchSaveTransactionInfo(List<TransactionInfoPo> infoPoList, List<byte[]> addresses) {
+        if (infoPoList == null || addresses == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        Set<ByteBuffer> addressSet = new HashSet<>();
+        for (byte[] address : addresses) {
+            addressSet.add(ByteBuffer.wrap(address));
+        }
+        List<Entry<byte[], TransactionInfoPo>> infoList = new ArrayList<>();
+        try {
+            for (TransactionInfoPo infoPo : infoPoList) {
+                byte[] txHashBytes = infoPo.getTxHash().serialize();
+                byte[] poAddresses = infoPo.getAddresses();
+                for (int i = 0; i + Address.ADDRESS_LENGTH <= poAddresses.length; i += Address.ADDRESS_LENGTH) {
+                    if (!addressSet.contains(ByteBuffer.wrap(poAddresses, i, Address.ADDRESS_LENGTH))) {
+                        continue;
+                    }
+                    byte[] infoKey = new byte[Address.ADDRESS_LENGTH + txHashBytes.length];
+                    System.arraycopy(poAddresses, i, infoKey, 0, Address.ADDRESS_LENGTH);
+                    System.arraycopy(txHashBytes, 0, infoKey, Address.ADDRESS_LENGTH, txHashBytes.length);
+                    infoList.add(new Entry<>(infoKey, infoPo));
+                }
+            }
+        } catch (IOException e) {
+            return Result.getFailed(AccountLedgerErrorCode.IO_ERROR);
+        }
+        if (infoList.isEmpty()) {
+            return Result.getSuccess().setData(new Integer(0));
+        }
+        Result result = transactionInfoStorageService.batchSaveTransactionInfo(infoList);
+        if (result.isFailed()) {
+            return result;
+        }
+        return Result.getSuccess().setData(new Integer(infoList.size()));
+    }
+
     @Override
     public Result deleteTransactionInfo(TransactionInfoPo infoPo) {
         byte[] infoBytes = null;
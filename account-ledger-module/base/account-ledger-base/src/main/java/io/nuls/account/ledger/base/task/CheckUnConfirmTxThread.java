@@ -92,8 +92,8 @@ public class CheckUnConfirmTxThread implements Runnable {
             return;
         }
 
-        Map<String, Coin> toMaps = new HashMap<>();
-        Set<String> fromSet = new HashSet<>();
+        Map<OutPointKey, Coin> toMaps = new HashMap<>();
+        Set<OutPointKey> fromSet = new HashSet<>();
         Collections.sort(list, this.comparator);
         for (Transaction tx : list) {
 
@@ -174,7 +174,7 @@ public class CheckUnConfirmTxThread implements Runnable {
 
             // delete utxo - to
             List<Coin> tos = coinData.getTo();
-            List<byte[]> toList = new ArrayList<>();
+            List<Entry<byte[], byte[]>> toList = new ArrayList<>();
             Coin toCoin;
             byte[] outKey;
             for (int i = 0, length = tos.size(); i < length; i++) {
@@ -184,7 +184,7 @@ public class CheckUnConfirmTxThread implements Runnable {
                         continue;
                     }
                     outKey = org.spongycastle.util.Arrays.concatenate(tx.getHash().serialize(), new VarInt(i).encode());
-                    toList.add(outKey);
+                    toList.add(new Entry<>(outKey, toCoin.getOwner()));
                 } catch (IOException e) {
                     Log.info("delete unconfirmed output error");
                     throw new NulsRuntimeException(e);
@@ -203,7 +203,7 @@ public class CheckUnConfirmTxThread implements Runnable {
         return Result.getSuccess();
     }
 
-    private Result verifyTransaction(Transaction tx, Map<String, Coin> toMaps, Set<String> fromSet) {
+    private Result verifyTransaction(Transaction tx, Map<OutPointKey, Coin> toMaps, Set<OutPointKey> fromSet) {
         Result result = tx.verify();
         if (result.isFailed()) {
             return result;
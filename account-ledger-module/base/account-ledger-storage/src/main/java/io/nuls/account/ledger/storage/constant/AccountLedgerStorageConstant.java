@@ -38,5 +38,20 @@ public interface AccountLedgerStorageConstant {
     String DB_NAME_ACCOUNT_LEDGER_TX_INDEX = "account_ledger_tx_index";
     String DB_NAME_ACCOUNT_LEDGER_TX = "account_ledger_tx";
     String DB_NAME_ACCOUNT_LEDGER_COINDATA = "account_ledger_coindata";
+    /**
+     * 按地址索引的本地UTXO表，key为 地址 + 交易hash + 输出序号，value为coin
+     * Local UTXO table indexed by address, the key is address + tx hash + output index, the value is the coin.
+     */
+    String DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS = "account_ledger_coindata_address";
+    /**
+     * 地址索引表重建完成的标记，key短于地址，不会被按地址前缀读到
+     * Marker of a completed rebuild of the address index, shorter than an address so no address prefix seek returns it.
+     */
+    String ADDRESS_INDEX_COMPLETED_KEY = "index_completed";
+    /**
+     * 账本导入进度表，key为地址，value为已导入的区块高度
+     * Ledger import checkpoint table, the key is the address, the value is the imported block height.
+     */
+    String DB_NAME_ACCOUNT_LEDGER_IMPORT = "account_ledger_import";
 
 }
@@ -31,7 +31,6 @@ import io.nuls.kernel.model.Result;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * @author Facjas
@@ -42,13 +41,36 @@ public interface LocalUtxoStorageService {
 
     Result batchSaveUTXO(Map<byte[], byte[]> utxos);
 
-    Result deleteUTXO(byte[] key);
+    /**
+     * 删除UTXO及其地址索引
+     * Delete the UTXO and its address index.
+     *
+     * @param key     交易hash + 输出序号/tx hash + output index
+     * @param address UTXO所属地址/owner address of the UTXO
+     */
+    Result deleteUTXO(byte[] key, byte[] address);
 
-    Result batchDeleteUTXO(Set<byte[]> utxos);
+    /**
+     * @param utxos key为交易hash + 输出序号，value为UTXO所属地址/the key is tx hash + output index, the value is the owner address
+     */
+    Result batchDeleteUTXO(Map<byte[], byte[]> utxos);
 
     Collection<Entry<byte[], byte[]>> loadAllCoinList();
 
-    Result batchSaveAndDeleteUTXO(List<Entry<byte[], byte[]>> utxosToSave, List<byte[]> utxosToDelete);
+    /**
+     * 按地址前缀读取该地址的所有本地UTXO，key为交易hash + 输出序号，value为coin
+     * Read all local UTXOs of the address by key prefix, the key is tx hash + output index, the value is the coin.
+     *
+     * @param address 账户地址/account address
+     * @return
+     */
+    List<Entry<byte[], byte[]>> loadCoinListByAddress(byte[] address);
+
+    /**
+     * @param utxosToSave   key为交易hash + 输出序号，value为coin/the key is tx hash + output index, the value is the coin
+     * @param utxosToDelete key为交易hash + 输出序号，value为UTXO所属地址/the key is tx hash + output index, the value is the owner address
+     */
+    Result batchSaveAndDeleteUTXO(List<Entry<byte[], byte[]>> utxosToSave, List<Entry<byte[], byte[]>> utxosToDelete);
 
     byte[] getUtxoBytes(byte[] owner);
 
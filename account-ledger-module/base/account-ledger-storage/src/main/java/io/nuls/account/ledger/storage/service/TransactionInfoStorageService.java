@@ -25,6 +25,7 @@
 package io.nuls.account.ledger.storage.service;
 
 import io.nuls.account.ledger.storage.po.TransactionInfoPo;
+import io.nuls.db.model.Entry;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.Result;
 
@@ -38,6 +39,12 @@ public interface TransactionInfoStorageService {
 
     Result saveTransactionInfo(byte[] key, TransactionInfoPo tx);
 
+    /**
+     * 批量保存交易信息，一次写入
+     * Save a batch of transaction infos in one write.
+     */
+    Result batchSaveTransactionInfo(List<Entry<byte[], TransactionInfoPo>> infoList);
+
     Result deleteTransactionInfo(byte[] infoKey);
 
     List<TransactionInfoPo> getTransactionInfoListByAddress(byte[] address) throws NulsException;
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.account.ledger.storage.service.impl;
+
+import io.nuls.account.ledger.storage.constant.AccountLedgerStorageConstant;
+import io.nuls.account.ledger.storage.service.LedgerImportStorageService;
+import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.service.BatchOperation;
+import io.nuls.db.service.DBService;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.exception.NulsRuntimeException;
+import io.nuls.kernel.lite.annotation.Autowired;
+import io.nuls.kernel.lite.annotation.Component;
+import io.nuls.kernel.lite.core.bean.InitializingBean;
+import io.nuls.kernel.model.Result;
+import io.nuls.kernel.utils.SerializeUtils;
+
+import java.util.List;
+
+/**
+ * 账本导入进度的存储
+ * Storage of the ledger import checkpoints.
+ */
+@Component
+public class LedgerImportStorageServiceImpl implements LedgerImportStorageService, InitializingBean {
+
+    @Autowired
+    private DBService dbService;
+
+    @Override
+    public void afterPropertiesSet() throws NulsException {
+        Result result = dbService.createArea(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_IMPORT);
+        if (result.isFailed() && !DBErrorCode.DB_AREA_EXIST.equals(result.getErrorCode())) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
+    }
+
+    @Override
+    public Long getImportHeight(byte[] address) {
+        byte[] bytes = dbService.get(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_IMPORT, address);
+        if (bytes == null) {
+            return null;
+        }
+        return SerializeUtils.readInt64LE(bytes, 0);
+    }
+
+    @Override
+    public Result saveImportHeight(List<byte[]> addresses, long height) {
+        BatchOperation batch = dbService.createWriteBatch(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_IMPORT);
+        byte[] heightBytes = SerializeUtils.uint64ToByteArray(height);
+        for (byte[] address : addresses) {
+            batch.put(address, heightBytes);
+        }
+        return batch.executeBatch();
+    }
+
+    @Override
+    public Result deleteImportHeight(List<byte[]> addresses) {
+        BatchOperation batch = dbService.createWriteBatch(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_IMPORT);
+        for (byte[] address : addresses) {
+            batch.delete(address);
+        }
+        return batch.executeBatch();
+    }
+}
@@ -26,11 +26,12 @@ package io.nuls.account.ledger.storage.service.impl;
 
 import io.nuls.account.ledger.storage.constant.AccountLedgerStorageConstant;
 import io.nuls.account.ledger.storage.service.LocalUtxoStorageService;
+import io.nuls.core.tools.array.ArraysTool;
 import io.nuls.core.tools.log.Log;
 import io.nuls.db.constant.DBErrorCode;
 import io.nuls.db.model.Entry;
-import io.nuls.db.service.BatchOperation;
 import io.nuls.db.service.DBService;
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.lite.annotation.Autowired;
@@ -40,10 +41,15 @@ import io.nuls.kernel.model.Coin;
 import io.nuls.kernel.model.Result;
 import io.nuls.ledger.service.LedgerService;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * 本地账户的UTXO存储，同时维护按地址前缀的索引表，两张表在同一个批量操作中写入
+ * Storage of the UTXOs of local accounts, an address-prefixed index table is maintained alongside,
+ * both tables are written in the same batch.
+ *
  * @author Facjas
  */
 @Component
@@ -58,6 +64,8 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
     @Autowired
     private LedgerService ledgerService;
 
+    private static final byte[] ADDRESS_INDEX_COMPLETED_KEY = AccountLedgerStorageConstant.ADDRESS_INDEX_COMPLETED_KEY.getBytes(StandardCharsets.UTF_8);
+
     private Map<String, Entry<byte[], byte[]>> cacheMap;
 
     @Override
@@ -67,6 +75,39 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
         if (result.isFailed() && !DBErrorCode.DB_AREA_EXIST.equals(result.getErrorCode())) {
             throw new NulsRuntimeException(result.getErrorCode());
         }
+        result = dbService.createArea(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS);
+        if (result.isFailed() && !DBErrorCode.DB_AREA_EXIST.equals(result.getErrorCode())) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
+        if (dbService.get(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS, ADDRESS_INDEX_COMPLETED_KEY) == null) {
+            buildAddressIndex();
+        }
+    }
+
+    /**
+     * 索引表没有完成标记时（新建或上次重建中断），清空索引并从已有的UTXO表重建，完成标记在同一个批量操作中写入
+     * Rebuild the index from the existing UTXO table when the index has no completion marker (newly created or an
+     * interrupted rebuild). Stale index entries are removed first, the marker is written in the same batch.
+     */
+    private void buildAddressIndex() {
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        List<byte[]> indexKeyList = dbService.keyList(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS);
+        if (indexKeyList != null) {
+            for (byte[] key : indexKeyList) {
+                batch.delete(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS, key);
+            }
+        }
+        List<Entry<byte[], byte[]>> coinList = dbService.entryList(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA);
+        if (coinList != null) {
+            for (Entry<byte[], byte[]> entry : coinList) {
+                putIndex(batch, entry.getKey(), entry.getValue());
+            }
+        }
+        batch.put(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS, ADDRESS_INDEX_COMPLETED_KEY, ADDRESS_INDEX_COMPLETED_KEY);
+        Result result = batch.executeBatch();
+        if (result.isFailed()) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
     }
 
     @Override
@@ -82,9 +123,25 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
         return cacheMap.values();
     }
 
+    @Override
+    public List<Entry<byte[], byte[]>> loadCoinListByAddress(byte[] address) {
+        if (address == null) {
+            return new ArrayList<>();
+        }
+        List<Entry<byte[], byte[]>> indexList = dbService.seek(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS, address, 0, 0, false);
+        List<Entry<byte[], byte[]>> coinList = new ArrayList<>(indexList.size());
+        for (Entry<byte[], byte[]> entry : indexList) {
+            byte[] key = entry.getKey();
+            coinList.add(new Entry<>(Arrays.copyOfRange(key, address.length, key.length), entry.getValue()));
+        }
+        return coinList;
+    }
+
     @Override
     public Result saveUTXO(byte[] key, byte[] value) {
-        Result result = dbService.put(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA, key, value);
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        put(batch, key, value);
+        Result result = batch.executeBatch();
 
         if(result.isSuccess() && cacheMap != null) {
             cacheMap.put(new String(key), new Entry(key, value));
@@ -95,10 +152,10 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
 
     @Override
     public Result<Integer> batchSaveUTXO(Map<byte[], byte[]> utxos) {
-        BatchOperation batch = dbService.createWriteBatch(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA);
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
         Set<Map.Entry<byte[], byte[]>> utxosToSaveEntries = utxos.entrySet();
         for(Map.Entry<byte[], byte[]> entry : utxosToSaveEntries) {
-            batch.put(entry.getKey(), entry.getValue());
+            put(batch, entry.getKey(), entry.getValue());
         }
         Result batchResult = batch.executeBatch();
         if (batchResult.isFailed()) {
@@ -116,8 +173,10 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
     }
 
     @Override
-    public Result deleteUTXO(byte[] key) {
-        Result result = dbService.delete(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA, key);
+    public Result deleteUTXO(byte[] key, byte[] address) {
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        delete(batch, key, address);
+        Result result = batch.executeBatch();
         if(result.isSuccess() && cacheMap != null) {
             cacheMap.remove(new String(key));
         }
@@ -125,10 +184,10 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
     }
 
     @Override
-    public Result batchDeleteUTXO(Set<byte[]> utxos) {
-        BatchOperation batch = dbService.createWriteBatch(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA);
-        for (byte[] key : utxos) {
-            batch.delete(key);
+    public Result batchDeleteUTXO(Map<byte[], byte[]> utxos) {
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        for (Map.Entry<byte[], byte[]> entry : utxos.entrySet()) {
+            delete(batch, entry.getKey(), entry.getValue());
         }
         Result batchResult = batch.executeBatch();
         if (batchResult.isFailed()) {
@@ -137,7 +196,7 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
         Result result = Result.getSuccess().setData(new Integer(utxos.size()));
 
         if(result.isSuccess() && cacheMap != null) {
-            for (byte[] key : utxos) {
+            for (byte[] key : utxos.keySet()) {
                 cacheMap.remove(new String(key));
             }
         }
@@ -145,13 +204,13 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
     }
 
     @Override
-    public Result batchSaveAndDeleteUTXO(List<Entry<byte[], byte[]>> utxosToSave, List<byte[]> utxosToDelete) {
-        BatchOperation batch = dbService.createWriteBatch(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA);
-        for (byte[] key : utxosToDelete) {
-            batch.delete(key);
+    public Result batchSaveAndDeleteUTXO(List<Entry<byte[], byte[]>> utxosToSave, List<Entry<byte[], byte[]>> utxosToDelete) {
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        for (Entry<byte[], byte[]> entry : utxosToDelete) {
+            delete(batch, entry.getKey(), entry.getValue());
         }
         for(Entry<byte[], byte[]> entry : utxosToSave) {
-            batch.put(entry.getKey(), entry.getValue());
+            put(batch, entry.getKey(), entry.getValue());
         }
         Result batchResult = batch.executeBatch();
         if (batchResult.isFailed()) {
@@ -163,14 +222,55 @@ public class LocalUtxoStorageServiceImpl implements LocalUtxoStorageService, Ini
             for(Entry<byte[], byte[]> entry : utxosToSave) {
                 cacheMap.put(new String(entry.getKey()), entry);
             }
-            for (byte[] key : utxosToDelete) {
-                cacheMap.remove(new String(key));
+            for (Entry<byte[], byte[]> entry : utxosToDelete) {
+                cacheMap.remove(new String(entry.getKey()));
             }
         }
 
         return result;
     }
 
+    /**
+     * 写入UTXO及其地址索引
+     * Stage the UTXO and its address index.
+     */
+    private void put(MultiAreaBatchOperation batch, byte[] key, byte[] value) {
+        putIndex(batch, key, value);
+        batch.put(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA, key, value);
+    }
+
+    private void putIndex(MultiAreaBatchOperation batch, byte[] key, byte[] value) {
+        byte[] address = getOwnerAddress(value);
+        if (address != null) {
+            batch.put(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS, ArraysTool.concatenate(address, key), value);
+        }
+    }
+
+    /**
+     * 删除UTXO及其地址索引，地址由调用方提供
+     * Stage the deletion of the UTXO and its address index, the address is given by the caller.
+     */
+    private void delete(MultiAreaBatchOperation batch, byte[] key, byte[] address) {
+        if (address != null) {
+            batch.delete(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA_ADDRESS, ArraysTool.concatenate(address, key));
+        }
+        batch.delete(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_COINDATA, key);
+    }
+
+    private byte[] getOwnerAddress(byte[] utxoBytes) {
+        if (utxoBytes == null) {
+            return null;
+        }
+        try {
+            Coin coin = new Coin();
+            coin.parse(utxoBytes, 0);
+            return coin.getOwner();
+        } catch (NulsException e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
     @Override
     public byte[] getUtxoBytes(byte[] owner) {
         if (owner == null) {
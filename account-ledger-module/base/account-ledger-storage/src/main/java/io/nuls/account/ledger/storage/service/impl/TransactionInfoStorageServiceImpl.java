@@ -31,6 +31,8 @@ import io.nuls.account.ledger.storage.service.TransactionInfoStorageService;
 import io.nuls.core.tools.array.ArraysTool;
 import io.nuls.core.tools.log.Log;
 import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.model.Entry;
+import io.nuls.db.service.BatchOperation;
 import io.nuls.db.service.DBService;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.exception.NulsException;
@@ -38,7 +40,6 @@ import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.lite.annotation.Autowired;
 import io.nuls.kernel.lite.annotation.Component;
 import io.nuls.kernel.lite.core.bean.InitializingBean;
-import io.nuls.kernel.model.Address;
 import io.nuls.kernel.model.Result;
 import io.nuls.kernel.utils.AddressTool;
 
@@ -46,7 +47,6 @@ import javax.naming.PartialResultException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * author Facjas
@@ -75,23 +75,32 @@ public class TransactionInfoStorageServiceImpl implements TransactionInfoStorage
         }
     }
 
+    @Override
+    public Result batchSaveTransactionInfo(List<Entry<byte[], TransactionInfoPo>> infoList) {
+        BatchOperation batch = dbService.createWriteBatch(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_TX_INDEX);
+        try {
+            for (Entry<byte[], TransactionInfoPo> entry : infoList) {
+                batch.put(entry.getKey(), entry.getValue().serialize());
+            }
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(AccountLedgerErrorCode.IO_ERROR);
+        }
+        return batch.executeBatch();
+    }
+
     @Override
     public List<TransactionInfoPo> getTransactionInfoListByAddress(byte[] address) throws NulsException {
         List<TransactionInfoPo> infoPoList = new ArrayList<>();
-        Set<byte[]> keySet = dbService.keySet(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_TX_INDEX);
-        if (keySet == null || keySet.isEmpty()) {
+        // key = address + txHash，按地址前缀查询，只遍历该地址的数据
+        List<Entry<byte[], byte[]>> entryList = dbService.seek(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_TX_INDEX, address, 0, 0, false);
+        if (entryList == null || entryList.isEmpty()) {
             return infoPoList;
         }
-
-        byte[] addressKey = new byte[Address.ADDRESS_LENGTH];
-        for (byte[] key : keySet) {
-            System.arraycopy(key, 0, addressKey, 0, Address.ADDRESS_LENGTH);
-            if (java.util.Arrays.equals(addressKey, address)) {
-                byte[] values = dbService.get(AccountLedgerStorageConstant.DB_NAME_ACCOUNT_LEDGER_TX_INDEX, key);
-                TransactionInfoPo transactionInfoPo = new TransactionInfoPo();
-                transactionInfoPo.parse(values, 0);
-                infoPoList.add(transactionInfoPo);
-            }
+        for (Entry<byte[], byte[]> entry : entryList) {
+            TransactionInfoPo transactionInfoPo = new TransactionInfoPo();
+            transactionInfoPo.parse(entry.getValue(), 0);
+            infoPoList.add(transactionInfoPo);
         }
         return infoPoList;
     }
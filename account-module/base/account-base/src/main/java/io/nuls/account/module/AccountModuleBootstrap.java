@@ -26,7 +26,9 @@
 package io.nuls.account.module;
 
 import io.nuls.account.service.AccountService;
+import io.nuls.account.tx.AliasTransaction;
 import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.utils.TransactionManager;
 
 /**
  * @author: Niels Wang
@@ -37,7 +39,7 @@ public class AccountModuleBootstrap extends AbstractAccountModuleBootstrap {
      */
     @Override
     public void init() throws Exception {
-
+        TransactionManager.putTx(AliasTransaction.class, null, AliasTransaction::new);
     }
 
     /**
@@ -27,32 +27,56 @@
 package io.nuls.consensus.poc.cache;
 
 import io.nuls.cache.LimitHashMap;
+import io.nuls.consensus.poc.constant.PocConsensusConstant;
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.Coin;
 import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.OutPointKey;
 import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.NulsByteBuffer;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.*;
 
 /**
  * 交易 缓存
+ * 可打包交易按祖先交易包的手续费率（每字节手续费）从高到低排序，同费率按接收顺序排序，
+ * 并按交易hash、所花费的UTXO建立索引，总字节数超出上限时淘汰费率最低的交易
+ * <p>
+ * Transaction cache.
+ * The packable transactions are ordered by the fee per byte of their ancestor package, from high to low,
+ * transactions with the same fee rate keep their arrival order. They are indexed by hash and by the spent utxo,
+ * the lowest fee rate transactions are evicted when the total size exceeds the limit.
  *
  * @author ln
  * @date 2018/4/13
  */
 public final class TxMemoryPool {
 
-    private final static TxMemoryPool INSTANCE = new TxMemoryPool();
+    private final static TxMemoryPool INSTANCE = new TxMemoryPool(PocConsensusConstant.TX_MEMORY_POOL_MAX_BYTES);
 
-    private Queue<Transaction> txQueue;
+    private final long maxBytes;
 
-    private LimitHashMap<NulsDigestData, Transaction> orphanContainer;
+    private final Map<NulsDigestData, TxEntry> txMap = new HashMap<>();
+
+    /**
+     * 已被内存池中交易花费的UTXO
+     * The utxo spent by the transactions in the pool.
+     */
+    private final Map<OutPointKey, TxEntry> spentMap = new HashMap<>();
 
-    private TxMemoryPool() {
-        txQueue = new LinkedBlockingDeque<>();
+    private final TreeSet<TxEntry> priorityIndex = new TreeSet<>(TxEntry.PRIORITY_COMPARATOR);
 
+    private long totalBytes;
+
+    private long lastSequence;
+
+    private long firstSequence;
+
+    private LimitHashMap<NulsDigestData, Transaction> orphanContainer;
+
+    TxMemoryPool(long maxBytes) {
+        this.maxBytes = maxBytes;
 //        orphanContainer = new CacheMap<>("orphan-txs", 256, NulsDigestData.class, TxContainer.class, 3600, 0, null);
         this.orphanContainer = new LimitHashMap(200000);
     }
@@ -61,38 +85,128 @@ public final class TxMemoryPool {
         return INSTANCE;
     }
 
-    public boolean addInFirst(Transaction tx, boolean isOrphan) {
-        try {
-            if (tx == null) {
-                return false;
+    /**
+     * 放入交易，同费率时排在最前面，用于打包失败后放回交易
+     * Add a transaction ahead of the ones with the same fee rate, used to put back transactions that were not packed.
+     */
+    public synchronized boolean addInFirst(Transaction tx, boolean isOrphan) {
+        if (tx == null) {
+            return false;
+        }
+        if (isOrphan) {
+            orphanContainer.put(tx.getHash(), tx);
+            return true;
+        }
+        return addEntry(tx, --firstSequence);
+    }
+
+    /**
+     * 放入交易，花费了池中交易已花费的UTXO、祖先交易过多或因费率过低被淘汰时返回false
+     * Add a transaction, returns false when it spends a utxo already spent in the pool,
+     * has too many unconfirmed ancestors, or is evicted for its low fee rate.
+     */
+    public synchronized boolean add(Transaction tx, boolean isOrphan) {
+        if (tx == null) {
+            return false;
+        }
+        if (isOrphan) {
+            orphanContainer.put(tx.getHash(), tx);
+            return true;
+        }
+        return addEntry(tx, ++lastSequence);
+    }
+
+    private boolean addEntry(Transaction tx, long sequence) {
+        NulsDigestData hash = tx.getHash();
+        if (txMap.containsKey(hash)) {
+            return false;
+        }
+        List<Coin> froms = tx.getCoinData() == null ? null : tx.getCoinData().getFrom();
+        Set<TxEntry> parents = new HashSet<>();
+        if (froms != null) {
+            for (Coin from : froms) {
+                if (spentMap.containsKey(OutPointKey.wrap(from.getOwner()))) {
+                    return false;
+                }
+                TxEntry parent = txMap.get(getSpentTxHash(from.getOwner()));
+                if (parent != null) {
+                    parents.add(parent);
+                }
             }
-            //check Repeatability
-            if (isOrphan) {
-                NulsDigestData hash = tx.getHash();
-                orphanContainer.put(hash, tx);
-            } else {
-                ((LinkedBlockingDeque) txQueue).addFirst(tx);
+        }
+        TxEntry entry = new TxEntry(tx, sequence);
+        entry.parents = parents;
+        Set<TxEntry> ancestors = getAncestors(entry);
+        if (ancestors.size() > PocConsensusConstant.TX_MEMORY_POOL_MAX_ANCESTORS) {
+            return false;
+        }
+        for (TxEntry ancestor : ancestors) {
+            entry.ancestorFee += ancestor.fee;
+            entry.ancestorSize += ancestor.size;
+        }
+        for (TxEntry parent : parents) {
+            parent.children.add(entry);
+        }
+        if (froms != null) {
+            for (Coin from : froms) {
+                spentMap.put(OutPointKey.wrap(from.getOwner()), entry);
             }
-            return true;
-        } finally {
         }
+        txMap.put(hash, entry);
+        priorityIndex.add(entry);
+        totalBytes += entry.size;
+        boolean kept = trim(entry);
+        if (kept) {
+            notifyAll();
+        }
+        return kept;
     }
 
-    public boolean add(Transaction tx, boolean isOrphan) {
-        try {
-            if (tx == null) {
+    /**
+     * 等待池中出现可打包的交易，最多等待指定的毫秒数，放入交易时被唤醒
+     * Wait until the pool holds a packable transaction, at most the given milliseconds; adding a transaction wakes it up.
+     *
+     * @return 池中是否有交易 / whether the pool holds a transaction
+     */
+    public synchronized boolean waitForTx(long timeoutMillis) throws InterruptedException {
+        long end = System.currentTimeMillis() + timeoutMillis;
+        while (txMap.isEmpty()) {
+            long remain = end - System.currentTimeMillis();
+            if (remain <= 0L) {
                 return false;
             }
-            //check Repeatability
-            if (isOrphan) {
-                NulsDigestData hash = tx.getHash();
-                orphanContainer.put(hash, tx);
-            } else {
-                txQueue.offer(tx);
+            wait(remain);
+        }
+        return true;
+    }
+
+    /**
+     * 淘汰费率最低且没有子交易的交易，直到总字节数不超过上限
+     * Evict the lowest fee rate transactions without children until the total size fits the limit.
+     *
+     * @return 刚放入的交易是否仍在池中 / whether the newly added transaction is still in the pool
+     */
+    private boolean trim(TxEntry added) {
+        boolean kept = true;
+        while (totalBytes > maxBytes) {
+            TxEntry victim = null;
+            Iterator<TxEntry> it = priorityIndex.descendingIterator();
+            while (it.hasNext()) {
+                TxEntry entry = it.next();
+                if (entry.children.isEmpty()) {
+                    victim = entry;
+                    break;
+                }
+            }
+            if (victim == null) {
+                break;
             }
-            return true;
-        } finally {
+            if (victim == added) {
+                kept = false;
+            }
+            removeEntry(victim);
         }
+        return kept;
     }
 
     /**
@@ -103,58 +217,239 @@ public final class TxMemoryPool {
      * @return TxContainer
      */
     public Transaction get() {
-        return txQueue.poll();
+        return get(Long.MAX_VALUE);
+    }
+
+    /**
+     * 获取祖先交易包费率最高且不超过指定大小的一笔交易，获取之后从内存池中移除
+     * 若该交易依赖池中其它交易，则先返回其最早的祖先交易，保证打包顺序有效
+     * <p>
+     * Get the transaction with the highest ancestor package fee rate whose size does not exceed the given size,
+     * removed from the memory pool after acquisition. If it depends on other transactions in the pool,
+     * its earliest ancestor is returned first so the packing order stays valid.
+     *
+     * @param maxSize 交易的最大字节数 / the max size of the transaction
+     * @return 没有合适的交易时返回null / null if there is no suitable transaction
+     */
+    public synchronized Transaction get(long maxSize) {
+        for (TxEntry entry : priorityIndex) {
+            TxEntry root = entry;
+            while (!root.parents.isEmpty()) {
+                root = Collections.min(root.parents, TxEntry.SEQUENCE_COMPARATOR);
+            }
+            if (root.size <= maxSize) {
+                removeEntry(root);
+                return root.tx;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按打包优先级获取所有交易
+     * Get all transactions in packing priority order.
+     */
+    public synchronized List<Transaction> getAll() {
+        List<Transaction> txs = new ArrayList<>(priorityIndex.size());
+        for (TxEntry entry : priorityIndex) {
+            txs.add(entry.tx);
+        }
+        return txs;
     }
 
-    public List<Transaction> getAll() {
-        List<Transaction> txs = new ArrayList<>();
-        Iterator<Transaction> it = txQueue.iterator();
-        while (it.hasNext()) {
-            txs.add(it.next());
+    /**
+     * 按打包优先级获取排在最前面的交易，不从内存池中移除，数量或总字节数到达上限时停止
+     * Get the top transactions in packing priority order without removing them,
+     * stops once the count or the total size reaches its limit.
+     *
+     * @param maxCount 交易的最大数量 / the max count of the transactions
+     * @param maxSize  交易的最大总字节数 / the max total size of the transactions
+     */
+    public synchronized List<Transaction> getTop(int maxCount, long maxSize) {
+        List<Transaction> txs = new ArrayList<>(Math.min(maxCount, priorityIndex.size()));
+        long totalSize = 0L;
+        for (TxEntry entry : priorityIndex) {
+            totalSize += entry.size;
+            if (txs.size() >= maxCount || totalSize > maxSize) {
+                break;
+            }
+            txs.add(entry.tx);
         }
         return txs;
     }
 
-    public List<Transaction> getAllOrphan() {
+    public synchronized List<Transaction> getAllOrphan() {
         return new ArrayList<>(orphanContainer.values());
     }
 
-    public boolean remove(NulsDigestData hash) {
-//        TxContainer obj = container.remove(hash);
-//        if (obj != null) {
-//            txHashQueue.remove(hash);
-//        } else {
+    /**
+     * 获取内存池中花费了指定UTXO的交易，用于冲突检测
+     * Get the transaction in the pool that spends the given utxo, used to detect conflicts.
+     *
+     * @param owner 被花费的UTXO的key / the key of the spent utxo
+     */
+    public synchronized Transaction getSpendingTx(byte[] owner) {
+        TxEntry entry = spentMap.get(OutPointKey.wrap(owner));
+        return entry == null ? null : entry.tx;
+    }
+
+    public synchronized Transaction getTx(NulsDigestData hash) {
+        TxEntry entry = txMap.get(hash);
+        return entry == null ? null : entry.tx;
+    }
+
+    /**
+     * 移除交易，池中依赖它的交易一并移除
+     * Remove the transaction, the transactions in the pool that depend on it are removed too.
+     */
+    public synchronized boolean remove(NulsDigestData hash) {
         orphanContainer.remove(hash);
-//        }
+        TxEntry entry = txMap.get(hash);
+        if (entry != null) {
+            removeWithDescendants(entry);
+        }
         return true;
     }
 
-    public boolean exist(NulsDigestData hash) {
-        return /*container.containsKey(hash) || */orphanContainer.containsKey(hash);
+    public synchronized boolean exist(NulsDigestData hash) {
+        return txMap.containsKey(hash) || orphanContainer.containsKey(hash);
     }
 
-    public void clear() {
-        try {
-            txQueue.clear();
+    public synchronized void clear() {
+        txMap.clear();
+        spentMap.clear();
+        priorityIndex.clear();
+        totalBytes = 0L;
+        orphanContainer.clear();
+    }
 
-            orphanContainer.clear();
-        } finally {
-        }
+    public synchronized int size() {
+        return txMap.size();
     }
 
-    public int size() {
-        return txQueue.size();
+    public synchronized int getPoolSize() {
+        return txMap.size();
     }
 
-    public int getPoolSize() {
-        return txQueue.size();
+    public synchronized long getPoolBytes() {
+        return totalBytes;
     }
 
-    public int getOrphanPoolSize() {
+    public synchronized int getOrphanPoolSize() {
         return orphanContainer.size();
     }
 
-    public void removeOrphan(NulsDigestData hash) {
+    public synchronized void removeOrphan(NulsDigestData hash) {
         this.orphanContainer.remove(hash);
     }
+
+    private void removeWithDescendants(TxEntry entry) {
+        for (TxEntry child : new ArrayList<>(entry.children)) {
+            removeWithDescendants(child);
+        }
+        removeEntry(entry);
+    }
+
+    /**
+     * 移除一笔交易，并从其后代交易的祖先交易包中扣除
+     * Remove a transaction and subtract it from the ancestor packages of its descendants.
+     */
+    private void removeEntry(TxEntry entry) {
+        if (txMap.remove(entry.tx.getHash()) == null) {
+            return;
+        }
+        priorityIndex.remove(entry);
+        totalBytes -= entry.size;
+        List<Coin> froms = entry.tx.getCoinData() == null ? null : entry.tx.getCoinData().getFrom();
+        if (froms != null) {
+            for (Coin from : froms) {
+                spentMap.remove(OutPointKey.wrap(from.getOwner()));
+            }
+        }
+        for (TxEntry parent : entry.parents) {
+            parent.children.remove(entry);
+        }
+        Set<TxEntry> descendants = new HashSet<>();
+        Deque<TxEntry> queue = new ArrayDeque<>(entry.children);
+        while (!queue.isEmpty()) {
+            TxEntry descendant = queue.poll();
+            if (descendants.add(descendant)) {
+                queue.addAll(descendant.children);
+            }
+        }
+        for (TxEntry child : entry.children) {
+            child.parents.remove(entry);
+        }
+        for (TxEntry descendant : descendants) {
+            priorityIndex.remove(descendant);
+            descendant.ancestorFee -= entry.fee;
+            descendant.ancestorSize -= entry.size;
+            priorityIndex.add(descendant);
+        }
+    }
+
+    private Set<TxEntry> getAncestors(TxEntry entry) {
+        Set<TxEntry> ancestors = new HashSet<>();
+        Deque<TxEntry> queue = new ArrayDeque<>(entry.parents);
+        while (!queue.isEmpty() && ancestors.size() <= PocConsensusConstant.TX_MEMORY_POOL_MAX_ANCESTORS) {
+            TxEntry ancestor = queue.poll();
+            if (ancestors.add(ancestor)) {
+                queue.addAll(ancestor.parents);
+            }
+        }
+        return ancestors;
+    }
+
+    private static NulsDigestData getSpentTxHash(byte[] owner) {
+        if (owner == null || owner.length < NulsDigestData.HASH_LENGTH) {
+            return null;
+        }
+        NulsDigestData hash = new NulsDigestData();
+        try {
+            hash.parse(new NulsByteBuffer(owner));
+        } catch (NulsException e) {
+            Log.error(e);
+            return null;
+        }
+        return hash;
+    }
+
+    private static final class TxEntry {
+
+        private static final Comparator<TxEntry> SEQUENCE_COMPARATOR = Comparator.comparingLong(entry -> entry.sequence);
+
+        /**
+         * 祖先交易包费率高的在前，费率相同时先收到的在前
+         * Higher ancestor package fee rate first, the earlier received first for the same fee rate.
+         */
+        private static final Comparator<TxEntry> PRIORITY_COMPARATOR = (o1, o2) -> {
+            int result = Double.compare(o2.getPackageFeeRate(), o1.getPackageFeeRate());
+            if (result != 0) {
+                return result;
+            }
+            return Long.compare(o1.sequence, o2.sequence);
+        };
+
+        private final Transaction tx;
+        private final long sequence;
+        private final long fee;
+        private final int size;
+
+        private long ancestorFee;
+        private long ancestorSize;
+
+        private Set<TxEntry> parents;
+        private final Set<TxEntry> children = new HashSet<>();
+
+        private TxEntry(Transaction tx, long sequence) {
+            this.tx = tx;
+            this.sequence = sequence;
+            this.fee = Math.max(0L, tx.getFee().getValue());
+            this.size = Math.max(1, tx.size());
+        }
+
+        private double getPackageFeeRate() {
+            return (double) (fee + ancestorFee) / (size + ancestorSize);
+        }
+    }
 }
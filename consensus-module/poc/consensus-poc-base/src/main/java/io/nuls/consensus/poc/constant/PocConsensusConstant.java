@@ -91,6 +91,18 @@ public interface PocConsensusConstant {
      */
     int MAXINUM_CONTINUOUS_YELLOW_NUMBER = 100;
 
+    /**
+     * Maximum total size of the transactions kept in the memory pool, in bytes
+     * 交易内存池中交易的最大总字节数，超出时淘汰费率最低的交易
+     */
+    long TX_MEMORY_POOL_MAX_BYTES = 300 * 1024 * 1024L;
+
+    /**
+     * Maximum count of unconfirmed ancestors a transaction in the memory pool can have
+     * 内存池中一笔交易最多可以依赖的未确认祖先交易数
+     */
+    int TX_MEMORY_POOL_MAX_ANCESTORS = 1000;
+
     /**
      * reset system time interval , unit minutes
      */
@@ -79,11 +79,9 @@ public class ChainContainer implements Cloneable {
         }
 
         List<Block> blockList = chain.getBlockList();
-        List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
 
         List<Agent> agentList = chain.getAgentList();
         List<Deposit> depositList = chain.getDepositList();
-        List<PunishLogPo> yellowList = chain.getYellowPunishList();
         List<PunishLogPo> redList = chain.getRedPunishList();
 
         long height = block.getHeader().getHeight();
@@ -116,7 +114,7 @@ public class ChainContainer implements Cloneable {
                 deposit.setBlockHeight(height);
                 deposit.setTxHash(depositTx.getHash());
                 deposit.setTime(depositTx.getTime());
-                depositList.add(deposit);
+                chain.addDeposit(deposit);
 
             } else if (txType == ConsensusConstant.TX_TYPE_CANCEL_DEPOSIT) {
 
@@ -141,10 +139,8 @@ public class ChainContainer implements Cloneable {
 
                 NulsDigestData agentHash = stopAgentTx.getTxData().getCreateTxHash();
 
-                Iterator<Deposit> it = depositList.iterator();
-                while (it.hasNext()) {
-                    Deposit deposit = it.next();
-                    if (deposit.getAgentHash().equals(agentHash) && deposit.getDelHeight() == -1L) {
+                for (Deposit deposit : chain.getDepositListByAgentHash(agentHash)) {
+                    if (deposit.getDelHeight() == -1L) {
                         deposit.setDelHeight(height);
                     }
                 }
@@ -178,10 +174,7 @@ public class ChainContainer implements Cloneable {
                         continue;
                     }
                     agent.setDelHeight(height);
-                    for (Deposit deposit : depositList) {
-                        if (!deposit.getAgentHash().equals(agent.getTxHash())) {
-                            continue;
-                        }
+                    for (Deposit deposit : chain.getDepositListByAgentHash(agent.getTxHash())) {
                         if (deposit.getDelHeight() > 0) {
                             continue;
                         }
@@ -197,14 +190,14 @@ public class ChainContainer implements Cloneable {
                     po.setRoundIndex(roundData.getRoundIndex());
                     po.setTime(tx.getTime());
                     po.setType(PunishType.YELLOW.getCode());
-                    yellowList.add(po);
+                    chain.addYellowPunish(po);
                 }
             }
         }
 
         chain.setEndBlockHeader(block.getHeader());
         blockList.add(block);
-        blockHeaderList.add(block.getHeader());
+        chain.addBlockHeader(block.getHeader());
 
         return true;
     }
@@ -454,7 +447,7 @@ public class ChainContainer implements Cloneable {
         List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
 
         chain.setEndBlockHeader(blockHeaderList.get(blockHeaderList.size() - 2));
-        BlockHeader rollbackBlockHeader = blockHeaderList.remove(blockHeaderList.size() - 1);
+        BlockHeader rollbackBlockHeader = chain.removeLastBlockHeader();
 
         // update txs
         List<Agent> agentList = chain.getAgentList();
@@ -484,7 +477,7 @@ public class ChainContainer implements Cloneable {
             }
 
             if (deposit.getBlockHeight() == height) {
-                depositList.remove(i);
+                chain.removeDeposit(i);
             }
         }
 
@@ -494,7 +487,7 @@ public class ChainContainer implements Cloneable {
                 break;
             }
             if (tempYellow.getHeight() == height) {
-                yellowList.remove(i);
+                chain.removeYellowPunish(i);
             }
         }
 
@@ -329,7 +329,7 @@ public class RoundManager {
 
     private List<Deposit> getDepositListByAgentId(NulsDigestData agentHash, long startBlockHeight) {
 
-        List<Deposit> depositList = chain.getDepositList();
+        List<Deposit> depositList = chain.getDepositListByAgentHash(agentHash);
         List<Deposit> resultList = new ArrayList<>();
 
         for (int i = depositList.size() - 1; i >= 0; i--) {
@@ -340,9 +340,6 @@ public class RoundManager {
             if (deposit.getBlockHeight() > startBlockHeight || deposit.getBlockHeight() < 0L) {
                 continue;
             }
-            if (!deposit.getAgentHash().equals(agentHash)) {
-                continue;
-            }
             resultList.add(deposit);
         }
 
@@ -384,24 +381,23 @@ public class RoundManager {
 
     private long getPunishCountByAddress(byte[] address, long roundStart, long roundEnd, int code) {
         long count = 0;
-        List<PunishLogPo> punishList = new ArrayList<>(chain.getYellowPunishList());
-
         if (code == PunishType.RED.getCode()) {
-            punishList = chain.getRedPunishList();
-        }
+            List<PunishLogPo> punishList = chain.getRedPunishList();
+            for (int i = punishList.size() - 1; i >= 0; i--) {
+                PunishLogPo punish = punishList.get(i);
 
-        for (int i = punishList.size() - 1; i >= 0; i--) {
-            PunishLogPo punish = punishList.get(i);
-
-            if (punish.getRoundIndex() > roundEnd) {
-                continue;
-            }
-            if (punish.getRoundIndex() < roundStart) {
-                break;
-            }
-            if (Arrays.equals(punish.getAddress(), address)) {
-                count++;
+                if (punish.getRoundIndex() > roundEnd) {
+                    continue;
+                }
+                if (punish.getRoundIndex() < roundStart) {
+                    break;
+                }
+                if (Arrays.equals(punish.getAddress(), address)) {
+                    count++;
+                }
             }
+        } else {
+            count = chain.getYellowPunishCount(address, roundStart, roundEnd);
         }
         //每一轮的惩罚都有可能包含上一轮次的惩罚记录，即计算从a到a+99轮的惩罚记录时，a轮的惩罚中可能是惩罚某个地址在a-1轮未出块，导致100轮最多可能有101个惩罚记录，在这里处理下
         //Each round of punishment is likely to contain a rounds punishment record, calculated from a to a + 99 rounds of punishment record,
@@ -414,24 +410,7 @@ public class RoundManager {
     }
 
     private long getBlockCountByAddress(byte[] packingAddress, long roundStart, long roundEnd) {
-        long count = 0;
-        List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
-
-        for (int i = blockHeaderList.size() - 1; i >= 0; i--) {
-            BlockHeader blockHeader = blockHeaderList.get(i);
-            BlockRoundData roundData = new BlockRoundData(blockHeader.getExtend());
-
-            if (roundData.getRoundIndex() > roundEnd) {
-                continue;
-            }
-            if (roundData.getRoundIndex() < roundStart) {
-                break;
-            }
-            if (Arrays.equals(blockHeader.getPackingAddress(), packingAddress)) {
-                count++;
-            }
-        }
-        return count;
+        return chain.getBlockCount(packingAddress, roundStart, roundEnd);
     }
 
     private BlockHeader getFirstBlockHeightOfPreRoundByRoundIndex(long roundIndex) {
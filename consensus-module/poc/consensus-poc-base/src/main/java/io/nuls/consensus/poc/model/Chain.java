@@ -32,11 +32,10 @@ import io.nuls.consensus.poc.protocol.entity.Deposit;
 import io.nuls.core.tools.str.StringUtils;
 import io.nuls.kernel.model.Block;
 import io.nuls.kernel.model.BlockHeader;
-import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.model.NulsDigestData;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.nio.ByteBuffer;
+import java.util.*;
 
 /**
  * @author ln
@@ -54,6 +53,20 @@ public class Chain implements Cloneable {
     private List<PunishLogPo> yellowPunishList;
     private List<PunishLogPo> redPunishList;
 
+    /**
+     * 按代理节点hash索引的委托、按轮次索引的出块数和黄牌数，由add/remove方法增量维护，
+     * 列表被直接修改或替换后在下次查询时重建
+     * Deposits indexed by agent hash, block counts and yellow punish counts indexed by round.
+     * They are maintained incrementally by the add/remove methods, and rebuilt on the next query
+     * after a list was modified directly or replaced.
+     */
+    private IndexGuard<Deposit> depositGuard = new IndexGuard<>();
+    private Map<NulsDigestData, List<Deposit>> depositIndex = new HashMap<>();
+    private IndexGuard<BlockHeader> headerGuard = new IndexGuard<>();
+    private RoundCounter blockCounter = new RoundCounter();
+    private IndexGuard<PunishLogPo> yellowPunishGuard = new IndexGuard<>();
+    private RoundCounter yellowPunishCounter = new RoundCounter();
+
     public Chain() {
         blockHeaderList = new ArrayList<>();
         blockList = new ArrayList<>();
@@ -140,9 +153,132 @@ public class Chain implements Cloneable {
         this.redPunishList = redPunishList;
     }
 
+    public synchronized void addDeposit(Deposit deposit) {
+        boolean indexed = depositGuard.matches(depositList);
+        depositList.add(deposit);
+        if (indexed) {
+            indexDeposit(deposit);
+            depositGuard.update(depositList);
+        }
+    }
+
+    public synchronized void removeDeposit(int index) {
+        boolean indexed = depositGuard.matches(depositList);
+        Deposit deposit = depositList.remove(index);
+        if (indexed) {
+            depositIndex.get(deposit.getAgentHash()).remove(deposit);
+            depositGuard.update(depositList);
+        }
+    }
+
+    /**
+     * 获取指定代理节点的委托，按加入顺序排列，包括已退出的委托
+     * Get the deposits of the agent in the order they were added, including the cancelled ones.
+     */
+    public synchronized List<Deposit> getDepositListByAgentHash(NulsDigestData agentHash) {
+        if (depositList == null) {
+            return new ArrayList<>();
+        }
+        if (!depositGuard.matches(depositList)) {
+            depositIndex.clear();
+            for (Deposit deposit : depositList) {
+                indexDeposit(deposit);
+            }
+            depositGuard.update(depositList);
+        }
+        List<Deposit> list = depositIndex.get(agentHash);
+        return list == null ? new ArrayList<>() : new ArrayList<>(list);
+    }
+
+    private void indexDeposit(Deposit deposit) {
+        List<Deposit> list = depositIndex.get(deposit.getAgentHash());
+        if (list == null) {
+            list = new ArrayList<>();
+            depositIndex.put(deposit.getAgentHash(), list);
+        }
+        list.add(deposit);
+    }
+
+    public synchronized void addBlockHeader(BlockHeader header) {
+        boolean indexed = headerGuard.matches(blockHeaderList);
+        blockHeaderList.add(header);
+        if (indexed) {
+            blockCounter.add(new BlockRoundData(header.getExtend()).getRoundIndex(), header.getPackingAddress());
+            headerGuard.update(blockHeaderList);
+        }
+    }
+
+    public synchronized BlockHeader removeLastBlockHeader() {
+        boolean indexed = headerGuard.matches(blockHeaderList);
+        BlockHeader header = blockHeaderList.remove(blockHeaderList.size() - 1);
+        if (indexed) {
+            blockCounter.remove(new BlockRoundData(header.getExtend()).getRoundIndex(), header.getPackingAddress());
+            headerGuard.update(blockHeaderList);
+        }
+        return header;
+    }
+
+    /**
+     * 统计打包地址在[roundStart, roundEnd]轮次内的出块数
+     * Count the blocks packed by the address in the rounds [roundStart, roundEnd].
+     */
+    public synchronized long getBlockCount(byte[] packingAddress, long roundStart, long roundEnd) {
+        if (!headerGuard.matches(blockHeaderList)) {
+            blockCounter.clear();
+            for (BlockHeader header : blockHeaderList) {
+                blockCounter.add(new BlockRoundData(header.getExtend()).getRoundIndex(), header.getPackingAddress());
+            }
+            headerGuard.update(blockHeaderList);
+        }
+        return blockCounter.count(packingAddress, roundStart, roundEnd);
+    }
+
+    public synchronized void addYellowPunish(PunishLogPo po) {
+        boolean indexed = yellowPunishGuard.matches(yellowPunishList);
+        yellowPunishList.add(po);
+        if (indexed) {
+            yellowPunishCounter.add(po.getRoundIndex(), po.getAddress());
+            yellowPunishGuard.update(yellowPunishList);
+        }
+    }
+
+    public synchronized void removeYellowPunish(int index) {
+        boolean indexed = yellowPunishGuard.matches(yellowPunishList);
+        PunishLogPo po = yellowPunishList.remove(index);
+        if (indexed) {
+            yellowPunishCounter.remove(po.getRoundIndex(), po.getAddress());
+            yellowPunishGuard.update(yellowPunishList);
+        }
+    }
+
+    /**
+     * 统计地址在[roundStart, roundEnd]轮次内的黄牌数
+     * Count the yellow punishes of the address in the rounds [roundStart, roundEnd].
+     */
+    public synchronized long getYellowPunishCount(byte[] address, long roundStart, long roundEnd) {
+        if (yellowPunishList == null) {
+            return 0L;
+        }
+        if (!yellowPunishGuard.matches(yellowPunishList)) {
+            yellowPunishCounter.clear();
+            for (PunishLogPo po : yellowPunishList) {
+                yellowPunishCounter.add(po.getRoundIndex(), po.getAddress());
+            }
+            yellowPunishGuard.update(yellowPunishList);
+        }
+        return yellowPunishCounter.count(address, roundStart, roundEnd);
+    }
+
     @Override
     protected Object clone() throws CloneNotSupportedException {
-        return super.clone();
+        Chain chain = (Chain) super.clone();
+        chain.depositGuard = new IndexGuard<>();
+        chain.depositIndex = new HashMap<>();
+        chain.headerGuard = new IndexGuard<>();
+        chain.blockCounter = new RoundCounter();
+        chain.yellowPunishGuard = new IndexGuard<>();
+        chain.yellowPunishCounter = new RoundCounter();
+        return chain;
     }
 
     public Block getBestBlock() {
@@ -151,4 +287,84 @@ public class Chain implements Cloneable {
         }
         return blockList.get(blockList.size() - 1);
     }
+
+    /**
+     * 记录索引对应的列表状态，列表被替换或在索引之外被修改时不再匹配
+     * Remembers the state of the list an index was built from, no longer matches once the list is replaced
+     * or modified outside of the index.
+     */
+    private static final class IndexGuard<T> {
+        private List<T> list;
+        private int size;
+        private T last;
+
+        private boolean matches(List<T> current) {
+            if (current == null || current != list || current.size() != size) {
+                return false;
+            }
+            return size == 0 || current.get(size - 1) == last;
+        }
+
+        private void update(List<T> current) {
+            this.list = current;
+            this.size = current.size();
+            this.last = size == 0 ? null : current.get(size - 1);
+        }
+    }
+
+    /**
+     * 按轮次统计每个地址的次数
+     * Counts per address per round.
+     */
+    private static final class RoundCounter {
+        private final TreeMap<Long, Map<ByteBuffer, Integer>> counts = new TreeMap<>();
+
+        private void add(long roundIndex, byte[] address) {
+            Map<ByteBuffer, Integer> roundCounts = counts.get(roundIndex);
+            if (roundCounts == null) {
+                roundCounts = new HashMap<>();
+                counts.put(roundIndex, roundCounts);
+            }
+            roundCounts.merge(ByteBuffer.wrap(address), 1, Integer::sum);
+        }
+
+        private void remove(long roundIndex, byte[] address) {
+            Map<ByteBuffer, Integer> roundCounts = counts.get(roundIndex);
+            if (roundCounts == null) {
+                return;
+            }
+            ByteBuffer key = ByteBuffer.wrap(address);
+            Integer count = roundCounts.get(key);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                roundCounts.put(key, count - 1);
+            } else {
+                roundCounts.remove(key);
+                if (roundCounts.isEmpty()) {
+                    counts.remove(roundIndex);
+                }
+            }
+        }
+
+        private long count(byte[] address, long roundStart, long roundEnd) {
+            if (roundStart > roundEnd) {
+                return 0L;
+            }
+            ByteBuffer key = ByteBuffer.wrap(address);
+            long count = 0L;
+            for (Map<ByteBuffer, Integer> roundCounts : counts.subMap(roundStart, true, roundEnd, true).values()) {
+                Integer roundCount = roundCounts.get(key);
+                if (roundCount != null) {
+                    count += roundCount;
+                }
+            }
+            return count;
+        }
+
+        private void clear() {
+            counts.clear();
+        }
+    }
 }
@@ -29,11 +29,13 @@ import io.nuls.consensus.poc.config.ConsensusConfig;
 import io.nuls.consensus.module.AbstractConsensusModule;
 import io.nuls.consensus.poc.constant.ConsensusStatus;
 import io.nuls.consensus.poc.context.ConsensusStatusContext;
+import io.nuls.consensus.poc.protocol.tx.*;
 import io.nuls.consensus.poc.scheduler.ConsensusScheduler;
 import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.constant.ModuleStatusEnum;
 import io.nuls.kernel.thread.BaseThread;
 import io.nuls.kernel.thread.manager.TaskManager;
+import io.nuls.kernel.utils.TransactionManager;
 import io.nuls.protocol.constant.ProtocolConstant;
 
 import java.util.List;
@@ -47,6 +49,12 @@ public class PocConsensusModuleBootstrap extends AbstractConsensusModule {
     public void init() throws Exception {
         ConsensusStatusContext.setConsensusStatus(ConsensusStatus.INITING);
         ConsensusConfig.initConfiguration();
+        TransactionManager.putTx(CreateAgentTransaction.class, null, CreateAgentTransaction::new);
+        TransactionManager.putTx(DepositTransaction.class, null, DepositTransaction::new);
+        TransactionManager.putTx(CancelDepositTransaction.class, null, CancelDepositTransaction::new);
+        TransactionManager.putTx(StopAgentTransaction.class, null, StopAgentTransaction::new);
+        TransactionManager.putTx(YellowPunishTransaction.class, null, YellowPunishTransaction::new);
+        TransactionManager.putTx(RedPunishTransaction.class, null, RedPunishTransaction::new);
     }
 
     @Override
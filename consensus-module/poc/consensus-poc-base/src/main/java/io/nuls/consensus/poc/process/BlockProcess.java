@@ -195,8 +195,8 @@ public class BlockProcess {
                         futures.add(res);
                     }
 
-                    Map<String, Coin> toMaps = new HashMap<>();
-                    Set<String> fromSet = new HashSet<>();
+                    Map<OutPointKey, Coin> toMaps = new HashMap<>();
+                    Set<OutPointKey> fromSet = new HashSet<>();
 
                     for (Transaction tx : block.getTxs()) {
                         if (tx.isSystemTx()) {
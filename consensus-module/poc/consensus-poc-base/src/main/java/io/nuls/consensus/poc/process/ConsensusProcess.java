@@ -45,12 +45,10 @@ import io.nuls.consensus.poc.provider.BlockQueueProvider;
 import io.nuls.consensus.poc.util.ConsensusTool;
 import io.nuls.core.tools.date.DateUtil;
 import io.nuls.core.tools.log.Log;
-import io.nuls.kernel.constant.TransactionErrorCode;
 import io.nuls.kernel.context.NulsContext;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.func.TimeService;
 import io.nuls.kernel.model.*;
-import io.nuls.kernel.validate.ValidateResult;
 import io.nuls.ledger.service.LedgerService;
 import io.nuls.network.service.NetworkService;
 import io.nuls.protocol.cache.TemporaryCacheManager;
@@ -58,7 +56,6 @@ import io.nuls.protocol.constant.ProtocolConstant;
 import io.nuls.protocol.model.SmallBlock;
 import io.nuls.protocol.model.tx.CoinBaseTransaction;
 import io.nuls.protocol.service.BlockService;
-import io.nuls.protocol.service.TransactionService;
 import io.nuls.protocol.utils.SmallBlockDuplicateRemoval;
 
 import java.io.IOException;
@@ -78,7 +75,7 @@ public class ConsensusProcess {
     private LedgerService ledgerService = NulsContext.getServiceBean(LedgerService.class);
     private BlockService blockService = NulsContext.getServiceBean(BlockService.class);
 
-    private TransactionService transactionService = NulsContext.getServiceBean(TransactionService.class);
+    private TxPackingProcess txPackingProcess = new TxPackingProcess();
 
     private TemporaryCacheManager temporaryCacheManager = TemporaryCacheManager.getInstance();
 
@@ -111,6 +108,15 @@ public class ConsensusProcess {
             clearTxMemoryPool();
             return;
         }
+        //下一个时段轮到本节点时，提前按当前最新区块预验证交易
+        //When the next slot is ours, pre-validate the transactions against the current best block ahead of it.
+        long now = TimeService.currentTimeMillis();
+        if (!hasPacking && member.getPackStartTime() > now && member.getPackStartTime() - now <= ProtocolConstant.BLOCK_TIME_INTERVAL_MILLIS) {
+            Block bestBlock = chainManager.getBestBlock();
+            if (null != bestBlock) {
+                txPackingProcess.preVerify(bestBlock.getHeader().getHash(), ProtocolConstant.MAX_BLOCK_SIZE);
+            }
+        }
         if (!hasPacking && member.getPackStartTime() < TimeService.currentTimeMillis() && member.getPackEndTime() > TimeService.currentTimeMillis()) {
             hasPacking = true;
             try {
@@ -292,116 +298,10 @@ public class ConsensusProcess {
 
         bd.setRoundData(roundData);
 
-        List<Transaction> packingTxList = new ArrayList<>();
-        Set<NulsDigestData> outHashSet = new HashSet<>();
-
-        long totalSize = 0L;
-
-        Map<String, Coin> toMaps = new HashMap<>();
-        Set<String> fromSet = new HashSet<>();
-
-        int count = 0;
-        long start = 0;
-        long ledgerUse = 0;
-        long verifyUse = 0;
-        long outHashSetUse = 0;
-        long getTxUse = 0;
-        long sleepTIme = 0;
-        long whileTime = 0;
-        long startWhile = System.currentTimeMillis();
-        long sizeTime = 0;
-        long failed1Use = 0;
-        long addTime = 0;
-        while (true) {
-            if ((self.getPackEndTime() - TimeService.currentTimeMillis()) <= 500L) {
-                break;
-            }
-            start = System.nanoTime();
-            Transaction tx = txMemoryPool.get();
-            getTxUse += (System.nanoTime() - start);
-            if (tx == null) {
-                try {
-                    sleepTIme += 100;
-                    Thread.sleep(100L);
-                } catch (InterruptedException e) {
-                    Log.error("packaging error ", e);
-                }
-                continue;
-            }
-
-            start = System.nanoTime();
-            long txSize = tx.size();
-            sizeTime += (System.nanoTime() - start);
-            if ((totalSize + txSize) > ProtocolConstant.MAX_BLOCK_SIZE) {
-                txMemoryPool.addInFirst(tx, false);
-                break;
-            }
-            count++;
-            start = System.nanoTime();
-            Transaction repeatTx = ledgerService.getTx(tx.getHash());
-            ledgerUse += (System.nanoTime() - start);
-            if (repeatTx != null) {
-                continue;
-            }
-
-            ValidateResult result = ValidateResult.getSuccessResult();
-            if (!tx.isSystemTx()) {
-                start = System.nanoTime();
-                result = ledgerService.verifyCoinData(tx, toMaps, fromSet);
-                verifyUse += (System.nanoTime() - start);
-            }
-            start = System.nanoTime();
-            if (result.isFailed()) {
-                if (tx == null) {
-                    continue;
-                }
-                if (result.getErrorCode().equals(TransactionErrorCode.ORPHAN_TX)) {
-                    txMemoryPool.add(tx, true);
-                }
-                failed1Use += (System.nanoTime() - start);
-                continue;
-            }
-            start = System.nanoTime();
-            if (!outHashSet.add(tx.getHash())) {
-                outHashSetUse += (System.nanoTime() - start);
-                Log.warn("重复的交易");
-                continue;
-            }
-            outHashSetUse += (System.nanoTime() - start);
-
-
-            tx.setBlockHeight(bd.getHeight());
-            start = System.nanoTime();
-            packingTxList.add(tx);
-            addTime += (System.nanoTime() - start);
-
-            totalSize += txSize;
-        }
-        whileTime = System.currentTimeMillis() - startWhile;
-        ValidateResult validateResult = null;
-        int failedCount = 0;
-        long failedUse = 0;
-
-        start = System.nanoTime();
-        while (null == validateResult || validateResult.isFailed()) {
-            failedCount++;
-            validateResult = transactionService.conflictDetect(packingTxList);
-            if (validateResult.isFailed()) {
-                if (validateResult.getData() instanceof Transaction) {
-                    packingTxList.remove(validateResult.getData());
-                } else if (validateResult.getData() instanceof List) {
-                    List<Transaction> list = (List<Transaction>) validateResult.getData();
-                    if (list.size() == 2) {
-                        packingTxList.remove(list.get(1));
-                    } else {
-                        packingTxList.removeAll(list);
-                    }
-                } else if (validateResult.getData() == null) {
-                    Log.error("Cann't find the wrong transaction!");
-                }
-            }
-        }
-        failedUse = System.nanoTime() - start;
+        TxPackingProcess.PackingStatistics stats = new TxPackingProcess.PackingStatistics();
+        long start = System.nanoTime();
+        List<Transaction> packingTxList = txPackingProcess.pack(bestBlock.getHeader().getHash(), bd.getHeight(), ProtocolConstant.MAX_BLOCK_SIZE, self.getPackEndTime() - 500L, stats);
+        long packTxUse = System.nanoTime() - start;
 
         start = System.nanoTime();
         addConsensusTx(bestBlock, packingTxList, self, round);
@@ -413,9 +313,7 @@ public class ConsensusProcess {
         long createBlockUser = System.nanoTime() - start;
         Log.info("make block height:" + newBlock.getHeader().getHeight() + ",txCount: " + newBlock.getTxs().size() + " , block size: " + newBlock.size() + " , time:" + DateUtil.convertDate(new Date(newBlock.getHeader().getTime())) + ",packEndTime:" +
                 DateUtil.convertDate(new Date(self.getPackEndTime())));
-        Log.info("\ncheck count:" + count + "\ngetTxUse:" + getTxUse / 1000000 + " ,\nledgerExistUse:" + ledgerUse / 1000000 + ", \nverifyUse:" + verifyUse / 1000000 + " ,\noutHashSetUse:" + outHashSetUse / 1000000 + " ,\nfailedTimes:" + failedCount + ", \nfailedUse:" + failedUse / 1000000
-                + " ,\nconsensusTx:" + consensusTxUse / 1000000 + ", \nblockUse:" + createBlockUser / 1000000 + ", \nsleepTIme:" + sleepTIme + ",\nwhileTime:" + whileTime
-                + ", \naddTime:" + addTime / 1000000 + " ,\nsizeTime:" + sizeTime / 1000000 + " ,\nfailed1Use:" + failed1Use / 1000000);
+        Log.info("pack txs:" + packTxUse / 1000000 + "ms, " + stats + ", consensusTx:" + consensusTxUse / 1000000 + "ms, createBlock:" + createBlockUser / 1000000 + "ms");
         return newBlock;
     }
 
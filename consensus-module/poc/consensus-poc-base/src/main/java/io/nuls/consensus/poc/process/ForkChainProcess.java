@@ -392,8 +392,8 @@ public class ForkChainProcess {
         for (Block newBlock : addBlockList) {
             newBlock.verifyWithException();
 
-            Map<String, Coin> toMaps = new HashMap<>();
-            Set<String> fromSet = new HashSet<>();
+            Map<OutPointKey, Coin> toMaps = new HashMap<>();
+            Set<OutPointKey> fromSet = new HashSet<>();
 
             for (Transaction tx : newBlock.getTxs()) {
                 if (tx.isSystemTx()) {
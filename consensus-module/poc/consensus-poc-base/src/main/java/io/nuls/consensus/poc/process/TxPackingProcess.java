@@ -0,0 +1,473 @@
+/*
+ * *
+ *  * MIT License
+ *  *
+ *  * Copyright (c) 2017-2018 nuls.io
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+package io.nuls.consensus.poc.process;
+
+import io.nuls.consensus.constant.ConsensusConstant;
+import io.nuls.consensus.poc.cache.TxMemoryPool;
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.TransactionErrorCode;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.func.TimeService;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.OutPointKey;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
+import io.nuls.kernel.validate.ValidateResult;
+import io.nuls.ledger.constant.LedgerErrorCode;
+import io.nuls.ledger.service.LedgerService;
+import io.nuls.protocol.constant.ProtocolConstant;
+import io.nuls.protocol.service.TransactionService;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 区块交易打包流水线
+ * 1、轮到本节点打包之前，按最新区块并行预验证内存池中排在前面的交易：是否已确认，以及只依赖已确认UTXO的coinData验证，
+ * 结果以最新区块hash为界，最新区块变化后作废
+ * 2、打包时按手续费率从内存池取出一批放得下的交易，复用预验证结果，没有结果的交易并行验证
+ * 3、按取出顺序单次遍历，用块内的toMaps/fromSet建立依赖关系，选出无冲突的交易，
+ * 依赖块内交易输出的交易在此时做完整验证
+ * 区块装满或到达截止时间时结束，池为空时等待新交易放入而不是轮询；之后做一次业务冲突检测。
+ * 与块内交易冲突或UTXO尚未解锁的交易在打包结束后放回内存池
+ * <p>
+ * Block transaction packing pipeline.
+ * 1. Ahead of the node's packing slot, the top transactions of the memory pool are pre-validated in parallel against
+ * the best block: whether already confirmed, and the coinData against the confirmed utxo only. The results are bound
+ * to the best block hash and dropped once it changes.
+ * 2. When packing, batches of transactions that still fit are taken by fee rate, the pre-validation results are reused
+ * and the transactions without one are verified in parallel.
+ * 3. Walk the batch once in the order taken, link the dependencies through the in-block toMaps/fromSet
+ * and select the conflict-free transactions, those spending outputs of the block are fully verified here.
+ * Ends when the block is full or the deadline is reached, an empty pool is waited on instead of polled;
+ * then runs the business conflict detection once. Transactions conflicting with the block or spending locked utxo
+ * are put back into the pool when packing ends.
+ *
+ * @author ln
+ */
+public class TxPackingProcess {
+
+    private static final int VERIFY_QUEUE_SIZE = 4096;
+
+    private final TxMemoryPool txMemoryPool;
+
+    private final LedgerService ledgerService;
+    private final TransactionService transactionService;
+
+    private final ThreadPoolExecutor verifyExecutor;
+
+    /**
+     * 预验证结果，只对preVerifiedHash对应的最新区块有效
+     * Pre-validation results, only valid for the best block of preVerifiedHash.
+     */
+    private final Map<NulsDigestData, Future<ValidateResult>> preVerifiedMap = new ConcurrentHashMap<>();
+    private volatile NulsDigestData preVerifiedHash;
+
+    public TxPackingProcess() {
+        this(TxMemoryPool.getInstance(), NulsContext.getServiceBean(LedgerService.class), NulsContext.getServiceBean(TransactionService.class));
+    }
+
+    TxPackingProcess(TxMemoryPool txMemoryPool, LedgerService ledgerService, TransactionService transactionService) {
+        this.txMemoryPool = txMemoryPool;
+        this.ledgerService = ledgerService;
+        this.transactionService = transactionService;
+        //有界队列，队列满时由提交线程执行验证 / bounded queue, the submitting thread verifies when it is full
+        this.verifyExecutor = TaskManager.createThreadPool(Runtime.getRuntime().availableProcessors(), VERIFY_QUEUE_SIZE, new NulsThreadFactory(ConsensusConstant.MODULE_ID_CONSENSUS, "packing-verify"));
+        this.verifyExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 在打包时段之前提交内存池前部交易的预验证，已提交的交易不重复验证，不等待结果
+     * Submit the pre-validation of the top pool transactions ahead of the packing slot, transactions already submitted
+     * are skipped and the results are not waited for.
+     *
+     * @param bestHash 当前最新区块hash / hash of the current best block
+     * @param maxSize  预验证交易的最大总字节数 / max total size of the transactions to pre-validate
+     */
+    public void preVerify(NulsDigestData bestHash, long maxSize) {
+        resetIfStale(bestHash);
+        for (Transaction tx : txMemoryPool.getTop(VERIFY_QUEUE_SIZE, maxSize)) {
+            if (!preVerifiedMap.containsKey(tx.getHash())) {
+                preVerifiedMap.put(tx.getHash(), submitVerify(tx));
+            }
+        }
+    }
+
+    /**
+     * 打包交易
+     * Pack the transactions of a block.
+     *
+     * @param bestHash 所基于的最新区块hash / hash of the best block the new block builds on
+     * @param height   区块高度 / block height
+     * @param maxSize  交易的最大总字节数 / max total size of the transactions
+     * @param deadline 截止时间 / deadline
+     * @param stats    各阶段统计 / per stage statistics
+     * @return 按依赖顺序排列的交易 / the transactions in dependency order
+     */
+    public List<Transaction> pack(NulsDigestData bestHash, long height, long maxSize, long deadline, PackingStatistics stats) {
+        resetIfStale(bestHash);
+        List<Transaction> packingTxList = new ArrayList<>();
+        List<Transaction> putBackList = new ArrayList<>();
+        List<Transaction> putBackChildList = new ArrayList<>();
+        Set<NulsDigestData> outHashSet = new HashSet<>();
+        Map<OutPointKey, Coin> toMaps = new HashMap<>();
+        Set<OutPointKey> fromSet = new HashSet<>();
+        //未打包交易的输出，花费它们的后代交易在首次遇到时随之处理，不再验证
+        //Outputs of the transactions not packed, their descendants follow them when first seen without being verified.
+        Set<OutPointKey> putBackOutputs = new HashSet<>();
+        Set<OutPointKey> orphanOutputs = new HashSet<>();
+        long totalSize = 0L;
+
+        while (TimeService.currentTimeMillis() < deadline) {
+            long start = System.nanoTime();
+            List<Transaction> batch = new ArrayList<>();
+            long batchSize = 0L;
+            Transaction tx;
+            while ((tx = txMemoryPool.get(maxSize - totalSize - batchSize)) != null) {
+                batch.add(tx);
+                batchSize += tx.size();
+            }
+            stats.takeTime += System.nanoTime() - start;
+            if (batch.isEmpty()) {
+                //池中有交易却都放不下，说明区块已满
+                //The block is full when none of the pooled transactions fits.
+                if (txMemoryPool.size() > 0) {
+                    break;
+                }
+                start = System.nanoTime();
+                try {
+                    txMemoryPool.waitForTx(deadline - TimeService.currentTimeMillis());
+                } catch (InterruptedException e) {
+                    Log.error("packaging error ", e);
+                    Thread.currentThread().interrupt();
+                    break;
+                } finally {
+                    stats.waitTime += System.nanoTime() - start;
+                }
+                continue;
+            }
+            stats.checkCount += batch.size();
+
+            start = System.nanoTime();
+            List<ValidateResult> preResults = getPreVerifyResults(batch, stats);
+            stats.verifyTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < batch.size(); i++) {
+                tx = batch.get(i);
+                ValidateResult result = preResults.get(i);
+                if (result == null || !outHashSet.add(tx.getHash())) {
+                    continue;
+                }
+                if (spendsAny(tx, putBackOutputs)) {
+                    putBackChildList.add(tx);
+                    addOutputs(tx, putBackOutputs);
+                    continue;
+                }
+                if (spendsAny(tx, orphanOutputs)) {
+                    txMemoryPool.add(tx, true);
+                    addOutputs(tx, orphanOutputs);
+                    continue;
+                }
+                if (result.isSuccess()) {
+                    if (!tx.isSystemTx()) {
+                        if (!spend(tx, fromSet)) {
+                            putBackList.add(tx);
+                            addOutputs(tx, putBackOutputs);
+                            continue;
+                        }
+                        addOutputs(tx, toMaps);
+                    }
+                } else if (result.getErrorCode().equals(TransactionErrorCode.ORPHAN_TX)) {
+                    //依赖的交易可能在本块中，完整验证时会记录其输出
+                    //The transaction it depends on may be in this block, the full verification records its outputs.
+                    result = ledgerService.verifyCoinData(tx, toMaps, fromSet);
+                    if (result.isFailed()) {
+                        if (result.getErrorCode().equals(TransactionErrorCode.ORPHAN_TX)) {
+                            txMemoryPool.add(tx, true);
+                            addOutputs(tx, orphanOutputs);
+                        } else if (isRetryable(result) || result.getErrorCode().equals(LedgerErrorCode.LEDGER_DOUBLE_SPENT)) {
+                            putBackList.add(tx);
+                            addOutputs(tx, putBackOutputs);
+                        } else {
+                            addOutputs(tx, orphanOutputs);
+                        }
+                        continue;
+                    }
+                } else {
+                    if (isRetryable(result)) {
+                        putBackList.add(tx);
+                        addOutputs(tx, putBackOutputs);
+                    } else {
+                        addOutputs(tx, orphanOutputs);
+                    }
+                    continue;
+                }
+                tx.setBlockHeight(height);
+                packingTxList.add(tx);
+                totalSize += tx.size();
+            }
+            stats.selectTime += System.nanoTime() - start;
+        }
+
+        long start = System.nanoTime();
+        removeConflicts(packingTxList, stats);
+        stats.conflictTime += System.nanoTime() - start;
+        stats.packedCount = packingTxList.size();
+
+        //放回的交易在打包结束后才放入，避免本次打包再次取出
+        //Put back only after packing, so this round never takes them again.
+        for (int i = putBackList.size() - 1; i >= 0; i--) {
+            txMemoryPool.addInFirst(putBackList.get(i), false);
+        }
+        //后代交易在其祖先之后按顺序放回，以便重新建立依赖关系
+        //Descendants go back after their ancestors and in order, so the dependencies are linked again.
+        for (Transaction child : putBackChildList) {
+            txMemoryPool.addInFirst(child, false);
+        }
+        stats.putBackCount = putBackList.size() + putBackChildList.size();
+        preVerifiedMap.clear();
+        return packingTxList;
+    }
+
+    /**
+     * 之后可能通过的失败：UTXO尚未解锁
+     * A failure that may pass later: the utxo is still locked.
+     */
+    private boolean isRetryable(ValidateResult result) {
+        return result.getErrorCode().equals(LedgerErrorCode.UTXO_UNUSABLE);
+    }
+
+    /**
+     * 最新区块变化后，之前的预验证结果作废
+     * Drop the pre-validation results once the best block changed.
+     */
+    private void resetIfStale(NulsDigestData bestHash) {
+        if (!Objects.equals(bestHash, preVerifiedHash)) {
+            preVerifiedMap.clear();
+            preVerifiedHash = bestHash;
+        }
+    }
+
+    private Future<ValidateResult> submitVerify(Transaction tx) {
+        return verifyExecutor.submit(() -> {
+            if (ledgerService.getTx(tx.getHash()) != null) {
+                return null;
+            }
+            if (tx.isSystemTx()) {
+                return ValidateResult.getSuccessResult();
+            }
+            return ledgerService.verifyCoinData(tx, null, null);
+        });
+    }
+
+    /**
+     * 获取预验证结果，优先复用打包前的结果，其余并行验证，已确认的交易返回null
+     * Get the pre-validation results, reusing those computed ahead of the slot and verifying the rest in parallel,
+     * null for the transactions already confirmed.
+     */
+    private List<ValidateResult> getPreVerifyResults(List<Transaction> batch, PackingStatistics stats) {
+        List<Future<ValidateResult>> futures = new ArrayList<>(batch.size());
+        for (Transaction tx : batch) {
+            Future<ValidateResult> future = preVerifiedMap.remove(tx.getHash());
+            if (future == null) {
+                future = submitVerify(tx);
+            } else {
+                stats.preVerifiedCount++;
+            }
+            futures.add(future);
+        }
+        List<ValidateResult> results = new ArrayList<>(batch.size());
+        for (Future<ValidateResult> future : futures) {
+            ValidateResult result;
+            try {
+                result = future.get();
+            } catch (Exception e) {
+                Log.error(e);
+                result = null;
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * 记录已确认UTXO的花费，与块内已花费的冲突时返回false
+     * Record the spending of confirmed utxo, returns false if one is already spent in this block.
+     */
+    private boolean spend(Transaction tx, Set<OutPointKey> fromSet) {
+        List<Coin> froms = tx.getCoinData().getFrom();
+        List<OutPointKey> keys = new ArrayList<>(froms.size());
+        for (Coin from : froms) {
+            OutPointKey key = OutPointKey.wrap(from.getOwner());
+            if (fromSet.contains(key) || keys.contains(key)) {
+                return false;
+            }
+            keys.add(key);
+        }
+        fromSet.addAll(keys);
+        return true;
+    }
+
+    /**
+     * 是否花费了指定集合中的输出
+     * Whether the transaction spends one of the given outputs.
+     */
+    private boolean spendsAny(Transaction tx, Set<OutPointKey> outputs) {
+        if (outputs.isEmpty() || tx.getCoinData() == null) {
+            return false;
+        }
+        for (Coin from : tx.getCoinData().getFrom()) {
+            if (outputs.contains(OutPointKey.wrap(from.getOwner()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addOutputs(Transaction tx, Set<OutPointKey> outputs) {
+        if (tx.getCoinData() == null) {
+            return;
+        }
+        byte[] txBytes;
+        try {
+            txBytes = tx.getHash().serialize();
+        } catch (IOException e) {
+            Log.error(e);
+            return;
+        }
+        int size = tx.getCoinData().getTo().size();
+        for (int i = 0; i < size; i++) {
+            outputs.add(OutPointKey.of(txBytes, i));
+        }
+    }
+
+    private void addOutputs(Transaction tx, Map<OutPointKey, Coin> toMaps) {
+        byte[] txBytes;
+        try {
+            txBytes = tx.getHash().serialize();
+        } catch (IOException e) {
+            Log.error(e);
+            return;
+        }
+        List<Coin> tos = tx.getCoinData().getTo();
+        for (int i = 0; i < tos.size(); i++) {
+            toMaps.put(OutPointKey.of(txBytes, i), tos.get(i));
+        }
+    }
+
+    /**
+     * 业务冲突检测：UTXO冲突已在选择时排除，转账和coinbase交易没有业务冲突，只检测其余交易；
+     * 最后单次遍历移除冲突交易及其块内后代交易
+     * Business conflict detection: utxo conflicts are already excluded while selecting and transfers and coinbase
+     * have no business conflicts, so only the remaining transactions are checked; then a single pass removes
+     * the conflicting transactions together with their descendants in the block.
+     */
+    private void removeConflicts(List<Transaction> packingTxList, PackingStatistics stats) {
+        List<Transaction> businessTxList = new ArrayList<>();
+        for (Transaction tx : packingTxList) {
+            if (tx.getType() != ProtocolConstant.TX_TYPE_COINBASE && tx.getType() != ProtocolConstant.TX_TYPE_TRANSFER) {
+                businessTxList.add(tx);
+            }
+        }
+        Set<NulsDigestData> removedHashSet = new HashSet<>();
+        while (businessTxList.size() > 1) {
+            stats.conflictCount++;
+            ValidateResult validateResult = transactionService.conflictDetect(businessTxList);
+            if (validateResult.isSuccess()) {
+                break;
+            }
+            List<Transaction> discardList;
+            if (validateResult.getData() instanceof Transaction) {
+                discardList = Collections.singletonList((Transaction) validateResult.getData());
+            } else if (validateResult.getData() instanceof List) {
+                List<Transaction> list = (List<Transaction>) validateResult.getData();
+                discardList = list.size() == 2 ? Collections.singletonList(list.get(1)) : list;
+            } else {
+                Log.error("Cann't find the wrong transaction!");
+                break;
+            }
+            if (!businessTxList.removeAll(discardList)) {
+                break;
+            }
+            for (Transaction tx : discardList) {
+                removedHashSet.add(tx.getHash());
+            }
+        }
+        if (removedHashSet.isEmpty()) {
+            return;
+        }
+        List<Transaction> keptList = new ArrayList<>(packingTxList.size());
+        Set<OutPointKey> removedOutputs = new HashSet<>();
+        for (Transaction tx : packingTxList) {
+            if (removedHashSet.contains(tx.getHash()) || spendsAny(tx, removedOutputs)) {
+                addOutputs(tx, removedOutputs);
+            } else {
+                keptList.add(tx);
+            }
+        }
+        packingTxList.clear();
+        packingTxList.addAll(keptList);
+    }
+
+    /**
+     * 打包各阶段的统计，时间单位为纳秒
+     * Statistics of each packing stage, times in nanoseconds.
+     */
+    public static final class PackingStatistics {
+        private int checkCount;
+        private int preVerifiedCount;
+        private int packedCount;
+        private int putBackCount;
+        private int conflictCount;
+        private long takeTime;
+        private long verifyTime;
+        private long selectTime;
+        private long conflictTime;
+        private long waitTime;
+
+        public int getPreVerifiedCount() {
+            return preVerifiedCount;
+        }
+
+        public int getPutBackCount() {
+            return putBackCount;
+        }
+
+        @Override
+        public String toString() {
+            return "check count:" + checkCount + " (" + preVerifiedCount + " pre-verified), packed count:" + packedCount +
+                    ", put back:" + putBackCount + ", take:" + takeTime / 1000000 + "ms, verify:" + verifyTime / 1000000 +
+                    "ms, select:" + selectTime / 1000000 + "ms, conflict:" + conflictTime / 1000000 +
+                    "ms (" + conflictCount + " times), wait:" + waitTime / 1000000 + "ms";
+        }
+    }
+}
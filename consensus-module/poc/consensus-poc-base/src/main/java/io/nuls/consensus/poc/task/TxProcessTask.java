@@ -34,11 +34,11 @@ import io.nuls.kernel.context.NulsContext;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.func.TimeService;
 import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.OutPointKey;
 import io.nuls.kernel.model.Result;
 import io.nuls.kernel.model.Transaction;
 import io.nuls.kernel.validate.ValidateResult;
 import io.nuls.ledger.service.LedgerService;
-import io.nuls.ledger.util.LedgerUtil;
 import io.nuls.protocol.service.TransactionService;
 import io.nuls.protocol.utils.TransactionTimeComparator;
 
@@ -60,8 +60,8 @@ public class TxProcessTask implements Runnable {
 
     private TransactionTimeComparator txComparator = TransactionTimeComparator.getInstance();
 
-    private Map<String, Coin> temporaryToMap = new HashMap<>();
-    private Set<String> temporaryFromSet = new HashSet<>();
+    private Map<OutPointKey, Coin> temporaryToMap = new HashMap<>();
+    private Set<OutPointKey> temporaryFromSet = new HashSet<>();
 
     private List<Transaction> orphanTxList = new ArrayList<>();
 
@@ -127,14 +127,19 @@ public class TxProcessTask implements Runnable {
 
             ValidateResult validateResult = ledgerService.verifyCoinData(tx, temporaryToMap, temporaryFromSet);
             if (validateResult.isSuccess()) {
-                pool.add(tx, false);
+                boolean added = pool.add(tx, false);
 
                 List<Coin> fromCoins = tx.getCoinData().getFrom();
                 for (Coin coin : fromCoins) {
-                    String key = LedgerUtil.asString(coin.getOwner());
+                    OutPointKey key = OutPointKey.wrap(coin.getOwner());
                     temporaryFromSet.remove(key);
                     temporaryToMap.remove(key);
                 }
+                //与池中交易冲突或费率过低被淘汰的交易不再转发
+                //Transactions conflicting with the pool or evicted for a low fee rate are not forwarded.
+                if (!added) {
+                    return isOrphanTx;
+                }
 //                count++;
 
                 transactionCacheStorageService.putTx(tx);
@@ -127,6 +127,7 @@ public class ConsensusTool {
         scriptSig.setSignData(signData);
         scriptSig.setPublicKey(account.getPubKey());
         header.setScriptSig(scriptSig);
+        block.seal();
 
         return block;
     }
@@ -27,9 +27,15 @@
 package io.nuls.consensus.poc.cache;
 
 import io.nuls.consensus.poc.TestTransaction;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.CoinData;
+import io.nuls.kernel.model.Na;
 import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.VarInt;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -103,4 +109,114 @@ public class TxMemoryPoolTest {
         success = txMemoryPool.exist(tx2.getHash());
         assertFalse(success);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFeeRateOrder() throws Exception {
+        TxMemoryPool pool = new TxMemoryPool(Long.MAX_VALUE);
+
+        Transaction low = newTx(1L, new byte[]{1}, Na.valueOf(1000), Na.valueOf(900));
+        Transaction high = newTx(2L, new byte[]{2}, Na.valueOf(1000), Na.valueOf(100));
+        Transaction zero = new TestTransaction();
+        assertTrue(pool.add(low, false));
+        assertTrue(pool.add(zero, false));
+        assertTrue(pool.add(high, false));
+
+        assertEquals(3, pool.size());
+        assertEquals(high, pool.get());
+        assertEquals(low, pool.get());
+        assertEquals(zero, pool.get());
+        assertNull(pool.get());
+        assertEquals(0L, pool.getPoolBytes());
+    }
+
+    @Test
+    public void testConflict() throws Exception {
+        TxMemoryPool pool = new TxMemoryPool(Long.MAX_VALUE);
+
+        Transaction tx = newTx(1L, new byte[]{1}, Na.valueOf(1000), Na.valueOf(900));
+        Transaction doubleSpend = newTx(2L, new byte[]{1}, Na.valueOf(1000), Na.valueOf(100));
+        assertTrue(pool.add(tx, false));
+        assertFalse(pool.add(doubleSpend, false));
+        assertFalse(pool.add(tx, false));
+        assertEquals(tx, pool.getSpendingTx(tx.getCoinData().getFrom().get(0).getOwner()));
+
+        assertEquals(tx, pool.get());
+        assertNull(pool.getSpendingTx(tx.getCoinData().getFrom().get(0).getOwner()));
+        assertTrue(pool.add(doubleSpend, false));
+    }
+
+    @Test
+    public void testAncestorPackage() throws Exception {
+        TxMemoryPool pool = new TxMemoryPool(Long.MAX_VALUE);
+
+        Transaction parent = newTx(1L, new byte[]{1}, Na.valueOf(1000), Na.valueOf(1000));
+        Transaction child = newTx(2L, outpoint(parent, 0), Na.valueOf(3000), Na.valueOf(0));
+        Transaction other = newTx(3L, new byte[]{3}, Na.valueOf(1000), Na.valueOf(500));
+        assertTrue(pool.add(parent, false));
+        assertTrue(pool.add(other, false));
+        assertTrue(pool.add(child, false));
+
+        // the child pays for its parent, so the parent is packed first
+        assertEquals(parent, pool.get());
+        assertEquals(child, pool.get());
+        assertEquals(other, pool.get());
+
+        assertTrue(pool.add(parent, false));
+        assertTrue(pool.add(child, false));
+        pool.remove(parent.getHash());
+        assertFalse(pool.exist(child.getHash()));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        Transaction low = newTx(1L, new byte[]{1}, Na.valueOf(1000), Na.valueOf(900));
+        Transaction high = newTx(2L, new byte[]{2}, Na.valueOf(1000), Na.valueOf(100));
+        TxMemoryPool pool = new TxMemoryPool(low.size() + high.size() - 1);
+
+        assertTrue(pool.add(low, false));
+        assertTrue(pool.add(high, false));
+        assertEquals(1, pool.size());
+        assertFalse(pool.exist(low.getHash()));
+        assertFalse(pool.add(low, false));
+
+        assertNull(pool.get(high.size() - 1));
+        assertEquals(high, pool.get(high.size()));
+    }
+
+    @Test
+    public void testGetTop() throws Exception {
+        TxMemoryPool pool = new TxMemoryPool(Long.MAX_VALUE);
+
+        Transaction low = newTx(1L, new byte[]{1}, Na.valueOf(1000), Na.valueOf(900));
+        Transaction high = newTx(2L, new byte[]{2}, Na.valueOf(1000), Na.valueOf(100));
+        Transaction middle = newTx(3L, new byte[]{3}, Na.valueOf(1000), Na.valueOf(500));
+        assertTrue(pool.add(low, false));
+        assertTrue(pool.add(high, false));
+        assertTrue(pool.add(middle, false));
+
+        assertEquals(Arrays.asList(high, middle), pool.getTop(2, Long.MAX_VALUE));
+        assertEquals(Collections.singletonList(high), pool.getTop(3, high.size() + middle.size() - 1));
+        // 不从池中移除 / nothing is removed from the pool
+        assertEquals(3, pool.size());
+    }
+
+    private Transaction newTx(long time, byte[] from, Na fromNa, Na toNa) {
+        Transaction tx = new TestTransaction();
+        CoinData coinData = new CoinData();
+        coinData.addFrom(new Coin(from, fromNa, 0L));
+        coinData.addTo(new Coin(new byte[20], toNa, 0L));
+        tx.setCoinData(coinData);
+        tx.setTime(time);
+        return tx;
+    }
+
+    private byte[] outpoint(Transaction tx, int index) throws Exception {
+        byte[] hash = tx.getHash().serialize();
+        byte[] indexBytes = new VarInt(index).encode();
+        byte[] owner = new byte[hash.length + indexBytes.length];
+        System.arraycopy(hash, 0, owner, 0, hash.length);
+        System.arraycopy(indexBytes, 0, owner, hash.length, indexBytes.length);
+        return owner;
+    }
+}
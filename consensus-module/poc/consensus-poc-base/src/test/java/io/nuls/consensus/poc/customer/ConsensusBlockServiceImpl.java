@@ -96,6 +96,10 @@ public class ConsensusBlockServiceImpl implements BlockService {
         return new Result(false, null);
     }
 
+    @Override
+    public void recoverUnfinishedBlock() {
+    }
+
     @Override
     public Result forwardBlock(NulsDigestData blockHash, Node excludeNode) {
         return null;
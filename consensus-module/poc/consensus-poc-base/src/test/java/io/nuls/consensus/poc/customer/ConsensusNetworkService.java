@@ -87,6 +87,16 @@ public class ConsensusNetworkService implements NetworkService {
         return null;
     }
 
+    @Override
+    public BroadcastResult sendToNodes(BaseNulsData event, Collection<Node> nodeList, boolean asyn) {
+        return null;
+    }
+
+    @Override
+    public boolean awaitWritable(Node node, long timeoutMillis) {
+        return true;
+    }
+
     @Override
     public BroadcastResult sendToGroup(BaseNulsData event, String groupName, boolean asyn) {
         return null;
@@ -26,10 +26,15 @@
 
 package io.nuls.consensus.poc.model;
 
+import io.nuls.consensus.poc.protocol.entity.Deposit;
+import io.nuls.consensus.poc.storage.po.PunishLogPo;
 import io.nuls.kernel.model.Block;
 import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
 import org.junit.Test;
 
+import java.util.ArrayList;
+
 import static org.junit.Assert.*;
 
 /**
@@ -55,4 +60,71 @@ public class ChainTest {
         assertNotNull(bestBlock);
         assertEquals(bestBlock.getHeader().getHeight(), 100l);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIndexes() throws Exception {
+        Chain chain = new Chain();
+        chain.setDepositList(new ArrayList<>());
+        chain.setYellowPunishList(new ArrayList<>());
+
+        NulsDigestData agentA = NulsDigestData.calcDigestData(new byte[]{1});
+        NulsDigestData agentB = NulsDigestData.calcDigestData(new byte[]{2});
+        Deposit a1 = newDeposit(agentA);
+        Deposit b1 = newDeposit(agentB);
+        Deposit a2 = newDeposit(agentA);
+        chain.addDeposit(a1);
+        chain.addDeposit(b1);
+        assertEquals(1, chain.getDepositListByAgentHash(agentA).size());
+        chain.addDeposit(a2);
+        assertEquals(2, chain.getDepositListByAgentHash(agentA).size());
+        assertEquals(a2, chain.getDepositListByAgentHash(agentA).get(1));
+        chain.removeDeposit(2);
+        assertEquals(1, chain.getDepositListByAgentHash(agentA).size());
+        // modified outside of the index
+        chain.getDepositList().remove(b1);
+        assertEquals(0, chain.getDepositListByAgentHash(agentB).size());
+
+        byte[] packerA = new byte[]{1, 1};
+        byte[] packerB = new byte[]{2, 2};
+        chain.addBlockHeader(newHeader(packerA, 1));
+        chain.addBlockHeader(newHeader(packerB, 1));
+        chain.addBlockHeader(newHeader(packerA, 2));
+        assertEquals(2L, chain.getBlockCount(packerA, 1, 2));
+        assertEquals(1L, chain.getBlockCount(packerA, 2, 5));
+        chain.getBlockHeaderList().add(newHeader(packerA, 3));
+        assertEquals(3L, chain.getBlockCount(packerA, 0, 3));
+        chain.removeLastBlockHeader();
+        chain.removeLastBlockHeader();
+        assertEquals(1L, chain.getBlockCount(packerA, 0, 3));
+        assertEquals(1L, chain.getBlockCount(packerB, 0, 3));
+
+        chain.addYellowPunish(newPunish(packerA, 1));
+        chain.addYellowPunish(newPunish(packerA, 2));
+        assertEquals(2L, chain.getYellowPunishCount(packerA, 1, 2));
+        chain.removeYellowPunish(1);
+        assertEquals(1L, chain.getYellowPunishCount(packerA, 1, 2));
+        assertEquals(0L, chain.getYellowPunishCount(packerB, 1, 2));
+    }
+
+    private Deposit newDeposit(NulsDigestData agentHash) {
+        Deposit deposit = new Deposit();
+        deposit.setAgentHash(agentHash);
+        return deposit;
+    }
+
+    private BlockHeader newHeader(byte[] packingAddress, long roundIndex) throws Exception {
+        BlockRoundData roundData = new BlockRoundData();
+        roundData.setRoundIndex(roundIndex);
+        BlockHeader header = new BlockHeader();
+        header.setExtend(roundData.serialize());
+        header.setPackingAddress(packingAddress);
+        return header;
+    }
+
+    private PunishLogPo newPunish(byte[] address, long roundIndex) {
+        PunishLogPo po = new PunishLogPo();
+        po.setAddress(address);
+        po.setRoundIndex(roundIndex);
+        return po;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * *
+ *  * MIT License
+ *  *
+ *  * Copyright (c) 2017-2018 nuls.io
+ *  *
+ *  * Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  * of this software and associated documentation files (the "Software"), to deal
+ *  * in the Software without restriction, including without limitation the rights
+ *  * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  * copies of the Software, and to permit persons to whom the Software is
+ *  * furnished to do so, subject to the following conditions:
+ *  *
+ *  * The above copyright notice and this permission notice shall be included in all
+ *  * copies or substantial portions of the Software.
+ *  *
+ *  * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  * SOFTWARE.
+ *
+ */
+package io.nuls.consensus.poc.process;
+
+import io.nuls.consensus.poc.TestTransaction;
+import io.nuls.consensus.poc.cache.TxMemoryPool;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.CoinData;
+import io.nuls.kernel.model.Na;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.VarInt;
+import io.nuls.kernel.validate.ValidateResult;
+import io.nuls.ledger.constant.LedgerErrorCode;
+import io.nuls.ledger.service.LedgerService;
+import io.nuls.protocol.service.TransactionService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TxPackingProcessTest {
+
+    private static final long MAX_SIZE = 2 * 1024 * 1024L;
+
+    private TxMemoryPool txMemoryPool = TxMemoryPool.getInstance();
+    private TxPackingProcess process;
+
+    /**
+     * 只依赖已确认UTXO的验证结果，默认成功
+     * Results of the verification against the confirmed utxo only, success by default.
+     */
+    private Map<NulsDigestData, ValidateResult> preResults = new HashMap<>();
+    /**
+     * 块内完整验证的结果，默认成功
+     * Results of the full in-block verification, success by default.
+     */
+    private Map<NulsDigestData, ValidateResult> fullResults = new HashMap<>();
+    private AtomicInteger preVerifyCount = new AtomicInteger();
+    /**
+     * 业务冲突检测丢弃的交易
+     * The transaction discarded by the business conflict detection.
+     */
+    private Transaction conflictTx;
+
+    private NulsDigestData bestHash = NulsDigestData.calcDigestData(new byte[]{1});
+
+    @Before
+    public void init() {
+        txMemoryPool.clear();
+        LedgerService ledgerService = (LedgerService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{LedgerService.class}, (proxy, method, args) -> {
+            if ("verifyCoinData".equals(method.getName())) {
+                Transaction tx = (Transaction) args[0];
+                if (args[1] == null) {
+                    preVerifyCount.incrementAndGet();
+                    return preResults.getOrDefault(tx.getHash(), ValidateResult.getSuccessResult());
+                }
+                return fullResults.getOrDefault(tx.getHash(), ValidateResult.getSuccessResult());
+            }
+            return null;
+        });
+        TransactionService transactionService = (TransactionService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{TransactionService.class}, (proxy, method, args) -> {
+            if ("conflictDetect".equals(method.getName())) {
+                if (conflictTx != null && ((List<?>) args[0]).contains(conflictTx)) {
+                    return ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.LEDGER_DOUBLE_SPENT).setData(conflictTx);
+                }
+                return ValidateResult.getSuccessResult();
+            }
+            return null;
+        });
+        process = new TxPackingProcess(txMemoryPool, ledgerService, transactionService);
+    }
+
+    @After
+    public void after() {
+        txMemoryPool.clear();
+    }
+
+    @Test
+    public void testReuseResultsVerifiedAhead() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(txMemoryPool.add(newTx(i, new byte[]{(byte) i}), false));
+        }
+        process.preVerify(bestHash, MAX_SIZE);
+
+        TxPackingProcess.PackingStatistics stats = new TxPackingProcess.PackingStatistics();
+        List<Transaction> packed = process.pack(bestHash, 1L, MAX_SIZE, System.currentTimeMillis() + 200L, stats);
+        assertEquals(3, packed.size());
+        assertEquals(3, stats.getPreVerifiedCount());
+        assertEquals(3, preVerifyCount.get());
+    }
+
+    @Test
+    public void testDropResultsOfStaleBestBlock() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(txMemoryPool.add(newTx(i, new byte[]{(byte) i}), false));
+        }
+        process.preVerify(bestHash, MAX_SIZE);
+
+        // 预验证之后收到新区块，结果全部重新计算
+        TxPackingProcess.PackingStatistics stats = new TxPackingProcess.PackingStatistics();
+        List<Transaction> packed = process.pack(NulsDigestData.calcDigestData(new byte[]{2}), 1L, MAX_SIZE, System.currentTimeMillis() + 200L, stats);
+        assertEquals(3, packed.size());
+        assertEquals(0, stats.getPreVerifiedCount());
+        assertEquals(6, preVerifyCount.get());
+    }
+
+    @Test
+    public void testPutBackRetryableTxs() {
+        Transaction locked = newTx(1, new byte[]{1});
+        Transaction orphanDoubleSpent = newTx(2, new byte[]{2});
+        Transaction invalid = newTx(3, new byte[]{3});
+        Transaction valid = newTx(4, new byte[]{4});
+        preResults.put(locked.getHash(), ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.UTXO_UNUSABLE));
+        preResults.put(orphanDoubleSpent.getHash(), ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.ORPHAN_TX));
+        fullResults.put(orphanDoubleSpent.getHash(), ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.LEDGER_DOUBLE_SPENT));
+        preResults.put(invalid.getHash(), ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.INVALID_INPUT));
+        for (Transaction tx : new Transaction[]{locked, orphanDoubleSpent, invalid, valid}) {
+            assertTrue(txMemoryPool.add(tx, false));
+        }
+
+        TxPackingProcess.PackingStatistics stats = new TxPackingProcess.PackingStatistics();
+        List<Transaction> packed = process.pack(bestHash, 1L, MAX_SIZE, System.currentTimeMillis() + 200L, stats);
+        assertEquals(1, packed.size());
+        assertEquals(valid, packed.get(0));
+        assertEquals(2, stats.getPutBackCount());
+        assertNotNull(txMemoryPool.getTx(locked.getHash()));
+        assertNotNull(txMemoryPool.getTx(orphanDoubleSpent.getHash()));
+        assertNull(txMemoryPool.getTx(invalid.getHash()));
+    }
+
+    @Test
+    public void testPutBackDescendants() throws Exception {
+        Transaction parent = newTx(1, new byte[]{1});
+        Transaction child = newTx(2, outpoint(parent, 0));
+        preResults.put(parent.getHash(), ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.ORPHAN_TX));
+        fullResults.put(parent.getHash(), ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.LEDGER_DOUBLE_SPENT));
+        preResults.put(child.getHash(), ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.ORPHAN_TX));
+        assertTrue(txMemoryPool.add(parent, false));
+        assertTrue(txMemoryPool.add(child, false));
+
+        // 子交易随放回的父交易一起放回，不进入孤儿池
+        TxPackingProcess.PackingStatistics stats = new TxPackingProcess.PackingStatistics();
+        List<Transaction> packed = process.pack(bestHash, 1L, MAX_SIZE, System.currentTimeMillis() + 200L, stats);
+        assertTrue(packed.isEmpty());
+        assertEquals(2, stats.getPutBackCount());
+        assertEquals(0, txMemoryPool.getOrphanPoolSize());
+        assertEquals(parent, txMemoryPool.get());
+        assertEquals(child, txMemoryPool.get());
+    }
+
+    @Test
+    public void testRemoveConflictWithDescendants() throws Exception {
+        Transaction parent = newTx(1, new byte[]{1});
+        Transaction child = newTx(2, outpoint(parent, 0));
+        Transaction other = newTx(3, new byte[]{3});
+        preResults.put(child.getHash(), ValidateResult.getFailedResult(getClass().getName(), LedgerErrorCode.ORPHAN_TX));
+        conflictTx = parent;
+        for (Transaction tx : new Transaction[]{parent, child, other}) {
+            assertTrue(txMemoryPool.add(tx, false));
+        }
+
+        TxPackingProcess.PackingStatistics stats = new TxPackingProcess.PackingStatistics();
+        List<Transaction> packed = process.pack(bestHash, 1L, MAX_SIZE, System.currentTimeMillis() + 200L, stats);
+        assertEquals(1, packed.size());
+        assertEquals(other, packed.get(0));
+    }
+
+    @Test
+    public void testWaitForNewTx() throws Exception {
+        Transaction tx = newTx(1, new byte[]{1});
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(100L);
+            } catch (InterruptedException e) {
+                return;
+            }
+            txMemoryPool.add(tx, false);
+        });
+        producer.start();
+
+        TxPackingProcess.PackingStatistics stats = new TxPackingProcess.PackingStatistics();
+        List<Transaction> packed = process.pack(bestHash, 1L, MAX_SIZE, System.currentTimeMillis() + 1000L, stats);
+        producer.join();
+        assertEquals(1, packed.size());
+        assertEquals(tx, packed.get(0));
+    }
+
+    private byte[] outpoint(Transaction tx, int index) throws Exception {
+        byte[] hash = tx.getHash().serialize();
+        byte[] indexBytes = new VarInt(index).encode();
+        byte[] owner = new byte[hash.length + indexBytes.length];
+        System.arraycopy(hash, 0, owner, 0, hash.length);
+        System.arraycopy(indexBytes, 0, owner, hash.length, indexBytes.length);
+        return owner;
+    }
+
+    private Transaction newTx(long time, byte[] from) {
+        Transaction tx = new TestTransaction();
+        CoinData coinData = new CoinData();
+        coinData.addFrom(new Coin(from, Na.valueOf(1000), 0L));
+        coinData.addTo(new Coin(new byte[20], Na.valueOf(900), 0L));
+        tx.setCoinData(coinData);
+        tx.setTime(time);
+        return tx;
+    }
+}
@@ -28,7 +28,9 @@ package io.nuls.kernel.lite.core;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.constant.ModuleStatusEnum;
 import io.nuls.kernel.constant.NulsConstant;
+import io.nuls.kernel.lite.core.interceptor.BeanMethodInterceptorChain;
 import io.nuls.kernel.lite.core.interceptor.BeanMethodInterceptorManager;
+import io.nuls.kernel.lite.core.interceptor.MultipleBeanMethodInterceptorChain;
 import io.nuls.kernel.lite.exception.BeanStatusException;
 import io.nuls.kernel.module.BaseModuleBootstrap;
 import io.nuls.kernel.module.manager.ServiceManager;
@@ -37,23 +39,28 @@ import net.sf.cglib.proxy.MethodProxy;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 系统默认的服务拦截器
+ * 每个代理类的每个方法第一次调用时生成调度计划（目标类型、注解及拦截器链、所属模块），之后直接使用；
+ * 模块运行中且实例已确认组装完成时，跳过所有状态检查
+ * <p>
  * System default service interceptor.
+ * A dispatch plan (target class, annotations and interceptor chains, owner module) is built on the first call
+ * of each method of each proxy class and reused afterwards. All status checks are skipped once the module is running
+ * and the instance is known to be fully assembled.
  *
  * @author Niels
  */
 public class ModularServiceMethodInterceptor implements MethodInterceptor {
+
     /**
-     * 线程安全的拦截器执行进度标识
-     * Thread-safe interceptors perform progress identification.
+     * 每个代理类的方法调度计划
+     * The dispatch plans of the methods of each proxy class.
      */
-    private ThreadLocal<Integer> threadLocal = new ThreadLocal<>();
+    private final Map<Class, Map<Method, DispatchPlan>> planMap = new ConcurrentHashMap<>();
 
     /**
      * 拦截方法
@@ -69,13 +76,13 @@ public class ModularServiceMethodInterceptor implements MethodInterceptor {
     @Override
     public Object intercept(Object obj, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
 //        Log.debug(method.toString());
-        threadLocal.set(0);
+        int retryCount = 0;
         Throwable throwable = null;
-        while (threadLocal.get() < 100) {
+        while (retryCount < 100) {
             try {
                 return this.doIntercept(obj, method, params, methodProxy);
             } catch (BeanStatusException e) {
-                threadLocal.set(threadLocal.get() + 1);
+                retryCount++;
                 throwable = e;
                 Thread.sleep(200L);
             }
@@ -95,13 +102,9 @@ public class ModularServiceMethodInterceptor implements MethodInterceptor {
      * @throws Throwable 该方法可能抛出异常，请谨慎处理/This method may throw an exception, handle with care.
      */
     private Object doIntercept(Object obj, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
-        List<Annotation> annotationList = new ArrayList<>();
-        if (!method.getDeclaringClass().equals(Object.class)) {
-            String className = obj.getClass().getCanonicalName();
-            className = className.substring(0, className.indexOf("$$"));
-            Class clazz = Class.forName(className);
-            fillAnnotationList(annotationList, clazz, method);
-            BaseModuleBootstrap module = ServiceManager.getInstance().getModule(clazz);
+        DispatchPlan plan = getPlan(obj.getClass(), method);
+        if (!plan.isObjectMethod && !plan.isReady(obj)) {
+            BaseModuleBootstrap module = ServiceManager.getInstance().getModule(plan.targetClass);
             if (module == null) {
                 throw new BeanStatusException(KernelErrorCode.DATA_ERROR);
             }
@@ -114,12 +117,37 @@ public class ModularServiceMethodInterceptor implements MethodInterceptor {
             if (!isOk) {
                 throw new BeanStatusException(KernelErrorCode.DATA_ERROR);
             }
+            plan.module = module;
+            plan.markReady(obj);
+        }
+        if (plan.annotations.isEmpty()) {
+            return methodProxy.invokeSuper(obj, params);
         }
-        if (annotationList.isEmpty()) {
+        if (plan.interceptorVersion != BeanMethodInterceptorManager.getVersion()) {
+            plan.fillInterceptorChains();
+        }
+        MultipleBeanMethodInterceptorChain chain = plan.interceptorChain;
+        if (chain == null) {
             return methodProxy.invokeSuper(obj, params);
         }
-        return BeanMethodInterceptorManager.doInterceptor(annotationList.toArray(new Annotation[annotationList.size()]), obj, method, params, methodProxy);
+        return chain.startInterceptor(null, obj, method, params, methodProxy);
+    }
 
+    private DispatchPlan getPlan(Class proxyClass, Method method) throws ClassNotFoundException {
+        Map<Method, DispatchPlan> methodPlanMap = planMap.get(proxyClass);
+        if (methodPlanMap == null) {
+            methodPlanMap = new ConcurrentHashMap<>();
+            Map<Method, DispatchPlan> old = planMap.putIfAbsent(proxyClass, methodPlanMap);
+            if (old != null) {
+                methodPlanMap = old;
+            }
+        }
+        DispatchPlan plan = methodPlanMap.get(method);
+        if (plan == null) {
+            plan = new DispatchPlan(proxyClass, method);
+            methodPlanMap.put(method, plan);
+        }
+        return plan;
     }
 
     /**
@@ -130,7 +158,7 @@ public class ModularServiceMethodInterceptor implements MethodInterceptor {
      * @param clazz          方法所属对象的类型/The type of the object that the method belongs to.
      * @param method         方法定义/Method definition
      */
-    private void fillAnnotationList(List<Annotation> annotationList, Class clazz, Method method) {
+    private static void fillAnnotationList(List<Annotation> annotationList, Class clazz, Method method) {
         Set<Class> classSet = new HashSet<>();
         for (Annotation ann : method.getDeclaredAnnotations()) {
             annotationList.add(ann);
@@ -147,4 +175,90 @@ public class ModularServiceMethodInterceptor implements MethodInterceptor {
             }
         }
     }
+
+    /**
+     * 方法调度计划
+     * The dispatch plan of a method.
+     */
+    private static final class DispatchPlan {
+
+        private final boolean isObjectMethod;
+        private final Class targetClass;
+        private final List<Annotation> annotations;
+
+        private volatile BaseModuleBootstrap module;
+
+        /**
+         * 已通过状态检查的实例，同一个代理类可能有多个实例，写时复制
+         * The instances that passed the status checks, one proxy class may have several instances, copied on write.
+         */
+        private volatile Object[] readyBeans = new Object[0];
+
+        /**
+         * 组装好的拦截器链，可在多个线程中重复使用，没有拦截器时为null
+         * The assembled interceptor chain, reused by all threads, null if no interceptor applies.
+         */
+        private volatile MultipleBeanMethodInterceptorChain interceptorChain;
+        private volatile int interceptorVersion = -1;
+
+        private DispatchPlan(Class proxyClass, Method method) throws ClassNotFoundException {
+            this.isObjectMethod = method.getDeclaringClass().equals(Object.class);
+            if (isObjectMethod) {
+                this.targetClass = null;
+                this.annotations = Collections.emptyList();
+                return;
+            }
+            String className = proxyClass.getCanonicalName();
+            className = className.substring(0, className.indexOf("$$"));
+            this.targetClass = Class.forName(className);
+            List<Annotation> annotationList = new ArrayList<>();
+            fillAnnotationList(annotationList, targetClass, method);
+            this.annotations = Collections.unmodifiableList(annotationList);
+        }
+
+        /**
+         * 模块运行中且实例已通过检查时可直接调用
+         * The method can be invoked directly when the module is running and the instance passed the checks.
+         */
+        private boolean isReady(Object obj) {
+            BaseModuleBootstrap module = this.module;
+            if (module == null ||
+                    (module.getModuleId() != NulsConstant.MODULE_ID_MICROKERNEL && module.getStatus() != ModuleStatusEnum.RUNNING)) {
+                return false;
+            }
+            for (Object bean : readyBeans) {
+                if (bean == obj) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized void markReady(Object obj) {
+            Object[] beans = readyBeans;
+            for (Object bean : beans) {
+                if (bean == obj) {
+                    return;
+                }
+            }
+            Object[] newBeans = Arrays.copyOf(beans, beans.length + 1);
+            newBeans[beans.length] = obj;
+            readyBeans = newBeans;
+        }
+
+        private void fillInterceptorChains() {
+            int version = BeanMethodInterceptorManager.getVersion();
+            List<Annotation> annotationList = new ArrayList<>();
+            List<BeanMethodInterceptorChain> chainList = new ArrayList<>();
+            for (Annotation ann : annotations) {
+                BeanMethodInterceptorChain chain = BeanMethodInterceptorManager.getInterceptorChain(ann.annotationType());
+                if (null != chain) {
+                    chainList.add(chain);
+                    annotationList.add(ann);
+                }
+            }
+            this.interceptorChain = annotationList.isEmpty() ? null : new MultipleBeanMethodInterceptorChain(annotationList, chainList);
+            this.interceptorVersion = version;
+        }
+    }
 }
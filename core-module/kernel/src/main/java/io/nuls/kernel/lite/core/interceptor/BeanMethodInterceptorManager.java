@@ -29,9 +29,10 @@ import net.sf.cglib.proxy.MethodProxy;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 拦截器管理器
@@ -45,7 +46,13 @@ public class BeanMethodInterceptorManager {
      * 拦截器池
      * The interceptor pool
      */
-    private static final Map<Class, BeanMethodInterceptorChain> INTERCEPTOR_MAP = new HashMap<>();
+    private static final Map<Class, BeanMethodInterceptorChain> INTERCEPTOR_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 拦截器池的版本号，每次添加拦截器时递增，用于判断缓存的拦截器链是否过期
+     * Version of the interceptor pool, increased on every added interceptor, tells whether a cached chain is outdated.
+     */
+    private static final AtomicInteger VERSION = new AtomicInteger();
 
     /**
      * 添加方法拦截器到管理器中
@@ -54,13 +61,30 @@ public class BeanMethodInterceptorManager {
      * @param annotationType 注解类型
      * @param interceptor    拦截器
      */
-    public static void addBeanMethodInterceptor(Class annotationType, BeanMethodInterceptor interceptor) {
+    public static synchronized void addBeanMethodInterceptor(Class annotationType, BeanMethodInterceptor interceptor) {
         BeanMethodInterceptorChain interceptorChain = INTERCEPTOR_MAP.get(annotationType);
         if (null == interceptorChain) {
             interceptorChain = new BeanMethodInterceptorChain();
         }
         interceptorChain.add(interceptor);
         INTERCEPTOR_MAP.put(annotationType, interceptorChain);
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * 获取拦截器池的版本号
+     * Get the version of the interceptor pool.
+     */
+    public static int getVersion() {
+        return VERSION.get();
+    }
+
+    /**
+     * 获取注解对应的拦截器链，没有拦截器的注解返回null
+     * Get the interceptor chain of the annotation, null if no interceptor is registered for it.
+     */
+    public static BeanMethodInterceptorChain getInterceptorChain(Class annotationType) {
+        return INTERCEPTOR_MAP.get(annotationType);
     }
 
     /**
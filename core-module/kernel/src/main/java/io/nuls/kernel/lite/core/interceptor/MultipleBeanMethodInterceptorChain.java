@@ -33,9 +33,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * 多重拦截器链:只当一个方法存在多条连接器链时使用，该链每次执行一个方法前初始化、组装
+ * 多重拦截器链:只当一个方法存在多条连接器链时使用，组装完成后可以被多个线程重复使用，执行进度保存在当前线程中
  * Multiple interceptors chain.Only when one method has multiple connector chains,
- * The chain is initialized and assembled every time a method is executed.
+ * Once assembled the chain can be reused by many threads, the execution progress is kept in the current thread.
  *
  * @author Niels Wang
  */
@@ -47,16 +47,10 @@ public class MultipleBeanMethodInterceptorChain extends BeanMethodInterceptorCha
     protected List<Annotation> annotationList = new ArrayList<>();
 
     /**
-     * 执行进度标记
-     * Progress mark
+     * 当前线程的执行进度，嵌套调用时在开始前保存、结束后恢复
+     * Execution progress of the current thread, saved before and restored after a nested call.
      */
-    protected Integer index = -1;
-
-    /**
-     * 方法代理器
-     * Method proxy object
-     */
-    protected MethodProxy methodProxy;
+    private final ThreadLocal<Progress> progressThreadLocal = ThreadLocal.withInitial(Progress::new);
 
 
 //    /**
@@ -101,8 +95,11 @@ public class MultipleBeanMethodInterceptorChain extends BeanMethodInterceptorCha
 //     */
     @Override
     public Object startInterceptor(Annotation annotation, Object object, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
-        this.methodProxy = methodProxy;
-        index = -1;
+        Progress progress = progressThreadLocal.get();
+        int outerIndex = progress.index;
+        MethodProxy outerMethodProxy = progress.methodProxy;
+        progress.index = -1;
+        progress.methodProxy = methodProxy;
         Object result = null;
         try {
             result = execute(null, object, method, params);
@@ -110,8 +107,8 @@ public class MultipleBeanMethodInterceptorChain extends BeanMethodInterceptorCha
             Log.error(e);
             throw e;
         } finally {
-            index = -1;
-            this.methodProxy = null;
+            progress.index = outerIndex;
+            progress.methodProxy = outerMethodProxy;
         }
         return result;
     }
@@ -129,12 +126,22 @@ public class MultipleBeanMethodInterceptorChain extends BeanMethodInterceptorCha
      */
     @Override
     public Object execute(Annotation annotation, Object object, Method method, Object[] params) throws Throwable {
-        index += 1;
+        Progress progress = progressThreadLocal.get();
+        int index = ++progress.index;
         if (index == interceptorList.size()) {
-            return methodProxy.invokeSuper(object, params);
+            return progress.methodProxy.invokeSuper(object, params);
         }
         annotation = annotationList.get(index);
         BeanMethodInterceptor interceptor = interceptorList.get(index);
         return interceptor.intercept(annotation, object, method, params, this);
     }
+
+    /**
+     * 一次执行的进度
+     * Progress of one execution.
+     */
+    private static final class Progress {
+        private int index = -1;
+        private MethodProxy methodProxy;
+    }
 }
@@ -24,20 +24,22 @@
  */
 package io.nuls.kernel.model;
 
-import io.nuls.core.tools.crypto.UnsafeByteArrayOutputStream;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.constant.NulsConstant;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.exception.NulsVerificationException;
+import io.nuls.kernel.utils.ByteBufferOutputStream;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
 import io.nuls.kernel.validate.ValidateResult;
 import io.nuls.kernel.validate.ValidatorManager;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
@@ -45,36 +47,96 @@ import java.util.Arrays;
  */
 public abstract class BaseNulsData implements NulsData, Serializable, Cloneable {
 
+    /**
+     * 只计算一次size，直接写入恰好等长的数组，不再经过可扩容的中间缓冲区
+     * size() is computed once and the data is written straight into an array of exactly that length, no growable intermediate buffer is involved
+     */
     @Override
     public final byte[] serialize() throws IOException {
-        ByteArrayOutputStream bos = null;
+        byte[] sealed = getSealedBytes();
+        if (sealed != null) {
+            return sealed.clone();
+        }
+        int size = size();
+        byte[] bytes = new byte[size == 0 ? NulsConstant.PLACE_HOLDER.length : size];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        serialize(new ByteBufferOutputStream(buffer), size);
+        if (buffer.position() != size) {
+            throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR);
+        }
+        return bytes;
+    }
+
+    /**
+     * 序列化到调用方提供的缓冲区（可以是池化的或直接内存），从当前position开始写入恰好size()个字节
+     * Serialize into a caller supplied buffer, which may be pooled or direct, exactly size() bytes are written from its current position.
+     *
+     * @return 写入的字节数/number of bytes written
+     */
+    public final int serialize(ByteBuffer target) throws IOException {
+        byte[] sealed = getSealedBytes();
+        if (sealed != null) {
+            try {
+                target.put(sealed);
+            } catch (BufferOverflowException e) {
+                throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR, e);
+            }
+            return sealed.length;
+        }
+        int size = size();
+        int start = target.position();
+        serialize(new ByteBufferOutputStream(target), size);
+        if (target.position() - start != size) {
+            throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR);
+        }
+        return size;
+    }
+
+    /**
+     * 直接序列化到指定的输出流，不生成中间字节数组，写入的字节数等于size()
+     * Serialize straight into the given stream without an intermediate byte array, exactly size() bytes are written.
+     */
+    public final void serialize(OutputStream out) throws IOException {
+        serialize(new NulsOutputStreamBuffer(out));
+    }
+
+    /**
+     * 嵌套序列化时复用外层的NulsOutputStreamBuffer，整棵对象树只经过一个流
+     * Nested serialization reuses the outer NulsOutputStreamBuffer so the whole object tree goes through a single stream
+     */
+    public final void serialize(NulsOutputStreamBuffer stream) throws IOException {
+        byte[] sealed = getSealedBytes();
+        if (sealed != null) {
+            stream.write(sealed);
+        } else if (size() == 0) {
+            stream.write(NulsConstant.PLACE_HOLDER);
+        } else {
+            serializeToStream(stream);
+        }
+    }
+
+    private void serialize(OutputStream out, int size) throws IOException {
         try {
-            int size = size();
-            bos = new UnsafeByteArrayOutputStream(size);
-            NulsOutputStreamBuffer buffer = new NulsOutputStreamBuffer(bos);
             if (size == 0) {
-                bos.write(NulsConstant.PLACE_HOLDER);
+                out.write(NulsConstant.PLACE_HOLDER);
             } else {
-                serializeToStream(buffer);
-            }
-            byte[] bytes = bos.toByteArray();
-            if (bytes.length != this.size()) {
-                throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR);
-            }
-            return bytes;
-        } finally {
-            if (bos != null) {
-                try {
-                    bos.close();
-                } catch (IOException e) {
-                    throw e;
-                }
+                serializeToStream(new NulsOutputStreamBuffer(out));
             }
+        } catch (BufferOverflowException e) {
+            throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR, e);
         }
     }
 
     protected abstract void serializeToStream(NulsOutputStreamBuffer stream) throws IOException;
 
+    /**
+     * 已封存对象的规范字节（解析时保留的原始字节或封存时的序列化结果），不为空时序列化直接写出这些字节，不再重新编码
+     * The canonical bytes of a sealed object (the wire bytes kept by parse or the result of sealing it), when present serialization writes them as is instead of encoding the fields again
+     */
+    protected byte[] getSealedBytes() {
+        return null;
+    }
+
 
     @Override
     public final void parse(byte[] bytes, int cursor) throws NulsException {
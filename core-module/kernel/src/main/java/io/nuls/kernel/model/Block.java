@@ -54,9 +54,9 @@ public class Block extends BaseNulsData implements Cloneable {
 
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        header.serializeToStream(stream);
+        stream.writeNulsData(header);
         for (Transaction tx : txs) {
-            stream.write(tx.serialize());
+            stream.writeNulsData(tx);
         }
     }
 
@@ -74,6 +74,29 @@ public class Block extends BaseNulsData implements Cloneable {
         }
     }
 
+//    /**
+//     * 封存区块：区块头和所有交易保留各自的规范字节，区块的序列化和size()由这些字节拼接而成，不再重新编码
+//     * Seal the block: the header and every transaction keep their canonical bytes, the block's serialization and size() are assembled from them without encoding again
+//     */
+    public void seal() {
+        header.seal();
+        for (Transaction tx : txs) {
+            tx.seal();
+        }
+    }
+
+    public boolean isSealed() {
+        if (!header.isSealed()) {
+            return false;
+        }
+        for (Transaction tx : txs) {
+            if (!tx.isSealed()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public List<Transaction> getTxs() {
         return txs;
     }
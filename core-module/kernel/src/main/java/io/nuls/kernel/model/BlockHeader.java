@@ -25,6 +25,7 @@
 package io.nuls.kernel.model;
 
 import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.script.P2PKHScriptSig;
@@ -34,6 +35,7 @@ import io.nuls.kernel.utils.NulsOutputStreamBuffer;
 import io.nuls.kernel.utils.SerializeUtils;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * @author vivi
@@ -52,6 +54,13 @@ public class BlockHeader extends BaseNulsData {
     private transient int size;
     private transient byte[] packingAddress;
 
+    /**
+     * 封存后的规范字节，接收或确认的区块头不再修改，序列化和size()直接取自这里，任何修改序列化字段的setter都会清除它
+     * The canonical bytes of a sealed header, received and confirmed headers no longer change so serialization
+     * and size() come straight from here, every setter of a serialized field clears it
+     */
+    private transient byte[] sealedBytes;
+
     public BlockHeader() {
     }
 
@@ -64,6 +73,9 @@ public class BlockHeader extends BaseNulsData {
 
     @Override
     public int size() {
+        if (sealedBytes != null) {
+            return sealedBytes.length;
+        }
         int size = 0;
         size += SerializeUtils.sizeOfNulsData(preHash);
         size += SerializeUtils.sizeOfNulsData(merkleHash);
@@ -88,6 +100,8 @@ public class BlockHeader extends BaseNulsData {
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        this.sealedBytes = null;
+        int start = byteBuffer.getCursor();
         this.preHash = byteBuffer.readHash();
         this.merkleHash = byteBuffer.readHash();
         this.time = byteBuffer.readUint48();
@@ -100,6 +114,38 @@ public class BlockHeader extends BaseNulsData {
             Log.error(e);
         }
         this.scriptSign = byteBuffer.readNulsData(new P2PKHScriptSig());
+        this.sealedBytes = Arrays.copyOfRange(byteBuffer.getPayload(), start, byteBuffer.getCursor());
+        this.size = sealedBytes.length;
+    }
+
+    @Override
+    protected byte[] getSealedBytes() {
+        return sealedBytes;
+    }
+
+//    /**
+//     * 封存区块头：保留当前的规范序列化结果，之后的序列化和size()不再重新编码，签名完成后调用
+//     * Seal the header: keep its current canonical serialization so later serialization and size() skip encoding, call it once signed
+//     */
+    public void seal() {
+        if (sealedBytes != null) {
+            return;
+        }
+        try {
+            this.sealedBytes = serialize();
+        } catch (IOException e) {
+            throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR, e);
+        }
+        this.size = sealedBytes.length;
+    }
+
+    public boolean isSealed() {
+        return sealedBytes != null;
+    }
+
+    private void unseal() {
+        this.sealedBytes = null;
+        this.size = 0;
     }
 
     private NulsDigestData forceCalcHash() {
@@ -128,6 +174,7 @@ public class BlockHeader extends BaseNulsData {
     }
 
     public void setPreHash(NulsDigestData preHash) {
+        unseal();
         this.preHash = preHash;
     }
 
@@ -136,6 +183,7 @@ public class BlockHeader extends BaseNulsData {
     }
 
     public void setMerkleHash(NulsDigestData merkleHash) {
+        unseal();
         this.merkleHash = merkleHash;
     }
 
@@ -144,6 +192,7 @@ public class BlockHeader extends BaseNulsData {
     }
 
     public void setTime(long time) {
+        unseal();
         this.time = time;
     }
 
@@ -152,6 +201,7 @@ public class BlockHeader extends BaseNulsData {
     }
 
     public void setHeight(long height) {
+        unseal();
         this.height = height;
     }
 
@@ -160,6 +210,7 @@ public class BlockHeader extends BaseNulsData {
     }
 
     public void setTxCount(long txCount) {
+        unseal();
         this.txCount = txCount;
     }
 
@@ -168,6 +219,7 @@ public class BlockHeader extends BaseNulsData {
     }
 
     public void setScriptSig(P2PKHScriptSig scriptSign) {
+        unseal();
         this.scriptSign = scriptSign;
     }
 
@@ -184,6 +236,7 @@ public class BlockHeader extends BaseNulsData {
     }
 
     public void setExtend(byte[] extend) {
+        unseal();
         this.extend = extend;
     }
 
@@ -77,6 +77,12 @@ public class Coin extends BaseNulsData {
         this.lockTime = byteBuffer.readUint48();
     }
 
+    static boolean skip(NulsByteBuffer byteBuffer) throws NulsException {
+        boolean canonical = byteBuffer.skipByLengthByte();
+        byteBuffer.skip(SerializeUtils.sizeOfInt64() + SerializeUtils.sizeOfUint48());
+        return canonical;
+    }
+
     @Override
     public int size() {
         int size = 0;
@@ -94,6 +94,33 @@ public class CoinData extends BaseNulsData {
         }
     }
 
+//    /**
+//     * 跳过一段序列化的CoinData而不创建Coin对象，用于交易的延迟解析，所有VarInt都是最短编码时返回true
+//     * Skip a serialized CoinData without building the coins, used by lazy transaction parsing, true when every VarInt is in its shortest form
+//     */
+    static boolean skip(NulsByteBuffer byteBuffer) throws NulsException {
+        if (byteBuffer.isFinished()) {
+            return false;
+        }
+        if (byteBuffer.skipPlaceHolder()) {
+            return true;
+        }
+        boolean canonical = skipCoins(byteBuffer);
+        return skipCoins(byteBuffer) && canonical;
+    }
+
+    private static boolean skipCoins(NulsByteBuffer byteBuffer) throws NulsException {
+        int start = byteBuffer.getCursor();
+        long count = byteBuffer.readVarInt();
+        boolean canonical = byteBuffer.getCursor() - start == SerializeUtils.sizeOfVarInt(count);
+        for (long i = 0; i < count; i++) {
+            if (!byteBuffer.skipPlaceHolder()) {
+                canonical = Coin.skip(byteBuffer) && canonical;
+            }
+        }
+        return canonical;
+    }
+
     @Override
     public int size() {
         int size = SerializeUtils.sizeOfVarInt(from == null ? 0 : from.size());
@@ -29,6 +29,7 @@ import io.nuls.core.tools.crypto.Hex;
 import io.nuls.core.tools.crypto.Sha256Hash;
 import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.utils.MerkleTree;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
 import io.nuls.kernel.utils.SerializeUtils;
@@ -49,6 +50,12 @@ public class NulsDigestData extends BaseNulsData {
 
     protected byte[] digestBytes;
 
+    /**
+     * 缓存的hashCode，0表示尚未计算，摘要字节变化时清零
+     * Cached hashCode, 0 means not computed yet, reset whenever the digest bytes change
+     */
+    private transient int hash;
+
     public static byte DIGEST_ALG_SHA256 = 0;
     public static byte DIGEST_ALG_SHA160 = 1;
 
@@ -75,6 +82,7 @@ public class NulsDigestData extends BaseNulsData {
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
         digestAlgType = byteBuffer.readByte();
         this.digestBytes = byteBuffer.readByLengthByte();
+        this.hash = 0;
     }
 
     public byte getDigestAlgType() {
@@ -150,25 +158,7 @@ public class NulsDigestData extends BaseNulsData {
     }
 
     public static NulsDigestData calcMerkleDigestData(List<NulsDigestData> ddList) {
-        int levelOffset = 0;
-        for (int levelSize = ddList.size(); levelSize > 1; levelSize = (levelSize + 1) / 2) {
-            for (int left = 0; left < levelSize; left += 2) {
-                int right = Math.min(left + 1, levelSize - 1);
-                byte[] leftBytes = SerializeUtils.reverseBytes(ddList.get(levelOffset + left).getDigestBytes());
-                byte[] rightBytes = SerializeUtils.reverseBytes(ddList.get(levelOffset + right).getDigestBytes());
-                byte[] whole = new byte[leftBytes.length + rightBytes.length];
-                System.arraycopy(leftBytes, 0, whole, 0, leftBytes.length);
-                System.arraycopy(rightBytes, 0, whole, leftBytes.length, rightBytes.length);
-                NulsDigestData digest = NulsDigestData.calcDigestData(whole);
-                ddList.add(digest);
-            }
-            levelOffset += levelSize;
-        }
-        byte[] bytes = ddList.get(ddList.size() - 1).getDigestBytes();
-        Sha256Hash merkleHash = Sha256Hash.wrap(bytes);
-        NulsDigestData digestData = new NulsDigestData();
-        digestData.digestBytes = merkleHash.getBytes();
-        return digestData;
+        return MerkleTree.calcRoot(ddList);
     }
 
     /**
@@ -219,25 +209,19 @@ public class NulsDigestData extends BaseNulsData {
      */
     @Override
     public boolean equals(Object obj) {
-
-        if (obj == null) {
-            return false;
+        if (this == obj) {
+            return true;
         }
         if (!(obj instanceof NulsDigestData)) {
             return false;
         }
-        try {
-            if (this.serialize() == null || ((NulsDigestData) obj).serialize() == null) {
-                return false;
-            }
-
-            if (this.serialize().length != ((NulsDigestData) obj).serialize().length) {
-                return false;
-            }
-        }catch (Exception e){
+        // 序列化长度相等等价于摘要字节长度相等，直接比较字节，不再重复序列化
+        // Equal serialized lengths mean equal digest lengths, the bytes are compared directly instead of serializing both sides
+        NulsDigestData other = (NulsDigestData) obj;
+        if (hashCode() != other.hashCode()) {
             return false;
         }
-        return Arrays.equals(this.getDigestBytes(), ((NulsDigestData) obj).getDigestBytes());
+        return Arrays.equals(this.getDigestBytes(), other.getDigestBytes());
     }
 
     @Override
@@ -282,6 +266,11 @@ public class NulsDigestData extends BaseNulsData {
      */
     @Override
     public int hashCode() {
-        return Arrays.hashCode(this.getDigestBytes());
+        int h = hash;
+        if (h == 0) {
+            h = Arrays.hashCode(this.getDigestBytes());
+            hash = h;
+        }
+        return h;
     }
 }
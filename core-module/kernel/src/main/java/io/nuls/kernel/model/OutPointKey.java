@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.kernel.model;
+
+import io.nuls.core.tools.crypto.Hex;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.exception.NulsRuntimeException;
+import io.nuls.kernel.utils.VarInt;
+
+import java.util.Arrays;
+
+/**
+ * UTXO引用（交易hash序列化结果 + VarInt输出序号，即Coin.owner）的不可变Map键。
+ * hash在创建时算好，交易hash的前8个字节打包成long用于快速排除不相等的键，不再经过Base64字符串或ByteBuffer
+ * Immutable map key of a utxo reference (the serialized tx hash followed by the VarInt output index, i.e. Coin.owner).
+ * The hash is computed once on creation and the first 8 digest bytes are packed into a long to reject unequal keys quickly,
+ * no Base64 string or ByteBuffer is involved any more
+ *
+ * @author Niels
+ */
+public final class OutPointKey {
+
+    /**
+     * 序列化的交易hash中摘要字节之前的算法类型和长度两个字节
+     * The algorithm type and length bytes that precede the digest inside a serialized tx hash
+     */
+    private static final int DIGEST_OFFSET = 2;
+
+    private final byte[] bytes;
+
+    private final long packed;
+
+    private final int index;
+
+    private final int hash;
+
+    private OutPointKey(byte[] bytes) {
+        this.bytes = bytes;
+        if (bytes.length >= NulsDigestData.HASH_LENGTH) {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value |= (bytes[DIGEST_OFFSET + i] & 0xffL) << (8 * i);
+            }
+            this.packed = value;
+            this.index = decodeIndex(bytes);
+            this.hash = index < 0 ? Arrays.hashCode(bytes) : 31 * (int) (value ^ (value >>> 32)) + index;
+        } else {
+            this.packed = 0L;
+            this.index = -1;
+            this.hash = Arrays.hashCode(bytes);
+        }
+    }
+
+    /**
+     * 解码交易hash之后的输出序号，没有序号或VarInt被截断时返回-1
+     * Decode the output index after the tx hash, -1 when there is none or the VarInt is truncated
+     */
+    private static int decodeIndex(byte[] bytes) {
+        if (bytes.length <= NulsDigestData.HASH_LENGTH
+                || bytes.length - NulsDigestData.HASH_LENGTH < VarInt.encodedSize(bytes[NulsDigestData.HASH_LENGTH])) {
+            return -1;
+        }
+        return (int) VarInt.decode(bytes, NulsDigestData.HASH_LENGTH);
+    }
+
+    /**
+     * 直接包装Coin.owner，不拷贝；owner创建后不会再被修改
+     * Wrap a Coin.owner without copying it, an owner is never modified once created
+     */
+    public static OutPointKey wrap(byte[] owner) {
+        if (null == owner || owner.length == 0) {
+            throw new NulsRuntimeException(KernelErrorCode.NULL_PARAMETER);
+        }
+        return new OutPointKey(owner);
+    }
+
+    /**
+     * 由交易hash的序列化结果和输出序号生成，一次分配恰好等长的数组
+     * Build from the serialized tx hash and the output index, a single array of exactly the right length is allocated
+     */
+    public static OutPointKey of(byte[] txHashBytes, int index) {
+        byte[] bytes = new byte[txHashBytes.length + VarInt.sizeOf(index)];
+        System.arraycopy(txHashBytes, 0, bytes, 0, txHashBytes.length);
+        VarInt.encode(index, bytes, txHashBytes.length);
+        return new OutPointKey(bytes);
+    }
+
+    /**
+     * 输出序号，不是UTXO引用时为-1
+     * The output index, -1 when the bytes are not a utxo reference
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof OutPointKey)) {
+            return false;
+        }
+        OutPointKey other = (OutPointKey) obj;
+        return hash == other.hash && packed == other.packed && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Hex.encode(bytes);
+    }
+}
@@ -26,15 +26,18 @@ package io.nuls.kernel.model;
 
 import io.nuls.core.tools.crypto.UnsafeByteArrayOutputStream;
 import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.constant.NulsConstant;
 import io.nuls.kernel.constant.TxStatusEnum;
 import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.func.TimeService;
 import io.nuls.kernel.script.P2PKHScriptSig;
 import io.nuls.kernel.utils.AddressTool;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
 import io.nuls.kernel.utils.SerializeUtils;
+import io.nuls.kernel.utils.VarInt;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -65,15 +68,43 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
 
     protected transient int size;
 
+    /**
+     * 封存后的规范字节，接收或确认的交易不再修改，序列化、size()和校验值都直接取自这里，任何修改序列化字段的setter都会清除它
+     * The canonical bytes of a sealed transaction, received and confirmed transactions no longer change so serialization,
+     * size() and checksums come straight from here, every setter of a serialized field clears it
+     */
+    private transient byte[] sealedBytes;
+
+    /**
+     * 延迟解析：coinData和scriptSig在封存字节中的偏移，只有首次访问时才解码，只需要hash或少数字段的路径不再创建Coin和签名对象
+     * Lazy parsing: offsets of coinData and scriptSig inside the sealed bytes, they are decoded on first access only,
+     * so paths that need the hash or a few fields never build the coins and the signature
+     */
+    private transient int coinDataOffset;
+    private transient int scriptSigOffset;
+    private transient volatile boolean coinDataPending;
+    private transient volatile boolean scriptSigPending;
+
+    /**
+     * 封存字节中remark、txData和coinData的编码与重新编码的结果一致，hash可以直接取自封存字节
+     * The remark, txData and coinData inside the sealed bytes equal their canonical encoding, so the hash can be taken from the sealed bytes
+     */
+    private transient boolean canonicalBody;
+
+    private static final int TYPE_TIME_LENGTH = 8;
+
     @Override
     public int size() {
+        if (sealedBytes != null) {
+            return sealedBytes.length;
+        }
         int size = 0;
         size += SerializeUtils.sizeOfUint16(); // type
         size += SerializeUtils.sizeOfUint48(); // time
         size += SerializeUtils.sizeOfBytes(remark);
         size += SerializeUtils.sizeOfNulsData(txData);
-        size += SerializeUtils.sizeOfNulsData(coinData);
-        size += SerializeUtils.sizeOfBytes(scriptSig);
+        size += SerializeUtils.sizeOfNulsData(getCoinData());
+        size += SerializeUtils.sizeOfBytes(getScriptSig());
         return size;
     }
 
@@ -83,23 +114,83 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
         stream.writeUint48(time);
         stream.writeBytesWithLength(remark);
         stream.writeNulsData(txData);
-        stream.writeNulsData(coinData);
-        stream.writeBytesWithLength(scriptSig);
+        stream.writeNulsData(getCoinData());
+        stream.writeBytesWithLength(getScriptSig());
     }
 
     @Override
     public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        this.sealedBytes = null;
+        this.hash = null;
+        this.coinData = null;
+        this.scriptSig = null;
+        this.coinDataPending = false;
+        this.scriptSigPending = false;
+        int start = byteBuffer.getCursor();
         type = byteBuffer.readUint16();
         time = byteBuffer.readUint48();
         this.remark = byteBuffer.readByLengthByte();
+        int txDataStart = byteBuffer.getCursor();
+        boolean canonical = txDataStart - start - TYPE_TIME_LENGTH == SerializeUtils.sizeOfBytes(remark);
         txData = this.parseTxData(byteBuffer);
-        this.coinData = byteBuffer.readNulsData(new CoinData());
+        int coinDataStart = byteBuffer.getCursor();
+        canonical = canonical && coinDataStart - txDataStart == SerializeUtils.sizeOfNulsData(txData);
+        // 只跳过coinData，它的编码不规范时才立即解码，保证hash与重新编码的结果一致
+        // coinData is only skipped, it is decoded right away when its encoding is not canonical so the hash stays the one of the re-encoded fields
+        canonical = CoinData.skip(byteBuffer) && canonical;
+        if (!canonical) {
+            byteBuffer.setCursor(coinDataStart);
+            this.coinData = byteBuffer.readNulsData(new CoinData());
+            try {
+                hash = NulsDigestData.calcDigestData(this.serializeForHash());
+            } catch (IOException e) {
+                Log.error(e);
+            }
+        }
+        int scriptSigStart = byteBuffer.getCursor();
+        byteBuffer.skipByLengthByte();
+        this.sealedBytes = Arrays.copyOfRange(byteBuffer.getPayload(), start, byteBuffer.getCursor());
+        this.size = sealedBytes.length;
+        this.canonicalBody = canonical;
+        this.coinDataOffset = coinDataStart - start;
+        this.scriptSigOffset = scriptSigStart - start;
+        this.coinDataPending = canonical;
+        this.scriptSigPending = true;
+    }
+
+    @Override
+    protected byte[] getSealedBytes() {
+        return sealedBytes;
+    }
+
+//    /**
+//     * 封存交易：保留当前的规范序列化结果，之后的序列化和size()不再重新编码，签名完成后调用
+//     * Seal the transaction: keep its current canonical serialization so later serialization and size() skip encoding, call it once signed
+//     */
+    public void seal() {
+        if (sealedBytes != null) {
+            return;
+        }
         try {
-            hash = NulsDigestData.calcDigestData(this.serializeForHash());
+            this.sealedBytes = serialize();
         } catch (IOException e) {
-            Log.error(e);
+            throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR, e);
         }
-        scriptSig = byteBuffer.readByLengthByte();
+        this.size = sealedBytes.length;
+        this.scriptSigOffset = sealedBytes.length - SerializeUtils.sizeOfBytes(scriptSig);
+        this.coinDataOffset = scriptSigOffset - SerializeUtils.sizeOfNulsData(coinData);
+        this.canonicalBody = true;
+    }
+
+    public boolean isSealed() {
+        return sealedBytes != null;
+    }
+
+    private void unseal() {
+        getCoinData();
+        getScriptSig();
+        this.sealedBytes = null;
+        this.size = 0;
     }
 
     //
@@ -143,10 +234,12 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
     }
 
     public void setTime(long time) {
+        unseal();
         this.time = time;
     }
 
     public void setType(int type) {
+        unseal();
         this.type = type;
     }
 
@@ -159,6 +252,7 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
     }
 
     public void setRemark(byte[] remark) {
+        unseal();
         this.remark = remark;
     }
 
@@ -178,11 +272,28 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
     }
 
     public byte[] getScriptSig() {
+        if (scriptSigPending) {
+            decodeScriptSig();
+        }
         return scriptSig;
     }
 
+    private synchronized void decodeScriptSig() {
+        if (!scriptSigPending) {
+            return;
+        }
+        try {
+            this.scriptSig = new NulsByteBuffer(sealedBytes, scriptSigOffset).readByLengthByte();
+        } catch (NulsException e) {
+            throw new NulsRuntimeException(KernelErrorCode.DATA_PARSE_ERROR, e);
+        }
+        scriptSigPending = false;
+    }
+
     public void setScriptSig(byte[] scriptSig) {
+        unseal();
         this.scriptSig = scriptSig;
+        this.scriptSigPending = false;
     }
 
     public T getTxData() {
@@ -190,6 +301,7 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
     }
 
     public void setTxData(T txData) {
+        unseal();
         this.txData = txData;
     }
 
@@ -210,11 +322,28 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
     }
 
     public CoinData getCoinData() {
+        if (coinDataPending) {
+            decodeCoinData();
+        }
         return coinData;
     }
 
+    private synchronized void decodeCoinData() {
+        if (!coinDataPending) {
+            return;
+        }
+        try {
+            this.coinData = new NulsByteBuffer(sealedBytes, coinDataOffset).readNulsData(new CoinData());
+        } catch (NulsException e) {
+            throw new NulsRuntimeException(KernelErrorCode.DATA_PARSE_ERROR, e);
+        }
+        coinDataPending = false;
+    }
+
     public void setCoinData(CoinData coinData) {
+        unseal();
         this.coinData = coinData;
+        this.coinDataPending = false;
     }
 
     public int getSize() {
@@ -233,6 +362,7 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
             return Na.ZERO;
         }
         Na fee = Na.ZERO;
+        CoinData coinData = getCoinData();
         if (null != coinData) {
             fee = coinData.getFee();
         }
@@ -242,7 +372,7 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
     public byte[] getAddressFromSig() {
         P2PKHScriptSig sig = new P2PKHScriptSig();
         try {
-            sig.parse(scriptSig, 0);
+            sig.parse(getScriptSig(), 0);
         } catch (NulsException e) {
             Log.error(e);
         }
@@ -251,7 +381,8 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
 
     public List<byte[]> getAllRelativeAddress() {
         Set<byte[]> addresses = new HashSet<>();
-
+        CoinData coinData = getCoinData();
+        byte[] scriptSig = getScriptSig();
         if (coinData != null) {
             Set<byte[]> coinAddressSet = coinData.getAddresses();
             if (null != coinAddressSet) {
@@ -288,9 +419,20 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
     }
 
     public byte[] serializeForHash() throws IOException {
+        if (sealedBytes != null && canonicalBody) {
+            // remark、txData和coinData直接取自封存字节，coinData无需解码
+            // remark, txData and coinData are taken from the sealed bytes as is, coinData needs no decoding
+            int bodyLength = scriptSigOffset - TYPE_TIME_LENGTH;
+            UnsafeByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(VarInt.sizeOf(type) + VarInt.sizeOf(time) + bodyLength);
+            NulsOutputStreamBuffer buffer = new NulsOutputStreamBuffer(bos);
+            buffer.writeVarInt(type);
+            buffer.writeVarInt(time);
+            buffer.write(sealedBytes, TYPE_TIME_LENGTH, bodyLength);
+            return bos.toByteArray();
+        }
         ByteArrayOutputStream bos = null;
         try {
-            int size = size() - SerializeUtils.sizeOfBytes(scriptSig);
+            int size = size() - SerializeUtils.sizeOfBytes(getScriptSig());
 
             bos = new UnsafeByteArrayOutputStream(size);
             NulsOutputStreamBuffer buffer = new NulsOutputStreamBuffer(bos);
@@ -301,7 +443,7 @@ public abstract class Transaction<T extends TransactionLogicData> extends BaseNu
                 buffer.writeVarInt(time);
                 buffer.writeBytesWithLength(remark);
                 buffer.writeNulsData(txData);
-                buffer.writeNulsData(coinData);
+                buffer.writeNulsData(getCoinData());
             }
             return bos.toByteArray();
         } finally {
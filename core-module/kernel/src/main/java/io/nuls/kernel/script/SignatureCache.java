@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.kernel.script;
+
+import io.nuls.core.tools.crypto.Sha256Hash;
+import io.nuls.kernel.model.NulsDigestData;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已验证通过的签名缓存，交易进入内存池时写入，区块验证时命中则跳过椭圆曲线验签
+ * 缓存的key是随机盐与(交易hash，公钥，签名)的sha256，不会误判，只记录验证通过的签名
+ * Cache of signatures that already passed verification. Entries are added on mempool admission and a hit during block validation skips the ECDSA check.
+ * The key is the sha256 of a random salt and (tx hash, public key, signature), so there are no false positives, and only valid signatures are recorded.
+ *
+ * @author Facjas
+ */
+public class SignatureCache {
+
+    /**
+     * 最多缓存的签名数，超出后随机淘汰
+     * Max number of cached signatures, arbitrary entries are evicted beyond it
+     */
+    private static final int MAX_SIZE = 100000;
+
+    private static final byte[] SALT = new byte[32];
+
+    private static final Map<ByteBuffer, Boolean> CACHE = new ConcurrentHashMap<>();
+
+    static {
+        new SecureRandom().nextBytes(SALT);
+    }
+
+    public static boolean contains(NulsDigestData hash, P2PKHScriptSig scriptSig) {
+        return CACHE.containsKey(key(hash, scriptSig));
+    }
+
+    public static void add(NulsDigestData hash, P2PKHScriptSig scriptSig) {
+        Iterator<ByteBuffer> it = CACHE.keySet().iterator();
+        while (CACHE.size() >= MAX_SIZE && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        CACHE.put(key(hash, scriptSig), Boolean.TRUE);
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    private static ByteBuffer key(NulsDigestData hash, P2PKHScriptSig scriptSig) {
+        MessageDigest digest = Sha256Hash.newDigest();
+        digest.update(SALT);
+        digest.update(hash.getDigestBytes());
+        digest.update(scriptSig.getPublicKey());
+        digest.update(scriptSig.getSignData().getSignBytes());
+        return ByteBuffer.wrap(digest.digest());
+    }
+}
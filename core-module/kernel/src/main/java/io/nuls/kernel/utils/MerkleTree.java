@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.kernel.utils;
+
+import io.nuls.core.tools.crypto.Sha256Hash;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.constant.NulsConstant;
+import io.nuls.kernel.exception.NulsRuntimeException;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 默克尔树计算：节点为左右子节点各自字节倒序后拼接再做两次SHA-256，奇数个节点时最后一个与自身配对。
+ * 宽的层级并行计算，每个线程复用自己的SHA-256和缓冲区；也可以逐个追加叶子，只保留每层一个待配对的节点
+ * Merkle tree engine: a node is the double SHA-256 of its children each reversed and concatenated, the last node of an odd level pairs with itself.
+ * Wide levels are hashed in parallel and every thread reuses its own SHA-256 and buffers; leaves can also be appended one by one keeping a single pending node per level
+ *
+ * @author Niels
+ */
+public class MerkleTree {
+
+    /**
+     * 一层的父节点数达到该值时才并行计算
+     * A level is hashed in parallel once it has at least this many parent nodes
+     */
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static final int HASH_LENGTH = 32;
+
+    private static final ThreadLocal<byte[]> PAIR_BUFFER = ThreadLocal.withInitial(() -> new byte[HASH_LENGTH * 2]);
+
+    private static final ThreadLocal<byte[]> ROUND_BUFFER = ThreadLocal.withInitial(() -> new byte[HASH_LENGTH]);
+
+    private static volatile ExecutorService executor;
+
+    /**
+     * 下标为层级，每层最多一个等待配对的节点
+     * Indexed by level, at most one node per level waits for its sibling
+     */
+    private final List<byte[]> pending = new ArrayList<>();
+
+    private int leafCount;
+
+    /**
+     * 追加一个叶子，已成对的节点立即向上合并
+     * Append a leaf, complete pairs are merged upwards right away
+     */
+    public void add(NulsDigestData hash) {
+        byte[] node = hash.getDigestBytes();
+        int level = 0;
+        while (level < pending.size() && pending.get(level) != null) {
+            node = hashPair(pending.get(level), node);
+            pending.set(level, null);
+            level++;
+        }
+        if (level == pending.size()) {
+            pending.add(node);
+        } else {
+            pending.set(level, node);
+        }
+        leafCount++;
+    }
+
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    /**
+     * 计算当前所有叶子的默克尔根，与calcRoot的结果一致，之后仍可继续追加
+     * The Merkle root of the leaves appended so far, equal to what calcRoot returns, more leaves can still be appended afterwards
+     */
+    public NulsDigestData getRoot() {
+        if (leafCount == 0) {
+            throw new NulsRuntimeException(KernelErrorCode.PARAMETER_ERROR);
+        }
+        int top = pending.size() - 1;
+        byte[] carry = null;
+        for (int level = 0; level <= top; level++) {
+            byte[] node = pending.get(level);
+            if (node != null) {
+                if (carry != null) {
+                    carry = hashPair(node, carry);
+                } else if (level == top) {
+                    carry = node;
+                } else {
+                    carry = hashPair(node, node);
+                }
+            } else if (carry != null) {
+                carry = hashPair(carry, carry);
+            }
+        }
+        return toDigest(carry);
+    }
+
+    /**
+     * 一次计算整棵树，不修改传入的列表
+     * Compute the whole tree at once, the given list is left untouched
+     */
+    public static NulsDigestData calcRoot(List<NulsDigestData> hashList) {
+        int size = hashList.size();
+        if (size == 0) {
+            throw new NulsRuntimeException(KernelErrorCode.PARAMETER_ERROR);
+        }
+        byte[][] level = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            level[i] = hashList.get(i).getDigestBytes();
+        }
+        byte[][] parent = new byte[(size + 1) / 2][];
+        while (size > 1) {
+            int parentSize = (size + 1) / 2;
+            if (parentSize >= PARALLEL_THRESHOLD && PARALLELISM > 1) {
+                hashLevelParallel(level, size, parent, parentSize);
+            } else {
+                hashLevel(level, size, parent, 0, parentSize);
+            }
+            byte[][] swap = level;
+            level = parent;
+            parent = swap;
+            size = parentSize;
+        }
+        return toDigest(level[0]);
+    }
+
+    private static void hashLevel(byte[][] level, int size, byte[][] parent, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte[] left = level[2 * i];
+            byte[] right = 2 * i + 1 < size ? level[2 * i + 1] : left;
+            parent[i] = hashPair(left, right);
+        }
+    }
+
+    private static void hashLevelParallel(byte[][] level, int size, byte[][] parent, int parentSize) {
+        int chunk = (parentSize + PARALLELISM - 1) / PARALLELISM;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = chunk; from < parentSize; from += chunk) {
+            int start = from;
+            int end = Math.min(from + chunk, parentSize);
+            futures.add(getExecutor().submit(() -> hashLevel(level, size, parent, start, end)));
+        }
+        hashLevel(level, size, parent, 0, Math.min(chunk, parentSize));
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NulsRuntimeException(KernelErrorCode.HASH_ERROR, e);
+        } catch (ExecutionException e) {
+            throw new NulsRuntimeException(KernelErrorCode.HASH_ERROR, e.getCause());
+        }
+    }
+
+    /**
+     * 两个子节点各自倒序写入本线程的缓冲区后做两次SHA-256，除结果外不分配内存
+     * Both children are written reversed into this thread's buffer and hashed twice, nothing but the result is allocated
+     */
+    private static byte[] hashPair(byte[] left, byte[] right) {
+        int length = left.length + right.length;
+        byte[] buffer = PAIR_BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new byte[length];
+            PAIR_BUFFER.set(buffer);
+        }
+        for (int i = 0; i < left.length; i++) {
+            buffer[i] = left[left.length - 1 - i];
+        }
+        for (int i = 0; i < right.length; i++) {
+            buffer[left.length + i] = right[right.length - 1 - i];
+        }
+        byte[] round = ROUND_BUFFER.get();
+        byte[] result = new byte[HASH_LENGTH];
+        MessageDigest digest = Sha256Hash.threadDigest();
+        try {
+            digest.update(buffer, 0, length);
+            digest.digest(round, 0, HASH_LENGTH);
+            digest.update(round, 0, HASH_LENGTH);
+            digest.digest(result, 0, HASH_LENGTH);
+        } catch (DigestException e) {
+            throw new NulsRuntimeException(KernelErrorCode.HASH_ERROR, e);
+        }
+        return result;
+    }
+
+    private static NulsDigestData toDigest(byte[] bytes) {
+        return new NulsDigestData(NulsDigestData.DIGEST_ALG_SHA256, bytes);
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (MerkleTree.class) {
+                if (executor == null) {
+                    executor = TaskManager.createThreadPool(PARALLELISM, 0,
+                            new NulsThreadFactory(NulsConstant.MODULE_ID_MICROKERNEL, "merkle-tree"));
+                }
+            }
+        }
+        return executor;
+    }
+}
@@ -36,7 +36,6 @@ import io.nuls.kernel.model.NulsSignData;
 import io.nuls.kernel.model.Transaction;
 
 import java.io.UnsupportedEncodingException;
-import java.util.Arrays;
 
 /**
  * @author Niels
@@ -45,6 +44,8 @@ public class NulsByteBuffer {
 
     private final byte[] payload;
 
+    private final int limit;
+
     private int cursor;
 
     public NulsByteBuffer(byte[] bytes) {
@@ -56,57 +57,56 @@ public class NulsByteBuffer {
             throw new NulsRuntimeException(KernelErrorCode.PARAMETER_ERROR);
         }
         this.payload = bytes;
+        this.limit = bytes.length;
         this.cursor = cursor;
     }
 
-    public long readUint32LE() throws NulsException {
-        try {
-            long u = SerializeUtils.readUint32LE(payload, cursor);
-            cursor += 4;
-            return u;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
+    /**
+     * 只读取bytes中[offset, offset + length)这一段，用于直接解析网络缓冲区等共享数组，不必先拷贝
+     * Only the bytes inside [offset, offset + length) are read, so a shared array such as a network buffer can be parsed without copying it first
+     */
+    public NulsByteBuffer(byte[] bytes, int offset, int length) {
+        if (null == bytes || length <= 0 || offset < 0 || offset + length > bytes.length) {
+            throw new NulsRuntimeException(KernelErrorCode.PARAMETER_ERROR);
         }
+        this.payload = bytes;
+        this.limit = offset + length;
+        this.cursor = offset;
+    }
+
+    public long readUint32LE() throws NulsException {
+        checkRemaining(4);
+        long u = SerializeUtils.readUint32LE(payload, cursor);
+        cursor += 4;
+        return u;
     }
 
     public int readUint16() throws NulsException {
-        try {
-            int val = SerializeUtils.readUint16LE(payload, cursor);
-            cursor += 2;
-            return val;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
-        }
+        checkRemaining(2);
+        int val = SerializeUtils.readUint16LE(payload, cursor);
+        cursor += 2;
+        return val;
     }
 
     public int readInt32() throws NulsException {
-        try {
-            int u = SerializeUtils.readInt32LE(payload, cursor);
-            cursor += 4;
-            return u;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
-        }
+        checkRemaining(4);
+        int u = SerializeUtils.readInt32LE(payload, cursor);
+        cursor += 4;
+        return u;
     }
 
     public long readUint32() throws NulsException {
-        try {
-            long val = SerializeUtils.readUint32LE(payload, cursor);
-            cursor += 4;
-            return val;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
-        }
+        checkRemaining(4);
+        long val = SerializeUtils.readUint32LE(payload, cursor);
+        cursor += 4;
+        return val;
     }
 
     public long readInt64() throws NulsException {
-        try {
-            long u = SerializeUtils.readInt64LE(payload, cursor);
-            cursor += 8;
-            return u;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
-        }
+        checkRemaining(8);
+        long u = SerializeUtils.readInt64LE(payload, cursor);
+        cursor += 8;
+        return u;
     }
 
 
@@ -115,34 +115,74 @@ public class NulsByteBuffer {
     }
 
     public long readVarInt(int offset) throws NulsException {
-        try {
-            VarInt varint = new VarInt(payload, cursor + offset);
-            cursor += offset + varint.getOriginalSizeInBytes();
-            return varint.value;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
-        }
+        checkRemaining(offset + 1);
+        int position = cursor + offset;
+        int size = VarInt.encodedSize(payload[position]);
+        checkRemaining(offset + size);
+        long value = VarInt.decode(payload, position);
+        cursor = position + size;
+        return value;
     }
 
     public byte readByte() throws NulsException {
-        try {
-            byte b = payload[cursor];
-            cursor += 1;
-            return b;
-        } catch (IndexOutOfBoundsException e) {
-            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
-        }
+        checkRemaining(1);
+        byte b = payload[cursor];
+        cursor += 1;
+        return b;
     }
 
     public byte[] readBytes(int length) throws NulsException {
-        try {
-            byte[] b = new byte[length];
-            System.arraycopy(payload, cursor, b, 0, length);
-            cursor += length;
-            return b;
-        } catch (IndexOutOfBoundsException e) {
-            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR, e);
+        checkRemaining(length);
+        byte[] b = new byte[length];
+        System.arraycopy(payload, cursor, b, 0, length);
+        cursor += length;
+        return b;
+    }
+
+    public void skip(int length) throws NulsException {
+        checkRemaining(length);
+        cursor += length;
+    }
+
+    /**
+     * 剩余字节不足length时抛出异常，所有读取都不能越过limit，即使底层数组更长
+     * Throw when fewer than length bytes remain, no read may pass the limit even if the backing array is longer
+     */
+    private void checkRemaining(int length) throws NulsException {
+        if (length < 0 || cursor < 0 || cursor > limit - length) {
+            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR);
+        }
+    }
+
+    /**
+     * 跳过一段带长度前缀的字节而不拷贝，长度的VarInt是最短编码时返回true
+     * Skip length prefixed bytes without copying them, true when the length VarInt is in its shortest form
+     */
+    public boolean skipByLengthByte() throws NulsException {
+        int start = cursor;
+        long length = this.readVarInt();
+        boolean canonical = cursor - start == VarInt.sizeOf(length);
+        if (length > Integer.MAX_VALUE) {
+            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR);
+        }
+        skip((int) length);
+        return canonical;
+    }
+
+    /**
+     * 当前位置是占位符时跳过它并返回true
+     * Skip the place holder and return true when the cursor points at one
+     */
+    public boolean skipPlaceHolder() {
+        if (limit - cursor >= NulsConstant.PLACE_HOLDER.length && isPlaceHolder()) {
+            cursor += NulsConstant.PLACE_HOLDER.length;
+            return true;
         }
+        return false;
+    }
+
+    public int remaining() {
+        return limit - cursor;
     }
 
     public byte[] readByLengthByte() throws NulsException {
@@ -150,6 +190,9 @@ public class NulsByteBuffer {
         if (length == 0) {
             return null;
         }
+        if (length < 0 || length > remaining()) {
+            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR);
+        }
         return readBytes((int) length);
     }
 
@@ -167,11 +210,10 @@ public class NulsByteBuffer {
     }
 
     public short readShort() throws NulsException {
-        byte[] bytes = this.readBytes(2);
-        if (null == bytes) {
-            return 0;
-        }
-        return SerializeUtils.bytes2Short(bytes);
+        checkRemaining(2);
+        short val = (short) ((payload[cursor + 1] << 8) | payload[cursor] & 0xff);
+        cursor += 2;
+        return val;
     }
 
     public String readString() throws NulsException {
@@ -189,15 +231,11 @@ public class NulsByteBuffer {
     }
 
     public double readDouble() throws NulsException {
-        byte[] bytes = this.readBytes(8);
-        if (null == bytes) {
-            return 0;
-        }
-        return SerializeUtils.bytes2Double(bytes);
+        return Double.longBitsToDouble(readInt64());
     }
 
     public boolean isFinished() {
-        return this.payload.length == cursor;
+        return cursor >= limit;
     }
 
 //    public byte[] getPayloadByCursor() {
@@ -214,27 +252,34 @@ public class NulsByteBuffer {
         if (payload == null) {
             return null;
         }
-        int length = payload.length - cursor;
+        int length = limit - cursor;
         if (length <= 0) {
             return null;
         }
-        if (length >= 4) {
-            byte[] byte4 = new byte[4];
-            System.arraycopy(payload, cursor, byte4, 0, 4);
-            if (Arrays.equals(NulsConstant.PLACE_HOLDER, byte4)) {
-                cursor += 4;
-                return null;
-            }
+        if (length >= 4 && isPlaceHolder()) {
+            cursor += 4;
+            return null;
         }
         nulsData.parse(this);
         return nulsData;
     }
 
+    private boolean isPlaceHolder() {
+        byte[] placeHolder = NulsConstant.PLACE_HOLDER;
+        for (int i = 0; i < placeHolder.length; i++) {
+            if (payload[cursor + i] != placeHolder[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public NulsSignData readSign() throws NulsException {
         return this.readNulsData(new NulsSignData());
     }
 
-    public long readUint48() {
+    public long readUint48() throws NulsException {
+        checkRemaining(6);
         long value = (payload[cursor + 0] & 0xffL) |
                 ((payload[cursor + 1] & 0xffL) << 8) |
                 ((payload[cursor + 2] & 0xffL) << 16) |
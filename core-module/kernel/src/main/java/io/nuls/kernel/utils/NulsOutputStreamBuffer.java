@@ -41,6 +41,12 @@ public class NulsOutputStreamBuffer {
 
     private final OutputStream out;
 
+    /**
+     * 定长字段与VarInt的编码缓冲，每个字段编码后一次写出，不再为每个字段创建数组
+     * Scratch space for fixed width fields and VarInts, every field is encoded here and written in one call instead of allocating an array per field
+     */
+    private final byte[] scratch = new byte[9];
+
     public NulsOutputStreamBuffer(OutputStream out) {
         this.out = out;
     }
@@ -49,24 +55,28 @@ public class NulsOutputStreamBuffer {
         out.write(bytes);
     }
 
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
     public void write(int val) throws IOException {
         out.write(val);
     }
 
     public void writeVarInt(int val) throws IOException {
-        out.write(new VarInt(val).encode());
+        writeVarInt((long) val);
     }
 
     public void writeVarInt(long val) throws IOException {
-        out.write(new VarInt(val).encode());
+        out.write(scratch, 0, VarInt.encode(val, scratch, 0));
     }
 
 
     public void writeBytesWithLength(byte[] bytes) throws IOException {
         if (null == bytes || bytes.length == 0) {
-            out.write(new VarInt(0).encode());
+            writeVarInt(0);
         } else {
-            out.write(new VarInt(bytes.length).encode());
+            writeVarInt(bytes.length);
             out.write(bytes);
         }
     }
@@ -76,29 +86,34 @@ public class NulsOutputStreamBuffer {
     }
 
     public void writeShort(short val) throws IOException {
-        SerializeUtils.int16ToByteStreamLE(val, out);
+        SerializeUtils.int16ToByteArrayLE(val, scratch, 0);
+        out.write(scratch, 0, 2);
     }
 
     public void writeUint16(int val) throws IOException {
-        SerializeUtils.uint16ToByteStreamLE(val, out);
+        scratch[0] = (byte) (0xFF & val);
+        scratch[1] = (byte) (0xFF & (val >> 8));
+        out.write(scratch, 0, 2);
     }
 
     public void writeUint32(long val) throws IOException {
-        SerializeUtils.uint32ToByteStreamLE(val, out);
+        SerializeUtils.uint32ToByteArrayLE(val, scratch, 0);
+        out.write(scratch, 0, 4);
     }
 
     public void writeInt64(long val) throws IOException {
-        SerializeUtils.int64ToByteStreamLE(val, out);
+        SerializeUtils.uint64ToByteArrayLE(val, scratch, 0);
+        out.write(scratch, 0, 8);
     }
 
     public void writeDouble(double val) throws IOException {
-        out.write(SerializeUtils.double2Bytes(val));
+        writeInt64(Double.doubleToRawLongBits(val));
     }
 
     public void writeString(String val) {
         if (StringUtils.isBlank(val)) {
             try {
-                out.write(new VarInt(0).encode());
+                writeVarInt(0);
             } catch (IOException e) {
                 Log.error(e);
                 throw new NulsRuntimeException(e);
@@ -113,16 +128,25 @@ public class NulsOutputStreamBuffer {
         }
     }
 
+    /**
+     * 嵌套对象直接写入当前流，不再先序列化成中间数组
+     * Nested data is written straight into this stream instead of being serialized into an intermediate array first
+     */
     public void writeNulsData(BaseNulsData data) throws IOException {
         if (null == data) {
             write(NulsConstant.PLACE_HOLDER);
         } else {
-            this.write(data.serialize());
+            data.serialize(this);
         }
     }
 
     public void writeUint48(long time) throws IOException {
-        byte[] bytes = SerializeUtils.uint48ToBytes(time);
-        this.write(bytes);
+        scratch[0] = (byte) (0xFF & time);
+        scratch[1] = (byte) (0xFF & (time >> 8));
+        scratch[2] = (byte) (0xFF & (time >> 16));
+        scratch[3] = (byte) (0xFF & (time >> 24));
+        scratch[4] = (byte) (0xFF & (time >> 32));
+        scratch[5] = (byte) (0xFF & (time >> 40));
+        out.write(scratch, 0, 6);
     }
 }
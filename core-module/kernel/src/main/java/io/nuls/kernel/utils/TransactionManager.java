@@ -32,11 +32,13 @@ import io.nuls.kernel.lite.core.SpringLiteContext;
 import io.nuls.kernel.model.Transaction;
 import io.nuls.kernel.processor.TransactionProcessor;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * @author Niels
@@ -45,6 +47,7 @@ public class TransactionManager {
 
     private static final Map<Class<? extends Transaction>, Class<? extends TransactionProcessor>> TX_SERVICE_MAP = new HashMap<>();
     private static final Map<Integer, Class<? extends Transaction>> TYPE_TX_MAP = new HashMap<>();
+    private static final Map<Integer, Supplier<? extends Transaction>> TYPE_FACTORY_MAP = new HashMap<>();
 
     public static void init() throws Exception {
         List<TransactionProcessor> beanList = SpringLiteContext.getBeanList(TransactionProcessor.class);
@@ -69,19 +72,62 @@ public class TransactionManager {
     }
 
     public static final void putTx(Class<? extends Transaction> txClass, Class<? extends TransactionProcessor> txProcessorClass) {
+        if (TYPE_TX_MAP.containsValue(txClass)) {
+            // 已注册过工厂的交易只补充处理器，不用反射工厂覆盖
+            // Only the processor is added for a registered class, its factory is not replaced by a reflective one
+            if (null != txProcessorClass) {
+                TX_SERVICE_MAP.put(txClass, txProcessorClass);
+            }
+            return;
+        }
+        try {
+            Constructor<? extends Transaction> constructor = txClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            register(txClass, txProcessorClass, () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (NoSuchMethodException e) {
+            Log.error(e);
+        }
+    }
+
+    /**
+     * 注册交易类及其工厂，工厂应直接调用构造函数，解析交易时不再经过反射
+     * Register a transaction class with its factory, the factory should call the constructor directly so parsing a transaction skips reflection
+     */
+    public static final <T extends Transaction> void putTx(Class<T> txClass, Class<? extends TransactionProcessor> txProcessorClass, Supplier<T> factory) {
+        register(txClass, txProcessorClass, factory);
+    }
+
+    private static void register(Class<? extends Transaction> txClass, Class<? extends TransactionProcessor> txProcessorClass, Supplier<? extends Transaction> factory) {
         if (null != txProcessorClass) {
             TX_SERVICE_MAP.put(txClass, txProcessorClass);
         }
         try {
-            Transaction tx = txClass.newInstance();
+            Transaction tx = factory.get();
             TYPE_TX_MAP.put(tx.getType(), txClass);
-        } catch (InstantiationException e) {
-            Log.error(e);
-        } catch (IllegalAccessException e) {
+            TYPE_FACTORY_MAP.put(tx.getType(), factory);
+        } catch (Exception e) {
             Log.error(e);
         }
     }
 
+    /**
+     * 通过注册的工厂创建交易实例，未注册的类型返回null
+     * Create a transaction through its registered factory, null for an unknown type
+     */
+    public static Transaction newInstance(int txType) {
+        Supplier<? extends Transaction> factory = TYPE_FACTORY_MAP.get(txType);
+        if (null == factory) {
+            return null;
+        }
+        return factory.get();
+    }
+
     private static TransactionProcessor getProcessor(Class<? extends Transaction> txClass) {
         Class<? extends TransactionProcessor> txProcessorClass = TX_SERVICE_MAP.get(txClass);
         if (null == txProcessorClass) {
@@ -115,12 +161,11 @@ public class TransactionManager {
     public static Transaction getInstance(NulsByteBuffer byteBuffer) throws Exception {
         int txType = byteBuffer.readUint16();
         byteBuffer.setCursor(byteBuffer.getCursor() - SerializeUtils.sizeOfUint16());
-        Class<? extends Transaction> txClass = TYPE_TX_MAP.get(txType);
-        if (null == txClass) {
+        Transaction tx = newInstance(txType);
+        if (null == tx) {
             throw new NulsRuntimeException(KernelErrorCode.DATA_NOT_FOUND);
         }
-        Transaction tx = byteBuffer.readNulsData(txClass.newInstance());
-        return tx;
+        return byteBuffer.readNulsData(tx);
     }
 
 
@@ -52,26 +52,74 @@ public class VarInt {
      * @param offset the offset of the value
      */
     public VarInt(byte[] buf, int offset) {
+        value = decode(buf, offset);
+        originallyEncodedSize = encodedSize(buf[offset]);
+    }
+
+//    /**
+//     * Decodes the value at the specified offset of the given buffer without creating a VarInt.
+//     */
+    public static long decode(byte[] buf, int offset) {
         int first = 0xFF & buf[offset];
         if (first < 253) {
-            value = first;
             // 1 data byte (8 bits)
-            originallyEncodedSize = 1;
+            return first;
         } else if (first == 253) {
-            value = (0xFF & buf[offset + 1]) | ((0xFF & buf[offset + 2]) << 8);
             // 1 marker + 2 data bytes (16 bits)
-            originallyEncodedSize = 3;
+            return (0xFF & buf[offset + 1]) | ((0xFF & buf[offset + 2]) << 8);
         } else if (first == 254) {
-            value = SerializeUtils.readUint32LE(buf, offset + 1);
             // 1 marker + 4 data bytes (32 bits)
-            originallyEncodedSize = 5;
+            return SerializeUtils.readUint32LE(buf, offset + 1);
         } else {
-            value = SerializeUtils.readInt64LE(buf, offset + 1);
             // 1 marker + 8 data bytes (64 bits)
-            originallyEncodedSize = 9;
+            return SerializeUtils.readInt64LE(buf, offset + 1);
         }
     }
 
+//    /**
+//     * Returns the number of bytes of the encoding that starts with the given first byte.
+//     */
+    public static int encodedSize(byte first) {
+        switch (0xFF & first) {
+            case 253:
+                return 3;
+            case 254:
+                return 5;
+            case 255:
+                return 9;
+            default:
+                return 1;
+        }
+    }
+
+//    /**
+//     * Encodes the value in its minimal representation into the buffer at the offset.
+//     *
+//     * @return the number of bytes written
+//     */
+    public static int encode(long value, byte[] buf, int offset) {
+        int size = sizeOf(value);
+        switch (size) {
+            case 1:
+                buf[offset] = (byte) value;
+                break;
+            case 3:
+                buf[offset] = (byte) 253;
+                buf[offset + 1] = (byte) (value);
+                buf[offset + 2] = (byte) (value >> 8);
+                break;
+            case 5:
+                buf[offset] = (byte) 254;
+                SerializeUtils.uint32ToByteArrayLE(value, buf, offset + 1);
+                break;
+            default:
+                buf[offset] = (byte) 255;
+                SerializeUtils.uint64ToByteArrayLE(value, buf, offset + 1);
+                break;
+        }
+        return size;
+    }
+
 //    /**
 //     * Returns the original number of bytes used to encode the value if it was
 //     * deserialized from a byte array, or the minimum encoded size if it was not.
@@ -120,22 +168,8 @@ public class VarInt {
 //     * @return the minimal encoded bytes of the value
 //     */
     public byte[] encode() {
-        byte[] bytes;
-        switch (sizeOf(value)) {
-            case 1:
-                return new byte[]{(byte) value};
-            case 3:
-                return new byte[]{(byte) 253, (byte) (value), (byte) (value >> 8)};
-            case 5:
-                bytes = new byte[5];
-                bytes[0] = (byte) 254;
-                SerializeUtils.uint32ToByteArrayLE(value, bytes, 1);
-                return bytes;
-            default:
-                bytes = new byte[9];
-                bytes[0] = (byte) 255;
-                SerializeUtils.uint64ToByteArrayLE(value, bytes, 1);
-                return bytes;
-        }
+        byte[] bytes = new byte[sizeOf(value)];
+        encode(value, bytes, 0);
+        return bytes;
     }
 }
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.kernel.lite.core.benchmark;
+
+import io.nuls.kernel.constant.ModuleStatusEnum;
+import io.nuls.kernel.lite.core.ModularServiceMethodInterceptor;
+import io.nuls.kernel.lite.core.SpringLiteContext;
+import io.nuls.kernel.lite.core.interceptor.BeanMethodInterceptorManager;
+import io.nuls.kernel.module.manager.ModuleManager;
+import io.nuls.kernel.module.manager.ServiceManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务代理调用开销的基准测试。与优化前的实现对比时，在基线提交的工作副本中放入本包后以相同参数运行，而不是复制旧代码：
+ * Benchmark of the service proxy overhead. To compare with an older interceptor, run the same benchmark on a checkout
+ * of the baseline commit instead of keeping a copy of the old code:
+ * <pre>
+ * git worktree add /tmp/nuls-baseline &lt;baseline-commit&gt;
+ * cp -r core-module/kernel/src/test/java/io/nuls/kernel/lite/core/benchmark \
+ *       /tmp/nuls-baseline/core-module/kernel/src/test/java/io/nuls/kernel/lite/core/
+ * </pre>
+ * 两边都在mvn test-compile后运行main方法/On both sides run the main method after mvn test-compile.
+ *
+ * @author Niels Wang
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceInterceptorBenchmark {
+
+    private static boolean contextInited;
+
+    private BenchService proxy;
+
+    private BenchService direct;
+
+    private long value;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        initContext();
+        proxy = SpringLiteContext.getBean(BenchService.class);
+        direct = new BenchService();
+    }
+
+    private static synchronized void initContext() throws Exception {
+        if (contextInited) {
+            return;
+        }
+        SpringLiteContext.init("io.nuls.kernel.lite.core.benchmark", new ModularServiceMethodInterceptor());
+        BeanMethodInterceptorManager.addBeanMethodInterceptor(BenchTag.class,
+                (annotation, object, method, params, interceptorChain) -> interceptorChain.execute(annotation, object, method, params));
+        BenchModuleBootstrap module = new BenchModuleBootstrap();
+        ModuleManager.getInstance().regModule(module);
+        ServiceManager.getInstance().regService(BenchModuleBootstrap.MODULE_ID, BenchService.class);
+        module.setStatus(ModuleStatusEnum.RUNNING);
+        contextInited = true;
+    }
+
+    @Benchmark
+    public long directCall() {
+        return direct.sum(value++, 1L);
+    }
+
+    @Benchmark
+    public long proxyCall() {
+        return proxy.sum(value++, 1L);
+    }
+
+    @Benchmark
+    public long interceptedProxyCall() {
+        return proxy.taggedSum(value++, 1L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ServiceInterceptorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
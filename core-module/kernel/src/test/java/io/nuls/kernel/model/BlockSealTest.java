@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package io.nuls.kernel.model;
+
+import io.nuls.kernel.constant.NulsConstant;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.TransactionManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class BlockSealTest {
+
+    @BeforeClass
+    public static void init() {
+        TransactionManager.putTx(SealTestTransaction.class, null);
+    }
+
+    @Test
+    public void testTransaction() throws Exception {
+        Transaction tx = createTx(1);
+        assertFalse(tx.isSealed());
+        byte[] bytes = tx.serialize();
+
+        Transaction parsed = new NulsByteBuffer(bytes).readNulsData(new SealTestTransaction());
+        assertTrue(parsed.isSealed());
+        assertEquals(bytes.length, parsed.size());
+        assertArrayEquals(bytes, parsed.serialize());
+        assertEquals(tx.getHash(), parsed.getHash());
+
+        parsed.serialize()[0] ^= 1;
+        assertArrayEquals(bytes, parsed.serialize());
+
+        parsed.setRemark(new byte[]{9, 9, 9, 9});
+        assertFalse(parsed.isSealed());
+        assertEquals(bytes.length + 3, parsed.size());
+        assertEquals(parsed.size(), parsed.serialize().length);
+
+        tx.seal();
+        assertTrue(tx.isSealed());
+        assertArrayEquals(bytes, tx.serialize());
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        List<Transaction> txs = new ArrayList<>();
+        txs.add(createTx(1));
+        txs.add(createTx(2));
+        BlockHeader header = new BlockHeader();
+        header.setPreHash(NulsDigestData.calcDigestData(new byte[]{1}));
+        header.setMerkleHash(NulsDigestData.calcDigestData(new byte[]{2}));
+        header.setTime(1000L);
+        header.setHeight(10L);
+        header.setTxCount(txs.size());
+        header.setExtend(new byte[]{1, 2, 3});
+        Block block = new Block();
+        block.setHeader(header);
+        block.setTxs(txs);
+        byte[] bytes = block.serialize();
+
+        Block parsed = new NulsByteBuffer(bytes).readNulsData(new Block());
+        assertTrue(parsed.isSealed());
+        assertEquals(bytes.length, parsed.size());
+        assertArrayEquals(bytes, parsed.serialize());
+        assertEquals(header.getHash(), parsed.getHeader().getHash());
+
+        parsed.getHeader().setHeight(11L);
+        assertFalse(parsed.isSealed());
+        assertEquals(bytes.length, parsed.serialize().length);
+        assertEquals(11L, new NulsByteBuffer(parsed.serialize()).readNulsData(new Block()).getHeader().getHeight());
+
+        block.seal();
+        assertTrue(block.isSealed());
+        assertArrayEquals(bytes, block.serialize());
+    }
+
+    private Transaction createTx(int index) {
+        Transaction tx = new SealTestTransaction();
+        tx.setTime(1000L + index);
+        tx.setRemark(new byte[]{(byte) index});
+        CoinData coinData = new CoinData();
+        coinData.getTo().add(new Coin(new byte[]{1, 2, (byte) index}, Na.valueOf(100L * index), 0));
+        tx.setCoinData(coinData);
+        tx.setScriptSig(new byte[]{3, 4, 5});
+        return tx;
+    }
+
+    public static class SealTestTransaction extends Transaction {
+
+        public SealTestTransaction() {
+            super(9901);
+        }
+
+        @Override
+        protected TransactionLogicData parseTxData(NulsByteBuffer byteBuffer) throws NulsException {
+            byteBuffer.skip(NulsConstant.PLACE_HOLDER.length);
+            return null;
+        }
+
+        @Override
+        public String getInfo(byte[] address) {
+            return null;
+        }
+    }
+}
@@ -40,4 +40,17 @@ public class NulsDigestDataTest {
         System.out.println(hash);
         assertTrue(true);
     }
+
+    @Test
+    public void testEquals() throws Exception {
+        NulsDigestData hash = NulsDigestData.calcDigestData(new byte[32]);
+        NulsDigestData same = NulsDigestData.fromDigestHex(hash.getDigestHex());
+        assertEquals(hash, same);
+        assertEquals(hash.hashCode(), same.hashCode());
+        assertNotEquals(hash, NulsDigestData.calcDigestData(new byte[31]));
+
+        same.parse(NulsDigestData.calcDigestData(new byte[31]).serialize(), 0);
+        assertNotEquals(hash, same);
+        assertEquals(NulsDigestData.calcDigestData(new byte[31]).hashCode(), same.hashCode());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package io.nuls.kernel.model;
+
+import io.nuls.kernel.exception.NulsRuntimeException;
+import io.nuls.kernel.utils.VarInt;
+import org.junit.Test;
+import org.spongycastle.util.Arrays;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class OutPointKeyTest {
+
+    @Test
+    public void ofEqualsWrappedOwner() throws IOException {
+        byte[] txHashBytes = NulsDigestData.calcDigestData(new byte[]{1, 2, 3}).serialize();
+        for (int index : new int[]{0, 1, 252, 253, 70000}) {
+            byte[] owner = Arrays.concatenate(txHashBytes, new VarInt(index).encode());
+            OutPointKey built = OutPointKey.of(txHashBytes, index);
+            OutPointKey wrapped = OutPointKey.wrap(owner);
+            assertEquals(wrapped, built);
+            assertEquals(wrapped.hashCode(), built.hashCode());
+            assertEquals(index, built.getIndex());
+            assertArrayEquals(owner, built.getBytes());
+        }
+    }
+
+    @Test
+    public void distinguishesIndexAndHash() throws IOException {
+        byte[] hashA = NulsDigestData.calcDigestData(new byte[]{1}).serialize();
+        byte[] hashB = NulsDigestData.calcDigestData(new byte[]{2}).serialize();
+        Map<OutPointKey, Integer> map = new HashMap<>();
+        map.put(OutPointKey.of(hashA, 0), 1);
+        map.put(OutPointKey.of(hashA, 1), 2);
+        map.put(OutPointKey.of(hashB, 0), 3);
+        assertEquals(3, map.size());
+        assertEquals(Integer.valueOf(2), map.get(OutPointKey.wrap(Arrays.concatenate(hashA, new VarInt(1).encode()))));
+
+        Set<OutPointKey> set = new HashSet<>();
+        assertTrue(set.add(OutPointKey.of(hashB, 0)));
+        assertFalse(set.add(OutPointKey.of(hashB, 0)));
+    }
+
+    @Test
+    public void shortBytes() {
+        OutPointKey key = OutPointKey.wrap(new byte[]{1, 2, 3});
+        assertEquals(-1, key.getIndex());
+        assertEquals(key, OutPointKey.wrap(new byte[]{1, 2, 3}));
+        assertNotEquals(key, OutPointKey.wrap(new byte[]{1, 2, 4}));
+    }
+
+    @Test
+    public void truncatedVarInt() throws IOException {
+        byte[] txHashBytes = NulsDigestData.calcDigestData(new byte[]{1, 2, 3}).serialize();
+        for (int marker : new int[]{0xFD, 0xFE, 0xFF}) {
+            byte[] owner = Arrays.append(txHashBytes, (byte) marker);
+            OutPointKey key = OutPointKey.wrap(owner);
+            assertEquals(-1, key.getIndex());
+            assertEquals(java.util.Arrays.hashCode(owner), key.hashCode());
+            assertEquals(key, OutPointKey.wrap(owner.clone()));
+            assertNotEquals(key, OutPointKey.wrap(txHashBytes));
+        }
+    }
+
+    @Test(expected = NulsRuntimeException.class)
+    public void emptyBytes() {
+        OutPointKey.wrap(new byte[0]);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package io.nuls.kernel.model;
+
+import io.nuls.kernel.model.BlockSealTest.SealTestTransaction;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.TransactionManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class TransactionLazyParseTest {
+
+    @BeforeClass
+    public static void init() {
+        TransactionManager.putTx(SealTestTransaction.class, null, SealTestTransaction::new);
+    }
+
+    @Test
+    public void testLazyFields() throws Exception {
+        Transaction tx = createTx();
+        byte[] bytes = tx.serialize();
+
+        Transaction parsed = TransactionManager.getInstance(new NulsByteBuffer(bytes));
+        assertTrue(parsed instanceof SealTestTransaction);
+        assertEquals(tx.getHash(), parsed.getHash());
+        assertEquals(bytes.length, parsed.size());
+        assertArrayEquals(bytes, parsed.serialize());
+
+        assertEquals(2, parsed.getCoinData().getTo().size());
+        assertEquals(Na.valueOf(300L), parsed.getCoinData().getTo().get(1).getNa());
+        assertArrayEquals(tx.getScriptSig(), parsed.getScriptSig());
+
+        parsed = TransactionManager.getInstance(new NulsByteBuffer(bytes));
+        parsed.setTime(5L);
+        assertEquals(2, parsed.getCoinData().getTo().size());
+        assertArrayEquals(tx.getScriptSig(), parsed.getScriptSig());
+        Transaction reparsed = TransactionManager.getInstance(new NulsByteBuffer(parsed.serialize()));
+        assertEquals(5L, reparsed.getTime());
+        assertEquals(parsed.getHash(), reparsed.getHash());
+    }
+
+    @Test
+    public void testNonCanonicalRemark() throws Exception {
+        Transaction tx = createTx();
+        byte[] bytes = tx.serialize();
+        // remark的长度1改写成3字节的VarInt
+        byte[] wide = new byte[bytes.length + 2];
+        System.arraycopy(bytes, 0, wide, 0, 8);
+        wide[8] = (byte) 0xFD;
+        wide[9] = 1;
+        wide[10] = 0;
+        System.arraycopy(bytes, 9, wide, 11, bytes.length - 9);
+
+        Transaction parsed = TransactionManager.getInstance(new NulsByteBuffer(wide));
+        assertEquals(tx.getHash(), parsed.getHash());
+        assertEquals(wide.length, parsed.size());
+        assertArrayEquals(wide, parsed.serialize());
+        assertEquals(2, parsed.getCoinData().getTo().size());
+    }
+
+    @Test(expected = Exception.class)
+    public void testTruncated() throws Exception {
+        byte[] bytes = createTx().serialize();
+        byte[] truncated = new byte[bytes.length - 10];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        TransactionManager.getInstance(new NulsByteBuffer(truncated));
+    }
+
+    private Transaction createTx() {
+        Transaction tx = new SealTestTransaction();
+        tx.setTime(1234L);
+        tx.setRemark(new byte[]{7});
+        CoinData coinData = new CoinData();
+        coinData.getFrom().add(new Coin(new byte[]{9, 9}, Na.valueOf(500L), 0));
+        coinData.getTo().add(new Coin(new byte[]{1, 2, 3}, Na.valueOf(100L), 0));
+        coinData.getTo().add(new Coin(new byte[]{4, 5, 6}, Na.valueOf(300L), 10L));
+        tx.setCoinData(coinData);
+        tx.setScriptSig(new byte[]{3, 4, 5});
+        return tx;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.kernel.script;
+
+import io.nuls.core.tools.crypto.ECKey;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.NulsSignData;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class SignatureCacheTest {
+
+    @Test
+    public void test() {
+        ECKey key = new ECKey();
+        NulsDigestData hash = NulsDigestData.calcDigestData(new byte[]{1, 2, 3});
+        NulsSignData signData = new NulsSignData();
+        signData.setSignBytes(key.sign(hash.getDigestBytes()));
+        P2PKHScriptSig scriptSig = new P2PKHScriptSig(signData, key.getPubKey());
+
+        assertTrue(scriptSig.verifySign(hash).isSuccess());
+        assertTrue(scriptSig.verifySign(hash).isSuccess());
+        assertTrue(scriptSig.verifySign(NulsDigestData.calcDigestData(new byte[]{1})).isFailed());
+
+        assertFalse(SignatureCache.contains(hash, scriptSig));
+        SignatureCache.add(hash, scriptSig);
+        assertTrue(SignatureCache.contains(hash, scriptSig));
+        assertFalse(SignatureCache.contains(NulsDigestData.calcDigestData(new byte[]{1}), scriptSig));
+
+        NulsSignData otherSign = new NulsSignData();
+        otherSign.setSignBytes(new ECKey().sign(hash.getDigestBytes()));
+        assertFalse(SignatureCache.contains(hash, new P2PKHScriptSig(otherSign, key.getPubKey())));
+
+        SignatureCache.clear();
+        assertFalse(SignatureCache.contains(hash, scriptSig));
+    }
+}
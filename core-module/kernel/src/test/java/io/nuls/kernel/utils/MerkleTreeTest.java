@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+
+package io.nuls.kernel.utils;
+
+import io.nuls.core.tools.crypto.Sha256Hash;
+import io.nuls.kernel.model.NulsDigestData;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class MerkleTreeTest {
+
+    @Test
+    public void testCalcRoot() {
+        List<NulsDigestData> hashList = createHashList(5000);
+        for (int size = 1; size <= 40; size++) {
+            List<NulsDigestData> list = new ArrayList<>(hashList.subList(0, size));
+            assertEquals(referenceRoot(list), MerkleTree.calcRoot(list));
+            assertEquals(size, list.size());
+        }
+        assertEquals(referenceRoot(hashList), MerkleTree.calcRoot(hashList));
+        assertEquals(referenceRoot(hashList), NulsDigestData.calcMerkleDigestData(hashList));
+    }
+
+    @Test
+    public void testAdd() {
+        List<NulsDigestData> hashList = createHashList(300);
+        MerkleTree tree = new MerkleTree();
+        for (int i = 0; i < hashList.size(); i++) {
+            tree.add(hashList.get(i));
+            assertEquals(i + 1, tree.getLeafCount());
+            assertEquals(MerkleTree.calcRoot(hashList.subList(0, i + 1)), tree.getRoot());
+        }
+    }
+
+    private List<NulsDigestData> createHashList(int size) {
+        List<NulsDigestData> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(NulsDigestData.calcDigestData(new byte[]{(byte) i, (byte) (i >> 8)}));
+        }
+        return list;
+    }
+
+    private NulsDigestData referenceRoot(List<NulsDigestData> hashList) {
+        List<NulsDigestData> ddList = new ArrayList<>(hashList);
+        int levelOffset = 0;
+        for (int levelSize = ddList.size(); levelSize > 1; levelSize = (levelSize + 1) / 2) {
+            for (int left = 0; left < levelSize; left += 2) {
+                int right = Math.min(left + 1, levelSize - 1);
+                byte[] leftBytes = SerializeUtils.reverseBytes(ddList.get(levelOffset + left).getDigestBytes());
+                byte[] rightBytes = SerializeUtils.reverseBytes(ddList.get(levelOffset + right).getDigestBytes());
+                byte[] whole = new byte[leftBytes.length + rightBytes.length];
+                System.arraycopy(leftBytes, 0, whole, 0, leftBytes.length);
+                System.arraycopy(rightBytes, 0, whole, leftBytes.length, rightBytes.length);
+                ddList.add(NulsDigestData.calcDigestData(whole));
+            }
+            levelOffset += levelSize;
+        }
+        return new NulsDigestData(NulsDigestData.DIGEST_ALG_SHA256, Sha256Hash.wrap(ddList.get(ddList.size() - 1).getDigestBytes()).getBytes());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.kernel.utils;
+
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.CoinData;
+import io.nuls.kernel.model.Na;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class NulsByteBufferTest {
+
+    @Test
+    public void testVarInt() throws Exception {
+        long[] values = {0L, 1L, 252L, 253L, 0xFFFFL, 0x10000L, 0xFFFFFFFFL, 0x100000000L, Long.MAX_VALUE, -1L};
+        byte[] buf = new byte[9];
+        for (long value : values) {
+            int size = VarInt.encode(value, buf, 0);
+            assertEquals(VarInt.sizeOf(value), size);
+            assertEquals(size, VarInt.encodedSize(buf[0]));
+            assertEquals(value, VarInt.decode(buf, 0));
+            byte[] encoded = new VarInt(value).encode();
+            assertEquals(size, encoded.length);
+            for (int i = 0; i < size; i++) {
+                assertEquals(buf[i], encoded[i]);
+            }
+            assertEquals(value, new NulsByteBuffer(encoded).readVarInt());
+        }
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        CoinData coinData = new CoinData();
+        for (int i = 0; i < 300; i++) {
+            coinData.getTo().add(new Coin(new byte[]{(byte) i, 2, 3}, Na.valueOf(i * 100000L), i));
+        }
+        byte[] bytes = coinData.serialize();
+        assertEquals(coinData.size(), bytes.length);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 10);
+        direct.position(10);
+        assertEquals(bytes.length, coinData.serialize(direct));
+        byte[] copy = new byte[bytes.length];
+        direct.position(10);
+        direct.get(copy);
+        assertArrayEquals(bytes, copy);
+
+        CoinData parsed = new NulsByteBuffer(bytes).readNulsData(new CoinData());
+        assertArrayEquals(bytes, parsed.serialize());
+    }
+
+    @Test
+    public void testTruncatedFrame() throws Exception {
+        // 帧之后的字节属于下一帧，不能被读到
+        byte[] bytes = new byte[32];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        assertTruncated(new NulsByteBuffer(bytes, 4, 7), 8);
+        assertTruncated(new NulsByteBuffer(bytes, 4, 3), 4);
+        assertTruncated(new NulsByteBuffer(bytes, 4, 1), 2);
+        assertTruncated(new NulsByteBuffer(bytes, 4, 5), 6);
+
+        NulsByteBuffer buffer = new NulsByteBuffer(bytes, 4, 1);
+        assertEquals(4, buffer.readByte());
+        try {
+            buffer.readByte();
+            fail();
+        } catch (NulsException e) {
+            assertEquals(KernelErrorCode.DATA_PARSE_ERROR, e.getErrorCode());
+        }
+
+        buffer = new NulsByteBuffer(bytes, 0, 10);
+        try {
+            buffer.readBytes(11);
+            fail();
+        } catch (NulsException e) {
+            assertEquals(0, buffer.getCursor());
+        }
+        assertArrayEquals(new byte[]{0, 1, 2}, buffer.readBytes(3));
+        try {
+            buffer.readBytes(-1);
+            fail();
+        } catch (NulsException e) {
+            assertEquals(3, buffer.getCursor());
+        }
+    }
+
+    @Test
+    public void testTruncatedVarInt() throws Exception {
+        byte[] bytes = new byte[]{(byte) 0xFD, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        assertEquals(0x0201, new NulsByteBuffer(bytes, 0, 3).readVarInt());
+        try {
+            new NulsByteBuffer(bytes, 0, 2).readVarInt();
+            fail();
+        } catch (NulsException e) {
+            assertEquals(KernelErrorCode.DATA_PARSE_ERROR, e.getErrorCode());
+        }
+        bytes[0] = (byte) 0xFF;
+        try {
+            new NulsByteBuffer(bytes, 0, 8).readVarInt();
+            fail();
+        } catch (NulsException e) {
+            assertEquals(KernelErrorCode.DATA_PARSE_ERROR, e.getErrorCode());
+        }
+
+        // 长度前缀超过帧内剩余字节
+        bytes = new byte[]{5, 1, 2, 3, 4, 5};
+        try {
+            new NulsByteBuffer(bytes, 0, 5).readByLengthByte();
+            fail();
+        } catch (NulsException e) {
+            assertEquals(KernelErrorCode.DATA_PARSE_ERROR, e.getErrorCode());
+        }
+        assertEquals(5, new NulsByteBuffer(bytes).readByLengthByte().length);
+    }
+
+    /**
+     * 帧内只有size - 1个字节时，size字节的读取必须失败
+     */
+    private void assertTruncated(NulsByteBuffer buffer, int size) {
+        int cursor = buffer.getCursor();
+        try {
+            switch (size) {
+                case 8:
+                    buffer.readInt64();
+                    break;
+                case 4:
+                    buffer.readInt32();
+                    break;
+                case 2:
+                    buffer.readUint16();
+                    break;
+                case 6:
+                    buffer.readUint48();
+                    break;
+                default:
+                    throw new IllegalArgumentException();
+            }
+            fail();
+        } catch (NulsException e) {
+            assertEquals(KernelErrorCode.DATA_PARSE_ERROR, e.getErrorCode());
+            assertEquals(cursor, buffer.getCursor());
+        }
+    }
+}
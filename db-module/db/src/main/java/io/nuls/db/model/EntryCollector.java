@@ -0,0 +1,96 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.model;
+
+import io.nuls.db.service.EntryVisitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 按offset/limit收集遍历结果
+ * 底层迭代器不支持反向遍历时（如iq80 LevelDB），正向遍历并只保留最后offset+limit条数据，内存占用与结果大小相关
+ * Collects the visited entries honouring offset and limit.
+ * When the underlying iterator cannot go backwards (iq80 LevelDB) the range is walked forwards and only the last
+ * offset + limit entries are kept, so memory stays proportional to the result.
+ */
+public class EntryCollector implements EntryVisitor {
+
+    private final int offset;
+    private final int limit;
+    private final boolean reverseByTail;
+    private final ArrayDeque<Entry<byte[], byte[]>> deque = new ArrayDeque<>();
+    private int skipped;
+
+    /**
+     * @param offset        跳过的条数/entries to skip
+     * @param limit         最多返回的条数，小于等于0表示不限制/max entries to return, unlimited if not positive
+     * @param reverseByTail 正向遍历但按反向顺序返回最后的数据/walk forwards but return the tail in reverse order
+     */
+    public EntryCollector(int offset, int limit, boolean reverseByTail) {
+        this.offset = Math.max(offset, 0);
+        this.limit = limit;
+        this.reverseByTail = reverseByTail;
+    }
+
+    @Override
+    public boolean visit(byte[] key, byte[] value) {
+        if (reverseByTail) {
+            deque.addLast(new Entry<>(key, value));
+            if (limit > 0 && deque.size() > offset + limit) {
+                deque.removeFirst();
+            }
+            return true;
+        }
+        if (skipped < offset) {
+            skipped++;
+            return true;
+        }
+        deque.addLast(new Entry<>(key, value));
+        return limit <= 0 || deque.size() < limit;
+    }
+
+    public List<Entry<byte[], byte[]>> getEntryList() {
+        List<Entry<byte[], byte[]>> list = new ArrayList<>(deque.size());
+        if (!reverseByTail) {
+            list.addAll(deque);
+            return list;
+        }
+        Iterator<Entry<byte[], byte[]>> iterator = deque.descendingIterator();
+        int index = 0;
+        while (iterator.hasNext()) {
+            Entry<byte[], byte[]> entry = iterator.next();
+            if (index++ < offset) {
+                continue;
+            }
+            list.add(entry);
+            if (limit > 0 && list.size() >= limit) {
+                break;
+            }
+        }
+        return list;
+    }
+}
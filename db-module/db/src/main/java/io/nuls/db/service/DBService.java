@@ -152,6 +152,18 @@ public interface DBService {
     Object getModel(String area, byte[] key);
 //
 //    /**
+//     * 批量获取多个key对应的对象，返回列表与keys一一对应，不存在的key对应null
+//     * Gets the objects of several keys in one call, the result matches the keys one to one and is null for a missing key.
+//     *
+//     * @param area
+//     * @param keys
+//     * @param clazz 指定对象的class/Specifies the class of the object.
+//     * @param <T>
+//     * @return
+//     */
+    <T> List<T> multiGetModel(String area, List<byte[]> keys, Class<T> clazz);
+//
+//    /**
 //     * 获取数据区域的所有key的无序集合
 //     * Gets an unordered collection of all keys in the data area.
 //     *
@@ -223,6 +235,45 @@ public interface DBService {
 //     */
     <T> List<T> values(String area, Class<T> clazz);
 
+//    /**
+//     * 按key前缀查询，只遍历匹配的数据，按key的字节序返回
+//     * Query the entries whose key starts with the prefix, only the matching entries are visited, ordered by key bytes.
+//     *
+//     * @param area
+//     * @param prefix  key前缀/key prefix
+//     * @param offset  跳过的条数/entries to skip
+//     * @param limit   最多返回的条数，小于等于0表示不限制/max entries to return, unlimited if not positive
+//     * @param reverse 是否按key倒序/descending key order
+//     * @return
+//     */
+    List<Entry<byte[], byte[]>> seek(String area, byte[] prefix, int offset, int limit, boolean reverse);
+
+//    /**
+//     * 按key范围[from, to)查询，from或to为null表示不限制
+//     * Query the entries whose key is inside [from, to), a null bound means unbounded.
+//     *
+//     * @param area
+//     * @param from    起始key（包含）/first key, inclusive
+//     * @param to      结束key（不包含）/last key, exclusive
+//     * @param offset  跳过的条数/entries to skip
+//     * @param limit   最多返回的条数，小于等于0表示不限制/max entries to return, unlimited if not positive
+//     * @param reverse 是否按key倒序/descending key order
+//     * @return
+//     */
+    List<Entry<byte[], byte[]>> range(String area, byte[] from, byte[] to, int offset, int limit, boolean reverse);
+
+//    /**
+//     * 按key顺序流式遍历[from, to)范围内的数据，visitor返回false时停止
+//     * Stream the entries inside [from, to) in key order, stops when the visitor returns false.
+//     *
+//     * @param area
+//     * @param from    起始key（包含）/first key, inclusive
+//     * @param to      结束key（不包含）/last key, exclusive
+//     * @param visitor
+//     * @return
+//     */
+    Result iterate(String area, byte[] from, byte[] to, EntryVisitor visitor);
+
 //    /**
 //     * 指定数据区域的批量增删改操作
 //     * Specifies the batch add, delete, update operations in the data area.
@@ -232,6 +283,14 @@ public interface DBService {
 //     */
     BatchOperation createWriteBatch(String area);
 
+//    /**
+//     * 跨数据区域的批量增删改操作，用于将一个区块的所有变更一次提交
+//     * Batch add, delete, update operations across data areas, used to commit all changes of a block at once.
+//     *
+//     * @return
+//     */
+    MultiAreaBatchOperation createMultiAreaWriteBatch();
+
 //    /**
 //     * 清除Area
 //     *
@@ -0,0 +1,85 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.service;
+
+import io.nuls.kernel.model.Result;
+
+/**
+ * 跨数据区域的批量操作，所有变更暂存在内存中，执行时原子地提交：要么全部区域生效，要么都不生效
+ * 各区域是独立数据库的实现（如LevelDB）会先同步写入重做日志，中途崩溃后在下次启动时重放
+ * <p>
+ * Batch operation spanning several data areas, all changes are staged in memory and committed atomically on execution:
+ * either every area takes effect or none does. Backends where every area is a separate database (such as LevelDB)
+ * sync a redo journal first and replay it at the next startup if the commit crashed half way.
+ */
+public interface MultiAreaBatchOperation {
+
+//    /**
+//     * 增加或者更新操作
+//     * Add or update operations.
+//     *
+//     * @param area
+//     * @param key
+//     * @param value
+//     * @return
+//     */
+    Result put(String area, byte[] key, byte[] value);
+
+//    /**
+//     * 存储或者更新对象
+//     * Add or update the object
+//     *
+//     * @param area
+//     * @param key
+//     * @param value 需要存储或者更新的对象/Objects that need to be added or updated.
+//     * @return
+//     */
+    <T> Result putModel(String area, byte[] key, T value);
+
+//    /**
+//     * 删除操作
+//     * Delete operation
+//     *
+//     * @param area
+//     * @param key
+//     * @return
+//     */
+    Result delete(String area, byte[] key);
+
+//    /**
+//     * 原子地执行批量操作
+//     * Perform the batch operation atomically.
+//     *
+//     * @return
+//     */
+    Result executeBatch();
+
+//    /**
+//     * 是否已执行（无论成功与否，执行后不可再次使用）
+//     * Whether the batch has been executed (it can not be used again afterwards, whether it succeeded or not).
+//     *
+//     * @return
+//     */
+    boolean isExecuted();
+}
@@ -24,7 +24,10 @@ import io.nuls.core.tools.log.Log;
 import io.nuls.core.tools.str.StringUtils;
 import io.nuls.db.constant.DBErrorCode;
 import io.nuls.db.model.Entry;
+import io.nuls.db.model.EntryCollector;
 import io.nuls.db.model.ModelWrapper;
+import io.nuls.db.service.EntryVisitor;
+import io.nuls.db.util.KeyUtils;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.model.Result;
 import io.protostuff.LinkedBuffer;
@@ -34,6 +37,10 @@ import org.iq80.leveldb.DB;
 import org.iq80.leveldb.DBFactory;
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
+import org.iq80.leveldb.WriteBatch;
+import org.iq80.leveldb.WriteOptions;
 import org.iq80.leveldb.impl.Iq80DBFactory;
 
 import java.io.File;
@@ -63,6 +70,8 @@ public class LevelDBManager {
 
     private static String dataPath;
 
+    private static final Object JOURNAL_LOCK = new Object();
+
     public static int getMax() {
         return max;
     }
@@ -103,6 +112,7 @@ public class LevelDBManager {
                     }
 
                 }
+                replayMultiAreaJournal();
             }
         }
 
@@ -141,6 +151,85 @@ public class LevelDBManager {
         }
     }
 
+    /**
+     * 重放上次崩溃时未完成的跨区域批量写入
+     * Replay the multi-area batch that was interrupted by the last crash, if any.
+     */
+    private static void replayMultiAreaJournal() throws IOException {
+        DB base = AREAS.get(BASE_AREA_NAME);
+        if (base == null) {
+            return;
+        }
+        byte[] journal = base.get(MultiAreaJournal.JOURNAL_KEY);
+        if (journal == null) {
+            return;
+        }
+        Log.warn("replay the unfinished multi-area batch, size: " + journal.length);
+        MultiAreaJournal.replay(journal);
+        base.delete(MultiAreaJournal.JOURNAL_KEY, new WriteOptions().sync(true));
+    }
+
+    /**
+     * 原子地提交跨区域的批量写入：单个区域直接同步写入，多个区域先同步写入重做日志，所有区域同步提交后再删除日志
+     * Atomically commit a batch spanning several areas: a single area is written synchronously as is, several areas
+     * are preceded by a synchronous redo journal that is only deleted after every area has been synced.
+     *
+     * @param batchMap 区域及其批量写入，按提交顺序排列/areas and their batches in commit order
+     * @param journal  全部变更的重做日志/redo journal of all the changes
+     */
+    public static Result writeMultiArea(Map<String, WriteBatch> batchMap, MultiAreaJournal journal) {
+        WriteOptions sync = new WriteOptions().sync(true);
+        synchronized (JOURNAL_LOCK) {
+            try {
+                for (String area : batchMap.keySet()) {
+                    if (!baseCheckArea(area)) {
+                        Log.error("DB batch commit error, area not exist: " + area);
+                        return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+                    }
+                }
+            } catch (Exception e) {
+                Log.error(e);
+                return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+            }
+            DB base = AREAS.get(BASE_AREA_NAME);
+            byte[] journalBytes = null;
+            try {
+                if (batchMap.size() > 1) {
+                    journalBytes = journal.toByteArray();
+                    base.put(MultiAreaJournal.JOURNAL_KEY, journalBytes, sync);
+                }
+            } catch (Exception e) {
+                // 日志未写入，任何区域都还未改变/the journal is not written, no area has changed yet
+                Log.error(e);
+                return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+            }
+            try {
+                for (Map.Entry<String, WriteBatch> entry : batchMap.entrySet()) {
+                    AREAS.get(entry.getKey()).write(entry.getValue(), sync);
+                }
+            } catch (Exception e) {
+                if (journalBytes == null) {
+                    Log.error(e);
+                    return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+                }
+                // 部分区域可能已提交，只能向前重放；仍然失败时日志保留到下次启动重放
+                // some areas may be committed already, the only way is forward; if the replay fails as well the
+                // journal is kept and replayed at the next startup
+                Log.error("multi-area batch failed half way, replay the journal", e);
+                try {
+                    MultiAreaJournal.replay(journalBytes);
+                } catch (Exception replayError) {
+                    Log.error(replayError);
+                    return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+                }
+            }
+            if (journalBytes != null) {
+                base.delete(MultiAreaJournal.JOURNAL_KEY, sync);
+            }
+            return Result.getSuccess();
+        }
+    }
+
     public static File loadDataPath() throws Exception {
         Properties properties = ConfigLoader.loadProperties("db_config.properties");
         String path = properties.getProperty("leveldb.datapath", "./data");
@@ -306,6 +395,7 @@ public class LevelDBManager {
                 Log.warn("close leveldb error", e);
             }
         }
+        isInit = false;
     }
 
     /**
@@ -661,6 +751,46 @@ public class LevelDBManager {
         }
     }
 
+    /**
+     * 批量读取，所有key在同一个快照上查找，结果与keys一一对应，不存在的key对应null
+     * Multi-get, every key is read from the same snapshot, the result matches the keys one to one and is null for a missing key.
+     */
+    public static <T> List<T> multiGetModel(String area, List<byte[]> keys, Class<T> clazz) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        if (keys == null) {
+            return null;
+        }
+        List<T> list = new ArrayList<>(keys.size());
+        if (keys.isEmpty()) {
+            return list;
+        }
+        DB db = AREAS.get(area);
+        RuntimeSchema schema = SCHEMA_MAP.get(ModelWrapper.class);
+        try (Snapshot snapshot = db.getSnapshot()) {
+            ReadOptions options = new ReadOptions().snapshot(snapshot);
+            for (byte[] key : keys) {
+                byte[] bytes = db.get(key, options);
+                if (bytes == null) {
+                    list.add(null);
+                    continue;
+                }
+                ModelWrapper model = new ModelWrapper();
+                ProtostuffIOUtil.mergeFrom(bytes, model, schema);
+                if (clazz != null && model.getT() != null) {
+                    list.add(clazz.cast(model.getT()));
+                } else {
+                    list.add((T) model.getT());
+                }
+            }
+            return list;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
     public static Set<byte[]> keySet(String area) {
         if (!baseCheckArea(area)) {
             return null;
@@ -956,6 +1086,77 @@ public class LevelDBManager {
         }
     }
 
+    /**
+     * 从from开始正向流式遍历，直到key不小于to或visitor返回false
+     * Stream forwards from the first key not less than from, until a key reaches to or the visitor returns false.
+     */
+    public static Result iterate(String area, byte[] from, byte[] to, EntryVisitor visitor) {
+        if (!baseCheckArea(area)) {
+            return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+        }
+        if (visitor == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        DBIterator iterator = null;
+        try {
+            DB db = AREAS.get(area);
+            iterator = db.iterator();
+            if (from == null) {
+                iterator.seekToFirst();
+            } else {
+                iterator.seek(from);
+            }
+            Map.Entry<byte[], byte[]> entry;
+            while (iterator.hasNext()) {
+                entry = iterator.next();
+                if (to != null && KeyUtils.compare(entry.getKey(), to) >= 0) {
+                    break;
+                }
+                if (!visitor.visit(entry.getKey(), entry.getValue())) {
+                    break;
+                }
+            }
+            return Result.getSuccess();
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        } finally {
+            // Make sure you close the iterator to avoid resource leaks.
+            if (iterator != null) {
+                try {
+                    iterator.close();
+                } catch (IOException e) {
+                    //skip it
+                }
+            }
+        }
+    }
+
+    /**
+     * 按key范围[from, to)分页查询
+     * iq80 LevelDB的迭代器不支持反向遍历，倒序时正向遍历范围并只保留最后offset+limit条
+     * Paged query of the keys inside [from, to).
+     * The iq80 LevelDB iterator cannot move backwards, a descending query walks the range forwards and keeps only the last offset + limit entries.
+     */
+    public static List<Entry<byte[], byte[]>> range(String area, byte[] from, byte[] to, int offset, int limit, boolean reverse) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        EntryCollector collector = new EntryCollector(offset, limit, reverse);
+        Result result = iterate(area, from, to, collector);
+        if (result.isFailed()) {
+            return null;
+        }
+        return collector.getEntryList();
+    }
+
+    public static List<Entry<byte[], byte[]>> seek(String area, byte[] prefix, int offset, int limit, boolean reverse) {
+        if (prefix == null) {
+            return null;
+        }
+        return range(area, prefix, KeyUtils.prefixUpperBound(prefix), offset, limit, reverse);
+    }
+
     public static Result clearArea(String area) {
         if (!baseCheckArea(area)) {
             return Result.getFailed();
@@ -0,0 +1,127 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2018 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.manager;
+
+import io.nuls.core.tools.log.Log;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.WriteBatch;
+import org.iq80.leveldb.WriteOptions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.nuls.core.tools.str.StringUtils.bytes;
+
+/**
+ * 跨区域批量写入的重做日志，执行前先同步写入基础区域，全部区域提交后删除
+ * 启动时若发现遗留的日志，说明上次提交中途崩溃，重放日志即可使所有区域恢复一致（重放是幂等的）
+ * <p>
+ * Redo journal of a multi-area batch. It is written synchronously to the base area before any area is touched,
+ * and deleted once every area has been committed. A journal left over at startup means the previous commit crashed
+ * half way; replaying it (put and delete are idempotent) brings all the areas back in line.
+ */
+public class MultiAreaJournal {
+
+    static final byte[] JOURNAL_KEY = bytes("multi-area-journal");
+
+    private static final byte OP_DELETE = 0;
+    private static final byte OP_PUT = 1;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+
+    public void put(String area, byte[] key, byte[] value) {
+        append(area, OP_PUT, key, value);
+    }
+
+    public void delete(String area, byte[] key) {
+        append(area, OP_DELETE, key, null);
+    }
+
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    private void append(String area, byte op, byte[] key, byte[] value) {
+        try {
+            out.writeUTF(area);
+            out.writeByte(op);
+            out.writeInt(key.length);
+            out.write(key);
+            if (op == OP_PUT) {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 重放日志中的全部变更，每个区域同步写入一次
+     * Replay every change of the journal, each area is written synchronously once.
+     */
+    static void replay(byte[] journal) throws IOException {
+        Map<String, WriteBatch> batchMap = new LinkedHashMap<>();
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(journal));
+            while (in.available() > 0) {
+                String area = in.readUTF();
+                byte op = in.readByte();
+                byte[] key = new byte[in.readInt()];
+                in.readFully(key);
+                byte[] value = null;
+                if (op == OP_PUT) {
+                    value = new byte[in.readInt()];
+                    in.readFully(value);
+                }
+                WriteBatch batch = batchMap.get(area);
+                if (batch == null) {
+                    DB db = LevelDBManager.getArea(area);
+                    if (db == null) {
+                        Log.warn("multi-area journal replay skips missing area: " + area);
+                        continue;
+                    }
+                    batch = db.createWriteBatch();
+                    batchMap.put(area, batch);
+                }
+                if (op == OP_PUT) {
+                    batch.put(key, value);
+                } else {
+                    batch.delete(key);
+                }
+            }
+            WriteOptions sync = new WriteOptions().sync(true);
+            for (Map.Entry<String, WriteBatch> entry : batchMap.entrySet()) {
+                LevelDBManager.getArea(entry.getKey()).write(entry.getValue(), sync);
+            }
+        } finally {
+            for (WriteBatch batch : batchMap.values()) {
+                batch.close();
+            }
+        }
+    }
+}
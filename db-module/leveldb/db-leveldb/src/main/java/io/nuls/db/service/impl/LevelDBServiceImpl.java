@@ -25,6 +25,8 @@ import io.nuls.db.manager.LevelDBManager;
 import io.nuls.db.model.Entry;
 import io.nuls.db.service.BatchOperation;
 import io.nuls.db.service.DBService;
+import io.nuls.db.service.EntryVisitor;
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.lite.annotation.Service;
 import io.nuls.kernel.model.Result;
 
@@ -98,6 +100,11 @@ public class LevelDBServiceImpl implements DBService {
         return LevelDBManager.getModel(area, key);
     }
 
+    @Override
+    public <T> List<T> multiGetModel(String area, List<byte[]> keys, Class<T> clazz) {
+        return LevelDBManager.multiGetModel(area, keys, clazz);
+    }
+
     @Override
     public Set<byte[]> keySet(String area) {
         return LevelDBManager.keySet(area);
@@ -133,6 +140,21 @@ public class LevelDBServiceImpl implements DBService {
         return LevelDBManager.values(area, clazz);
     }
 
+    @Override
+    public List<Entry<byte[], byte[]>> seek(String area, byte[] prefix, int offset, int limit, boolean reverse) {
+        return LevelDBManager.seek(area, prefix, offset, limit, reverse);
+    }
+
+    @Override
+    public List<Entry<byte[], byte[]>> range(String area, byte[] from, byte[] to, int offset, int limit, boolean reverse) {
+        return LevelDBManager.range(area, from, to, offset, limit, reverse);
+    }
+
+    @Override
+    public Result iterate(String area, byte[] from, byte[] to, EntryVisitor visitor) {
+        return LevelDBManager.iterate(area, from, to, visitor);
+    }
+
     @Override
     public BatchOperation createWriteBatch(String area) {
         if(StringUtils.isBlank(area)) {
@@ -147,6 +169,11 @@ public class LevelDBServiceImpl implements DBService {
         return batchOperation;
     }
 
+    @Override
+    public MultiAreaBatchOperation createMultiAreaWriteBatch() {
+        return new MultiAreaBatchOperationImpl();
+    }
+
     @Override
     public Result destroyArea(String area) {
         return LevelDBManager.destroyArea(area);
@@ -0,0 +1,132 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2018 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.service.impl;
+
+import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.manager.LevelDBManager;
+import io.nuls.db.manager.MultiAreaJournal;
+import io.nuls.db.service.MultiAreaBatchOperation;
+import io.nuls.kernel.model.Result;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.WriteBatch;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LevelDB的每个区域是独立的数据库实例，这里为每个区域维护一个WriteBatch，同时记录一份重做日志，
+ * 执行时先同步写入日志再依次提交各区域，中途崩溃后在下次启动时重放日志，见{@link MultiAreaJournal}
+ * Every LevelDB area is a separate database instance, so one WriteBatch is kept per area together with a redo journal
+ * of all the changes. The journal is synced before the areas are committed one by one, and is replayed at the next
+ * startup if the commit crashed half way, see {@link MultiAreaJournal}.
+ */
+public class MultiAreaBatchOperationImpl implements MultiAreaBatchOperation {
+
+    private static final Result FAILED_NULL = Result.getFailed(DBErrorCode.NULL_PARAMETER);
+    private static final Result SUCCESS = Result.getSuccess();
+    private static final Result FAILED_BATCH_CLOSE = Result.getFailed(DBErrorCode.DB_BATCH_CLOSE);
+    private static final Result FAILED_AREA_NOT_EXIST = Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+
+    private final Map<String, WriteBatch> batchMap = new LinkedHashMap<>();
+    private final MultiAreaJournal journal = new MultiAreaJournal();
+    private volatile boolean isClose = false;
+
+    private WriteBatch getBatch(String area) {
+        WriteBatch batch = batchMap.get(area);
+        if (batch == null) {
+            DB db = LevelDBManager.getArea(area);
+            if (db == null) {
+                return null;
+            }
+            batch = db.createWriteBatch();
+            batchMap.put(area, batch);
+        }
+        return batch;
+    }
+
+    @Override
+    public Result put(String area, byte[] key, byte[] value) {
+        if (key == null || value == null) {
+            return FAILED_NULL;
+        }
+        if (isClose) {
+            return FAILED_BATCH_CLOSE;
+        }
+        WriteBatch batch = getBatch(area);
+        if (batch == null) {
+            return FAILED_AREA_NOT_EXIST;
+        }
+        batch.put(key, value);
+        journal.put(area, key, value);
+        return SUCCESS;
+    }
+
+    @Override
+    public <T> Result putModel(String area, byte[] key, T value) {
+        if (key == null || value == null) {
+            return FAILED_NULL;
+        }
+        byte[] bytes = LevelDBManager.getModelSerialize(value);
+        return put(area, key, bytes);
+    }
+
+    @Override
+    public Result delete(String area, byte[] key) {
+        if (key == null) {
+            return FAILED_NULL;
+        }
+        if (isClose) {
+            return FAILED_BATCH_CLOSE;
+        }
+        WriteBatch batch = getBatch(area);
+        if (batch == null) {
+            return FAILED_AREA_NOT_EXIST;
+        }
+        batch.delete(key);
+        journal.delete(area, key);
+        return SUCCESS;
+    }
+
+    @Override
+    public Result executeBatch() {
+        // 检查逻辑关闭
+        if (isClose) {
+            return FAILED_BATCH_CLOSE;
+        }
+        isClose = true;
+        try {
+            return LevelDBManager.writeMultiArea(batchMap, journal);
+        } finally {
+            for (WriteBatch batch : batchMap.values()) {
+                try {
+                    batch.close();
+                } catch (IOException e) {
+                    // skip it
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return isClose;
+    }
+}
@@ -31,6 +31,7 @@ import io.nuls.core.tools.log.Log;
 import io.nuls.db.constant.DBErrorCode;
 import io.nuls.db.entity.DBTestEntity;
 import io.nuls.db.manager.LevelDBManager;
+import io.nuls.db.manager.MultiAreaJournal;
 import io.nuls.db.model.Entry;
 import io.nuls.db.service.impl.LevelDBServiceImpl;
 import io.nuls.kernel.cfg.NulsConfig;
@@ -192,6 +193,122 @@ public class LevelDBServiceTest {
         LevelDBManager.destroyArea(area);
     }
 
+    @Test
+    public void testSeekAndRange() {
+        String area = "testSeekAndRange";
+        dbService.createArea(area);
+        for (int i = 0; i < 10; i++) {
+            dbService.put(area, new byte[]{1, (byte) i}, bytes("a" + i));
+            dbService.put(area, new byte[]{2, (byte) i}, bytes("b" + i));
+        }
+        dbService.put(area, new byte[]{(byte) 0xFF, 0}, bytes("c0"));
+
+        List<Entry<byte[], byte[]>> list = dbService.seek(area, new byte[]{1}, 0, 0, false);
+        Assert.assertEquals(10, list.size());
+        Assert.assertEquals("a0", asString(list.get(0).getValue()));
+        Assert.assertEquals("a9", asString(list.get(9).getValue()));
+
+        list = dbService.seek(area, new byte[]{2}, 2, 3, false);
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals("b2", asString(list.get(0).getValue()));
+        Assert.assertEquals("b4", asString(list.get(2).getValue()));
+
+        list = dbService.seek(area, new byte[]{2}, 1, 3, true);
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals("b8", asString(list.get(0).getValue()));
+        Assert.assertEquals("b6", asString(list.get(2).getValue()));
+
+        list = dbService.seek(area, new byte[]{(byte) 0xFF}, 0, 0, true);
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals("c0", asString(list.get(0).getValue()));
+
+        list = dbService.range(area, new byte[]{1, 8}, new byte[]{2, 2}, 0, 0, false);
+        Assert.assertEquals(4, list.size());
+        Assert.assertEquals("a8", asString(list.get(0).getValue()));
+        Assert.assertEquals("b1", asString(list.get(3).getValue()));
+
+        list = dbService.range(area, null, new byte[]{2, 0}, 0, 2, true);
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals("a9", asString(list.get(0).getValue()));
+
+        Assert.assertTrue(dbService.seek(area, new byte[]{3}, 0, 0, false).isEmpty());
+
+        final int[] count = {0};
+        dbService.iterate(area, new byte[]{2}, null, (key, value) -> ++count[0] < 5);
+        Assert.assertEquals(5, count[0]);
+        dbService.destroyArea(area);
+    }
+
+    @Test
+    public void testMultiAreaBatch() {
+        String area1 = "testMultiAreaBatch1";
+        String area2 = "testMultiAreaBatch2";
+        dbService.createArea(area1);
+        dbService.createArea(area2);
+        dbService.put(area2, bytes("London"), bytes("red"));
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        batch.put(area1, bytes("Tampa"), bytes("green"));
+        batch.delete(area2, bytes("London"));
+        batch.put(area2, bytes("Qweqwe"), bytes("blue"));
+
+        // 提交前不可见
+        Assert.assertNull(dbService.get(area1, bytes("Tampa")));
+        Assert.assertEquals("red", asString(dbService.get(area2, bytes("London"))));
+
+        Assert.assertTrue(batch.executeBatch().isSuccess());
+        Assert.assertTrue(batch.isExecuted());
+        Assert.assertEquals("green", asString(dbService.get(area1, bytes("Tampa"))));
+        Assert.assertEquals("blue", asString(dbService.get(area2, bytes("Qweqwe"))));
+        Assert.assertNull(dbService.get(area2, bytes("London")));
+
+        // 校验重复执行，期望失败
+        Result result = batch.executeBatch();
+        Assert.assertTrue(result.isFailed());
+        Assert.assertEquals(DBErrorCode.DB_BATCH_CLOSE.getCode(), result.getErrorCode().getCode());
+
+        // 不存在的区域，期望失败
+        batch = dbService.createMultiAreaWriteBatch();
+        result = batch.put("testMultiAreaBatchNotExist", bytes("Tampa"), bytes("green"));
+        Assert.assertEquals(DBErrorCode.DB_AREA_NOT_EXIST.getCode(), result.getErrorCode().getCode());
+        LevelDBManager.destroyArea(area1);
+        LevelDBManager.destroyArea(area2);
+    }
+
+    @Test
+    public void testMultiAreaJournalReplay() throws Exception {
+        String area1 = "testMultiAreaJournal1";
+        String area2 = "testMultiAreaJournal2";
+        dbService.createArea(area1);
+        dbService.createArea(area2);
+        dbService.put(area2, bytes("London"), bytes("red"));
+
+        // 模拟日志已写入、区域尚未提交时崩溃
+        MultiAreaJournal journal = new MultiAreaJournal();
+        journal.put(area1, bytes("Tampa"), bytes("green"));
+        journal.delete(area2, bytes("London"));
+        journal.put(area2, bytes("Qweqwe"), bytes("blue"));
+        dbService.put(getBaseAreaName(), bytes("multi-area-journal"), journal.toByteArray());
+
+        // 重启后重放日志
+        close();
+        LevelDBManager.init();
+        Assert.assertEquals("green", asString(dbService.get(area1, bytes("Tampa"))));
+        Assert.assertEquals("blue", asString(dbService.get(area2, bytes("Qweqwe"))));
+        Assert.assertNull(dbService.get(area2, bytes("London")));
+        Assert.assertNull(dbService.get(getBaseAreaName(), bytes("multi-area-journal")));
+
+        // 正常提交后不留日志
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        batch.put(area1, bytes("Tampa"), bytes("yellow"));
+        batch.delete(area2, bytes("Qweqwe"));
+        Assert.assertTrue(batch.executeBatch().isSuccess());
+        Assert.assertEquals("yellow", asString(dbService.get(area1, bytes("Tampa"))));
+        Assert.assertNull(dbService.get(area2, bytes("Qweqwe")));
+        Assert.assertNull(dbService.get(getBaseAreaName(), bytes("multi-area-journal")));
+        LevelDBManager.destroyArea(area1);
+        LevelDBManager.destroyArea(area2);
+    }
+
     @Test
     public void testBatchModel() {
         String area = "testBatchModel";
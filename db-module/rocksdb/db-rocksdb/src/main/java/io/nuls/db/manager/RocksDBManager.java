@@ -0,0 +1,949 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2018 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.manager;
+
+import io.nuls.core.tools.cfg.ConfigLoader;
+import io.nuls.core.tools.log.Log;
+import io.nuls.core.tools.str.StringUtils;
+import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.model.Entry;
+import io.nuls.db.model.EntryCollector;
+import io.nuls.db.model.ModelWrapper;
+import io.nuls.db.service.EntryVisitor;
+import io.nuls.db.util.KeyUtils;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.model.Result;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.runtime.RuntimeSchema;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBIterator;
+import org.iq80.leveldb.impl.Iq80DBFactory;
+import org.rocksdb.AbstractNativeReference;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
+import org.rocksdb.Filter;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.nuls.core.tools.str.StringUtils.bytes;
+import static io.nuls.db.constant.DBConstant.BASE_AREA_NAME;
+
+/**
+ * RocksDB存储管理，所有区域保存在同一个数据库实例中，每个区域对应一个列族
+ * 所有区域共享一个块缓存，每个区域可单独配置布隆过滤器与前缀提取器
+ * <p>
+ * RocksDB storage manager, all areas live in one database instance and every area is a column family.
+ * The areas share one block cache, bloom filters and prefix extractors can be configured per area.
+ */
+public class RocksDBManager {
+
+    static {
+        RocksDB.loadLibrary();
+    }
+
+    private static int max;
+
+    /**
+     * 基础区域使用默认列族
+     * The base area uses the default column family.
+     */
+    private static final ConcurrentHashMap<String, ColumnFamilyHandle> AREAS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Comparator<byte[]>> AREAS_COMPARATOR = new ConcurrentHashMap<>();
+
+    /**
+     * 列族选项及其引用的本地对象，数据库关闭前必须保持引用
+     * Column family options and the native objects they refer to, they must stay referenced until the database is closed.
+     */
+    private static final List<AbstractNativeReference> NATIVE_RESOURCES = Collections.synchronizedList(new ArrayList<>());
+
+    private static final RuntimeSchema<ModelWrapper> MODEL_SCHEMA = RuntimeSchema.createFrom(ModelWrapper.class);
+
+    private static final byte[] LEVELDB_MIGRATED_KEY = bytes("leveldb-migrated");
+
+    private static final int MIGRATE_BATCH_SIZE = 10000;
+
+    private static volatile boolean isInit = false;
+
+    private static ReentrantLock lock = new ReentrantLock();
+
+    private static String dataPath;
+
+    private static Properties properties;
+
+    private static RocksDB db;
+
+    private static Cache blockCache;
+
+    private static int bloomBits;
+
+    private static CompressionType compressionType;
+
+    private static final WriteOptions WRITE_OPTIONS = new WriteOptions();
+
+    /**
+     * 全量遍历时忽略前缀提取器
+     * Full scans ignore the prefix extractor.
+     */
+    private static final ReadOptions TOTAL_ORDER_READ_OPTIONS = new ReadOptions().setTotalOrderSeek(true);
+
+    public static int getMax() {
+        return max;
+    }
+
+    public static String getBaseAreaName() {
+        return BASE_AREA_NAME;
+    }
+
+    public static void init() throws Exception {
+        synchronized (RocksDBManager.class) {
+            if (!isInit) {
+                isInit = true;
+                File dir = loadDataPath();
+                dataPath = dir.getPath();
+                Log.info("RocksDBManager dataPath is " + dataPath);
+
+                openDB();
+
+                String levelDbPath = properties.getProperty("rocksdb.migrate.leveldb.datapath");
+                if (StringUtils.isNotBlank(levelDbPath) && get(BASE_AREA_NAME, LEVELDB_MIGRATED_KEY) == null) {
+                    Result result = migrateFromLevelDB(levelDbPath);
+                    if (result.isFailed()) {
+                        Log.error("migrate from leveldb failed, path: " + levelDbPath);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 打开数据库及所有已存在的列族
+     * 区域的自定义cacheSize保存在基础区域中，列族选项必须在打开时确定，所以先以只读方式打开默认列族读取它
+     * Open the database with all the existing column families.
+     * The custom cacheSize of an area is kept in the base area and column family options are fixed when the database is opened,
+     * so the default column family is opened read-only first to load them.
+     */
+    private static void openDB() throws RocksDBException {
+        blockCache = new LRUCache(getLongProperty("rocksdb.block.cache.size", 256L * 1024 * 1024));
+        NATIVE_RESOURCES.add(blockCache);
+        bloomBits = getIntProperty("rocksdb.bloom.bits", 10);
+        compressionType = getCompressionType(properties.getProperty("rocksdb.compression", "lz4"));
+
+        List<String> areaNames = new ArrayList<>();
+        Map<String, Long> cacheSizeMap = new HashMap<>();
+        if (new File(dataPath + File.separator + "CURRENT").exists()) {
+            try (Options options = new Options()) {
+                for (byte[] name : RocksDB.listColumnFamilies(options, dataPath)) {
+                    if (!Arrays.equals(RocksDB.DEFAULT_COLUMN_FAMILY, name)) {
+                        areaNames.add(new String(name));
+                    }
+                }
+            }
+            try (RocksDB readOnlyDB = RocksDB.openReadOnly(dataPath)) {
+                for (String areaName : areaNames) {
+                    byte[] bytes = readOnlyDB.get(bytes(areaName + "-cacheSize"));
+                    if (bytes != null) {
+                        cacheSizeMap.put(areaName, (Long) deserializeModel(bytes, Long.class));
+                    }
+                }
+            }
+        }
+
+        List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+        descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, buildAreaOptions(BASE_AREA_NAME, null)));
+        for (String areaName : areaNames) {
+            descriptors.add(new ColumnFamilyDescriptor(bytes(areaName), buildAreaOptions(areaName, cacheSizeMap.get(areaName))));
+        }
+        DBOptions dbOptions = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true);
+        NATIVE_RESOURCES.add(dbOptions);
+        List<ColumnFamilyHandle> handles = new ArrayList<>();
+        db = RocksDB.open(dbOptions, dataPath, descriptors, handles);
+        AREAS.put(BASE_AREA_NAME, handles.get(0));
+        for (int i = 0; i < areaNames.size(); i++) {
+            String areaName = areaNames.get(i);
+            AREAS.put(areaName, handles.get(i + 1));
+            /*
+             * Area的自定义比较器，启动数据库时获取并装载它
+             * Area of custom comparator, you start the database access and loaded it
+             */
+            Comparator<byte[]> comparator = getComparator(areaName);
+            if (comparator != null) {
+                AREAS_COMPARATOR.put(areaName, comparator);
+            }
+        }
+    }
+
+    /**
+     * 构建区域的列族选项：块缓存、布隆过滤器、前缀提取器及压缩方式
+     * Build the column family options of an area: block cache, bloom filter, prefix extractor and compression.
+     */
+    private static ColumnFamilyOptions buildAreaOptions(String areaName, Long cacheSize) {
+        BlockBasedTableConfig tableConfig = new BlockBasedTableConfig();
+        if (cacheSize != null) {
+            Cache areaCache = new LRUCache(cacheSize);
+            NATIVE_RESOURCES.add(areaCache);
+            tableConfig.setBlockCache(areaCache);
+        } else {
+            tableConfig.setBlockCache(blockCache);
+        }
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setPinL0FilterAndIndexBlocksInCache(true);
+        int bits = getIntProperty("rocksdb.bloom.bits." + areaName, bloomBits);
+        if (bits > 0) {
+            Filter filter = new BloomFilter(bits, false);
+            NATIVE_RESOURCES.add(filter);
+            tableConfig.setFilter(filter);
+        }
+        ColumnFamilyOptions options = new ColumnFamilyOptions();
+        NATIVE_RESOURCES.add(options);
+        int prefixLength = getIntProperty("rocksdb.prefix." + areaName, 0);
+        if (prefixLength > 0) {
+            options.useFixedLengthPrefixExtractor(prefixLength);
+            options.setMemtablePrefixBloomSizeRatio(0.1);
+        }
+        options.setTableFormatConfig(tableConfig);
+        options.setCompressionType(compressionType);
+        return options;
+    }
+
+    private static CompressionType getCompressionType(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "none":
+                return CompressionType.NO_COMPRESSION;
+            case "snappy":
+                return CompressionType.SNAPPY_COMPRESSION;
+            case "zlib":
+                return CompressionType.ZLIB_COMPRESSION;
+            default:
+                return CompressionType.LZ4_COMPRESSION;
+        }
+    }
+
+    private static int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (Exception e) {
+            //skip it
+            return defaultValue;
+        }
+    }
+
+    private static long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (Exception e) {
+            //skip it
+            return defaultValue;
+        }
+    }
+
+    public static File loadDataPath() throws Exception {
+        properties = ConfigLoader.loadProperties("db_config.properties");
+        String path = properties.getProperty("rocksdb.datapath", "./data/rocksdb");
+        max = getIntProperty("rocksdb.area.max", 20);
+        File dir = toFile(path);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        return dir;
+    }
+
+    private static File toFile(String path) {
+        String pathSeparator = System.getProperty("path.separator");
+        String unixPathSeparator = ":";
+        String rootPath;
+        if (unixPathSeparator.equals(pathSeparator)) {
+            rootPath = "/";
+            if (path.startsWith(rootPath)) {
+                return new File(path);
+            }
+        } else {
+            rootPath = "^[c-zC-Z]:.*";
+            if (path.matches(rootPath)) {
+                return new File(path);
+            }
+        }
+        return new File(genAbsolutePath(path));
+    }
+
+    private static String genAbsolutePath(String path) {
+        String[] paths = path.split("/|\\\\");
+        URL resource = ClassLoader.getSystemClassLoader().getResource(".");
+        String classPath = resource.getPath();
+        File file = new File(classPath);
+        String resultPath = null;
+        boolean isFileName = false;
+        for (String p : paths) {
+            if (StringUtils.isBlank(p)) {
+                continue;
+            }
+            if (!isFileName) {
+                if ("..".equals(p)) {
+                    file = file.getParentFile();
+                } else if (".".equals(p)) {
+                    continue;
+                } else {
+                    isFileName = true;
+                    resultPath = file.getPath() + File.separator + p;
+                }
+            } else {
+                resultPath += File.separator + p;
+            }
+        }
+        return resultPath;
+    }
+
+    /**
+     * 将已存在的LevelDB数据目录复制到RocksDB，每个LevelDB区域复制为一个列族
+     * 复制完成后在基础区域写入标记，未完成时下次启动会重新复制（写入是幂等的）
+     * Copy an existing LevelDB data dir into RocksDB, every LevelDB area becomes a column family.
+     * A marker is written to the base area when the copy completes, an interrupted copy is simply repeated on the next start.
+     *
+     * @param levelDbPath LevelDB数据目录/the leveldb data dir
+     */
+    public static Result migrateFromLevelDB(String levelDbPath) {
+        File dir = toFile(levelDbPath);
+        File[] areaFiles = dir.listFiles();
+        if (areaFiles == null) {
+            return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+        }
+        long start = System.currentTimeMillis();
+        Log.info("migrate leveldb data from " + dir.getPath());
+        // 优先复制基础区域，其中保存了其他区域的cacheSize与比较器
+        Result result = copyLevelDBArea(new File(dir, BASE_AREA_NAME), BASE_AREA_NAME);
+        if (result.isFailed()) {
+            return result;
+        }
+        for (File areaFile : areaFiles) {
+            String areaName = areaFile.getName();
+            if (BASE_AREA_NAME.equals(areaName) || !areaFile.isDirectory()) {
+                continue;
+            }
+            if (!new File(areaFile, "leveldb" + File.separator + "CURRENT").exists()) {
+                continue;
+            }
+            if (!AREAS.containsKey(areaName)) {
+                Long cacheSize = getModel(BASE_AREA_NAME, bytes(areaName + "-cacheSize"), Long.class);
+                Comparator<byte[]> comparator = getComparator(areaName);
+                result = createArea(areaName, cacheSize, comparator);
+                if (result.isFailed()) {
+                    return result;
+                }
+            }
+            result = copyLevelDBArea(areaFile, areaName);
+            if (result.isFailed()) {
+                return result;
+            }
+        }
+        result = put(BASE_AREA_NAME, LEVELDB_MIGRATED_KEY, bytes(String.valueOf(System.currentTimeMillis())));
+        Log.info("migrate leveldb data finished, use " + (System.currentTimeMillis() - start) + " ms");
+        return result;
+    }
+
+    private static Result copyLevelDBArea(File areaFile, String areaName) {
+        File dbFile = new File(areaFile, "leveldb");
+        if (!new File(dbFile, "CURRENT").exists()) {
+            return Result.getSuccess();
+        }
+        ColumnFamilyHandle handle = AREAS.get(areaName);
+        long count = 0;
+        try (DB levelDB = Iq80DBFactory.factory.open(dbFile, new org.iq80.leveldb.Options().createIfMissing(false));
+             DBIterator iterator = levelDB.iterator()) {
+            WriteBatch batch = new WriteBatch();
+            try {
+                for (iterator.seekToFirst(); iterator.hasNext(); iterator.next()) {
+                    Map.Entry<byte[], byte[]> entry = iterator.peekNext();
+                    batch.put(handle, entry.getKey(), entry.getValue());
+                    if (++count % MIGRATE_BATCH_SIZE == 0) {
+                        db.write(WRITE_OPTIONS, batch);
+                        batch.close();
+                        batch = new WriteBatch();
+                    }
+                }
+                db.write(WRITE_OPTIONS, batch);
+            } finally {
+                batch.close();
+            }
+        } catch (Exception e) {
+            Log.error("migrate leveldb area failed: " + areaName, e);
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+        Log.info("migrate leveldb area: " + areaName + ", count: " + count);
+        return Result.getSuccess();
+    }
+
+    public static Result createArea(String areaName) {
+        return createArea(areaName, null, null);
+    }
+
+    public static Result createArea(String areaName, Long cacheSize) {
+        return createArea(areaName, cacheSize, null);
+    }
+
+    public static Result createArea(String areaName, Comparator<byte[]> comparator) {
+        return createArea(areaName, null, comparator);
+    }
+
+    /**
+     * 创建区域
+     * 比较器不会设置到RocksDB中，与LevelDB实现一致，仅用于keyList/entryList等的排序，保存在基础区域中下次启动时装载
+     * Create an area.
+     * Like the LevelDB implementation the comparator is not handed to RocksDB, it only sorts keyList/entryList and so on,
+     * it is kept in the base area and loaded on the next start.
+     */
+    public static Result createArea(String areaName, Long cacheSize, Comparator<byte[]> comparator) {
+        lock.lock();
+        try {
+            // prevent too many areas
+            if (AREAS.size() > (max - 1)) {
+                return Result.getFailed(DBErrorCode.DB_AREA_CREATE_EXCEED_LIMIT);
+            }
+            if (StringUtils.isBlank(areaName)) {
+                return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+            }
+            if (AREAS.containsKey(areaName)) {
+                return Result.getFailed(DBErrorCode.DB_AREA_EXIST);
+            }
+            if (db == null || !checkAreaNameLegal(areaName)) {
+                return Result.getFailed(DBErrorCode.DB_AREA_CREATE_PATH_ERROR);
+            }
+            Result result;
+            try {
+                ColumnFamilyOptions options = buildAreaOptions(areaName, cacheSize);
+                ColumnFamilyHandle handle = db.createColumnFamily(new ColumnFamilyDescriptor(bytes(areaName), options));
+                if (cacheSize != null) {
+                    putModel(BASE_AREA_NAME, bytes(areaName + "-cacheSize"), cacheSize);
+                }
+                if (comparator != null) {
+                    putModel(BASE_AREA_NAME, bytes(areaName + "-comparator"), comparator);
+                    AREAS_COMPARATOR.put(areaName, comparator);
+                }
+                AREAS.put(areaName, handle);
+                result = Result.getSuccess();
+            } catch (Exception e) {
+                Log.error("error create area: " + areaName, e);
+                result = Result.getFailed(DBErrorCode.DB_AREA_CREATE_ERROR);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static ColumnFamilyHandle getArea(String areaName) {
+        return AREAS.get(areaName);
+    }
+
+    public static Result destroyArea(String areaName) {
+        if (!baseCheckArea(areaName) || BASE_AREA_NAME.equals(areaName)) {
+            return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+        }
+        Result result;
+        lock.lock();
+        try {
+            ColumnFamilyHandle handle = AREAS.remove(areaName);
+            db.dropColumnFamily(handle);
+            handle.close();
+            AREAS_COMPARATOR.remove(areaName);
+            delete(BASE_AREA_NAME, bytes(areaName + "-comparator"));
+            delete(BASE_AREA_NAME, bytes(areaName + "-cacheSize"));
+            result = Result.getSuccess();
+        } catch (Exception e) {
+            Log.error("error destroy area: " + areaName, e);
+            result = Result.getFailed(DBErrorCode.DB_AREA_DESTROY_ERROR);
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * close all area
+     * 关闭所有数据区域
+     */
+    public static void close() {
+        synchronized (RocksDBManager.class) {
+            if (db == null) {
+                return;
+            }
+            for (Map.Entry<String, ColumnFamilyHandle> entry : AREAS.entrySet()) {
+                AREAS.remove(entry.getKey());
+                AREAS_COMPARATOR.remove(entry.getKey());
+                entry.getValue().close();
+            }
+            try {
+                db.close();
+            } catch (Exception e) {
+                Log.warn("close rocksdb error", e);
+            }
+            db = null;
+            synchronized (NATIVE_RESOURCES) {
+                for (AbstractNativeReference resource : NATIVE_RESOURCES) {
+                    resource.close();
+                }
+                NATIVE_RESOURCES.clear();
+            }
+            isInit = false;
+        }
+    }
+
+    /**
+     * close a area
+     * 关闭指定数据区域
+     */
+    public static void closeArea(String area) {
+        AREAS_COMPARATOR.remove(area);
+        ColumnFamilyHandle handle = AREAS.remove(area);
+        if (handle != null) {
+            handle.close();
+        }
+    }
+
+    private static boolean checkAreaNameLegal(String areaName) {
+        if (StringUtils.isBlank(areaName)) {
+            return false;
+        }
+        if (BASE_AREA_NAME.equals(areaName) || new String(RocksDB.DEFAULT_COLUMN_FAMILY).equals(areaName)) {
+            return false;
+        }
+        String regex = "^[a-zA-Z0-9_\\-]+$";
+        return areaName.matches(regex);
+    }
+
+    private static boolean baseCheckArea(String areaName) {
+        if (StringUtils.isBlank(areaName) || !AREAS.containsKey(areaName)) {
+            return false;
+        }
+        return true;
+    }
+
+    public static String[] listArea() {
+        int i = 0;
+        Enumeration<String> keys = AREAS.keys();
+        String[] areas = new String[AREAS.size()];
+        int length = areas.length;
+        while (keys.hasMoreElements()) {
+            areas[i++] = keys.nextElement();
+            // thread safe, prevent java.lang.ArrayIndexOutOfBoundsException
+            if (i == length) {
+                break;
+            }
+        }
+        return areas;
+    }
+
+    public static Result put(String area, byte[] key, byte[] value) {
+        if (!baseCheckArea(area)) {
+            return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+        }
+        if (key == null || value == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        try {
+            db.put(AREAS.get(area), WRITE_OPTIONS, key, value);
+            return Result.getSuccess();
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+    }
+
+    public static <T> Result putModel(String area, byte[] key, T value) {
+        if (!baseCheckArea(area)) {
+            return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+        }
+        if (key == null || value == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        try {
+            byte[] bytes = getModelSerialize(value);
+            return put(area, key, bytes);
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+    }
+
+    public static <T> byte[] getModelSerialize(T value) {
+        ModelWrapper<T> modelWrapper = new ModelWrapper<>(value);
+        return ProtostuffIOUtil.toByteArray(modelWrapper, MODEL_SCHEMA, LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE));
+    }
+
+    private static <T> T deserializeModel(byte[] bytes, Class<T> clazz) {
+        ModelWrapper<?> model = new ModelWrapper<>();
+        ProtostuffIOUtil.mergeFrom(bytes, model, MODEL_SCHEMA);
+        return clazz.cast(model.getT());
+    }
+
+    /**
+     * 读取区域的自定义比较器，比较器以序列化对象保存，读取时无法检查它的泛型参数
+     * Read the custom comparator of the area. It is stored as a serialized object, so its type argument can not be
+     * checked on read.
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparator<byte[]> getComparator(String areaName) {
+        return getModel(BASE_AREA_NAME, bytes(areaName + "-comparator"), Comparator.class);
+    }
+
+    public static Result delete(String area, byte[] key) {
+        if (!baseCheckArea(area)) {
+            return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+        }
+        if (key == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        try {
+            db.delete(AREAS.get(area), WRITE_OPTIONS, key);
+            return Result.getSuccess();
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+    }
+
+    public static byte[] get(String area, byte[] key) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        if (key == null) {
+            return null;
+        }
+        try {
+            return db.get(AREAS.get(area), key);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static Object getModel(String area, byte[] key) {
+        return getModel(area, key, Object.class);
+    }
+
+    public static <T> T getModel(String area, byte[] key, Class<T> clazz) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        if (key == null) {
+            return null;
+        }
+        try {
+            byte[] bytes = db.get(AREAS.get(area), key);
+            if (bytes == null) {
+                return null;
+            }
+            return deserializeModel(bytes, clazz);
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    /**
+     * 批量读取，所有key在一次本地调用中查找，结果与keys一一对应，不存在的key对应null
+     * Multi-get, every key is looked up in a single native call, the result matches the keys one to one and is null for a missing key.
+     */
+    public static <T> List<T> multiGetModel(String area, List<byte[]> keys, Class<T> clazz) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        if (keys == null) {
+            return null;
+        }
+        List<T> list = new ArrayList<>(keys.size());
+        if (keys.isEmpty()) {
+            return list;
+        }
+        try {
+            List<ColumnFamilyHandle> handles = Collections.nCopies(keys.size(), AREAS.get(area));
+            Map<byte[], byte[]> values = db.multiGet(handles, keys);
+            for (byte[] key : keys) {
+                byte[] bytes = values.get(key);
+                list.add(bytes == null ? null : deserializeModel(bytes, clazz));
+            }
+            return list;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    /**
+     * 批量写入，批量中可包含多个区域的操作，RocksDB保证其原子性
+     * Write a batch, the batch may span several areas and RocksDB applies it atomically.
+     */
+    public static Result write(WriteBatch batch) {
+        try {
+            db.write(WRITE_OPTIONS, batch);
+            return Result.getSuccess();
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+    }
+
+    private static RocksIterator newIterator(String area) {
+        return db.newIterator(AREAS.get(area), TOTAL_ORDER_READ_OPTIONS);
+    }
+
+    public static Set<byte[]> keySet(String area) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        try (RocksIterator iterator = newIterator(area)) {
+            Set<byte[]> keySet = new HashSet<>();
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                keySet.add(iterator.key());
+            }
+            return keySet;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    public static List<byte[]> keyList(String area) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        try (RocksIterator iterator = newIterator(area)) {
+            List<byte[]> keyList = new ArrayList<>();
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                keyList.add(iterator.key());
+            }
+            Comparator<byte[]> comparator = AREAS_COMPARATOR.get(area);
+            if (comparator != null) {
+                keyList.sort(comparator);
+            }
+            return keyList;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    public static Set<Entry<byte[], byte[]>> entrySet(String area) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        try (RocksIterator iterator = newIterator(area)) {
+            Set<Entry<byte[], byte[]>> entrySet = new HashSet<>();
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                entrySet.add(new Entry<byte[], byte[]>(iterator.key(), iterator.value()));
+            }
+            return entrySet;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    public static List<Entry<byte[], byte[]>> entryList(String area) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        try (RocksIterator iterator = newIterator(area)) {
+            List<Entry<byte[], byte[]>> entryList = new ArrayList<>();
+            Comparator<byte[]> comparator = AREAS_COMPARATOR.get(area);
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                entryList.add(new Entry<byte[], byte[]>(iterator.key(), iterator.value(), comparator));
+            }
+            // 如果自定义了比较器，则执行排序
+            if (comparator != null) {
+                entryList.sort((o1, o2) -> o1.compareTo(o2.getKey()));
+            }
+            return entryList;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    public static <T> List<Entry<byte[], T>> entryList(String area, Class<T> clazz) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        try (RocksIterator iterator = newIterator(area)) {
+            List<Entry<byte[], T>> entryList = new ArrayList<>();
+            Comparator<byte[]> comparator = AREAS_COMPARATOR.get(area);
+            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                entryList.add(new Entry<byte[], T>(iterator.key(), deserializeModel(iterator.value(), clazz), comparator));
+            }
+            // 如果自定义了比较器，则执行排序
+            if (comparator != null) {
+                entryList.sort((o1, o2) -> o1.compareTo(o2.getKey()));
+            }
+            return entryList;
+        } catch (Exception e) {
+            Log.error(e);
+            return null;
+        }
+    }
+
+    public static <T> List<T> values(String area, Class<T> clazz) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        List<Entry<byte[], T>> entryList = entryList(area, clazz);
+        if (entryList == null) {
+            return null;
+        }
+        List<T> resultList = new ArrayList<>(entryList.size());
+        for (Entry<byte[], T> entry : entryList) {
+            resultList.add(entry.getValue());
+        }
+        return resultList;
+    }
+
+    public static List<byte[]> valueList(String area) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        List<Entry<byte[], byte[]>> entryList = entryList(area);
+        if (entryList == null) {
+            return null;
+        }
+        List<byte[]> resultList = new ArrayList<>(entryList.size());
+        for (Entry<byte[], byte[]> entry : entryList) {
+            resultList.add(entry.getValue());
+        }
+        return resultList;
+    }
+
+    /**
+     * 从from开始正向流式遍历，直到key不小于to或visitor返回false
+     * Stream forwards from the first key not less than from, until a key reaches to or the visitor returns false.
+     */
+    public static Result iterate(String area, byte[] from, byte[] to, EntryVisitor visitor) {
+        if (!baseCheckArea(area)) {
+            return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+        }
+        if (visitor == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        try (RocksIterator iterator = newIterator(area)) {
+            if (from == null) {
+                iterator.seekToFirst();
+            } else {
+                iterator.seek(from);
+            }
+            for (; iterator.isValid(); iterator.next()) {
+                byte[] key = iterator.key();
+                if (to != null && KeyUtils.compare(key, to) >= 0) {
+                    break;
+                }
+                if (!visitor.visit(key, iterator.value())) {
+                    break;
+                }
+            }
+            return Result.getSuccess();
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+    }
+
+    /**
+     * 从to之前的最后一个key开始反向流式遍历，直到key小于from或visitor返回false
+     * Stream backwards from the last key before to, until a key drops below from or the visitor returns false.
+     */
+    private static Result iterateReverse(String area, byte[] from, byte[] to, EntryVisitor visitor) {
+        try (RocksIterator iterator = newIterator(area)) {
+            if (to == null) {
+                iterator.seekToLast();
+            } else {
+                iterator.seekForPrev(to);
+                if (iterator.isValid() && KeyUtils.compare(iterator.key(), to) >= 0) {
+                    iterator.prev();
+                }
+            }
+            for (; iterator.isValid(); iterator.prev()) {
+                byte[] key = iterator.key();
+                if (from != null && KeyUtils.compare(key, from) < 0) {
+                    break;
+                }
+                if (!visitor.visit(key, iterator.value())) {
+                    break;
+                }
+            }
+            return Result.getSuccess();
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+    }
+
+    public static List<Entry<byte[], byte[]>> range(String area, byte[] from, byte[] to, int offset, int limit, boolean reverse) {
+        if (!baseCheckArea(area)) {
+            return null;
+        }
+        EntryCollector collector = new EntryCollector(offset, limit, false);
+        Result result = reverse ? iterateReverse(area, from, to, collector) : iterate(area, from, to, collector);
+        if (result.isFailed()) {
+            return null;
+        }
+        return collector.getEntryList();
+    }
+
+    public static List<Entry<byte[], byte[]>> seek(String area, byte[] prefix, int offset, int limit, boolean reverse) {
+        if (prefix == null) {
+            return null;
+        }
+        return range(area, prefix, KeyUtils.prefixUpperBound(prefix), offset, limit, reverse);
+    }
+
+    public static Result clearArea(String area) {
+        if (!baseCheckArea(area)) {
+            return Result.getFailed();
+        }
+        try {
+            return destroyArea(area);
+        } catch (Exception e) {
+            Log.error(e);
+            return Result.getFailed();
+        }
+    }
+}
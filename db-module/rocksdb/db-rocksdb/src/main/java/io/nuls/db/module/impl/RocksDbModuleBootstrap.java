@@ -0,0 +1,68 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2018 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.module.impl;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.db.manager.RocksDBManager;
+import io.nuls.db.module.AbstractDBModule;
+import io.nuls.kernel.exception.NulsRuntimeException;
+
+/**
+ * RocksDB存储模块，在modules.ini的[db]中配置bootstrap=io.nuls.db.module.impl.RocksDbModuleBootstrap启用
+ * RocksDB storage module, enabled with bootstrap=io.nuls.db.module.impl.RocksDbModuleBootstrap in the [db] section of modules.ini.
+ */
+public class RocksDbModuleBootstrap extends AbstractDBModule {
+
+    @Override
+    public void init() {
+        try {
+            RocksDBManager.init();
+        } catch (Exception e) {
+            Log.error(e);
+            throw new NulsRuntimeException(e);
+        }
+    }
+
+    @Override
+    public void start() {
+
+    }
+
+    @Override
+    public void shutdown() {
+        RocksDBManager.close();
+    }
+
+    @Override
+    public void destroy() {
+        RocksDBManager.close();
+    }
+
+    @Override
+    public String getInfo() {
+        StringBuilder str = new StringBuilder();
+        str.append("moduleName:");
+        str.append(getModuleName());
+        str.append(",moduleStatus:");
+        str.append(getStatus());
+        str.append(",ThreadCount:");
+        return str.toString();
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2018 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.service.impl;
+
+import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.manager.RocksDBManager;
+import io.nuls.db.service.BatchOperation;
+import io.nuls.kernel.model.Result;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.WriteBatch;
+
+public class RocksDBBatchOperationImpl implements BatchOperation {
+
+    private static final Result FAILED_NULL = Result.getFailed(DBErrorCode.NULL_PARAMETER);
+    private static final Result SUCCESS = Result.getSuccess();
+    private static final Result FAILED_BATCH_CLOSE = Result.getFailed(DBErrorCode.DB_BATCH_CLOSE);
+    private ColumnFamilyHandle handle;
+    private WriteBatch batch;
+    private volatile boolean isClose = false;
+
+    RocksDBBatchOperationImpl(String area) {
+        handle = RocksDBManager.getArea(area);
+        if (handle != null) {
+            batch = new WriteBatch();
+        }
+    }
+
+    public Result checkBatch() {
+        if (handle == null) {
+            return Result.getFailed(DBErrorCode.DB_AREA_NOT_EXIST);
+        }
+        if (batch == null) {
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+        return SUCCESS;
+    }
+
+    @Override
+    public Result put(byte[] key, byte[] value) {
+        if (key == null || value == null) {
+            return FAILED_NULL;
+        }
+        if (isClose) {
+            return FAILED_BATCH_CLOSE;
+        }
+        try {
+            batch.put(handle, key, value);
+        } catch (Exception e) {
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+        return SUCCESS;
+    }
+
+    @Override
+    public <T> Result putModel(byte[] key, T value) {
+        if (key == null || value == null) {
+            return FAILED_NULL;
+        }
+        byte[] bytes = RocksDBManager.getModelSerialize(value);
+        return put(key, bytes);
+    }
+
+    @Override
+    public Result delete(byte[] key) {
+        if (key == null) {
+            return FAILED_NULL;
+        }
+        if (isClose) {
+            return FAILED_BATCH_CLOSE;
+        }
+        try {
+            batch.delete(handle, key);
+        } catch (Exception e) {
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+        return SUCCESS;
+    }
+
+    @Override
+    public Result executeBatch() {
+        // 检查逻辑关闭
+        if (isClose) {
+            return FAILED_BATCH_CLOSE;
+        }
+        isClose = true;
+        try {
+            return RocksDBManager.write(batch);
+        } finally {
+            // 释放本地资源/release the native resource
+            batch.close();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2018 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.service.impl;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.core.tools.str.StringUtils;
+import io.nuls.db.manager.RocksDBManager;
+import io.nuls.db.model.Entry;
+import io.nuls.db.service.BatchOperation;
+import io.nuls.db.service.DBService;
+import io.nuls.db.service.EntryVisitor;
+import io.nuls.db.service.MultiAreaBatchOperation;
+import io.nuls.kernel.lite.annotation.Service;
+import io.nuls.kernel.model.Result;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 基于RocksDB的通用数据存储服务，与db-leveldb二选一打包
+ * RocksDB based data storage service, packaged instead of db-leveldb.
+ */
+@Service
+public class RocksDBServiceImpl implements DBService {
+
+    public RocksDBServiceImpl() {
+        try {
+            RocksDBManager.init();
+        } catch (Exception e) {
+            Log.error(e);
+        }
+    }
+
+    @Override
+    public Result createArea(String areaName) {
+        return RocksDBManager.createArea(areaName);
+    }
+
+    @Deprecated
+    @Override
+    public Result createArea(String areaName, Long cacheSize) {
+        return RocksDBManager.createArea(areaName, cacheSize);
+    }
+
+    @Override
+    public Result createArea(String areaName, Comparator<byte[]> comparator) {
+        return RocksDBManager.createArea(areaName, comparator);
+    }
+
+    @Deprecated
+    @Override
+    public Result createArea(String areaName, Long cacheSize, Comparator<byte[]> comparator) {
+        return RocksDBManager.createArea(areaName, cacheSize, comparator);
+    }
+
+    @Override
+    public String[] listArea() {
+        return RocksDBManager.listArea();
+    }
+
+    @Override
+    public Result put(String area, byte[] key, byte[] value) {
+        return RocksDBManager.put(area, key, value);
+    }
+
+    @Override
+    public <T> Result putModel(String area, byte[] key, T value) {
+        return RocksDBManager.putModel(area, key, value);
+    }
+
+    @Override
+    public Result delete(String area, byte[] key) {
+        return RocksDBManager.delete(area, key);
+    }
+
+    @Override
+    public byte[] get(String area, byte[] key) {
+        return RocksDBManager.get(area, key);
+    }
+
+    @Override
+    public <T> T getModel(String area, byte[] key, Class<T> clazz) {
+        return RocksDBManager.getModel(area, key, clazz);
+    }
+
+    @Override
+    public Object getModel(String area, byte[] key) {
+        return RocksDBManager.getModel(area, key);
+    }
+
+    @Override
+    public <T> List<T> multiGetModel(String area, List<byte[]> keys, Class<T> clazz) {
+        return RocksDBManager.multiGetModel(area, keys, clazz);
+    }
+
+    @Override
+    public Set<byte[]> keySet(String area) {
+        return RocksDBManager.keySet(area);
+    }
+
+    @Override
+    public List<byte[]> keyList(String area) {
+        return RocksDBManager.keyList(area);
+    }
+
+    @Override
+    public List<byte[]> valueList(String area) {
+        return RocksDBManager.valueList(area);
+    }
+
+    @Override
+    public Set<Entry<byte[], byte[]>> entrySet(String area) {
+        return RocksDBManager.entrySet(area);
+    }
+
+    @Override
+    public List<Entry<byte[], byte[]>> entryList(String area) {
+        return RocksDBManager.entryList(area);
+    }
+
+    @Override
+    public <T> List<Entry<byte[], T>> entryList(String area, Class<T> clazz) {
+        return RocksDBManager.entryList(area, clazz);
+    }
+
+    @Override
+    public <T> List<T> values(String area, Class<T> clazz) {
+        return RocksDBManager.values(area, clazz);
+    }
+
+    @Override
+    public List<Entry<byte[], byte[]>> seek(String area, byte[] prefix, int offset, int limit, boolean reverse) {
+        return RocksDBManager.seek(area, prefix, offset, limit, reverse);
+    }
+
+    @Override
+    public List<Entry<byte[], byte[]>> range(String area, byte[] from, byte[] to, int offset, int limit, boolean reverse) {
+        return RocksDBManager.range(area, from, to, offset, limit, reverse);
+    }
+
+    @Override
+    public Result iterate(String area, byte[] from, byte[] to, EntryVisitor visitor) {
+        return RocksDBManager.iterate(area, from, to, visitor);
+    }
+
+    @Override
+    public BatchOperation createWriteBatch(String area) {
+        if(StringUtils.isBlank(area)) {
+            return null;
+        }
+        RocksDBBatchOperationImpl batchOperation = new RocksDBBatchOperationImpl(area);
+        Result result = batchOperation.checkBatch();
+        if(result.isFailed()) {
+            Log.error("DB batch create error: " + result.getMsg());
+            return null;
+        }
+        return batchOperation;
+    }
+
+    @Override
+    public MultiAreaBatchOperation createMultiAreaWriteBatch() {
+        return new RocksDBMultiAreaBatchOperationImpl();
+    }
+
+    @Override
+    public Result destroyArea(String area) {
+        return RocksDBManager.destroyArea(area);
+    }
+
+    /**
+     * 清空Area
+     */
+    @Override
+    public Result clearArea(String area) {
+        return RocksDBManager.clearArea(area);
+    }
+}
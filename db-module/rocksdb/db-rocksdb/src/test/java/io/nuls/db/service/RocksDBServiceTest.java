@@ -0,0 +1,216 @@
+/**
+ * MIT License
+ * Copyright (c) 2017-2018 nuls.io
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.service;
+
+import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.manager.RocksDBManager;
+import io.nuls.db.model.Entry;
+import io.nuls.db.service.impl.RocksDBServiceImpl;
+import io.nuls.kernel.model.Result;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.Options;
+import org.iq80.leveldb.impl.Iq80DBFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static io.nuls.core.tools.str.StringUtils.bytes;
+import static org.iq80.leveldb.impl.Iq80DBFactory.asString;
+
+public class RocksDBServiceTest {
+
+    private static DBService dbService;
+
+    @BeforeClass
+    public static void init() {
+        dbService = new RocksDBServiceImpl();
+    }
+
+    @AfterClass
+    public static void after() {
+        for (String area : dbService.listArea()) {
+            if (!RocksDBManager.getBaseAreaName().equals(area)) {
+                dbService.destroyArea(area);
+            }
+        }
+        RocksDBManager.close();
+    }
+
+    @Test
+    public void testPutGetDelete() {
+        String area = "testPutGetDelete";
+        dbService.createArea(area);
+        Assert.assertTrue(dbService.put(area, bytes("Tampa"), bytes("green")).isSuccess());
+        Assert.assertEquals("green", asString(dbService.get(area, bytes("Tampa"))));
+        Assert.assertTrue(dbService.delete(area, bytes("Tampa")).isSuccess());
+        Assert.assertNull(dbService.get(area, bytes("Tampa")));
+        Assert.assertEquals(DBErrorCode.DB_AREA_EXIST.getCode(), dbService.createArea(area).getErrorCode().getCode());
+        Assert.assertTrue(dbService.destroyArea(area).isSuccess());
+        Assert.assertEquals(DBErrorCode.DB_AREA_NOT_EXIST.getCode(), dbService.put(area, bytes("Tampa"), bytes("green")).getErrorCode().getCode());
+    }
+
+    @Test
+    public void testBatch() {
+        String area = "testBatch";
+        dbService.createArea(area);
+        BatchOperation batch = dbService.createWriteBatch(area);
+        batch.put(bytes("Tampa"), bytes("green"));
+        batch.put(bytes("London"), bytes("red"));
+        batch.put(bytes("Qweqwe"), bytes("blue"));
+        batch.delete(bytes("Qweqwe"));
+        Assert.assertNull(dbService.get(area, bytes("Tampa")));
+        Assert.assertTrue(batch.executeBatch().isSuccess());
+        Assert.assertEquals("green", asString(dbService.get(area, bytes("Tampa"))));
+        Assert.assertEquals("red", asString(dbService.get(area, bytes("London"))));
+        Assert.assertNull(dbService.get(area, bytes("Qweqwe")));
+
+        // 校验重复执行，期望失败
+        Result result = batch.executeBatch();
+        Assert.assertEquals(DBErrorCode.DB_BATCH_CLOSE.getCode(), result.getErrorCode().getCode());
+        dbService.destroyArea(area);
+    }
+
+    @Test
+    public void testSeekAndRange() {
+        String area = "testSeekAndRange";
+        dbService.createArea(area);
+        for (int i = 0; i < 10; i++) {
+            dbService.put(area, new byte[]{1, (byte) i}, bytes("a" + i));
+            dbService.put(area, new byte[]{2, (byte) i}, bytes("b" + i));
+        }
+        dbService.put(area, new byte[]{(byte) 0xFF, 0}, bytes("c0"));
+
+        List<Entry<byte[], byte[]>> list = dbService.seek(area, new byte[]{1}, 0, 0, false);
+        Assert.assertEquals(10, list.size());
+        Assert.assertEquals("a0", asString(list.get(0).getValue()));
+        Assert.assertEquals("a9", asString(list.get(9).getValue()));
+
+        list = dbService.seek(area, new byte[]{2}, 2, 3, false);
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals("b2", asString(list.get(0).getValue()));
+        Assert.assertEquals("b4", asString(list.get(2).getValue()));
+
+        list = dbService.seek(area, new byte[]{2}, 1, 3, true);
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals("b8", asString(list.get(0).getValue()));
+        Assert.assertEquals("b6", asString(list.get(2).getValue()));
+
+        list = dbService.seek(area, new byte[]{(byte) 0xFF}, 0, 0, true);
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals("c0", asString(list.get(0).getValue()));
+
+        list = dbService.range(area, new byte[]{1, 8}, new byte[]{2, 2}, 0, 0, false);
+        Assert.assertEquals(4, list.size());
+        Assert.assertEquals("a8", asString(list.get(0).getValue()));
+        Assert.assertEquals("b1", asString(list.get(3).getValue()));
+
+        list = dbService.range(area, null, new byte[]{2, 0}, 0, 2, true);
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals("a9", asString(list.get(0).getValue()));
+
+        Assert.assertTrue(dbService.seek(area, new byte[]{3}, 0, 0, false).isEmpty());
+
+        final int[] count = {0};
+        dbService.iterate(area, new byte[]{2}, null, (key, value) -> ++count[0] < 5);
+        Assert.assertEquals(5, count[0]);
+        dbService.destroyArea(area);
+    }
+
+    @Test
+    public void testMultiAreaBatch() {
+        String area1 = "testMultiAreaBatch1";
+        String area2 = "testMultiAreaBatch2";
+        dbService.createArea(area1);
+        dbService.createArea(area2);
+        dbService.put(area2, bytes("London"), bytes("red"));
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        batch.put(area1, bytes("Tampa"), bytes("green"));
+        batch.delete(area2, bytes("London"));
+        Assert.assertEquals(DBErrorCode.DB_AREA_NOT_EXIST.getCode(), batch.put("testMultiAreaBatchNotExist", bytes("Tampa"), bytes("green")).getErrorCode().getCode());
+        Assert.assertNull(dbService.get(area1, bytes("Tampa")));
+        Assert.assertTrue(batch.executeBatch().isSuccess());
+        Assert.assertTrue(batch.isExecuted());
+        Assert.assertEquals("green", asString(dbService.get(area1, bytes("Tampa"))));
+        Assert.assertNull(dbService.get(area2, bytes("London")));
+        dbService.destroyArea(area1);
+        dbService.destroyArea(area2);
+    }
+
+    /**
+     * 配置了前缀提取器的区域，全量遍历仍需返回所有数据
+     * A full scan of an area with a prefix extractor must still return every entry.
+     */
+    @Test
+    public void testPrefixArea() {
+        String area = "testPrefix";
+        dbService.createArea(area);
+        dbService.put(area, bytes("aaaa1"), bytes("1"));
+        dbService.put(area, bytes("aaaa2"), bytes("2"));
+        dbService.put(area, bytes("bbbb1"), bytes("3"));
+        Assert.assertEquals("2", asString(dbService.get(area, bytes("aaaa2"))));
+        Assert.assertNull(dbService.get(area, bytes("aaaa3")));
+        List<Entry<byte[], byte[]>> entryList = dbService.entryList(area);
+        Assert.assertEquals(3, entryList.size());
+        Assert.assertEquals("bbbb1", asString(entryList.get(2).getKey()));
+        dbService.destroyArea(area);
+    }
+
+    @Test
+    public void testComparatorAndReopen() throws Exception {
+        String area = "testComparator";
+        dbService.createArea(area, (o1, o2) -> Integer.compare(o2[0], o1[0]));
+        dbService.put(area, new byte[]{1}, bytes("1"));
+        dbService.put(area, new byte[]{3}, bytes("3"));
+        dbService.put(area, new byte[]{2}, bytes("2"));
+        List<byte[]> keyList = dbService.keyList(area);
+        Assert.assertEquals(3, keyList.get(0)[0]);
+        Assert.assertEquals(1, keyList.get(2)[0]);
+
+        RocksDBManager.close();
+        RocksDBManager.init();
+        Assert.assertEquals("3", asString(dbService.get(area, new byte[]{3})));
+        keyList = dbService.keyList(area);
+        Assert.assertEquals(3, keyList.get(0)[0]);
+        dbService.destroyArea(area);
+    }
+
+    @Test
+    public void testMigrateFromLevelDB() throws Exception {
+        File dir = Files.createTempDirectory("leveldb-migrate").toFile();
+        File areaDir = new File(dir, "testMigrate" + File.separator + "leveldb");
+        areaDir.mkdirs();
+        DB levelDB = Iq80DBFactory.factory.open(areaDir, new Options().createIfMissing(true));
+        for (int i = 0; i < 100; i++) {
+            levelDB.put(bytes("key" + i), bytes("value" + i));
+        }
+        levelDB.close();
+
+        Assert.assertTrue(RocksDBManager.migrateFromLevelDB(dir.getPath()).isSuccess());
+        Assert.assertEquals("value42", asString(dbService.get("testMigrate", bytes("key42"))));
+        Assert.assertEquals(100, dbService.keyList("testMigrate").size());
+        dbService.destroyArea("testMigrate");
+        Iq80DBFactory.factory.destroy(areaDir, new Options());
+    }
+}
@@ -23,6 +23,7 @@
  */
 package io.nuls.ledger.service;
 
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.*;
 import io.nuls.kernel.validate.ValidateResult;
@@ -37,23 +38,67 @@ import java.util.Set;
 public interface LedgerService {
 
     /**
-     * Save transactions, automatically handle transactional coin data
+     * Save transactions, automatically handle transactional coin data, everything is written to storage directly
      *
-     * 保存交易，自动处理交易自带的coindata
+     * 保存交易，自动处理交易自带的coindata，直接写入存储
      * @param tx
      * @return boolean
      */
     Result saveTx(Transaction tx) throws NulsException;
 
     /**
-     * Roll back transactions while rolling back coindata data
+     * Roll back transactions while rolling back coindata data, everything is written to storage directly
      *
-     * 回滚交易，同时回滚coindata数据
+     * 回滚交易，同时回滚coindata数据，直接写入存储
      * @param tx
      * @return boolean
      */
     Result rollbackTx(Transaction tx) throws NulsException;
 
+    /**
+     * Save the transaction into a multi-area batch, nothing is visible in storage until the batch is executed
+     *
+     * 将交易保存到跨区域批量操作中，批量执行前不会写入存储
+     * @param tx
+     * @param batch
+     * @return Result
+     */
+    Result saveTx(Transaction tx, MultiAreaBatchOperation batch) throws NulsException;
+
+    /**
+     * Roll back the transaction into a multi-area batch
+     *
+     * 将交易回滚写入跨区域批量操作中
+     * @param tx
+     * @param batch
+     * @return Result
+     */
+    Result rollbackTx(Transaction tx, MultiAreaBatchOperation batch) throws NulsException;
+
+    /**
+     * Stage the cached coin data changes into the multi-area batch, called once per block before the batch is executed,
+     * the changes stay pending until committed() or discard() is called
+     *
+     * 将缓存中的coindata变更写入跨区域批量操作，每个区块在执行批量前调用一次，在调用committed()或discard()前变更仍为暂存状态
+     * @param batch
+     * @return Result
+     */
+    Result flush(MultiAreaBatchOperation batch);
+
+    /**
+     * Mark everything staged since the last commit as persisted, must be called after the batch was executed successfully
+     *
+     * 将上次提交后暂存的数据标记为已持久化，批量操作执行成功后必须调用
+     */
+    void committed();
+
+    /**
+     * Drop everything staged since the last commit, must be called when a batch is abandoned or fails to execute
+     *
+     * 丢弃上次提交后暂存的所有数据，批量操作放弃或执行失败时必须调用
+     */
+    void discard();
+
     /**
      * get a transaction
      *
@@ -65,6 +110,15 @@ public interface LedgerService {
 
     Transaction getTx(byte[] txHashBytes);
 
+    /**
+     * get transactions in one batch, the result matches the hash list one to one
+     *
+     * 批量获取交易，存储层一次性读取，结果与hashList一一对应，不存在的交易为null
+     * @param hashList
+     * @return List<Transaction>
+     */
+    List<Transaction> getTxs(List<NulsDigestData> hashList);
+
     /**
       * Verify that a coindata is valid, the first verification owner is legal (whether it can be used), the second verification amount is correct (output can not be greater than the input)
       * Check whether every from one in the coinData exists in txList database, or if not, is to continue to check the from of the existence of the deal and if it exists, represents a double spend, does not exist, is the orphan transactions, finally throw an exception
@@ -76,7 +130,7 @@ public interface LedgerService {
       * @param temporaryFromSet
       * @return ValidateResult
       */
-    public ValidateResult verifyCoinData(Transaction transaction, Map<String, Coin> temporaryToMap, Set<String> temporaryFromSet);
+    public ValidateResult verifyCoinData(Transaction transaction, Map<OutPointKey, Coin> temporaryToMap, Set<OutPointKey> temporaryFromSet);
 
     /**
       * Verify that a coindata is valid, the first verification owner is legal (whether it can be used), the second verification amount is correct (output can not be greater than the input)
@@ -90,7 +144,7 @@ public interface LedgerService {
       * @param bestHeight
       * @return ValidateResult
       */
-    public ValidateResult verifyCoinData(Transaction transaction, Map<String, Coin> temporaryToMap, Set<String> temporaryFromSet, Long bestHeight);
+    public ValidateResult verifyCoinData(Transaction transaction, Map<OutPointKey, Coin> temporaryToMap, Set<OutPointKey> temporaryFromSet, Long bestHeight);
 
     /**
      * Verify that the from is repeated, and if repeated, it represents a double spend and throws an exception.
@@ -24,12 +24,10 @@
 package io.nuls.ledger.util;
 
 import io.nuls.core.tools.crypto.Hex;
-import io.nuls.core.tools.param.AssertUtil;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.utils.VarInt;
 
 import java.util.Arrays;
-import java.util.Base64;
 
 /**
  * @desription:
@@ -75,9 +73,4 @@ public class LedgerUtil {
         }
         return null;
     }
-
-    public static String asString(byte[] bytes) {
-        AssertUtil.canNotEmpty(bytes);
-        return Base64.getEncoder().encodeToString(bytes);
-    }
 }
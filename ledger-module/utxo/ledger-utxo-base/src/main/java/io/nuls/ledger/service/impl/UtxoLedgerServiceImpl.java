@@ -23,13 +23,12 @@
  */
 package io.nuls.ledger.service.impl;
 
-import io.nuls.core.tools.array.ArraysTool;
 import io.nuls.core.tools.calc.LongUtils;
 import io.nuls.core.tools.crypto.Hex;
 import io.nuls.core.tools.log.Log;
 import io.nuls.core.tools.map.MapUtil;
-import io.nuls.core.tools.param.AssertUtil;
 import io.nuls.db.service.BatchOperation;
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.constant.NulsConstant;
 import io.nuls.kernel.context.NulsContext;
@@ -74,9 +73,9 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         }
         try {
             // 保存CoinData
-            Result result = saveCoinData(tx);
+            Result result = saveCoinData(tx, false);
             if (result.isFailed()) {
-                Result rollbackResult = rollbackCoinData(tx);
+                Result rollbackResult = rollbackCoinData(tx, false);
                 if (rollbackResult.isFailed()) {
                     throw new NulsException(LedgerErrorCode.DB_ROLLBACK_ERROR);
                 }
@@ -101,13 +100,18 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         }
     }
 
-    private Result saveCoinData(Transaction tx) throws IOException {
+    /**
+     * 保存交易的UTXO变更，staged为true时暂存在缓存中，由flush(batch)写入区块的批量操作，否则直接写入数据库
+     * Save the utxo changes of the transaction, staged in the cache for flush(batch) when staged is true,
+     * written straight to the database otherwise.
+     */
+    private Result saveCoinData(Transaction tx, boolean staged) throws IOException {
         CoinData coinData = tx.getCoinData();
         //TestLog+
 //        Log.info("=============="+tx.getClass().getSimpleName()+"交易：hash-"+tx.getHash().getDigestHex());
         //TestLog-
         if (coinData != null) {
-            BatchOperation batch = utxoLedgerUtxoStorageService.createWriteBatch();
+            BatchOperation batch = createUtxoBatch(tx, staged);
             // 删除utxo已花费 - from
             List<Coin> froms = coinData.getFrom();
             for (Coin from : froms) {
@@ -149,9 +153,9 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         }
         try {
             // 回滚CoinData
-            Result result = rollbackCoinData(tx);
+            Result result = rollbackCoinData(tx, false);
             if (result.isFailed()) {
-                Result recoveryResult = saveCoinData(tx);
+                Result recoveryResult = saveCoinData(tx, false);
                 if (recoveryResult.isFailed()) {
                     throw new NulsException(LedgerErrorCode.DB_DATA_ERROR);
                 }
@@ -176,9 +180,9 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         }
     }
 
-    private Result rollbackCoinData(Transaction tx) throws IOException, NulsException {
+    private Result rollbackCoinData(Transaction tx, boolean staged) throws IOException, NulsException {
         byte[] txHashBytes = tx.getHash().serialize();
-        BatchOperation batch = utxoLedgerUtxoStorageService.createWriteBatch();
+        BatchOperation batch = createUtxoBatch(tx, staged);
         CoinData coinData = tx.getCoinData();
         if (coinData != null) {
             // 保存utxo已花费 - from
@@ -218,6 +222,65 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         return Result.getSuccess();
     }
 
+    private BatchOperation createUtxoBatch(Transaction tx, boolean staged) {
+        if (staged) {
+            return utxoLedgerUtxoStorageService.createWriteBatch(tx.getBlockHeight());
+        }
+        return utxoLedgerUtxoStorageService.createWriteBatch();
+    }
+
+    @Override
+    public Result saveTx(Transaction tx, MultiAreaBatchOperation batch) throws NulsException {
+        if (tx == null || batch == null) {
+            return Result.getFailed(LedgerErrorCode.NULL_PARAMETER);
+        }
+        try {
+            // UTXO变更暂存在缓存中，由flush(batch)写入批量操作
+            Result result = saveCoinData(tx, true);
+            if (result.isFailed()) {
+                return result;
+            }
+            return utxoLedgerTransactionStorageService.saveTx(tx, batch);
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.IO_ERROR);
+        }
+    }
+
+    @Override
+    public Result rollbackTx(Transaction tx, MultiAreaBatchOperation batch) throws NulsException {
+        if (tx == null || batch == null) {
+            return Result.getFailed(LedgerErrorCode.NULL_PARAMETER);
+        }
+        try {
+            Result result = rollbackCoinData(tx, true);
+            if (result.isFailed()) {
+                return result;
+            }
+            return utxoLedgerTransactionStorageService.deleteTx(tx, batch);
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.IO_ERROR);
+        }
+    }
+
+    @Override
+    public Result flush(MultiAreaBatchOperation batch) {
+        return utxoLedgerUtxoStorageService.flush(batch);
+    }
+
+    @Override
+    public void committed() {
+        utxoLedgerUtxoStorageService.committed();
+        utxoLedgerTransactionStorageService.committed();
+    }
+
+    @Override
+    public void discard() {
+        utxoLedgerUtxoStorageService.discard();
+        utxoLedgerTransactionStorageService.discard();
+    }
+
     @Override
     public Transaction getTx(NulsDigestData hash) {
         if (hash == null) {
@@ -240,6 +303,14 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         return getTx(digestData);
     }
 
+    @Override
+    public List<Transaction> getTxs(List<NulsDigestData> hashList) {
+        if (hashList == null) {
+            return null;
+        }
+        return utxoLedgerTransactionStorageService.getTxs(hashList);
+    }
+
     /**
      * 此txList是待打包的块中的交易，所以toList是下一步的UTXO，应该校验它
      * coinData的交易和txList同处一个块中，txList中的to可能是coinData的from，
@@ -248,7 +319,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
      * @return ValidateResult
      */
     @Override
-    public ValidateResult verifyCoinData(Transaction transaction, Map<String, Coin> temporaryToMap, Set<String> temporaryFromSet) {
+    public ValidateResult verifyCoinData(Transaction transaction, Map<OutPointKey, Coin> temporaryToMap, Set<OutPointKey> temporaryFromSet) {
         return verifyCoinData(transaction, temporaryToMap, temporaryFromSet, null);
     }
 
@@ -261,7 +332,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
      * @return ValidateResult
      */
     @Override
-    public ValidateResult verifyCoinData(Transaction transaction, Map<String, Coin> temporaryToMap, Set<String> temporaryFromSet, Long bestHeight) {
+    public ValidateResult verifyCoinData(Transaction transaction, Map<OutPointKey, Coin> temporaryToMap, Set<OutPointKey> temporaryFromSet, Long bestHeight) {
 
         if (transaction == null || transaction.getCoinData() == null) {
             return ValidateResult.getFailedResult(CLASS_NAME, LedgerErrorCode.NULL_PARAMETER);
@@ -296,14 +367,17 @@ public class UtxoLedgerServiceImpl implements LedgerService {
             Coin fromOfFromCoin = null;
             byte[] fromAdressBytes = null;
 
+            OutPointKey fromKey;
+
             for (Coin from : froms) {
                 fromBytes = from.getOwner();
+                fromKey = OutPointKey.wrap(fromBytes);
                 // 验证是否可花费, 校验的coinData的fromUTXO，检查数据库中是否存在此UTXO
                 fromOfFromCoin = utxoLedgerUtxoStorageService.getUtxo(fromBytes);
 
                 // 检查txList中是否存在此UTXO
                 if (temporaryToMap != null && fromOfFromCoin == null) {
-                    fromOfFromCoin = temporaryToMap.get(asString(fromBytes));
+                    fromOfFromCoin = temporaryToMap.get(fromKey);
                 }
                 if (null == fromOfFromCoin) {
                     // 如果既不存在于txList的to中(如果txList不为空)，又不存在于数据库中，那么这是一笔问题数据，进一步检查是否存在这笔交易，交易有就是双花，没有就是孤儿交易，则返回失败
@@ -346,7 +420,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
                 }
 
                 // 验证与待确认交易列表中是否有双花，既是待校验交易的fromUtxo是否和txList中的fromUtxo重复，有重复则是双花
-                if (temporaryFromSet != null && !temporaryFromSet.add(asString(fromBytes))) {
+                if (temporaryFromSet != null && !temporaryFromSet.add(fromKey)) {
                     return ValidateResult.getFailedResult(CLASS_NAME, LedgerErrorCode.LEDGER_DOUBLE_SPENT);
                 }
 
@@ -367,7 +441,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
                 toTotal = toTotal.add(to.getNa());
 
                 if (temporaryToMap != null) {
-                    temporaryToMap.put(asString(ArraysTool.concatenate(txBytes, new VarInt(i).encode())), to);
+                    temporaryToMap.put(OutPointKey.of(txBytes, i), to);
                 }
             }
             // 验证输出不能大于输入
@@ -416,7 +490,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
             initialCapacity += tx.getCoinData().getFrom().size();
         }
         initialCapacity = MapUtil.tableSizeFor(initialCapacity) << 1;
-        HashMap<String, Transaction> fromMap = new HashMap<>(initialCapacity);
+        HashMap<OutPointKey, Transaction> fromMap = new HashMap<>(initialCapacity);
         List<Coin> froms;
         Transaction prePutTx;
         // 判断是否有重复的fromCoin存在，如果存在，则是双花
@@ -427,7 +501,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
             }
             froms = coinData.getFrom();
             for (Coin from : froms) {
-                prePutTx = fromMap.put(asString(from.getOwner()), tx);
+                prePutTx = fromMap.put(OutPointKey.wrap(from.getOwner()), tx);
                 // 不为空则代表此coin在map中已存在，则是双花
                 if (prePutTx != null) {
                     List<Transaction> resultList = new ArrayList<>(2);
@@ -442,11 +516,6 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         return ValidateResult.getSuccessResult();
     }
 
-    private String asString(byte[] bytes) {
-        AssertUtil.canNotEmpty(bytes);
-        return Base64.getEncoder().encodeToString(bytes);
-    }
-
     @Override
     public Result unlockTxCoinData(Transaction tx, long newockTime) throws NulsException {
         if (tx == null || tx.getCoinData() == null) {
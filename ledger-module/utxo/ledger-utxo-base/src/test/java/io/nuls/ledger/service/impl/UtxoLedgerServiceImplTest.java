@@ -26,7 +26,11 @@ package io.nuls.ledger.service.impl;
 import io.nuls.consensus.poc.protocol.entity.*;
 import io.nuls.consensus.poc.protocol.tx.*;
 import io.nuls.core.tools.crypto.ECKey;
+import io.nuls.db.model.Entry;
 import io.nuls.db.manager.LevelDBManager;
+import io.nuls.db.service.BatchOperation;
+import io.nuls.db.service.DBService;
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.db.module.impl.LevelDbModuleBootstrap;
 import io.nuls.kernel.MicroKernelBootstrap;
 import io.nuls.kernel.context.NulsContext;
@@ -106,6 +110,7 @@ public class UtxoLedgerServiceImplTest {
         LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
         LevelDBManager.createArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
         LevelDBManager.createArea(LedgerStorageConstant.DB_NAME_LEDGER_TX);
+        utxoLedgerUtxoStorageService.discard();
         Transaction tx8 = allList.get(8);
 
         ECKey ecKeyPre0 = new ECKey();
@@ -149,6 +154,98 @@ public class UtxoLedgerServiceImplTest {
 
     }
 
+    @Test
+    public void testGetUtxoByAddress() throws NulsException, IOException {
+        LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_TX);
+        LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS);
+        LevelDBManager.createArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        LevelDBManager.createArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS);
+        LevelDBManager.createArea(LedgerStorageConstant.DB_NAME_LEDGER_TX);
+        utxoLedgerUtxoStorageService.discard();
+
+        ECKey ecKey0 = new ECKey();
+        ECKey ecKey1 = new ECKey();
+        ECKey ecKey2 = new ECKey();
+        byte[] address1 = AddressTool.getAddress(ecKey1.getPubKey());
+        byte[] address2 = AddressTool.getAddress(ecKey2.getPubKey());
+
+        TransferTransaction prePreTx = createTransferTransaction(ecKey0, null, ecKey1, Na.ZERO);
+        TransferTransaction preTx = createTransferTransaction(ecKey1, null, ecKey2, Na.ZERO);
+
+        CoinData prePreTxCoinData = prePreTx.getCoinData();
+        prePreTxCoinData.getFrom().clear();
+        prePreTxCoinData.getTo().clear();
+        prePreTxCoinData.getTo().add(new Coin(address1, Na.parseNuls(30031), 0));
+        Assert.assertTrue(ledgerService.saveTx(prePreTx).isSuccess());
+
+        List<Entry<byte[], byte[]>> utxoList = utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(address1);
+        Assert.assertEquals(1, utxoList.size());
+        Assert.assertArrayEquals(Arrays.concatenate(prePreTx.getHash().serialize(), new VarInt(0).encode()), utxoList.get(0).getKey());
+
+        CoinData preTxCoinData = preTx.getCoinData();
+        preTxCoinData.getFrom().clear();
+        preTxCoinData.getTo().clear();
+        preTxCoinData.getFrom().add(new Coin(Arrays.concatenate(prePreTx.getHash().serialize(), new VarInt(0).encode()), Na.parseNuls(30031), 0));
+        preTxCoinData.getTo().add(new Coin(address2, Na.parseNuls(10001), 0));
+        preTxCoinData.getTo().add(new Coin(address2, Na.parseNuls(10001), 0));
+        preTxCoinData.getTo().add(new Coin(address1, Na.parseNuls(10001), 0));
+        Assert.assertTrue(ledgerService.saveTx(preTx).isSuccess());
+
+        utxoList = utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(address1);
+        Assert.assertEquals(1, utxoList.size());
+        Assert.assertArrayEquals(Arrays.concatenate(preTx.getHash().serialize(), new VarInt(2).encode()), utxoList.get(0).getKey());
+        Assert.assertEquals(2, utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(address2).size());
+
+        Assert.assertTrue(ledgerService.rollbackTx(preTx).isSuccess());
+        utxoList = utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(address1);
+        Assert.assertEquals(1, utxoList.size());
+        Assert.assertArrayEquals(Arrays.concatenate(prePreTx.getHash().serialize(), new VarInt(0).encode()), utxoList.get(0).getKey());
+        Assert.assertEquals(0, utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(address2).size());
+    }
+
+    @Test
+    public void testGetUtxoByAddressWithStagedChanges() throws IOException {
+        LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS);
+        LevelDBManager.createArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        LevelDBManager.createArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS);
+        utxoLedgerUtxoStorageService.discard();
+
+        byte[] address = AddressTool.getAddress(new ECKey().getPubKey());
+        byte[] spentKey = Arrays.concatenate(new byte[34], new VarInt(0).encode());
+        byte[] createdKey = Arrays.concatenate(new byte[34], new VarInt(1).encode());
+        Assert.assertTrue(utxoLedgerUtxoStorageService.saveUtxo(spentKey, new Coin(address, Na.parseNuls(1), 0)).isSuccess());
+
+        // 暂存的变更覆盖索引中的结果
+        BatchOperation batch = utxoLedgerUtxoStorageService.createWriteBatch(5);
+        batch.delete(spentKey);
+        batch.put(createdKey, new Coin(address, Na.parseNuls(2), 0).serialize());
+        Assert.assertTrue(batch.executeBatch().isSuccess());
+        List<Entry<byte[], byte[]>> utxoList = utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(address);
+        Assert.assertEquals(1, utxoList.size());
+        Assert.assertArrayEquals(createdKey, utxoList.get(0).getKey());
+
+        utxoLedgerUtxoStorageService.discard();
+        utxoList = utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(address);
+        Assert.assertEquals(1, utxoList.size());
+        Assert.assertArrayEquals(spentKey, utxoList.get(0).getKey());
+
+        // 提交后索引中的旧UTXO被删除
+        batch = utxoLedgerUtxoStorageService.createWriteBatch(5);
+        batch.delete(spentKey);
+        batch.put(createdKey, new Coin(address, Na.parseNuls(2), 0).serialize());
+        Assert.assertTrue(batch.executeBatch().isSuccess());
+        MultiAreaBatchOperation dbBatch = SpringLiteContext.getBean(DBService.class).createMultiAreaWriteBatch();
+        Assert.assertTrue(utxoLedgerUtxoStorageService.flush(dbBatch).isSuccess());
+        Assert.assertTrue(dbBatch.executeBatch().isSuccess());
+        utxoLedgerUtxoStorageService.committed();
+        utxoLedgerUtxoStorageService.discard();
+        utxoList = utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(address);
+        Assert.assertEquals(1, utxoList.size());
+        Assert.assertArrayEquals(createdKey, utxoList.get(0).getKey());
+    }
+
     @Test
     public void saveTx() throws IOException, NulsException {
         // 无from的交易
@@ -557,6 +654,7 @@ public class UtxoLedgerServiceImplTest {
     public static void tearDown() throws Exception {
         LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_TX);
         LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        LevelDBManager.destroyArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS);
     }
 
     private void initAllList() throws NulsException, IOException {
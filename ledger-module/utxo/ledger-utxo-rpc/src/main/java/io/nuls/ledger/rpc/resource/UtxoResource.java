@@ -160,7 +160,7 @@ public class UtxoResource {
     private List<Coin> getAllUtxoByAddress(String address) {
         List<Coin> coinList = new ArrayList<>();
         byte[] addressBytes = AddressTool.getAddress(address);
-        List<Entry<byte[], byte[]>> coinBytesList = utxoLedgerUtxoStorageService.getAllUtxoEntryBytes();
+        List<Entry<byte[], byte[]>> coinBytesList = utxoLedgerUtxoStorageService.getUtxoEntryBytesByAddress(addressBytes);
         Coin coin;
         for (Entry<byte[], byte[]> coinEntryBytes : coinBytesList) {
             coin = new Coin();
@@ -170,10 +170,8 @@ public class UtxoResource {
                 Log.info("parse coin form db error");
                 continue;
             }
-            if (Arrays.equals(coin.getOwner(), addressBytes)) {
-                coin.setOwner(coinEntryBytes.getKey());
-                coinList.add(coin);
-            }
+            coin.setOwner(coinEntryBytes.getKey());
+            coinList.add(coin);
         }
         Collections.sort(coinList, CoinComparator.getInstance());
         return coinList;
@@ -0,0 +1,490 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2018 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.storage.cache;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.Result;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * UTXO缓存，位于UTXO存储之前，读穿透、写回
+ * 区块保存过程中的UTXO变更先记录为脏数据，只在区块提交时写入数据库，区块失败时丢弃；读取永远不会把脏数据写入数据库
+ * <p>
+ * UTXO cache in front of the UTXO storage, read-through and write-back.
+ * Changes made while a block is being saved are kept as dirty entries, they only reach the database when the block
+ * is committed and are dropped when the block fails; reads never persist dirty entries.
+ */
+public class UtxoCache {
+
+    /**
+     * 未知高度，不触发按块刷新
+     * Unknown height, never triggers a per-block flush.
+     */
+    public static final long UNKNOWN_HEIGHT = -1L;
+
+    private final int maxSize;
+
+    /**
+     * 已与数据库一致的缓存项
+     * Entries that are consistent with the database.
+     */
+    private final Map<ByteBuffer, CacheEntry> cleanMap = new ConcurrentHashMap<>();
+
+    /**
+     * 淘汰顺序（先进先出）
+     * Eviction order (first in, first out).
+     */
+    private final ConcurrentLinkedQueue<ByteBuffer> evictQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger evictQueueSize = new AtomicInteger();
+
+    /**
+     * 尚未写入数据库的变更，value中coin为null表示删除
+     * Changes not yet written to the database, a null coin means deleted.
+     */
+    private final Map<ByteBuffer, CacheEntry> dirtyMap = new ConcurrentHashMap<>();
+
+    /**
+     * 脏数据所属的区块高度
+     * The block height the dirty entries belong to.
+     */
+    private volatile long dirtyHeight = UNKNOWN_HEIGHT;
+
+    /**
+     * writeTo写出、等待外部批量提交的脏数据
+     * Dirty entries written out by writeTo, waiting for the outer batch to commit.
+     */
+    private Map<ByteBuffer, CacheEntry> writtenMap;
+
+    /**
+     * 读未命中时加读锁，暂存与刷新时加写锁，防止将旧数据写入缓存
+     * Misses load under the read lock, staging and flushing take the write lock, so a stale value can never be cached.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+
+    public UtxoCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 数据库读取回调
+     * Database loader used on cache miss.
+     */
+    public interface Loader {
+        byte[] load(byte[] key);
+    }
+
+    /**
+     * 数据库写入回调，删除时带上被删除的UTXO，用于维护依赖UTXO内容的索引
+     * Database writer, deletions carry the deleted utxo so that indexes depending on its content can be maintained.
+     */
+    public interface Writer {
+
+        void put(byte[] key, byte[] bytes);
+
+        /**
+         * @param key      UTXO的key / the utxo key
+         * @param previous 被删除的UTXO，缓存中没有时为null / the deleted utxo, null if the cache does not know it
+         */
+        void delete(byte[] key, byte[] previous);
+
+        Result executeBatch();
+    }
+
+    /**
+     * 获取UTXO，返回的Coin是缓存对象的副本
+     * Get the utxo, the returned coin is a copy of the cached one.
+     */
+    public Coin get(byte[] key, Loader loader) {
+        CacheEntry entry = getEntry(key, loader);
+        if (entry == null || entry.coin == null) {
+            return null;
+        }
+        Coin coin = entry.coin;
+        return new Coin(coin.getOwner(), coin.getNa(), coin.getLockTime());
+    }
+
+    /**
+     * 获取UTXO的序列化数据
+     * Get the serialized utxo.
+     */
+    public byte[] getBytes(byte[] key, Loader loader) {
+        CacheEntry entry = getEntry(key, loader);
+        if (entry == null) {
+            return null;
+        }
+        return entry.bytes;
+    }
+
+    private CacheEntry getEntry(byte[] key, Loader loader) {
+        ByteBuffer cacheKey = ByteBuffer.wrap(key);
+        CacheEntry entry = dirtyMap.get(cacheKey);
+        if (entry == null) {
+            entry = cleanMap.get(cacheKey);
+        }
+        if (entry != null) {
+            hitCount.incrementAndGet();
+            return entry;
+        }
+        missCount.incrementAndGet();
+        lock.readLock().lock();
+        try {
+            entry = dirtyMap.get(cacheKey);
+            if (entry != null) {
+                return entry;
+            }
+            byte[] bytes = loader.load(key);
+            if (bytes == null) {
+                return null;
+            }
+            entry = new CacheEntry(bytes, parse(bytes));
+            if (cleanMap.putIfAbsent(cacheKey, entry) == null) {
+                offerEvict(cacheKey);
+                if (cleanMap.size() > maxSize) {
+                    evict();
+                }
+            }
+            return entry;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 暂存一个区块内的UTXO变更，已暂存的数据属于其他高度时拒绝暂存，未提交的区块数据不能被隐式写入
+     * Stage the utxo changes of a block, staging is refused while the pending changes belong to another height,
+     * since the changes of an uncommitted block must never be written implicitly.
+     *
+     * @param changes UTXO变更，value为null表示删除 / the utxo changes, a null value means deleted
+     * @param height  所属区块高度 / block height
+     */
+    public Result stage(Map<ByteBuffer, byte[]> changes, long height) {
+        lock.writeLock().lock();
+        try {
+            if (height != UNKNOWN_HEIGHT && dirtyHeight != UNKNOWN_HEIGHT && height != dirtyHeight && !dirtyMap.isEmpty()) {
+                Log.error("utxo cache: changes of height " + dirtyHeight + " are still pending, can not stage height " + height);
+                return Result.getFailed(KernelErrorCode.DATA_ERROR);
+            }
+            for (Map.Entry<ByteBuffer, byte[]> change : changes.entrySet()) {
+                byte[] bytes = change.getValue();
+                if (bytes == null) {
+                    dirtyMap.put(change.getKey(), new CacheEntry(getPrevious(change.getKey())));
+                } else {
+                    dirtyMap.put(change.getKey(), new CacheEntry(bytes, parse(bytes)));
+                }
+            }
+            if (height != UNKNOWN_HEIGHT) {
+                dirtyHeight = height;
+            }
+            return Result.getSuccess();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 直接写入数据库并同步缓存，不经过脏数据，用于不属于区块批量操作的写入
+     * Write the changes straight to the database and update the cache, bypassing the dirty entries,
+     * used by writes that are not part of a block batch.
+     *
+     * @param changes UTXO变更，value为null表示删除 / the utxo changes, a null value means deleted
+     * @param writer  数据库批量操作 / the database batch
+     */
+    public Result write(Map<ByteBuffer, byte[]> changes, Writer writer) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<ByteBuffer, byte[]> change : changes.entrySet()) {
+                byte[] key = change.getKey().array();
+                if (change.getValue() == null) {
+                    writer.delete(key, getPrevious(change.getKey()));
+                } else {
+                    writer.put(key, change.getValue());
+                }
+            }
+            Result result = writer.executeBatch();
+            if (result.isFailed()) {
+                return result;
+            }
+            for (Map.Entry<ByteBuffer, byte[]> change : changes.entrySet()) {
+                written(change.getKey().array(), change.getValue());
+            }
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 缓存中key当前对应的UTXO，用于删除时维护索引，未缓存时返回null
+     * The utxo the cache currently holds for the key, used to maintain indexes on deletion, null if not cached.
+     */
+    private byte[] getPrevious(ByteBuffer key) {
+        CacheEntry entry = dirtyMap.get(key);
+        if (entry != null) {
+            return entry.bytes == null ? entry.previous : entry.bytes;
+        }
+        entry = cleanMap.get(key);
+        return entry == null ? null : entry.bytes;
+    }
+
+    /**
+     * 获取未写入数据库的变更的快照，value为null表示删除，用于在读取数据库结果上叠加
+     * Get a snapshot of the changes not yet written to the database, a null value means deleted,
+     * used to overlay the database reads.
+     */
+    public Map<ByteBuffer, byte[]> getDirty() {
+        lock.readLock().lock();
+        try {
+            Map<ByteBuffer, byte[]> snapshot = new HashMap<>(dirtyMap.size() * 2);
+            for (Map.Entry<ByteBuffer, CacheEntry> dirty : dirtyMap.entrySet()) {
+                snapshot.put(dirty.getKey(), dirty.getValue().bytes);
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 直接写入数据库后同步缓存
+     * Update the cache after a value was written straight to the database.
+     */
+    public void written(byte[] key, byte[] bytes) {
+        ByteBuffer cacheKey = ByteBuffer.wrap(key);
+        lock.writeLock().lock();
+        try {
+            dirtyMap.remove(cacheKey);
+            if (bytes == null) {
+                cleanMap.remove(cacheKey);
+            } else if (cleanMap.put(cacheKey, new CacheEntry(bytes, parse(bytes))) == null) {
+                offerEvict(cacheKey);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 将所有脏数据批量写入数据库
+     * Write all dirty entries to the database in one batch.
+     */
+    public Result flush(Writer writer) {
+        lock.writeLock().lock();
+        try {
+            Result result = writeDirty(writer);
+            if (result.isSuccess()) {
+                commitDirty(new HashMap<>(dirtyMap));
+            }
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 将所有脏数据写入外部的批量操作，数据仍保持为脏，外部批量执行成功后调用commit，失败时调用clear
+     * Write all dirty entries into an outer batch, the entries stay dirty until the outer batch was executed:
+     * call commit after it succeeded and clear after it failed.
+     */
+    public Result writeTo(Writer writer) {
+        lock.writeLock().lock();
+        try {
+            Result result = writeDirty(writer);
+            if (result.isSuccess()) {
+                writtenMap = new HashMap<>(dirtyMap);
+            }
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 外部批量执行成功后，将writeTo写出的脏数据标记为已与数据库一致
+     * Mark the dirty entries written by writeTo as consistent with the database, once the outer batch succeeded.
+     */
+    public void commit() {
+        lock.writeLock().lock();
+        try {
+            Map<ByteBuffer, CacheEntry> written = writtenMap;
+            writtenMap = null;
+            if (written != null) {
+                commitDirty(written);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Result writeDirty(Writer writer) {
+        if (dirtyMap.isEmpty()) {
+            return Result.getSuccess();
+        }
+        for (Map.Entry<ByteBuffer, CacheEntry> dirty : dirtyMap.entrySet()) {
+            byte[] key = dirty.getKey().array();
+            if (dirty.getValue().bytes == null) {
+                writer.delete(key, dirty.getValue().previous);
+            } else {
+                writer.put(key, dirty.getValue().bytes);
+            }
+        }
+        return writer.executeBatch();
+    }
+
+    /**
+     * 将已写入数据库的脏数据转为干净数据，写出后又被修改的项保持为脏
+     * Turn the dirty entries that reached the database into clean ones, entries changed after they were written stay dirty.
+     */
+    private void commitDirty(Map<ByteBuffer, CacheEntry> written) {
+        // 先更新clean再移除dirty，保证无锁读取期间不会出现两者都未命中
+        for (Map.Entry<ByteBuffer, CacheEntry> dirty : written.entrySet()) {
+            ByteBuffer key = dirty.getKey();
+            CacheEntry entry = dirty.getValue();
+            if (entry.bytes == null) {
+                cleanMap.remove(key);
+            } else if (cleanMap.put(key, entry) == null) {
+                offerEvict(key);
+            }
+            dirtyMap.remove(key, entry);
+        }
+        if (dirtyMap.isEmpty()) {
+            dirtyHeight = UNKNOWN_HEIGHT;
+        }
+        evict();
+        if (flushCount.incrementAndGet() % 1000 == 0) {
+            Log.info("utxo cache: size=" + cleanMap.size() + ", hit=" + hitCount.get() + ", miss=" + missCount.get());
+        }
+    }
+
+    private void offerEvict(ByteBuffer key) {
+        evictQueue.offer(key);
+        evictQueueSize.incrementAndGet();
+    }
+
+    /**
+     * 淘汰最早进入的缓存项，队列中积累的已删除key过多时重建队列
+     * Evict the oldest entries, the queue is rebuilt when too many keys of removed entries pile up in it.
+     */
+    private void evict() {
+        while (cleanMap.size() > maxSize) {
+            ByteBuffer key = evictQueue.poll();
+            if (key == null) {
+                break;
+            }
+            evictQueueSize.decrementAndGet();
+            cleanMap.remove(key);
+        }
+        if (evictQueueSize.get() > maxSize * 2) {
+            evictQueue.clear();
+            evictQueue.addAll(cleanMap.keySet());
+            evictQueueSize.set(cleanMap.size());
+        }
+    }
+
+    /**
+     * 丢弃未写入的变更及所有缓存项，用于失败时的恢复
+     * Discard the changes not yet written and all cached entries, used to recover from failures.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            dirtyMap.clear();
+            dirtyHeight = UNKNOWN_HEIGHT;
+            writtenMap = null;
+            cleanMap.clear();
+            evictQueue.clear();
+            evictQueueSize.set(0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean hasDirty() {
+        return !dirtyMap.isEmpty();
+    }
+
+    public long getDirtyHeight() {
+        return dirtyHeight;
+    }
+
+    public int size() {
+        return cleanMap.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private static Coin parse(byte[] bytes) {
+        Coin coin = new Coin();
+        try {
+            coin.parse(bytes, 0);
+        } catch (NulsException e) {
+            Log.error(e);
+            return null;
+        }
+        return coin;
+    }
+
+    private static final class CacheEntry {
+        private final byte[] bytes;
+        private final Coin coin;
+
+        /**
+         * 删除项被删除前的UTXO，未知时为null
+         * The utxo before a deletion, null if unknown.
+         */
+        private final byte[] previous;
+
+        private CacheEntry(byte[] bytes, Coin coin) {
+            this.bytes = bytes;
+            this.coin = coin;
+            this.previous = null;
+        }
+
+        private CacheEntry(byte[] previous) {
+            this.bytes = null;
+            this.coin = null;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2018 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.storage.cache;
+
+import io.nuls.db.constant.DBErrorCode;
+import io.nuls.db.service.BatchOperation;
+import io.nuls.kernel.model.BaseNulsData;
+import io.nuls.kernel.model.Result;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 写入UTXO缓存的批量操作，执行时将变更暂存为脏数据，由区块提交时写入数据库；指定了数据库批量操作时直接写入数据库
+ * Batch operation on the utxo cache, executing it stages the changes as dirty entries which are written when the block
+ * is committed; when a database batch is given the changes are written through to the database instead.
+ */
+public class UtxoCacheBatchOperation implements BatchOperation {
+
+    private static final Result FAILED_NULL = Result.getFailed(DBErrorCode.NULL_PARAMETER);
+    private static final Result SUCCESS = Result.getSuccess();
+    private static final Result FAILED_BATCH_CLOSE = Result.getFailed(DBErrorCode.DB_BATCH_CLOSE);
+
+    private final UtxoCache cache;
+    private final UtxoCache.Writer writer;
+    private final long height;
+    private final Map<ByteBuffer, byte[]> changes = new LinkedHashMap<>();
+    private volatile boolean isClose = false;
+
+    /**
+     * @param cache  UTXO缓存 / the utxo cache
+     * @param writer 直接写入时使用的数据库批量操作，为null时暂存 / database batch for writing through, null to stage
+     * @param height 变更所属的区块高度 / the block height of the changes
+     */
+    public UtxoCacheBatchOperation(UtxoCache cache, UtxoCache.Writer writer, long height) {
+        this.cache = cache;
+        this.writer = writer;
+        this.height = height;
+    }
+
+    @Override
+    public Result put(byte[] key, byte[] value) {
+        if (key == null || value == null) {
+            return FAILED_NULL;
+        }
+        changes.put(ByteBuffer.wrap(key), value);
+        return SUCCESS;
+    }
+
+    @Override
+    public <T> Result putModel(byte[] key, T value) {
+        if (key == null || value == null) {
+            return FAILED_NULL;
+        }
+        if (!(value instanceof BaseNulsData)) {
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+        try {
+            return put(key, ((BaseNulsData) value).serialize());
+        } catch (IOException e) {
+            return Result.getFailed(DBErrorCode.DB_UNKOWN_EXCEPTION);
+        }
+    }
+
+    @Override
+    public Result delete(byte[] key) {
+        if (key == null) {
+            return FAILED_NULL;
+        }
+        changes.put(ByteBuffer.wrap(key), null);
+        return SUCCESS;
+    }
+
+    @Override
+    public Result executeBatch() {
+        if (isClose) {
+            return FAILED_BATCH_CLOSE;
+        }
+        isClose = true;
+        if (writer != null) {
+            return cache.write(changes, writer);
+        }
+        return cache.stage(changes, height);
+    }
+}
@@ -34,5 +34,24 @@ public interface LedgerStorageConstant {
 
     String DB_NAME_LEDGER_TX = "ledger_tx";
     String DB_NAME_LEDGER_UTXO = "ledger_utxo";
+    /**
+     * 按地址索引的UTXO表，key为 地址 + UTXO的key（交易hash + 输出序号），value为coin
+     * UTXO table indexed by address, the key is address + utxo key (tx hash + output index), the value is the coin.
+     */
+    String DB_NAME_LEDGER_UTXO_ADDRESS = "ledger_utxo_address";
+
+    /**
+     * 地址索引表重建完成的标记，key短于地址，不会被按地址前缀读到
+     * Marker of a completed rebuild of the address index, shorter than an address so no address prefix seek returns it.
+     */
+    String UTXO_ADDRESS_INDEX_COMPLETED_KEY = "index_completed";
+
+    /**
+     * UTXO缓存配置
+     * The utxo cache configuration.
+     */
+    String CFG_LEDGER_SECTION = "ledger";
+    String CFG_UTXO_CACHE_SIZE = "utxo.cache.size";
+    int DEFAULT_UTXO_CACHE_SIZE = 500000;
 
 }
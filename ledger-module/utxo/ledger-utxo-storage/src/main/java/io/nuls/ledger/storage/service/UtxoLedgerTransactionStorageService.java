@@ -23,10 +23,13 @@
  */
 package io.nuls.ledger.storage.service;
 
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Result;
 import io.nuls.kernel.model.Transaction;
 
+import java.util.List;
+
 /**
  * @desription:
  * @author: PierreLuo
@@ -35,9 +38,35 @@ public interface UtxoLedgerTransactionStorageService {
 
     Result saveTx(Transaction tx);
 
+    /**
+     * 将交易写入跨区域批量操作，提交前可通过getTx读取
+     * Stage the transaction into the multi-area batch, it can be read by getTx until the batch is committed.
+     */
+    Result saveTx(Transaction tx, MultiAreaBatchOperation batch);
+
     Transaction getTx(NulsDigestData hash);
 
+    /**
+     * 批量获取交易，未提交的暂存交易优先，其余一次性从存储中读取，结果与hashList一一对应
+     * Get transactions in one batch, staged transactions first and the rest in a single multi-get, the result matches the hash list one to one.
+     */
+    List<Transaction> getTxs(List<NulsDigestData> hashList);
+
     Result deleteTx(Transaction tx);
 
+    Result deleteTx(Transaction tx, MultiAreaBatchOperation batch);
+
+    /**
+     * 暂存交易所在的批量操作已提交，之后从数据库读取
+     * The batch of the staged transactions was executed, they are read from the database from now on.
+     */
+    void committed();
+
+    /**
+     * 丢弃未提交的暂存交易
+     * Drop the staged transactions of an abandoned batch.
+     */
+    void discard();
+
     byte[] getTxBytes(byte[] txBytes);
 }
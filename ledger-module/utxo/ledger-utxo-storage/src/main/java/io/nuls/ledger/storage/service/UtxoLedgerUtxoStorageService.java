@@ -25,6 +25,7 @@ package io.nuls.ledger.storage.service;
 
 import io.nuls.db.model.Entry;
 import io.nuls.db.service.BatchOperation;
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.model.Coin;
 import io.nuls.kernel.model.Result;
 
@@ -36,8 +37,42 @@ import java.util.List;
  */
 public interface UtxoLedgerUtxoStorageService {
 
+    /**
+     * 创建直接写入数据库的批量操作，执行后变更立即持久化，缓存同步更新
+     * Create a batch operation that writes through to the database, the changes are persisted on execution and the cache is updated.
+     */
     BatchOperation createWriteBatch();
 
+    /**
+     * 创建指定区块高度的批量操作，变更暂存在缓存中，由flush(batch)写入区块的跨区域批量操作
+     * Create a batch operation for the given block height, the changes are staged in the cache
+     * and written into the multi-area batch of the block by flush(batch).
+     */
+    BatchOperation createWriteBatch(long blockHeight);
+
+    /**
+     * 将缓存中未写入的UTXO变更写入跨区域批量操作，批量提交成功后需调用committed，失败时需调用discard
+     * Stage the pending utxo changes of the cache into the multi-area batch, committed must be called once the batch
+     * succeeded and discard if it failed.
+     */
+    Result flush(MultiAreaBatchOperation batch);
+
+    /**
+     * flush(batch)所用的批量操作已成功提交，缓存中对应的变更转为已持久化
+     * The batch passed to flush(batch) was executed successfully, the matching changes of the cache become persisted.
+     */
+    void committed();
+
+    /**
+     * 丢弃缓存中未写入的UTXO变更及所有缓存项
+     * Discard the pending utxo changes and all entries of the cache.
+     */
+    void discard();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
     Result saveUtxo(byte[] owner, Coin coin);
 
     Coin getUtxo(byte[] owner);
@@ -49,4 +84,10 @@ public interface UtxoLedgerUtxoStorageService {
     List<byte[]> getAllUtxoBytes();
 
     List<Entry<byte[], byte[]>> getAllUtxoEntryBytes();
+
+    /**
+     * 通过地址索引获取该地址的所有UTXO，key为UTXO的key（交易hash + 输出序号），value为coin
+     * Get all the utxos of the address through the address index, the key is the utxo key (tx hash + output index), the value is the coin.
+     */
+    List<Entry<byte[], byte[]>> getUtxoEntryBytesByAddress(byte[] address);
 }
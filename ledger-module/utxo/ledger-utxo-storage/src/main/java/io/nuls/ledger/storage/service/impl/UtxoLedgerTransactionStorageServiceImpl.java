@@ -26,6 +26,7 @@ package io.nuls.ledger.storage.service.impl;
 import io.nuls.core.tools.log.Log;
 import io.nuls.db.constant.DBErrorCode;
 import io.nuls.db.service.DBService;
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
@@ -33,10 +34,17 @@ import io.nuls.kernel.lite.annotation.Autowired;
 import io.nuls.kernel.lite.annotation.Service;
 import io.nuls.kernel.lite.core.bean.InitializingBean;
 import io.nuls.kernel.model.*;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.TransactionManager;
 import io.nuls.ledger.storage.constant.LedgerStorageConstant;
 import io.nuls.ledger.storage.service.UtxoLedgerTransactionStorageService;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @desription:
@@ -52,6 +60,14 @@ public class UtxoLedgerTransactionStorageServiceImpl implements UtxoLedgerTransa
     @Autowired
     private DBService dbService;
 
+    /**
+     * 已写入跨区域批量操作但尚未提交的交易，保存序列化数据，读取时解析出新的对象，调用方的修改不会影响暂存数据
+     * Transactions staged into a multi-area batch which has not been committed yet. They are kept serialized and parsed
+     * into a new object on every read, so changes made by a caller never leak into the staged data.
+     */
+    private final Map<ByteBuffer, byte[]> stagedTxMap = new ConcurrentHashMap<>();
+    private volatile MultiAreaBatchOperation stagedBatch;
+
     /**
      * 该方法在所有属性被设置之后调用，用于辅助对象初始化
      * This method is invoked after all properties are set, and is used to assist object initialization.
@@ -81,6 +97,69 @@ public class UtxoLedgerTransactionStorageServiceImpl implements UtxoLedgerTransa
         return result;
     }
 
+    @Override
+    public Result saveTx(Transaction tx, MultiAreaBatchOperation batch) {
+        if (tx == null || batch == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        byte[] txHashBytes;
+        try {
+            txHashBytes = tx.getHash().serialize();
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.IO_ERROR);
+        }
+        byte[] txBytes;
+        try {
+            txBytes = tx.serialize();
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.IO_ERROR);
+        }
+        Result result = batch.putModel(LedgerStorageConstant.DB_NAME_LEDGER_TX, txHashBytes, tx);
+        if (result.isSuccess()) {
+            if (stagedBatch != batch) {
+                stagedTxMap.clear();
+                stagedBatch = batch;
+            }
+            stagedTxMap.put(ByteBuffer.wrap(txHashBytes), txBytes);
+        }
+        return result;
+    }
+
+    /**
+     * 获取已暂存但尚未提交的交易，批量提交后暂存数据失效
+     * Get a staged transaction, the staged data is dropped once the batch has been executed.
+     */
+    private byte[] getStagedTxBytes(byte[] hashBytes) {
+        MultiAreaBatchOperation batch = stagedBatch;
+        if (batch == null) {
+            return null;
+        }
+        if (batch.isExecuted()) {
+            committed();
+            return null;
+        }
+        return stagedTxMap.get(ByteBuffer.wrap(hashBytes));
+    }
+
+    /**
+     * 获取暂存交易的副本
+     * Get a copy of a staged transaction.
+     */
+    private Transaction getStagedTx(byte[] hashBytes) {
+        byte[] txBytes = getStagedTxBytes(hashBytes);
+        if (txBytes == null) {
+            return null;
+        }
+        try {
+            return TransactionManager.getInstance(new NulsByteBuffer(txBytes));
+        } catch (Exception e) {
+            Log.error(e);
+            throw new NulsRuntimeException(KernelErrorCode.DATA_PARSE_ERROR);
+        }
+    }
+
     @Override
     public Transaction getTx(NulsDigestData hash) {
         if (hash == null) {
@@ -93,6 +172,10 @@ public class UtxoLedgerTransactionStorageServiceImpl implements UtxoLedgerTransa
             Log.error(e);
             throw new NulsRuntimeException(e);
         }
+        Transaction stagedTx = getStagedTx(hashBytes);
+        if (stagedTx != null) {
+            return stagedTx;
+        }
         Transaction tx = dbService.getModel(LedgerStorageConstant.DB_NAME_LEDGER_TX, hashBytes, Transaction.class);
         if (tx != null) {
             tx.setHash(hash);
@@ -100,6 +183,47 @@ public class UtxoLedgerTransactionStorageServiceImpl implements UtxoLedgerTransa
         return tx;
     }
 
+    @Override
+    public List<Transaction> getTxs(List<NulsDigestData> hashList) {
+        if (hashList == null) {
+            return null;
+        }
+        List<Transaction> txList = new ArrayList<>(hashList.size());
+        List<byte[]> keys = new ArrayList<>(hashList.size());
+        List<Integer> indexes = new ArrayList<>(hashList.size());
+        for (int i = 0; i < hashList.size(); i++) {
+            byte[] hashBytes;
+            try {
+                hashBytes = hashList.get(i).serialize();
+            } catch (IOException e) {
+                Log.error(e);
+                throw new NulsRuntimeException(e);
+            }
+            Transaction stagedTx = getStagedTx(hashBytes);
+            txList.add(stagedTx);
+            if (stagedTx == null) {
+                keys.add(hashBytes);
+                indexes.add(i);
+            }
+        }
+        if (keys.isEmpty()) {
+            return txList;
+        }
+        List<Transaction> storedList = dbService.multiGetModel(LedgerStorageConstant.DB_NAME_LEDGER_TX, keys, Transaction.class);
+        if (storedList == null) {
+            return null;
+        }
+        for (int i = 0; i < indexes.size(); i++) {
+            int index = indexes.get(i);
+            Transaction tx = storedList.get(i);
+            if (tx != null) {
+                tx.setHash(hashList.get(index));
+            }
+            txList.set(index, tx);
+        }
+        return txList;
+    }
+
     @Override
     public Result deleteTx(Transaction tx) {
         if (tx == null) {
@@ -117,11 +241,45 @@ public class UtxoLedgerTransactionStorageServiceImpl implements UtxoLedgerTransa
         return result;
     }
 
+    @Override
+    public Result deleteTx(Transaction tx, MultiAreaBatchOperation batch) {
+        if (tx == null || batch == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        byte[] txHashBytes;
+        try {
+            txHashBytes = tx.getHash().serialize();
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.IO_ERROR);
+        }
+        if (stagedBatch == batch) {
+            stagedTxMap.remove(ByteBuffer.wrap(txHashBytes));
+        }
+        return batch.delete(LedgerStorageConstant.DB_NAME_LEDGER_TX, txHashBytes);
+    }
+
+    @Override
+    public void committed() {
+        stagedBatch = null;
+        stagedTxMap.clear();
+    }
+
+    @Override
+    public void discard() {
+        stagedBatch = null;
+        stagedTxMap.clear();
+    }
+
     @Override
     public byte[] getTxBytes(byte[] txBytes) {
         if (txBytes == null) {
             return null;
         }
+        byte[] stagedTxBytes = getStagedTxBytes(txBytes);
+        if (stagedTxBytes != null) {
+            return stagedTxBytes.clone();
+        }
         return dbService.get(LedgerStorageConstant.DB_NAME_LEDGER_TX, txBytes);
     }
 }
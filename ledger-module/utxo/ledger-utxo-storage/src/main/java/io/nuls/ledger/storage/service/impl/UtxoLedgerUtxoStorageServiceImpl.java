@@ -23,12 +23,15 @@
  */
 package io.nuls.ledger.storage.service.impl;
 
+import io.nuls.core.tools.array.ArraysTool;
 import io.nuls.core.tools.crypto.Hex;
 import io.nuls.core.tools.log.Log;
 import io.nuls.db.constant.DBErrorCode;
 import io.nuls.db.model.Entry;
 import io.nuls.db.service.BatchOperation;
 import io.nuls.db.service.DBService;
+import io.nuls.db.service.MultiAreaBatchOperation;
+import io.nuls.kernel.cfg.NulsConfig;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
@@ -37,13 +40,24 @@ import io.nuls.kernel.lite.annotation.Service;
 import io.nuls.kernel.lite.core.bean.InitializingBean;
 import io.nuls.kernel.model.Coin;
 import io.nuls.kernel.model.Result;
+import io.nuls.ledger.storage.cache.UtxoCache;
+import io.nuls.ledger.storage.cache.UtxoCacheBatchOperation;
 import io.nuls.ledger.storage.constant.LedgerStorageConstant;
 import io.nuls.ledger.storage.service.UtxoLedgerUtxoStorageService;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
+ * UTXO存储，所有写入数据库的UTXO变更同时维护按地址的索引表，两者在同一个跨区域批量操作中提交
+ * UTXO storage, every utxo change written to the database also maintains the address index table,
+ * both are committed in the same multi-area batch.
+ *
  * @desription:
  * @author: PierreLuo
  */
@@ -57,6 +71,21 @@ public class UtxoLedgerUtxoStorageServiceImpl implements UtxoLedgerUtxoStorageSe
     @Autowired
     private DBService dbService;
 
+    /**
+     * UTXO缓存
+     * The utxo cache.
+     */
+    private UtxoCache utxoCache;
+
+    private static final byte[] ADDRESS_INDEX_COMPLETED_KEY = LedgerStorageConstant.UTXO_ADDRESS_INDEX_COMPLETED_KEY.getBytes(StandardCharsets.UTF_8);
+
+    private final UtxoCache.Loader loader = new UtxoCache.Loader() {
+        @Override
+        public byte[] load(byte[] key) {
+            return dbService.get(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, key);
+        }
+    };
+
     /**
      * 该方法在所有属性被设置之后调用，用于辅助对象初始化
      * This method is invoked after all properties are set, and is used to assist object initialization.
@@ -67,18 +96,125 @@ public class UtxoLedgerUtxoStorageServiceImpl implements UtxoLedgerUtxoStorageSe
         if (result.isFailed() && !DBErrorCode.DB_AREA_EXIST.equals(result.getErrorCode())) {
             throw new NulsRuntimeException(result.getErrorCode());
         }
+        result = dbService.createArea(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS);
+        if (result.isFailed() && !DBErrorCode.DB_AREA_EXIST.equals(result.getErrorCode())) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
+        if (dbService.get(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS, ADDRESS_INDEX_COMPLETED_KEY) == null) {
+            buildAddressIndex();
+        }
+        int cacheSize = LedgerStorageConstant.DEFAULT_UTXO_CACHE_SIZE;
+        if (NulsConfig.MODULES_CONFIG != null) {
+            cacheSize = NulsConfig.MODULES_CONFIG.getCfgValue(LedgerStorageConstant.CFG_LEDGER_SECTION, LedgerStorageConstant.CFG_UTXO_CACHE_SIZE, cacheSize);
+        }
+        utxoCache = new UtxoCache(cacheSize);
     }
 
     @Override
     public BatchOperation createWriteBatch() {
-        return dbService.createWriteBatch(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        return new UtxoCacheBatchOperation(utxoCache, new IndexedUtxoWriter(dbService.createMultiAreaWriteBatch(), true), UtxoCache.UNKNOWN_HEIGHT);
+    }
+
+    /**
+     * 索引表没有完成标记时（新建或上次重建中断），清空索引后流式遍历已有的UTXO表重建，全部写入后才写入完成标记
+     * Rebuild the index by streaming over the existing utxo table when the index has no completion marker (newly
+     * created or an interrupted rebuild). Stale index entries are removed first, the marker is written last.
+     */
+    private void buildAddressIndex() {
+        final int batchSize = 10000;
+        final List<BatchOperation> batchHolder = new ArrayList<>();
+        final int[] count = new int[1];
+        batchHolder.add(dbService.createWriteBatch(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS));
+        Result result = dbService.iterate(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS, null, null, (key, value) -> {
+            batchHolder.get(0).delete(key);
+            if (++count[0] % batchSize == 0) {
+                executeIndexBatch(batchHolder);
+            }
+            return true;
+        });
+        if (result.isFailed()) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
+        executeIndexBatch(batchHolder);
+        count[0] = 0;
+        result = dbService.iterate(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, null, null, (key, value) -> {
+            byte[] address = getOwnerAddress(value);
+            if (address == null) {
+                return true;
+            }
+            batchHolder.get(0).put(ArraysTool.concatenate(address, key), value);
+            if (++count[0] % batchSize == 0) {
+                executeIndexBatch(batchHolder);
+            }
+            return true;
+        });
+        if (result.isFailed()) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
+        batchHolder.get(0).put(ADDRESS_INDEX_COMPLETED_KEY, ADDRESS_INDEX_COMPLETED_KEY);
+        executeIndexBatch(batchHolder);
+        if (count[0] > 0) {
+            Log.info("utxo address index built: " + count[0]);
+        }
+    }
+
+    private void executeIndexBatch(List<BatchOperation> batchHolder) {
+        Result result = batchHolder.get(0).executeBatch();
+        if (result.isFailed()) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
+        batchHolder.set(0, dbService.createWriteBatch(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS));
+    }
+
+    @Override
+    public BatchOperation createWriteBatch(long blockHeight) {
+        return new UtxoCacheBatchOperation(utxoCache, null, blockHeight);
+    }
+
+    @Override
+    public Result flush(final MultiAreaBatchOperation batch) {
+        if (batch == null) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        if (!utxoCache.hasDirty()) {
+            return Result.getSuccess();
+        }
+        // 变更只写入跨区域批量操作，由调用方统一提交，提交成功前缓存中仍为脏数据
+        return utxoCache.writeTo(new IndexedUtxoWriter(batch, false));
+    }
+
+    @Override
+    public void committed() {
+        utxoCache.commit();
+    }
+
+    @Override
+    public void discard() {
+        utxoCache.clear();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return utxoCache.getHitCount();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return utxoCache.getMissCount();
     }
 
     @Override
     public Result saveUtxo(byte[] owner, Coin coin) {
         try {
             Log.info("save utxo::" + Hex.encode(owner));
-            return dbService.put(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, owner, coin.serialize());
+            byte[] bytes = coin.serialize();
+            IndexedUtxoWriter writer = new IndexedUtxoWriter(dbService.createMultiAreaWriteBatch(), true);
+            writer.put(owner, bytes);
+            Result result = writer.executeBatch();
+            if (result.isSuccess()) {
+                utxoCache.written(owner, bytes);
+            }
+            return result;
         } catch (IOException e) {
             Log.error(e);
             return Result.getFailed(KernelErrorCode.IO_ERROR);
@@ -87,23 +223,21 @@ public class UtxoLedgerUtxoStorageServiceImpl implements UtxoLedgerUtxoStorageSe
 
     @Override
     public Coin getUtxo(byte[] owner) {
-        byte[] utxoBytes = getUtxoBytes(owner);
-        Coin coin = null;
-        try {
-            if (utxoBytes != null) {
-                coin = new Coin();
-                coin.parse(utxoBytes, 0);
-            }
-        } catch (NulsException e) {
-            Log.error(e);
+        if (owner == null) {
             return null;
         }
-        return coin;
+        return utxoCache.get(owner, loader);
     }
 
     @Override
     public Result deleteUtxo(byte[] owner) {
-        return dbService.delete(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, owner);
+        IndexedUtxoWriter writer = new IndexedUtxoWriter(dbService.createMultiAreaWriteBatch(), true);
+        writer.delete(owner, utxoCache.getBytes(owner, loader));
+        Result result = writer.executeBatch();
+        if (result.isSuccess()) {
+            utxoCache.written(owner, null);
+        }
+        return result;
     }
 
     @Override
@@ -111,17 +245,146 @@ public class UtxoLedgerUtxoStorageServiceImpl implements UtxoLedgerUtxoStorageSe
         if (owner == null) {
             return null;
         }
-        return dbService.get(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, owner);
+        return utxoCache.getBytes(owner, loader);
     }
 
     @Override
     public List<byte[]> getAllUtxoBytes() {
-        return dbService.valueList(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        Map<ByteBuffer, byte[]> dirty = utxoCache.getDirty();
+        if (dirty.isEmpty()) {
+            return dbService.valueList(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        }
+        List<Entry<byte[], byte[]>> entryList = overlay(dbService.entryList(LedgerStorageConstant.DB_NAME_LEDGER_UTXO), dirty);
+        List<byte[]> valueList = new ArrayList<>(entryList.size());
+        for (Entry<byte[], byte[]> entry : entryList) {
+            valueList.add(entry.getValue());
+        }
+        return valueList;
     }
 
     @Override
     public List<Entry<byte[], byte[]>> getAllUtxoEntryBytes() {
-        return dbService.entryList(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        // 先取快照再读数据库，快照与读取之间提交的变更两边都能看到，不会丢失
+        // Snapshot first and read the database afterwards, a commit in between is then seen on both sides and never lost.
+        Map<ByteBuffer, byte[]> dirty = utxoCache.getDirty();
+        List<Entry<byte[], byte[]>> entryList = dbService.entryList(LedgerStorageConstant.DB_NAME_LEDGER_UTXO);
+        if (dirty.isEmpty()) {
+            return entryList;
+        }
+        return overlay(entryList, dirty);
+    }
+
+    /**
+     * 在数据库的读取结果上叠加缓存中暂存的变更，只在内存中进行，不写入数据库
+     * Overlay the changes staged in the cache on the database entries, in memory only, nothing is written to the database.
+     */
+    private static List<Entry<byte[], byte[]>> overlay(List<Entry<byte[], byte[]>> storedList, Map<ByteBuffer, byte[]> dirty) {
+        List<Entry<byte[], byte[]>> result = new ArrayList<>(storedList.size() + dirty.size());
+        for (Entry<byte[], byte[]> entry : storedList) {
+            if (!dirty.containsKey(ByteBuffer.wrap(entry.getKey()))) {
+                result.add(entry);
+            }
+        }
+        for (Map.Entry<ByteBuffer, byte[]> change : dirty.entrySet()) {
+            if (change.getValue() != null) {
+                result.add(new Entry<>(change.getKey().array(), change.getValue()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Entry<byte[], byte[]>> getUtxoEntryBytesByAddress(byte[] address) {
+        List<Entry<byte[], byte[]>> utxoList = new ArrayList<>();
+        if (address == null) {
+            return utxoList;
+        }
+        // 与getAllUtxoEntryBytes相同，先取快照再读索引，缓存中暂存的变更覆盖索引中的结果
+        // Snapshot first and seek the index afterwards as in getAllUtxoEntryBytes, the changes staged in the cache
+        // override the indexed entries.
+        Map<ByteBuffer, byte[]> dirty = utxoCache.getDirty();
+        List<Entry<byte[], byte[]>> indexList = dbService.seek(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS, address, 0, 0, false);
+        for (Entry<byte[], byte[]> entry : indexList) {
+            // 前缀相同但更长的owner不属于该地址
+            // An owner longer than the address but sharing its prefix does not belong to the address.
+            if (!Arrays.equals(address, getOwnerAddress(entry.getValue()))) {
+                continue;
+            }
+            byte[] key = Arrays.copyOfRange(entry.getKey(), address.length, entry.getKey().length);
+            if (dirty.containsKey(ByteBuffer.wrap(key))) {
+                continue;
+            }
+            utxoList.add(new Entry<>(key, entry.getValue()));
+        }
+        for (Map.Entry<ByteBuffer, byte[]> change : dirty.entrySet()) {
+            if (change.getValue() != null && Arrays.equals(address, getOwnerAddress(change.getValue()))) {
+                utxoList.add(new Entry<>(change.getKey().array(), change.getValue()));
+            }
+        }
+        return utxoList;
+    }
+
+    private static byte[] getOwnerAddress(byte[] utxoBytes) {
+        if (utxoBytes == null) {
+            return null;
+        }
+        Coin coin = new Coin();
+        try {
+            coin.parse(utxoBytes, 0);
+        } catch (NulsException e) {
+            Log.error(e);
+            return null;
+        }
+        return coin.getOwner();
     }
 
+    /**
+     * 写入UTXO表的同时维护地址索引，删除时地址取自缓存提供的旧UTXO，缓存中没有时才读取数据库
+     * Writes the utxo table and maintains the address index, deletions take the address from the old utxo handed over
+     * by the cache and only read the database when the cache did not know it.
+     */
+    private class IndexedUtxoWriter implements UtxoCache.Writer {
+
+        private final MultiAreaBatchOperation batch;
+
+        /**
+         * 是否由本对象提交批量操作，否则由调用方统一提交
+         * Whether this writer commits the batch, otherwise the caller does.
+         */
+        private final boolean commit;
+
+        private IndexedUtxoWriter(MultiAreaBatchOperation batch, boolean commit) {
+            this.batch = batch;
+            this.commit = commit;
+        }
+
+        @Override
+        public void put(byte[] key, byte[] value) {
+            byte[] address = getOwnerAddress(value);
+            if (address != null) {
+                batch.put(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS, ArraysTool.concatenate(address, key), value);
+            }
+            batch.put(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, key, value);
+        }
+
+        @Override
+        public void delete(byte[] key, byte[] previous) {
+            if (previous == null) {
+                previous = dbService.get(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, key);
+            }
+            byte[] address = getOwnerAddress(previous);
+            if (address != null) {
+                batch.delete(LedgerStorageConstant.DB_NAME_LEDGER_UTXO_ADDRESS, ArraysTool.concatenate(address, key));
+            }
+            batch.delete(LedgerStorageConstant.DB_NAME_LEDGER_UTXO, key);
+        }
+
+        @Override
+        public Result executeBatch() {
+            if (!commit) {
+                return Result.getSuccess();
+            }
+            return batch.executeBatch();
+        }
+    }
 }
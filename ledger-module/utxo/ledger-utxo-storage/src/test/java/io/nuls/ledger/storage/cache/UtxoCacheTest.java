@@ -0,0 +1,214 @@
+/**
+ * MIT License
+ * <p>
+ * Copyright (c) 2017-2018 nuls.io
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.storage.cache;
+
+import io.nuls.db.service.BatchOperation;
+import io.nuls.kernel.model.Coin;
+import io.nuls.kernel.model.Na;
+import io.nuls.kernel.model.Result;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class UtxoCacheTest {
+
+    private Map<ByteBuffer, byte[]> db;
+    private UtxoCache cache;
+    private UtxoCache.Loader loader;
+
+    @Before
+    public void init() {
+        db = new HashMap<>();
+        cache = new UtxoCache(2);
+        loader = new UtxoCache.Loader() {
+            @Override
+            public byte[] load(byte[] key) {
+                return db.get(ByteBuffer.wrap(key));
+            }
+        };
+    }
+
+    @Test
+    public void testReadThrough() throws Exception {
+        byte[] key = new byte[]{1};
+        db.put(ByteBuffer.wrap(key), new Coin(new byte[]{9}, Na.NA, 0).serialize());
+        assertNull(cache.get(new byte[]{2}, loader));
+        assertEquals(Na.NA, cache.get(key, loader).getNa());
+        assertEquals(Na.NA, cache.get(key, loader).getNa());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testWriteBackPerBlock() throws Exception {
+        byte[] spent = new byte[]{1};
+        byte[] created = new byte[]{2};
+        db.put(ByteBuffer.wrap(spent), new Coin(new byte[]{9}, Na.NA, 0).serialize());
+
+        BatchOperation batch = new UtxoCacheBatchOperation(cache, null, 10);
+        batch.delete(spent);
+        batch.put(created, new Coin(new byte[]{9}, Na.NA, 0).serialize());
+        assertTrue(batch.executeBatch().isSuccess());
+
+        // 暂存的变更可以读到，但尚未写入数据库
+        assertNull(cache.get(spent, loader));
+        assertNotNull(cache.get(created, loader));
+        assertTrue(db.containsKey(ByteBuffer.wrap(spent)));
+        assertFalse(db.containsKey(ByteBuffer.wrap(created)));
+        Map<ByteBuffer, byte[]> dirty = cache.getDirty();
+        assertEquals(2, dirty.size());
+        assertNull(dirty.get(ByteBuffer.wrap(spent)));
+        assertNotNull(dirty.get(ByteBuffer.wrap(created)));
+
+        // 上一区块未提交时，其他高度的写入被拒绝，不会隐式写入数据库
+        batch = new UtxoCacheBatchOperation(cache, null, 11);
+        batch.put(new byte[]{3}, new Coin(new byte[]{9}, Na.NA, 0).serialize());
+        assertTrue(batch.executeBatch().isFailed());
+        assertTrue(db.containsKey(ByteBuffer.wrap(spent)));
+        assertFalse(db.containsKey(ByteBuffer.wrap(created)));
+        assertNull(cache.get(new byte[]{3}, loader));
+
+        assertTrue(cache.flush(new MapBatch()).isSuccess());
+        assertFalse(cache.hasDirty());
+        assertFalse(db.containsKey(ByteBuffer.wrap(spent)));
+        assertTrue(db.containsKey(ByteBuffer.wrap(created)));
+        assertTrue(cache.size() <= 2);
+    }
+
+    @Test
+    public void testDiscard() throws Exception {
+        byte[] spent = new byte[]{1};
+        db.put(ByteBuffer.wrap(spent), new Coin(new byte[]{9}, Na.NA, 0).serialize());
+
+        BatchOperation batch = new UtxoCacheBatchOperation(cache, null, 10);
+        batch.delete(spent);
+        assertTrue(batch.executeBatch().isSuccess());
+        assertNull(cache.get(spent, loader));
+
+        cache.clear();
+        assertFalse(cache.hasDirty());
+        assertNotNull(cache.get(spent, loader));
+        assertTrue(db.containsKey(ByteBuffer.wrap(spent)));
+    }
+
+    @Test
+    public void testWriteToThenCommit() throws Exception {
+        byte[] spent = new byte[]{1};
+        db.put(ByteBuffer.wrap(spent), new Coin(new byte[]{9}, Na.NA, 0).serialize());
+
+        BatchOperation batch = new UtxoCacheBatchOperation(cache, null, 10);
+        batch.delete(spent);
+        assertTrue(batch.executeBatch().isSuccess());
+
+        // 写入外部批量后，外部批量提交前数据仍为脏，失败时可以丢弃
+        assertTrue(cache.writeTo(new MapBatch()).isSuccess());
+        assertTrue(cache.hasDirty());
+        assertEquals(10, cache.getDirtyHeight());
+        cache.clear();
+        assertFalse(cache.hasDirty());
+
+        batch = new UtxoCacheBatchOperation(cache, null, 10);
+        batch.delete(spent);
+        assertTrue(batch.executeBatch().isSuccess());
+        assertTrue(cache.writeTo(new MapBatch()).isSuccess());
+        cache.commit();
+        assertFalse(cache.hasDirty());
+        assertEquals(UtxoCache.UNKNOWN_HEIGHT, cache.getDirtyHeight());
+        assertNull(cache.get(spent, loader));
+    }
+
+    @Test
+    public void testDeletionCarriesPreviousUtxo() throws Exception {
+        byte[] spent = new byte[]{1};
+        byte[] unknown = new byte[]{2};
+        byte[] spentBytes = new Coin(new byte[]{9}, Na.NA, 0).serialize();
+        db.put(ByteBuffer.wrap(spent), spentBytes);
+        assertNotNull(cache.get(spent, loader));
+
+        BatchOperation batch = new UtxoCacheBatchOperation(cache, null, 10);
+        batch.delete(spent);
+        batch.delete(unknown);
+        assertTrue(batch.executeBatch().isSuccess());
+
+        // 删除时带上缓存中的旧UTXO，缓存中没有时为null，写入方不必再读数据库
+        MapBatch writer = new MapBatch();
+        assertTrue(cache.flush(writer).isSuccess());
+        assertArrayEquals(spentBytes, writer.previousMap.get(ByteBuffer.wrap(spent)));
+        assertTrue(writer.previousMap.containsKey(ByteBuffer.wrap(unknown)));
+        assertNull(writer.previousMap.get(ByteBuffer.wrap(unknown)));
+    }
+
+    @Test
+    public void testWriteThrough() throws Exception {
+        byte[] spent = new byte[]{1};
+        byte[] created = new byte[]{2};
+        db.put(ByteBuffer.wrap(spent), new Coin(new byte[]{9}, Na.NA, 0).serialize());
+        assertNotNull(cache.get(spent, loader));
+
+        BatchOperation batch = new UtxoCacheBatchOperation(cache, new MapBatch(), UtxoCache.UNKNOWN_HEIGHT);
+        batch.delete(spent);
+        batch.put(created, new Coin(new byte[]{9}, Na.NA, 0).serialize());
+        assertTrue(batch.executeBatch().isSuccess());
+
+        assertFalse(cache.hasDirty());
+        assertFalse(db.containsKey(ByteBuffer.wrap(spent)));
+        assertTrue(db.containsKey(ByteBuffer.wrap(created)));
+        assertNull(cache.get(spent, loader));
+        assertNotNull(cache.get(created, loader));
+    }
+
+    private class MapBatch implements UtxoCache.Writer {
+
+        private final Map<ByteBuffer, byte[]> changes = new HashMap<>();
+        private final Map<ByteBuffer, byte[]> previousMap = new HashMap<>();
+
+        @Override
+        public void put(byte[] key, byte[] value) {
+            changes.put(ByteBuffer.wrap(key), value);
+        }
+
+        @Override
+        public void delete(byte[] key, byte[] previous) {
+            changes.put(ByteBuffer.wrap(key), null);
+            previousMap.put(ByteBuffer.wrap(key), previous);
+        }
+
+        @Override
+        public Result executeBatch() {
+            for (Map.Entry<ByteBuffer, byte[]> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    db.remove(change.getKey());
+                } else {
+                    db.put(change.getKey(), change.getValue());
+                }
+            }
+            return Result.getSuccess();
+        }
+    }
+}
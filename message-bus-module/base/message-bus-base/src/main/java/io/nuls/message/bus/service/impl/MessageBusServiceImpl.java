@@ -42,6 +42,7 @@ import io.nuls.network.service.NetworkService;
 import io.nuls.protocol.message.base.BaseMessage;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -85,6 +86,12 @@ public class MessageBusServiceImpl implements MessageBusService {
         return getNodeIdListResult(result);
     }
 
+    @Override
+    public Result<List<String>> broadcast(BaseMessage message, Collection<Node> nodeList, boolean aysn) {
+        BroadcastResult result = networkService.sendToNodes(message, nodeList, aysn);
+        return getNodeIdListResult(result);
+    }
+
     @Override
     public Result sendToNode(BaseMessage message, Node node, boolean aysn) {
         BroadcastResult result = networkService.sendToNode(message, node, aysn);
@@ -97,21 +104,16 @@ public class MessageBusServiceImpl implements MessageBusService {
 
     @Override
     public Result<? extends BaseMessage> getMessageInstance(short moduleId, int type) {
-        Class<? extends BaseMessage> clazz = MessageManager.getMessage(moduleId, type);
-        if (null == clazz) {
-            return Result.getFailed(MessageBusErrorCode.UNKOWN_MSG_TYPE);
-        }
-        BaseMessage message = null;
+        BaseMessage message;
         try {
-            message = clazz.newInstance();
-        } catch (InstantiationException e) {
+            message = MessageManager.newMessage(moduleId, type);
+        } catch (IllegalStateException e) {
             Log.error(e);
             return Result.getFailed(MessageBusErrorCode.INSTANTIATION_EXCEPTION);
-        } catch (IllegalAccessException e) {
-            Log.error(e);
-            return Result.getFailed(MessageBusErrorCode.ILLEGAL_ACCESS_EXCEPTION);
         }
-
+        if (null == message) {
+            return Result.getFailed(MessageBusErrorCode.UNKOWN_MSG_TYPE);
+        }
         return Result.getSuccess().setData(message);
     }
 
@@ -25,32 +25,78 @@
 
 package io.nuls.message.bus.manager;
 
+import io.nuls.core.tools.log.Log;
 import io.nuls.protocol.message.base.BaseMessage;
 
-import java.util.HashMap;
+import java.lang.reflect.Constructor;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
+ * 消息类型注册表，按(moduleId, type)组成的int键保存消息类和创建实例的工厂
+ * Message type registry, the message class and the factory creating its instances are kept under an int key built from (moduleId, type)
+ *
  * @author: Niels Wang
  */
 public class MessageManager {
 
-    private static final Map<String, Class<? extends BaseMessage>> MESSAGE_MAP = new HashMap<>();
+    private static final Map<Integer, Class<? extends BaseMessage>> MESSAGE_MAP = new ConcurrentHashMap<>();
+
+    private static final Map<Integer, Supplier<? extends BaseMessage>> FACTORY_MAP = new ConcurrentHashMap<>();
 
-    private static void putMessage(short moduleId, int type, Class<? extends BaseMessage> msgClass) {
-        MESSAGE_MAP.put(moduleId + "_" + type, msgClass);
+    private static int getKey(short moduleId, int type) {
+        return (moduleId << 16) | (type & 0xFFFF);
     }
 
     public static Class<? extends BaseMessage> getMessage(short moduleId, int type) {
-        return MESSAGE_MAP.get(moduleId + "_" + type);
+        return MESSAGE_MAP.get(getKey(moduleId, type));
+    }
+
+    /**
+     * 通过注册的工厂创建消息实例，未注册的类型返回null
+     * Create a message through its registered factory, null for an unknown type
+     */
+    public static BaseMessage newMessage(short moduleId, int type) {
+        Supplier<? extends BaseMessage> factory = FACTORY_MAP.get(getKey(moduleId, type));
+        if (null == factory) {
+            return null;
+        }
+        return factory.get();
     }
 
     public static void putMessage(Class<? extends BaseMessage> msgClass) {
         try {
-            BaseMessage message = msgClass.newInstance();
-            putMessage(message.getHeader().getModuleId(), message.getHeader().getMsgType(), msgClass);
+            Constructor<? extends BaseMessage> constructor = msgClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            register(msgClass, () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * 注册消息类及其工厂，工厂应直接调用构造函数，避免反射
+     * Register a message class with its factory, the factory should call the constructor directly to avoid reflection
+     */
+    public static <T extends BaseMessage> void putMessage(Class<T> msgClass, Supplier<T> factory) {
+        register(msgClass, factory);
+    }
+
+    private static void register(Class<? extends BaseMessage> msgClass, Supplier<? extends BaseMessage> factory) {
+        try {
+            BaseMessage message = factory.get();
+            int key = getKey(message.getHeader().getModuleId(), message.getHeader().getMsgType());
+            MESSAGE_MAP.put(key, msgClass);
+            FACTORY_MAP.put(key, factory);
+        } catch (Exception e) {
+            Log.error(e);
+        }
+    }
 }
@@ -30,6 +30,7 @@ import io.nuls.message.bus.handler.intf.NulsMessageHandler;
 import io.nuls.network.model.Node;
 import io.nuls.protocol.message.base.BaseMessage;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -85,6 +86,17 @@ public interface MessageBusService {
     Result<List<String>> broadcast(BaseMessage message, Node excludeNode, boolean aysn, int percent);
 
 
+    /**
+     * 广播消息给指定的一组节点，消息只序列化一次
+     * broadcast to the given nodes, the message is serialized only once
+     *
+     * @param message  The message was broadcast.
+     * @param nodeList 接收消息的节点 The nodes that receive the message.
+     * @param aysn     是否异步 Asynchronous execution
+     * @return Return all broadcasted node id list
+     */
+    Result<List<String>> broadcast(BaseMessage message, Collection<Node> nodeList, boolean aysn);
+
     /**
      * 发送消息到一个节点
      * send msg to one node
@@ -25,16 +25,13 @@
 
 package io.nuls.network.connection.netty;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.util.Attribute;
 import io.netty.util.AttributeKey;
 import io.nuls.core.tools.log.Log;
-import io.nuls.core.tools.network.IpUtil;
 import io.nuls.network.constant.NetworkParam;
-import io.nuls.network.manager.ConnectionManager;
 import io.nuls.network.manager.NodeManager;
 import io.nuls.network.model.Node;
 import io.nuls.network.util.NetworkThreadPool;
@@ -46,8 +43,6 @@ public class ClientChannelHandler extends ChannelInboundHandlerAdapter {
 
     private NodeManager nodeManager = NodeManager.getInstance();
 
-    private ConnectionManager connectionManager = ConnectionManager.getInstance();
-
     private AttributeKey<Node> key = AttributeKey.valueOf("node");
 
     private NetworkParam networkParam = NetworkParam.getInstance();
@@ -108,27 +103,6 @@ public class ClientChannelHandler extends ChannelInboundHandlerAdapter {
         NioChannelMap.remove(channelId);
     }
 
-    @Override
-    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        SocketChannel channel = (SocketChannel) ctx.channel();
-        String nodeId = IpUtil.getNodeId(channel.remoteAddress());
-        try {
-            Node node = nodeManager.getNode(nodeId);
-            if (node != null && node.isAlive()) {
-                ByteBuf buf = (ByteBuf) msg;
-                try {
-                    connectionManager.receiveMessage(buf, node);
-                } finally {
-                    buf.release();
-                }
-//                NetworkThreadPool.doRead(buf, node);
-            }
-        } catch (Exception e) {
-            Log.info(" ---------------------- client channelRead exception---------------------- " + nodeId);
-            throw e;
-        }
-    }
-
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
 //        Log.info("----------------- client exceptionCaught -------------------");
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.network.connection.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.socket.SocketChannel;
+import io.nuls.core.tools.network.IpUtil;
+import io.nuls.network.manager.ConnectionManager;
+import io.nuls.network.manager.NodeManager;
+import io.nuls.network.model.Node;
+
+/**
+ * 消息解码处理器，注册在独立的EventExecutorGroup上，消息的解析、过滤和分发都不占用IO线程
+ * 同一连接的数据始终由同一个执行器处理，保证消息顺序
+ * Message decoding stage, registered on a dedicated EventExecutorGroup so parsing, filtering and dispatching never run on the I/O threads.
+ * All frames of one channel are handled by the same executor, which keeps the message order.
+ */
+@ChannelHandler.Sharable
+public class MessageDecodeHandler extends ChannelInboundHandlerAdapter {
+
+    private static final MessageDecodeHandler INSTANCE = new MessageDecodeHandler();
+
+    private NodeManager nodeManager = NodeManager.getInstance();
+
+    private ConnectionManager connectionManager = ConnectionManager.getInstance();
+
+    private MessageDecodeHandler() {
+
+    }
+
+    public static MessageDecodeHandler getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuf)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        ByteBuf buf = (ByteBuf) msg;
+        try {
+            SocketChannel channel = (SocketChannel) ctx.channel();
+            Node node = nodeManager.getNode(IpUtil.getNodeId(channel.remoteAddress()));
+            if (node != null && node.isAlive()) {
+                connectionManager.receiveMessage(buf, node);
+            }
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -30,24 +30,56 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.AttributeKey;
 import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.func.TimeService;
 import io.nuls.network.manager.NodeManager;
 import io.nuls.network.model.Node;
 
-import static io.nuls.network.constant.NetworkConstant.CONNETCI_TIME_OUT;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static io.nuls.network.constant.NetworkConstant.*;
 
+/**
+ * 主动连接的客户端，所有连接共用一个EventLoopGroup，连接过程完全异步，不占用业务线程
+ * 同时发起的连接数受MAX_CONCURRENT_CONNECT限制，连接失败过的节点按失败次数指数退避后再重连
+ * Outbound connector, all connections share one EventLoopGroup and dialing is fully asynchronous,
+ * no thread is parked for the lifetime of a connection.
+ * At most MAX_CONCURRENT_CONNECT dials run at once, nodes that failed before are retried with an exponential backoff.
+ */
 public class NettyClient {
 
     public static EventLoopGroup worker = new NioEventLoopGroup();
 
-    Bootstrap boot;
+    private static final AttributeKey<Node> NODE_KEY = AttributeKey.valueOf("node");
+
+    private static final Bootstrap BOOTSTRAP = new Bootstrap()
+            .group(worker)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, true)            //Send messages immediately
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .option(ChannelOption.SO_SNDBUF, 128 * 1024)
+            .option(ChannelOption.SO_RCVBUF, 128 * 1024)
+            .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_HIGH_WATER_MARK))
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNETCI_TIME_OUT);
+
+    /**
+     * 正在进行中的连接数
+     * Dials currently in flight
+     */
+    private static final AtomicInteger dialingCount = new AtomicInteger();
 
-    private SocketChannel socketChannel;
+    /**
+     * 等待发起连接的客户端
+     * Clients waiting for a dial slot
+     */
+    private static final Queue<NettyClient> waitingQueue = new ConcurrentLinkedQueue<>();
 
     private Node node;
 
@@ -55,51 +87,89 @@ public class NettyClient {
 
     public NettyClient(Node node) {
         this.node = node;
-        boot = new Bootstrap();
-
-        AttributeKey<Node> key = null;
-        synchronized (NettyClient.class) {
-            if (AttributeKey.exists("node")) {
-                key = AttributeKey.valueOf("node");
-            } else {
-                key = AttributeKey.newInstance("node");
-            }
-        }
-        boot.attr(key, node);
-
-        boot.group(worker)
-                .channel(NioSocketChannel.class)
-//                .option(ChannelOption.SO_BACKLOG, 128)
-                .option(ChannelOption.TCP_NODELAY, true)            //Send messages immediately
-                .option(ChannelOption.SO_KEEPALIVE, true)
-                .option(ChannelOption.SO_SNDBUF, 128*1024)
-                .option(ChannelOption.SO_RCVBUF, 128*1024)
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNETCI_TIME_OUT)
-                .handler(new NulsChannelInitializer<>(new ClientChannelHandler()));
     }
 
+    /**
+     * 发起连接，立即返回，连接结果和连接断开都通过监听器处理
+     * Start dialing and return immediately, the connect result and the channel close are handled by listeners
+     */
     public void start() {
+        long delay = 0;
+        if (node.getFailCount() > 0) {
+            delay = node.getLastFailTime() + getRetryDelay(node.getFailCount()) - TimeService.currentTimeMillis();
+        }
+        if (delay > 0) {
+            worker.schedule(() -> enqueue(this), delay, TimeUnit.MILLISECONDS);
+        } else {
+            enqueue(this);
+        }
+    }
+
+    private void connect() {
         try {
-            ChannelFuture future = boot.connect(node.getIp(), node.getSeverPort()).addListener(new ChannelFutureListener() {
+            Bootstrap boot = BOOTSTRAP.clone()
+                    .attr(NODE_KEY, node)
+                    .handler(new NulsChannelInitializer<>(new ClientChannelHandler()));
+            boot.connect(node.getIp(), node.getSeverPort()).addListener(new ChannelFutureListener() {
                 @Override
                 public void operationComplete(ChannelFuture future) throws Exception {
-                    if (future.isSuccess()) {
-                        socketChannel = (SocketChannel) future.channel();
-                    } else {
+                    dialFinished();
+                    if (!future.isSuccess()) {
                         Log.error("Client connect to host error: " + future.cause() + ", remove node: " + node.getId());
                         nodeManager.removeNode(node.getId());
                     }
                 }
             });
-            future.channel().closeFuture().awaitUninterruptibly();
         } catch (Exception e) {
-            //maybe time out or refused or something
-            if (socketChannel != null) {
-                socketChannel.close();
-            }
+            dialFinished();
             Log.error("Client start exception:" + e.getMessage() + ", remove node: " + node.getId());
             nodeManager.removeNode(node.getId());
         }
     }
 
+    /**
+     * 第n次失败后的重连等待时间：CONNECT_RETRY_BASE_TIME * 2^(n-1)，最多CONNECT_RETRY_MAX_TIME
+     * Wait before redialing after the n-th failure: CONNECT_RETRY_BASE_TIME * 2^(n-1), capped at CONNECT_RETRY_MAX_TIME
+     */
+    static long getRetryDelay(int failCount) {
+        if (failCount <= 0) {
+            return 0;
+        }
+        long delay = (long) CONNECT_RETRY_BASE_TIME << Math.min(failCount - 1, 20);
+        return Math.min(delay, CONNECT_RETRY_MAX_TIME);
+    }
+
+    private static void enqueue(NettyClient client) {
+        waitingQueue.offer(client);
+        drain();
+    }
+
+    private static void dialFinished() {
+        dialingCount.decrementAndGet();
+        drain();
+    }
+
+    private static void drain() {
+        while (true) {
+            int count = dialingCount.get();
+            if (count >= MAX_CONCURRENT_CONNECT) {
+                return;
+            }
+            if (!dialingCount.compareAndSet(count, count + 1)) {
+                continue;
+            }
+            NettyClient client = waitingQueue.poll();
+            if (client == null) {
+                dialingCount.decrementAndGet();
+                //释放名额后再检查一次，避免与enqueue竞争时遗漏
+                //check again after giving the slot back, another thread may have enqueued meanwhile
+                if (waitingQueue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            client.connect();
+        }
+    }
+
 }
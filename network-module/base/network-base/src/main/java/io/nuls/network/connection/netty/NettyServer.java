@@ -29,9 +29,13 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 
+import static io.nuls.network.constant.NetworkConstant.WRITE_BUFFER_HIGH_WATER_MARK;
+import static io.nuls.network.constant.NetworkConstant.WRITE_BUFFER_LOW_WATER_MARK;
+
 public class NettyServer {
 
     private int port;
@@ -55,6 +59,7 @@ public class NettyServer {
                 .childOption(ChannelOption.SO_KEEPALIVE, true)
                 .childOption(ChannelOption.SO_SNDBUF, 128 * 1024)
                 .childOption(ChannelOption.SO_RCVBUF, 128 * 1024)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_HIGH_WATER_MARK))
                 .childHandler(new NulsChannelInitializer<>(new ServerChannelHandler()));
     }
 
@@ -32,6 +32,9 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
 
 import java.util.concurrent.TimeUnit;
 
@@ -39,7 +42,12 @@ import static io.nuls.network.constant.NetworkConstant.*;
 
 public class NulsChannelInitializer<T extends ChannelInboundHandlerAdapter> extends ChannelInitializer<SocketChannel> {
 
-
+    /**
+     * 所有连接共用的消息解码线程组，大区块的解析不会阻塞同一EventLoop上其他节点的IO
+     * Message decoding executors shared by all channels, parsing a large block no longer stalls the I/O of other peers on the same event loop
+     */
+    private static final EventExecutorGroup DECODE_GROUP = new DefaultEventExecutorGroup(
+            Runtime.getRuntime().availableProcessors() * 2, new NulsThreadFactory(NETWORK_MODULE_ID, "message-decode"));
 
     private T t;
 
@@ -51,9 +59,11 @@ public class NulsChannelInitializer<T extends ChannelInboundHandlerAdapter> exte
     protected void initChannel(SocketChannel socketChannel) throws Exception {
         ChannelPipeline p = socketChannel.pipeline();
         p.addLast("idle", new IdleStateHandler(READ_IDEL_TIME_OUT, WRITE_IDEL_TIME_OUT, ALL_IDEL_TIME_OUT, TimeUnit.SECONDS));
+        p.addLast("writability", WritabilityHandler.getInstance());
         p.addLast("decoder", new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, 8, 0, 8));
         p.addLast("encoder0", new LengthFieldPrepender(8, false));
         p.addLast("heartbeat", new HeartbeatServerHandler());
+        p.addLast(DECODE_GROUP, "messageDecoder", MessageDecodeHandler.getInstance());
         p.addLast(t);
     }
 }
@@ -25,7 +25,6 @@
 
 package io.nuls.network.connection.netty;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -36,7 +35,6 @@ import io.nuls.kernel.context.NulsContext;
 import io.nuls.network.constant.NetworkConstant;
 import io.nuls.network.constant.NetworkParam;
 import io.nuls.network.manager.BroadcastHandler;
-import io.nuls.network.manager.ConnectionManager;
 import io.nuls.network.manager.NodeManager;
 import io.nuls.network.model.Node;
 import io.nuls.network.protocol.message.HandshakeMessage;
@@ -60,8 +58,6 @@ public class ServerChannelHandler extends ChannelInboundHandlerAdapter {
 
     private BroadcastHandler broadcastHandler = BroadcastHandler.getInstance();
 
-    private ConnectionManager connectionManager = ConnectionManager.getInstance();
-
     @Override
     public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
         super.channelRegistered(ctx);
@@ -159,28 +155,6 @@ public class ServerChannelHandler extends ChannelInboundHandlerAdapter {
         ctx.channel().close();
     }
 
-    @Override
-    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        SocketChannel channel = (SocketChannel) ctx.channel();
-        String nodeId = IpUtil.getNodeId(channel.remoteAddress());
-        try {
-            Node node = nodeManager.getNode(nodeId);
-            if (node != null && node.isAlive()) {
-                ByteBuf buf = (ByteBuf) msg;
-//                NetworkThreadPool.doRead(buf, node);
-                try {
-                    connectionManager.receiveMessage(buf, node);
-                } finally {
-                    buf.release();
-                }
-            }
-        } catch (Exception e) {
-//            System.out.println(" ---------------------- server channelRead exception------------------------- " + nodeId);
-            e.printStackTrace();
-            throw e;
-        }
-    }
-
     @Override
     public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
         super.channelUnregistered(ctx);
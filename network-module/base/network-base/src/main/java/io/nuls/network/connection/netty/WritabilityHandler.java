@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.network.connection.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+
+/**
+ * 连接可写状态的通知器，写缓冲区降到低水位或连接关闭时唤醒等待的线程，等待方不再轮询
+ * Notifies the threads waiting for a channel to drain. Waiters are woken when the write buffer drops below the low
+ * water mark or the channel closes, instead of polling the channel.
+ */
+@ChannelHandler.Sharable
+public class WritabilityHandler extends ChannelInboundHandlerAdapter {
+
+    private static final WritabilityHandler INSTANCE = new WritabilityHandler();
+
+    private static final AttributeKey<Object> WRITABLE_LOCK = AttributeKey.valueOf("writableLock");
+
+    private WritabilityHandler() {
+
+    }
+
+    public static WritabilityHandler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 等待连接重新可写，连接关闭或超时返回false；在连接自己的IO线程上调用时不等待
+     * Wait until the channel turns writable again, returns false once the channel closes or the timeout elapses.
+     * Never waits when called on the channel's own I/O thread.
+     */
+    public static boolean awaitWritable(Channel channel, long timeoutMillis) throws InterruptedException {
+        if (channel.isWritable() || channel.eventLoop().inEventLoop()) {
+            return channel.isWritable() && channel.isActive();
+        }
+        Object lock = getLock(channel);
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            while (!channel.isWritable()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (!channel.isActive() || remaining <= 0) {
+                    return false;
+                }
+                lock.wait(remaining);
+            }
+        }
+        return channel.isActive();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        signal(ctx.channel());
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        signal(ctx.channel());
+        super.channelInactive(ctx);
+    }
+
+    private static void signal(Channel channel) {
+        Object lock = channel.attr(WRITABLE_LOCK).get();
+        if (lock == null) {
+            return;
+        }
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    private static Object getLock(Channel channel) {
+        Object lock = new Object();
+        Object exist = channel.attr(WRITABLE_LOCK).setIfAbsent(lock);
+        return exist == null ? lock : exist;
+    }
+}
@@ -25,12 +25,23 @@
 
 package io.nuls.network.manager;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.Promise;
 import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.constant.KernelErrorCode;
+import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.network.connection.netty.NioChannelMap;
+import io.nuls.network.connection.netty.WritabilityHandler;
 import io.nuls.network.constant.NetworkErrorCode;
 import io.nuls.network.constant.NetworkParam;
 import io.nuls.network.model.BroadcastResult;
@@ -38,7 +49,11 @@ import io.nuls.network.model.Node;
 import io.nuls.network.model.NodeGroup;
 import io.nuls.protocol.message.base.BaseMessage;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BroadcastHandler {
 
@@ -87,6 +102,13 @@ public class BroadcastHandler {
         return broadcastToANode(msg, sendNode, asyn);
     }
 
+    public BroadcastResult broadcastToNodes(BaseMessage msg, Collection<Node> nodeList, boolean asyn) {
+        if (nodeList == null || nodeList.isEmpty()) {
+            return new BroadcastResult(false, NetworkErrorCode.NET_BROADCAST_NODE_EMPTY);
+        }
+        return broadcastToList(nodeList, msg, null, asyn, 100);
+    }
+
     public BroadcastResult broadcastToNodeGroup(BaseMessage msg, String groupName, boolean asyn) {
         NodeGroup group = nodeManager.getNodeGroup(groupName);
         if (group == null || group.size() == 0) {
@@ -104,67 +126,147 @@ public class BroadcastHandler {
     }
 
     private BroadcastResult broadcastToList(Collection<Node> nodeList, BaseMessage message, Node excludeNode, boolean asyn, int percent) {
-        BroadcastResult result = new BroadcastResult();
+        List<Node> sendNodes = new ArrayList<>();
+        List<ChannelPromise> promises = new ArrayList<>();
+        Map<EventLoop, List<ChannelPromise>> loopPromises = new HashMap<>();
+        for (Node node : selectNodes(nodeList, excludeNode, percent)) {
+            if (!node.isAlive() && node.getChannelId() == null) {
+                continue;
+            }
+            SocketChannel channel = NioChannelMap.get(node.getChannelId());
+            if (channel == null) {
+                continue;
+            }
+            ChannelPromise promise = channel.newPromise();
+            List<ChannelPromise> list = loopPromises.get(channel.eventLoop());
+            if (list == null) {
+                list = new ArrayList<>();
+                loopPromises.put(channel.eventLoop(), list);
+            }
+            list.add(promise);
+            promises.add(promise);
+            sendNodes.add(node);
+        }
+        if (sendNodes.isEmpty()) {
+            return new BroadcastResult(false, NetworkErrorCode.NET_BROADCAST_FAIL);
+        }
+
+        //消息只序列化一次，每个连接写入同一块缓冲区的引用计数副本
+        //The message is serialized once, every channel writes a retained duplicate of the same buffer
+        ByteBuf buffer;
         try {
-            int successCount = 0;
-            int minCount = 5;
-            //根据百分比决定直接广播给多少个节点
-            if (nodeList.size() > minCount && percent < 100) {
-                int needCount = nodeList.size() * percent / 100;
-                if (needCount < minCount) {
-                    needCount = minCount;
-                }
-                Set<Integer> set = new HashSet<>();
-                while (true) {
-                    Random rand = new Random();
-                    int ran = rand.nextInt(nodeList.size());
-                    set.add(ran);
-                    if (set.size() == needCount + 1) {
-                        break;
-                    }
-                }
+            buffer = encode(message, PooledByteBufAllocator.DEFAULT);
+        } catch (Exception e) {
+            Log.error(e);
+            return new BroadcastResult(false, NetworkErrorCode.NET_MESSAGE_ERROR);
+        }
+        Promise<Void> aggregate = GlobalEventExecutor.INSTANCE.newPromise();
+        ChannelFutureListener listener = new AggregateListener(aggregate, promises.size());
+        for (ChannelPromise promise : promises) {
+            promise.addListener(listener);
+        }
+        try {
+            for (Map.Entry<EventLoop, List<ChannelPromise>> entry : loopPromises.entrySet()) {
+                writeInEventLoop(entry.getKey(), entry.getValue(), buffer);
+            }
+        } finally {
+            buffer.release();
+        }
 
-                int nodeListIndex = 0;
-                Collection<Node> nodeBroadcastList = new ArrayList<>();
-                for (Node node : nodeList) {
-                    if (set.contains(nodeListIndex)) {
-                        if (excludeNode != null && node.getId().equals(excludeNode.getId())) {
-                            nodeListIndex++;
-                            continue;
-                        }
-                        nodeBroadcastList.add(node);
-                        if (nodeBroadcastList.size() == needCount) {
-                            break;
-                        }
-                    }
-                    nodeListIndex++;
-                }
-                nodeList = nodeBroadcastList;
+        BroadcastResult result = new BroadcastResult();
+        if (asyn) {
+            result.getBroadcastNodes().addAll(sendNodes);
+        } else {
+            try {
+                aggregate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new BroadcastResult(false, NetworkErrorCode.NET_BROADCAST_FAIL);
             }
-            for (Node node : nodeList) {
-                if (excludeNode != null && node.getId().equals(excludeNode.getId())) {
-                    continue;
-                }
-                BroadcastResult br = broadcastToNode(message, node, asyn);
-                if (br.isSuccess()) {
-                    successCount++;
-                    result.getBroadcastNodes().add(node);
-                } else if (br.getErrorCode().equals(NetworkErrorCode.NET_MESSAGE_ERROR)) {
-                    return br;
+            for (int i = 0; i < promises.size(); i++) {
+                if (promises.get(i).isSuccess()) {
+                    result.getBroadcastNodes().add(sendNodes.get(i));
                 }
             }
-
-            if (successCount == 0) {
+            if (result.getBroadcastNodes().isEmpty()) {
                 return new BroadcastResult(false, NetworkErrorCode.NET_BROADCAST_FAIL);
             }
-        } catch (Exception e) {
-            return new BroadcastResult(false, NetworkErrorCode.NET_MESSAGE_ERROR);
         }
         result.setSuccess(true);
         result.setErrorCode(KernelErrorCode.SUCCESS);
         return result;
     }
 
+    /**
+     * 根据百分比随机选出需要直接广播的节点，排除excludeNode
+     * Randomly pick the nodes to broadcast to according to the percent, excludeNode is never picked
+     */
+    private List<Node> selectNodes(Collection<Node> nodeList, Node excludeNode, int percent) {
+        List<Node> list = new ArrayList<>(nodeList.size());
+        for (Node node : nodeList) {
+            if (excludeNode != null && node.getId().equals(excludeNode.getId())) {
+                continue;
+            }
+            list.add(node);
+        }
+        int minCount = 5;
+        if (nodeList.size() <= minCount || percent >= 100) {
+            return list;
+        }
+        int needCount = Math.max(nodeList.size() * percent / 100, minCount);
+        if (needCount >= list.size()) {
+            return list;
+        }
+        Random random = ThreadLocalRandom.current();
+        for (int i = 0; i < needCount; i++) {
+            Collections.swap(list, i, i + random.nextInt(list.size() - i));
+        }
+        return list.subList(0, needCount);
+    }
+
+    /**
+     * 在连接所属的EventLoop中一次性写入所有连接，每个EventLoop只提交一个任务
+     * Write to all channels of one event loop inside a single task, flushing after all writes are queued
+     */
+    private void writeInEventLoop(EventLoop eventLoop, List<ChannelPromise> promises, ByteBuf buffer) {
+        List<ByteBuf> duplicates = new ArrayList<>(promises.size());
+        for (int i = 0; i < promises.size(); i++) {
+            duplicates.add(buffer.retainedDuplicate());
+        }
+        try {
+            eventLoop.execute(() -> {
+                for (int i = 0; i < promises.size(); i++) {
+                    ChannelPromise promise = promises.get(i);
+                    promise.channel().write(duplicates.get(i), promise);
+                }
+                for (ChannelPromise promise : promises) {
+                    promise.channel().flush();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            for (int i = 0; i < promises.size(); i++) {
+                ReferenceCountUtil.release(duplicates.get(i));
+                promises.get(i).tryFailure(e);
+            }
+        }
+    }
+
+    private ByteBuf encode(BaseMessage message, ByteBufAllocator allocator) throws IOException {
+        message.getHeader().setMagicNumber(networkParam.getPacketMagic());
+        int size = message.size();
+        ByteBuf buffer = allocator.ioBuffer(size);
+        try {
+            message.serialize(new ByteBufOutputStream(buffer));
+            if (buffer.readableBytes() != size) {
+                throw new NulsRuntimeException(KernelErrorCode.SERIALIZE_ERROR);
+            }
+        } catch (IOException | RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+        return buffer;
+    }
+
     public BroadcastResult broadcastToANode(BaseMessage message, Node node, boolean asyn) {
         if (!node.isAlive() && node.getChannelId() == null) {
             return new BroadcastResult(false, NetworkErrorCode.NET_NODE_NOT_FOUND);
@@ -174,8 +276,7 @@ public class BroadcastHandler {
             return new BroadcastResult(false, NetworkErrorCode.NET_NODE_NOT_FOUND);
         }
         try {
-            message.getHeader().setMagicNumber(networkParam.getPacketMagic());
-            ChannelFuture future = channel.writeAndFlush(Unpooled.wrappedBuffer(message.serialize()));
+            ChannelFuture future = channel.writeAndFlush(encode(message, channel.alloc()));
             if (!asyn) {
                 future.await();
                 boolean success = future.isSuccess();
@@ -189,4 +290,48 @@ public class BroadcastHandler {
         }
         return new BroadcastResult(true, KernelErrorCode.SUCCESS);
     }
+
+    /**
+     * 等待连接重新可写，由连接的可写状态变化事件唤醒，连接关闭、超时或线程被中断时返回false
+     * Wait until the channel turns writable again, woken by the channel's writability events. Returns false once the
+     * channel closes, the timeout elapses or the thread is interrupted
+     */
+    public boolean awaitWritable(Node node, long timeoutMillis) {
+        if (node == null || node.getChannelId() == null) {
+            return false;
+        }
+        SocketChannel channel = NioChannelMap.get(node.getChannelId());
+        if (channel == null) {
+            return false;
+        }
+        try {
+            return WritabilityHandler.awaitWritable(channel, timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 汇总一次广播中所有连接的写入结果，全部完成后结束聚合的Promise
+     * Collects the write results of one broadcast and completes the aggregate promise once every channel is done
+     */
+    private static class AggregateListener implements ChannelFutureListener {
+
+        private final Promise<Void> aggregate;
+
+        private final AtomicInteger remaining;
+
+        private AggregateListener(Promise<Void> aggregate, int count) {
+            this.aggregate = aggregate;
+            this.remaining = new AtomicInteger(count);
+        }
+
+        @Override
+        public void operationComplete(ChannelFuture future) {
+            if (remaining.decrementAndGet() == 0) {
+                aggregate.trySuccess(null);
+            }
+        }
+    }
 }
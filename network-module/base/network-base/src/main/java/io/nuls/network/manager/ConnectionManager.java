@@ -43,7 +43,6 @@ import io.nuls.network.model.Node;
 import io.nuls.network.protocol.handler.BaseNetworkMeesageHandler;
 import io.nuls.network.protocol.message.VersionMessage;
 import io.nuls.network.util.HeartBeatThread;
-import io.nuls.network.util.NetworkThreadPool;
 import io.nuls.protocol.message.base.BaseMessage;
 import io.nuls.protocol.message.base.MessageHeader;
 
@@ -53,6 +52,10 @@ import java.util.List;
 
 public class ConnectionManager {
 
+    private static final int MAX_DECODE_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> DECODE_BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+
     private static ConnectionManager instance = new ConnectionManager();
 
     private ConnectionManager() {
@@ -103,30 +106,13 @@ public class ConnectionManager {
 
     public void connectionNode(Node node) {
         node.setStatus(Node.CONNECT);
-        NetworkThreadPool.doConnect(node);
-//        TaskManager.createAndRunThread(NetworkConstant.NETWORK_MODULE_ID, "node connection", new Runnable() {
-//            @Override
-//            public void run() {
-//                NettyClient client = new NettyClient(node);
-//                client.start();
-//            }
-//        }, true);
+        new NettyClient(node).start();
     }
 
     public void receiveMessage(ByteBuf buffer, Node node) throws NulsException {
         List<BaseMessage> list;
         try {
-            list = new ArrayList<>();
-            byte[] bytes = new byte[buffer.readableBytes()];
-            buffer.readBytes(bytes);
-            NulsByteBuffer byteBuffer = new NulsByteBuffer(bytes);
-            while (!byteBuffer.isFinished()) {
-                MessageHeader header = byteBuffer.readNulsData(new MessageHeader());
-                byteBuffer.setCursor(byteBuffer.getCursor() - header.size());
-                BaseMessage message = getMessageBusService().getMessageInstance(header.getModuleId(), header.getMsgType()).getData();
-                message = byteBuffer.readNulsData(message);
-                list.add(message);
-            }
+            list = decodeMessages(buffer);
             for (BaseMessage message : list) {
                 if (MessageFilterChain.getInstance().doFilter(message)) {
                     MessageHeader header = message.getHeader();
@@ -149,6 +135,44 @@ public class ConnectionManager {
         }
     }
 
+    /**
+     * 解析一帧中的所有消息，堆内缓冲区直接在其底层数组上解析，直接内存缓冲区拷贝到线程复用的数组中解析
+     * Parse every message of a frame, a heap buffer is parsed in place on its backing array,
+     * a direct buffer is copied into an array reused by the decoding thread
+     */
+    private List<BaseMessage> decodeMessages(ByteBuf buffer) throws NulsException {
+        int length = buffer.readableBytes();
+        NulsByteBuffer byteBuffer;
+        if (buffer.hasArray()) {
+            byteBuffer = new NulsByteBuffer(buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), length);
+        } else {
+            byte[] bytes = DECODE_BUFFER.get();
+            if (bytes.length < length) {
+                bytes = new byte[length];
+                if (length <= MAX_DECODE_BUFFER_SIZE) {
+                    DECODE_BUFFER.set(bytes);
+                }
+            }
+            buffer.getBytes(buffer.readerIndex(), bytes, 0, length);
+            byteBuffer = new NulsByteBuffer(bytes, 0, length);
+        }
+        int end = byteBuffer.getCursor() + length;
+        List<BaseMessage> list = new ArrayList<>();
+        while (!byteBuffer.isFinished()) {
+            MessageHeader header = byteBuffer.readNulsData(new MessageHeader());
+            byteBuffer.setCursor(byteBuffer.getCursor() - header.size());
+            BaseMessage message = getMessageBusService().getMessageInstance(header.getModuleId(), header.getMsgType()).getData();
+            if (message == null) {
+                throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR);
+            }
+            message = byteBuffer.readNulsData(message);
+            list.add(message);
+        }
+        if (byteBuffer.getCursor() != end) {
+            throw new NulsException(KernelErrorCode.DATA_PARSE_ERROR);
+        }
+        return list;
+    }
 
     private void processMessage(BaseMessage message, Node node) {
         if (message == null) {
@@ -88,6 +88,7 @@ public class HandshakeMessageHandler implements BaseNetworkMeesageHandler {
         node.setSeverPort(body.getSeverPort());
         node.setBestBlockHash(body.getBestBlockHash());
         node.setBestBlockHeight(body.getBestBlockHeight());
+        node.setVersion(body.getVersion());
         if (node.getType() == Node.OUT) {
             nodeManager.saveNode(node);
         }
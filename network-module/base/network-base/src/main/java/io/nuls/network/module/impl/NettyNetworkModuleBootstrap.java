@@ -76,14 +76,14 @@ public class NettyNetworkModuleBootstrap extends AbstractNetworkModule {
     private void initOther() {
         MagicNumberFilter.getInstance().addMagicNum(NetworkParam.getInstance().getPacketMagic());
         MessageFilterChain.getInstance().addFilter(MagicNumberFilter.getInstance());
-        MessageManager.putMessage(HandshakeMessage.class);
-        MessageManager.putMessage(GetVersionMessage.class);
-        MessageManager.putMessage(VersionMessage.class);
-        MessageManager.putMessage(GetNodesMessage.class);
-        MessageManager.putMessage(NodesMessage.class);
-        MessageManager.putMessage(GetNodesIpMessage.class);
-        MessageManager.putMessage(NodesIpMessage.class);
-        MessageManager.putMessage(P2PNodeMessage.class);
+        MessageManager.putMessage(HandshakeMessage.class, HandshakeMessage::new);
+        MessageManager.putMessage(GetVersionMessage.class, GetVersionMessage::new);
+        MessageManager.putMessage(VersionMessage.class, VersionMessage::new);
+        MessageManager.putMessage(GetNodesMessage.class, GetNodesMessage::new);
+        MessageManager.putMessage(NodesMessage.class, NodesMessage::new);
+        MessageManager.putMessage(GetNodesIpMessage.class, GetNodesIpMessage::new);
+        MessageManager.putMessage(NodesIpMessage.class, NodesIpMessage::new);
+        MessageManager.putMessage(P2PNodeMessage.class, P2PNodeMessage::new);
     }
 
     @Override
@@ -96,6 +96,17 @@ public class NetworkServiceImpl implements NetworkService {
         return broadcastHandler.broadcastToNode(baseMessage, node, asyn);
     }
 
+    @Override
+    public BroadcastResult sendToNodes(BaseNulsData nulsData, Collection<Node> nodeList, boolean asyn) {
+        BaseMessage baseMessage = (BaseMessage) nulsData;
+        return broadcastHandler.broadcastToNodes(baseMessage, nodeList, asyn);
+    }
+
+    @Override
+    public boolean awaitWritable(Node node, long timeoutMillis) {
+        return broadcastHandler.awaitWritable(node, timeoutMillis);
+    }
+
     @Override
     public BroadcastResult sendToGroup(BaseNulsData nulsData, String groupName, boolean asyn) {
         BaseMessage baseMessage = (BaseMessage) nulsData;
@@ -2,7 +2,6 @@ package io.nuls.network.util;
 
 import io.netty.buffer.ByteBuf;
 import io.nuls.core.tools.log.Log;
-import io.nuls.network.connection.netty.NettyClient;
 import io.nuls.network.manager.ConnectionManager;
 import io.nuls.network.manager.NodeManager;
 import io.nuls.network.model.Node;
@@ -31,14 +30,4 @@ public class NetworkThreadPool {
             }
         });
     }
-
-    public static void doConnect(Node node) {
-        executor.submit(new Runnable() {
-            @Override
-            public void run() {
-                NettyClient client = new NettyClient(node);
-                client.start();
-            }
-        });
-    }
 }
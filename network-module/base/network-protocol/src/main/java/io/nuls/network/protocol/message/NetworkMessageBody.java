@@ -93,7 +93,7 @@ public class NetworkMessageBody extends BaseNulsData {
         stream.writeUint16(handshakeType);
         stream.writeUint16(severPort);
         stream.writeUint32(bestBlockHeight);
-        stream.write(bestBlockHash.serialize());
+        stream.writeNulsData(bestBlockHash);
         stream.writeUint48(networkTime);
         stream.writeString(nodeIp);
         stream.writeString(version);
@@ -37,9 +37,18 @@ public interface NetworkConstant {
     int WRITE_IDEL_TIME_OUT = 60;
     int ALL_IDEL_TIME_OUT = 60;
     int MAX_FRAME_LENGTH = 10 * 1024 * 1024;
+    /**
+     * 发送缓冲区的高低水位，超过高水位后连接不可写，回落到低水位以下后恢复
+     * Outbound buffer water marks, a channel turns unwritable above the high mark and writable again below the low mark
+     */
+    int WRITE_BUFFER_LOW_WATER_MARK = 1024 * 1024;
+    int WRITE_BUFFER_HIGH_WATER_MARK = 4 * 1024 * 1024;
     int CONNETCI_TIME_OUT = 6000;
     int SAME_IP_MAX_COUNT = 10;
     int CONNECT_FAIL_MAX_COUNT = 6;
+    int MAX_CONCURRENT_CONNECT = 32;
+    int CONNECT_RETRY_BASE_TIME = 2000;
+    int CONNECT_RETRY_MAX_TIME = 5 * 60 * 1000;
 
     /**
      * --------[network configs] -------
@@ -75,6 +75,12 @@ public class Node extends BaseNulsData {
 
     private boolean testConnect;
 
+    /**
+     * 握手时对方声明的版本号，用于判断对方支持的消息
+     * The version the peer declared in its handshake, tells which messages it supports
+     */
+    private volatile String version;
+
     @Override
     public int size() {
         int s = 0;
@@ -352,4 +358,12 @@ public class Node extends BaseNulsData {
     public void setTestConnect(boolean testConnect) {
         this.testConnect = testConnect;
     }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
 }
@@ -123,6 +123,27 @@ public interface NetworkService {
      */
     BroadcastResult sendToNode(BaseNulsData event, Node node, boolean asyn);
 
+    /**
+     * 发送消息给指定的一组节点，消息只序列化一次
+     * send message to the given nodes, the message is serialized only once
+     *
+     * @param event    event
+     * @param nodeList nodes to send to
+     * @param asyn     Whether or not asynchronous
+     * @return BroadcastResult
+     */
+    BroadcastResult sendToNodes(BaseNulsData event, Collection<Node> nodeList, boolean asyn);
+
+    /**
+     * 等待节点连接的发送缓冲区回落到低水位以下，连续发送大量数据时用于背压
+     * Wait until the outbound buffer of the node's channel drops below the low water mark, used as backpressure when streaming bulk data
+     *
+     * @param node          node
+     * @param timeoutMillis 最长等待时间/max time to wait
+     * @return 连接可写返回true，连接已断开或等待超时返回false/true if writable, false if the channel is gone or the wait timed out
+     */
+    boolean awaitWritable(Node node, long timeoutMillis);
+
     /**
      * 发送消息给节点组
      * send message to nodeGroup
@@ -29,9 +29,9 @@ import io.nuls.core.tools.log.Log;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.protocol.constant.MessageDataType;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author: Niels Wang
@@ -44,7 +44,7 @@ public class DataCacher<T> {
         this.type = type;
     }
 
-    private Map<NulsDigestData, CompletableFuture<T>> cacher = new HashMap<>();
+    private Map<NulsDigestData, CompletableFuture<T>> cacher = new ConcurrentHashMap<>();
 
     public CompletableFuture<T> addFuture(NulsDigestData hash) {
         CompletableFuture future = new CompletableFuture<>();
@@ -79,7 +79,7 @@ public class ProtocolCacheHandler {
         blockHashesCacher.callback(hashes.getRequestMessageHash(), hashes);
     }
 
-    public static Future<CompleteParam> addTaskRequest(NulsDigestData hash) {
+    public static CompletableFuture<CompleteParam> addTaskRequest(NulsDigestData hash) {
         return taskCacher.addFuture(hash);
     }
 
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.cache;
+
+import io.nuls.kernel.model.NulsDigestData;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 最近提供给其他节点的区块的序列化结果，所有请求同步的节点共享，按字节数限制容量，最久未使用的先淘汰
+ * Serialized form of the blocks recently served to peers, shared by every syncing peer,
+ * bounded by total bytes and evicting the least recently used block first.
+ *
+ * @author: Niels Wang
+ */
+public class SerializedBlockCache {
+
+    /**
+     * 缓存的区块字节总数上限
+     * Upper bound of the cached block bytes
+     */
+    private static final long MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final LinkedHashMap<NulsDigestData, byte[]> CACHE = new LinkedHashMap<>(64, 0.75f, true);
+
+    private static long totalBytes = 0L;
+
+    public static synchronized byte[] get(NulsDigestData blockHash) {
+        return CACHE.get(blockHash);
+    }
+
+    public static synchronized void put(NulsDigestData blockHash, byte[] blockBytes) {
+        if (blockBytes.length > MAX_BYTES) {
+            return;
+        }
+        byte[] old = CACHE.put(blockHash, blockBytes);
+        if (old != null) {
+            totalBytes -= old.length;
+        }
+        totalBytes += blockBytes.length;
+        Iterator<Map.Entry<NulsDigestData, byte[]>> it = CACHE.entrySet().iterator();
+        while (totalBytes > MAX_BYTES && it.hasNext()) {
+            totalBytes -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    public static synchronized void clear() {
+        CACHE.clear();
+        totalBytes = 0L;
+    }
+}
@@ -26,12 +26,8 @@
 package io.nuls.protocol.base.cache;
 
 import io.nuls.kernel.model.NulsDigestData;
-import io.nuls.kernel.thread.manager.TaskManager;
 import io.nuls.protocol.base.utils.filter.InventoryFilter;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * 用于接收交易去重
  *
@@ -40,7 +36,11 @@ import java.util.Set;
  */
 public class TransactionDuplicateRemoval {
 
-    private static InventoryFilter FILTER = new InventoryFilter( 1000000);
+    /**
+     * 至少记住最近100万笔交易，过滤器内存不超过8M
+     * Remember at least the last million transactions within an 8M memory budget.
+     */
+    private static final InventoryFilter FILTER = new InventoryFilter(1000000, 8 * 1024 * 1024);
 
     public static boolean mightContain(NulsDigestData hash) {
         return FILTER.contains(hash.getDigestBytes());
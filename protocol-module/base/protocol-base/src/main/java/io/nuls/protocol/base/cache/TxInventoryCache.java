@@ -0,0 +1,235 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.cache;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.thread.manager.NulsThreadFactory;
+import io.nuls.kernel.thread.manager.TaskManager;
+import io.nuls.message.bus.service.MessageBusService;
+import io.nuls.network.model.Node;
+import io.nuls.network.service.NetworkService;
+import io.nuls.protocol.base.utils.PeerVersionUtil;
+import io.nuls.protocol.constant.ProtocolConstant;
+import io.nuls.protocol.message.ForwardTxMessage;
+import io.nuls.protocol.message.TxInventoryMessage;
+import io.nuls.protocol.model.TxInventory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 待通告交易的节点队列，新交易的摘要先进入每个节点的队列，
+ * 每隔TX_INVENTORY_INTERVAL毫秒合并成一个或多个TxInventoryMessage发送；不支持交易清单的旧版本节点立即收到ForwardTxMessage。
+ * 每个节点记录已知的交易摘要（向它通告过的或从它收到的），已知的交易不再向该节点通告
+ * Per node queues of transactions waiting to be announced, the digest of a new transaction is queued for every node,
+ * every TX_INVENTORY_INTERVAL milliseconds each queue is coalesced into one or more TxInventoryMessage; older peers
+ * without inventory support get a ForwardTxMessage right away.
+ * The digests each node knows (announced to it or received from it) are remembered and never announced to it again.
+ *
+ * @author: Niels Wang
+ */
+public class TxInventoryCache {
+
+    private static final TxInventoryCache INSTANCE = new TxInventoryCache();
+
+    private final Map<String, PeerInventory> inventoryMap = new ConcurrentHashMap<>();
+
+    private NetworkService networkService;
+
+    private MessageBusService messageBusService;
+
+    private ScheduledThreadPoolExecutor executor;
+
+    private TxInventoryCache() {
+    }
+
+    public static TxInventoryCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 启动定时发送任务
+     * Start the periodic flush task
+     */
+    public synchronized void start() {
+        if (null != executor) {
+            return;
+        }
+        executor = TaskManager.createScheduledThreadPool(new NulsThreadFactory(ProtocolConstant.MODULE_ID_PROTOCOL, "tx-inventory"));
+        executor.scheduleAtFixedRate(this::flush, ProtocolConstant.TX_INVENTORY_INTERVAL, ProtocolConstant.TX_INVENTORY_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 将交易摘要通告给除excludeNode外所有不知道该交易的已握手节点，支持交易清单的节点进入队列，旧版本节点直接转发
+     * Announce the transaction digest to every handshaked node except excludeNode that does not know it yet,
+     * nodes supporting inventories get it queued, older nodes get it forwarded right away
+     */
+    public void offer(NulsDigestData hash, Node excludeNode) {
+        if (excludeNode != null) {
+            markKnown(excludeNode, hash);
+        }
+        ForwardTxMessage forwardTxMessage = null;
+        for (Node node : getNetworkService().getAvailableNodes()) {
+            if (excludeNode != null && node.getId().equals(excludeNode.getId())) {
+                continue;
+            }
+            PeerInventory inventory = getInventory(node);
+            if (!inventory.addKnown(hash)) {
+                continue;
+            }
+            if (PeerVersionUtil.supportsTxInventory(node)) {
+                inventory.offer(hash);
+                continue;
+            }
+            if (null == forwardTxMessage) {
+                forwardTxMessage = new ForwardTxMessage();
+                forwardTxMessage.setMsgBody(hash);
+            }
+            getMessageBusService().sendToNode(forwardTxMessage, node, true);
+        }
+    }
+
+    /**
+     * 记录节点已知该交易，从节点收到交易或交易摘要时调用
+     * Remember that the node knows the transaction, called when a transaction or its digest is received from the node
+     */
+    public void markKnown(Node node, NulsDigestData hash) {
+        if (null == node || null == hash) {
+            return;
+        }
+        getInventory(node).addKnown(hash);
+    }
+
+    private PeerInventory getInventory(Node node) {
+        PeerInventory inventory = inventoryMap.get(node.getId());
+        if (null == inventory) {
+            inventory = inventoryMap.computeIfAbsent(node.getId(), id -> new PeerInventory());
+        }
+        return inventory;
+    }
+
+    private void flush() {
+        try {
+            Map<String, Node> nodeMap = new HashMap<>();
+            for (Node node : getNetworkService().getAvailableNodes()) {
+                nodeMap.put(node.getId(), node);
+            }
+            Iterator<Map.Entry<String, PeerInventory>> iterator = inventoryMap.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, PeerInventory> entry = iterator.next();
+                Node node = nodeMap.get(entry.getKey());
+                if (null == node) {
+                    iterator.remove();
+                    continue;
+                }
+                List<NulsDigestData> hashList;
+                do {
+                    hashList = entry.getValue().poll(ProtocolConstant.MAX_TX_INVENTORY_SIZE);
+                    if (hashList.isEmpty()) {
+                        break;
+                    }
+                    TxInventory inventory = new TxInventory();
+                    inventory.setTxHashList(hashList);
+                    TxInventoryMessage message = new TxInventoryMessage();
+                    message.setMsgBody(inventory);
+                    getMessageBusService().sendToNode(message, node, true);
+                } while (hashList.size() == ProtocolConstant.MAX_TX_INVENTORY_SIZE);
+            }
+        } catch (Exception e) {
+            Log.error(e);
+        }
+    }
+
+    private NetworkService getNetworkService() {
+        if (null == networkService) {
+            networkService = NulsContext.getServiceBean(NetworkService.class);
+        }
+        return networkService;
+    }
+
+    private MessageBusService getMessageBusService() {
+        if (null == messageBusService) {
+            messageBusService = NulsContext.getServiceBean(MessageBusService.class);
+        }
+        return messageBusService;
+    }
+
+    /**
+     * 节点的有界摘要队列，满了之后新的摘要直接丢弃，对方仍可从其他节点得到这些交易；
+     * 以及有界的已知摘要集合，满了之后淘汰最早加入的摘要
+     * Bounded digest queue of a node, new digests are dropped when it is full, the peer can still learn them from
+     * other nodes; and the bounded set of known digests, the oldest digest is evicted when it is full
+     */
+    private static class PeerInventory {
+
+        private final Queue<NulsDigestData> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private final Map<NulsDigestData, Boolean> knownMap = new LinkedHashMap<NulsDigestData, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<NulsDigestData, Boolean> eldest) {
+                return size() > ProtocolConstant.MAX_KNOWN_TX_INVENTORY_SIZE;
+            }
+        };
+
+        /**
+         * 加入已知集合，已经已知时返回false
+         * Add the digest to the known set, false if it was known already
+         */
+        private boolean addKnown(NulsDigestData hash) {
+            synchronized (knownMap) {
+                return null == knownMap.put(hash, Boolean.TRUE);
+            }
+        }
+
+        private void offer(NulsDigestData hash) {
+            if (size.incrementAndGet() > ProtocolConstant.MAX_TX_INVENTORY_QUEUE_SIZE) {
+                size.decrementAndGet();
+                return;
+            }
+            queue.offer(hash);
+        }
+
+        private List<NulsDigestData> poll(int max) {
+            List<NulsDigestData> list = new ArrayList<>(Math.min(max, Math.max(size.get(), 0)));
+            while (list.size() < max) {
+                NulsDigestData hash = queue.poll();
+                if (null == hash) {
+                    break;
+                }
+                size.decrementAndGet();
+                list.add(hash);
+            }
+            return list;
+        }
+    }
+}
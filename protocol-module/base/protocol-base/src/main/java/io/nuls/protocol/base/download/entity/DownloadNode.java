@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.download.entity;
+
+import io.nuls.network.model.Node;
+
+/**
+ * 参与下载的节点及其实测吞吐量
+ * A node taking part in the download, with its measured throughput.
+ *
+ * @author ln
+ */
+public class DownloadNode {
+
+    /**
+     * 吞吐量的平滑系数
+     * Smoothing factor of the throughput average
+     */
+    private static final double ALPHA = 0.3;
+
+    private final Node node;
+
+    private int downloadingCount;
+    private int failedCount;
+
+    /**
+     * 实测吞吐量（字节/毫秒），0表示还未测量
+     * Measured throughput in bytes per millisecond, 0 means not measured yet
+     */
+    private double bytesPerMillis;
+
+    public DownloadNode(Node node) {
+        this.node = node;
+    }
+
+    public void finished(long bytes, long millis) {
+        double speed = (double) bytes / Math.max(1L, millis);
+        bytesPerMillis = bytesPerMillis == 0 ? speed : ALPHA * speed + (1 - ALPHA) * bytesPerMillis;
+        failedCount = 0;
+    }
+
+    public void failed() {
+        failedCount++;
+        bytesPerMillis = bytesPerMillis / 2;
+    }
+
+    public Node getNode() {
+        return node;
+    }
+
+    public int getDownloadingCount() {
+        return downloadingCount;
+    }
+
+    public void increaseDownloading() {
+        downloadingCount++;
+    }
+
+    public void decreaseDownloading() {
+        downloadingCount--;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public double getBytesPerMillis() {
+        return bytesPerMillis;
+    }
+}
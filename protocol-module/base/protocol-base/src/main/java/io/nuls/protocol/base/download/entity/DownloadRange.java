@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.download.entity;
+
+import io.nuls.kernel.model.Block;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 下载窗口中的一段连续高度，记录当前负责下载的节点和下载结果
+ * A contiguous height range of the download window, with the node currently downloading it and the result.
+ *
+ * @author ln
+ */
+public class DownloadRange {
+
+    private final long start;
+    private final long end;
+
+    private DownloadNode node;
+    private DownloadNode lastFailedNode;
+    private CompletableFuture<List<Block>> future;
+    private long requestTime;
+    private int retryCount;
+
+    private List<Block> blockList;
+    private long bytes;
+
+    public DownloadRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public int size() {
+        return (int) (end - start + 1);
+    }
+
+    public DownloadNode getNode() {
+        return node;
+    }
+
+    public void setNode(DownloadNode node) {
+        this.node = node;
+    }
+
+    public DownloadNode getLastFailedNode() {
+        return lastFailedNode;
+    }
+
+    public void setLastFailedNode(DownloadNode lastFailedNode) {
+        this.lastFailedNode = lastFailedNode;
+    }
+
+    public CompletableFuture<List<Block>> getFuture() {
+        return future;
+    }
+
+    public void setFuture(CompletableFuture<List<Block>> future) {
+        this.future = future;
+    }
+
+    public long getRequestTime() {
+        return requestTime;
+    }
+
+    public void setRequestTime(long requestTime) {
+        this.requestTime = requestTime;
+    }
+
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    public void increaseRetryCount() {
+        this.retryCount++;
+    }
+
+    public List<Block> getBlockList() {
+        return blockList;
+    }
+
+    public void setBlockList(List<Block> blockList) {
+        this.blockList = blockList;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
@@ -45,6 +45,7 @@ import io.nuls.protocol.service.BlockService;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author ln
@@ -114,15 +115,16 @@ public class DownloadProcessor extends Thread {
         }
         NulsContext.getInstance().setNetBestBlockHeight(newestInfos.getNetBestHeight());
         BlockingQueue<Block> blockQueue = new LinkedBlockingQueue<>();
+        AtomicLong bufferedBytes = new AtomicLong();
 
-        DownloadThreadManager downloadThreadManager = new DownloadThreadManager(newestInfos, blockQueue);
+        DownloadThreadManager downloadThreadManager = new DownloadThreadManager(newestInfos, blockQueue, bufferedBytes);
 
         FutureTask<Boolean> threadManagerFuture = new FutureTask<>(downloadThreadManager);
 
         TaskManager.createAndRunThread(ProtocolConstant.MODULE_ID_PROTOCOL, "download-thread-manager",
                 new Thread(threadManagerFuture));
 
-        DownloadDataStorage downloadDataStorage = new DownloadDataStorage(blockQueue);
+        DownloadDataStorage downloadDataStorage = new DownloadDataStorage(blockQueue, bufferedBytes);
 
         FutureTask<Boolean> dataStorageFuture = new FutureTask<>(downloadDataStorage);
 
@@ -0,0 +1,369 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.download.thread;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.func.TimeService;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.base.download.entity.DownloadNode;
+import io.nuls.protocol.base.download.entity.DownloadRange;
+import io.nuls.protocol.base.download.utils.DownloadUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 区块下载调度器
+ * 维护一个按高度滑动的下载窗口，窗口中的各段高度按实测吞吐量分配给不同节点并发下载，
+ * 超时的段转交其他节点，已完成的段一旦与已交付的高度连续就立即按高度顺序交给保存队列，
+ * 段的首个区块必须接上已交付的最后一个区块，否则从其他节点重新下载，
+ * 已下载未保存的区块总字节数受MAX_BUFFER_BYTES限制。
+ * <p>
+ * Block download scheduler.
+ * Keeps a sliding window of height ranges in flight, spread across the nodes by measured throughput. Ranges that
+ * exceed their deadline are handed to another node, and finished ranges are passed to the save queue in height order
+ * as soon as they are contiguous with what was delivered before. A range is delivered only when its first block links to
+ * the last delivered block, otherwise it is downloaded again from another node. Downloaded but unsaved blocks are bounded by
+ * MAX_BUFFER_BYTES.
+ *
+ * @author ln
+ */
+public class DownloadScheduler {
+
+    /**
+     * 每次请求的区块数
+     * Blocks per request
+     */
+    private static final int RANGE_SIZE = 20;
+    /**
+     * 每个节点同时下载的最多段数
+     * Max ranges in flight per node
+     */
+    private static final int MAX_DOWNLOADING_PER_NODE = 4;
+    /**
+     * 已下载未保存区块的内存上限
+     * Memory budget of downloaded but unsaved blocks
+     */
+    private static final long MAX_BUFFER_BYTES = 64 * 1024 * 1024L;
+    private static final long DEFAULT_BLOCK_BYTES = 16 * 1024L;
+    private static final long MIN_TIMEOUT = 5 * 1000L;
+    private static final long MAX_TIMEOUT = 60 * 1000L;
+    private static final int MAX_NODE_FAILED_COUNT = 3;
+    private static final int MAX_RANGE_RETRY_COUNT = 10;
+
+    private final List<DownloadNode> nodeList = new ArrayList<>();
+    private final long endHeight;
+    private final Queue<Block> blockQueue;
+    private final AtomicLong bufferedBytes;
+
+    /**
+     * 下一个待分配的高度
+     * Next height not assigned yet
+     */
+    private long nextHeight;
+    /**
+     * 下一个待交付给保存队列的高度
+     * Next height to hand to the save queue
+     */
+    private long deliverHeight;
+    /**
+     * 已交付的最后一个区块的摘要，下一个交付的段必须以它为前一区块
+     * Hash of the last delivered block, the next delivered range must build on it
+     */
+    private NulsDigestData deliverPreHash;
+
+    private final List<DownloadRange> downloadingRanges = new ArrayList<>();
+    private final PriorityQueue<DownloadRange> retryRanges = new PriorityQueue<>(Comparator.comparingLong(DownloadRange::getStart));
+    private final TreeMap<Long, DownloadRange> finishedRanges = new TreeMap<>();
+    private final LinkedBlockingQueue<DownloadRange> doneQueue = new LinkedBlockingQueue<>();
+
+    private double avgBlockBytes = DEFAULT_BLOCK_BYTES;
+
+    /**
+     * @param nodes         参与下载的节点/nodes to download from
+     * @param startHeight   起始高度/first height
+     * @param startPreHash  起始高度的前一区块摘要，即本地最新区块/hash of the block before the first height, the local best block
+     * @param endHeight     结束高度（包含）/last height, inclusive
+     * @param blockQueue    保存队列/the save queue
+     * @param bufferedBytes 已下载未保存的区块字节数，保存线程保存区块后扣减
+     *                      /bytes of downloaded but unsaved blocks, decreased by the saving thread
+     */
+    public DownloadScheduler(List<Node> nodes, long startHeight, NulsDigestData startPreHash, long endHeight, Queue<Block> blockQueue, AtomicLong bufferedBytes) {
+        for (Node node : nodes) {
+            nodeList.add(new DownloadNode(node));
+        }
+        this.nextHeight = startHeight;
+        this.deliverHeight = startHeight;
+        this.deliverPreHash = startPreHash;
+        this.endHeight = endHeight;
+        this.blockQueue = blockQueue;
+        this.bufferedBytes = bufferedBytes;
+    }
+
+    /**
+     * 下载全部区块
+     * Download every block of the range.
+     *
+     * @return 所有节点都无法完成下载时返回false/false when the nodes cannot complete the download
+     */
+    public boolean run() throws InterruptedException {
+        try {
+            while (deliverHeight <= endHeight) {
+                if (nodeList.isEmpty()) {
+                    return false;
+                }
+                assign();
+                DownloadRange range = doneQueue.poll(100L, TimeUnit.MILLISECONDS);
+                while (null != range) {
+                    finish(range);
+                    range = doneQueue.poll();
+                }
+                deliver();
+                if (!checkTimeout()) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            for (DownloadRange range : downloadingRanges) {
+                range.getFuture().cancel(false);
+            }
+            for (DownloadRange range : finishedRanges.values()) {
+                bufferedBytes.addAndGet(-range.getBytes());
+            }
+        }
+    }
+
+    private void assign() {
+        while (true) {
+            DownloadRange range = retryRanges.peek();
+            boolean retry = null != range;
+            if (!retry && (nextHeight > endHeight || !hasBudget())) {
+                return;
+            }
+            DownloadNode node = selectNode(retry ? range.getLastFailedNode() : null);
+            if (null == node) {
+                return;
+            }
+            if (retry) {
+                retryRanges.poll();
+            } else {
+                range = new DownloadRange(nextHeight, Math.min(nextHeight + RANGE_SIZE - 1, endHeight));
+                nextHeight = range.getEnd() + 1;
+            }
+            request(range, node);
+        }
+    }
+
+    /**
+     * 重试的段用于填补已交付高度之后的空缺，不受内存上限限制，新的段只有在预算足够时才分配
+     * Retried ranges fill the hole after the delivered height and are always allowed, new ranges only within budget.
+     */
+    private boolean hasBudget() {
+        long downloadingBytes = 0;
+        for (DownloadRange range : downloadingRanges) {
+            downloadingBytes += (long) (range.size() * avgBlockBytes);
+        }
+        return bufferedBytes.get() + downloadingBytes + (long) (RANGE_SIZE * avgBlockBytes) <= MAX_BUFFER_BYTES;
+    }
+
+    /**
+     * 选择预计最快完成一个新段的节点，尚未测速的节点按最快的速度估计，以便尽快得到测量
+     * Pick the node expected to finish one more range first. Unmeasured nodes are assumed to be as fast as the
+     * fastest one, so they get measured early.
+     */
+    private DownloadNode selectNode(DownloadNode exclude) {
+        double fastest = 1;
+        for (DownloadNode node : nodeList) {
+            fastest = Math.max(fastest, node.getBytesPerMillis());
+        }
+        DownloadNode selected = null;
+        double bestCost = Double.MAX_VALUE;
+        for (DownloadNode node : nodeList) {
+            if (node.getDownloadingCount() >= MAX_DOWNLOADING_PER_NODE || (node == exclude && nodeList.size() > 1)) {
+                continue;
+            }
+            double speed = node.getBytesPerMillis() > 0 ? node.getBytesPerMillis() : fastest;
+            double cost = (node.getDownloadingCount() + 1) / speed;
+            if (cost < bestCost) {
+                bestCost = cost;
+                selected = node;
+            }
+        }
+        return selected;
+    }
+
+    private void request(DownloadRange range, DownloadNode node) {
+        range.setNode(node);
+        range.setRequestTime(TimeService.currentTimeMillis());
+        node.increaseDownloading();
+        downloadingRanges.add(range);
+        range.setFuture(requestBlocks(node.getNode(), range.getStart(), range.getEnd()));
+        range.getFuture().whenComplete((blockList, e) -> doneQueue.offer(range));
+    }
+
+    /**
+     * 向节点请求一段区块
+     * Request a range of blocks from the node.
+     */
+    protected CompletableFuture<List<Block>> requestBlocks(Node node, long startHeight, long endHeight) {
+        return DownloadUtils.requestBlocks(node, startHeight, endHeight);
+    }
+
+    private void finish(DownloadRange range) {
+        // notifications of cancelled requests arrive after the range was handed to another node
+        if (!range.getFuture().isDone() || !downloadingRanges.remove(range)) {
+            return;
+        }
+        DownloadNode node = range.getNode();
+        node.decreaseDownloading();
+        List<Block> blockList = null;
+        try {
+            blockList = range.getFuture().getNow(null);
+        } catch (Exception e) {
+            Log.debug("download blocks " + range.getStart() + "-" + range.getEnd() + " from " + node.getNode().getId() + " failed: " + e.getMessage());
+        }
+        if (!checkBlocks(range, blockList)) {
+            failed(range);
+            return;
+        }
+        long bytes = 0;
+        for (Block block : blockList) {
+            bytes += block.size();
+        }
+        node.finished(bytes, TimeService.currentTimeMillis() - range.getRequestTime());
+        avgBlockBytes = 0.9 * avgBlockBytes + 0.1 * bytes / range.size();
+        range.setBlockList(blockList);
+        range.setBytes(bytes);
+        bufferedBytes.addAndGet(bytes);
+        finishedRanges.put(range.getStart(), range);
+    }
+
+    private boolean checkBlocks(DownloadRange range, List<Block> blockList) {
+        if (null == blockList || blockList.size() != range.size()) {
+            return false;
+        }
+        Block pre = null;
+        for (int i = 0; i < blockList.size(); i++) {
+            Block block = blockList.get(i);
+            if (block.getHeader().getHeight() != range.getStart() + i) {
+                return false;
+            }
+            if (null != pre && !pre.getHeader().getHash().equals(block.getHeader().getPreHash())) {
+                return false;
+            }
+            pre = block;
+        }
+        return true;
+    }
+
+    private void failed(DownloadRange range) {
+        DownloadNode node = range.getNode();
+        node.failed();
+        if (node.getFailedCount() >= MAX_NODE_FAILED_COUNT && nodeList.remove(node)) {
+            Log.info("stop downloading from " + node.getNode().getId() + ", too many failures");
+        }
+        range.setNode(null);
+        range.setLastFailedNode(node);
+        range.increaseRetryCount();
+        retryRanges.offer(range);
+    }
+
+    /**
+     * 将超时的段转交其他节点；阻塞交付的段在后面已有完成的段时使用更短的期限
+     * Hand ranges past their deadline to other nodes. The range blocking delivery gets a shorter deadline once later
+     * ranges are already waiting behind it.
+     *
+     * @return 某段重试次数过多时返回false/false when a range was retried too often
+     */
+    private boolean checkTimeout() {
+        long now = TimeService.currentTimeMillis();
+        Iterator<DownloadRange> iterator = downloadingRanges.iterator();
+        List<DownloadRange> timeoutList = new ArrayList<>();
+        while (iterator.hasNext()) {
+            DownloadRange range = iterator.next();
+            if (now - range.getRequestTime() > getTimeout(range)) {
+                iterator.remove();
+                timeoutList.add(range);
+            }
+        }
+        for (DownloadRange range : timeoutList) {
+            Log.info("download blocks " + range.getStart() + "-" + range.getEnd() + " from " + range.getNode().getNode().getId() + " timeout, reassign");
+            range.getNode().decreaseDownloading();
+            range.getFuture().cancel(false);
+            failed(range);
+        }
+        for (DownloadRange range : retryRanges) {
+            if (range.getRetryCount() > MAX_RANGE_RETRY_COUNT) {
+                Log.warn("download blocks " + range.getStart() + "-" + range.getEnd() + " failed too many times");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long getTimeout(DownloadRange range) {
+        double speed = range.getNode().getBytesPerMillis();
+        if (speed <= 0) {
+            return MAX_TIMEOUT / 2;
+        }
+        long expected = (long) (range.size() * avgBlockBytes / speed);
+        boolean blocking = range.getStart() == deliverHeight && !finishedRanges.isEmpty();
+        long timeout = blocking ? expected * 2 : expected * 3;
+        return Math.max(MIN_TIMEOUT, Math.min(MAX_TIMEOUT, timeout));
+    }
+
+    /**
+     * 按高度顺序交付已完成的段，段内的连续性在完成时已检查，段与段之间的连接在交付时检查：
+     * 首个区块接不上已交付区块的段被丢弃并重新下载
+     * Deliver finished ranges in height order. Continuity inside a range is checked when it finishes, the link
+     * between ranges here: a range whose first block does not build on the last delivered block is dropped and
+     * downloaded again.
+     */
+    private void deliver() {
+        DownloadRange range;
+        while (null != (range = finishedRanges.remove(deliverHeight))) {
+            List<Block> blockList = range.getBlockList();
+            if (null != deliverPreHash && !deliverPreHash.equals(blockList.get(0).getHeader().getPreHash())) {
+                Log.debug("download blocks " + range.getStart() + "-" + range.getEnd() + " from " + range.getNode().getNode().getId() + " not linked to the previous block");
+                bufferedBytes.addAndGet(-range.getBytes());
+                range.setBlockList(null);
+                range.setBytes(0);
+                failed(range);
+                return;
+            }
+            for (Block block : blockList) {
+                blockQueue.offer(block);
+            }
+            deliverPreHash = blockList.get(blockList.size() - 1).getHeader().getHash();
+            deliverHeight = range.getEnd() + 1;
+        }
+    }
+}
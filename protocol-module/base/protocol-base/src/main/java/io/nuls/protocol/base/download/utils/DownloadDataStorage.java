@@ -32,6 +32,7 @@ import io.nuls.kernel.model.Block;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by ln on 2018/4/8.
@@ -39,14 +40,14 @@ import java.util.concurrent.Callable;
 public class DownloadDataStorage implements Callable<Boolean> {
 
     private BlockingQueue<Block> blockQueue;
-    private String queueName;
+    private AtomicLong bufferedBytes;
     private boolean running = true;
 
     private ConsensusService consensusService = NulsContext.getServiceBean(ConsensusService.class);
 
-    public DownloadDataStorage(BlockingQueue<Block> blockQueue) {
+    public DownloadDataStorage(BlockingQueue<Block> blockQueue, AtomicLong bufferedBytes) {
         this.blockQueue = blockQueue;
-        this.queueName = queueName;
+        this.bufferedBytes = bufferedBytes;
     }
 
     @Override
@@ -57,7 +58,9 @@ public class DownloadDataStorage implements Callable<Boolean> {
                 if (block.getHeader() == null) {
                     break;
                 }
+                int size = block.size();
                 consensusService.addBlock(block);
+                bufferedBytes.addAndGet(-size);
             }
             return true;
         } catch (InterruptedException e) {
@@ -26,7 +26,9 @@
 package io.nuls.protocol.base.download.utils;
 
 import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.exception.NulsRuntimeException;
 import io.nuls.kernel.model.Block;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Result;
@@ -42,6 +44,7 @@ import io.nuls.protocol.model.TxGroup;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -153,6 +156,68 @@ public class DownloadUtils {
         return resultList;
     }
 
+    /**
+     * 异步获取一段高度的区块，返回的future在全部区块到达后完成，对方找不到区块或发送失败时异常完成，
+     * 取消future会移除本次请求注册的所有回调
+     * Request the blocks of a height range without blocking. The future completes once every block has arrived and
+     * completes exceptionally when the peer cannot serve the range or the request cannot be sent. Cancelling the
+     * future removes every callback registered for the request.
+     *
+     * @param node        对等节点/peer to download from
+     * @param startHeight 起始高度/first height
+     * @param endHeight   结束高度（包含）/last height, inclusive
+     * @return 按高度排列的区块/blocks in height order
+     */
+    public static CompletableFuture<List<Block>> requestBlocks(Node node, long startHeight, long endHeight) {
+        CompletableFuture<List<Block>> result = new CompletableFuture<>();
+        GetBlocksByHeightMessage message = new GetBlocksByHeightMessage(startHeight, endHeight);
+        NulsDigestData requestHash;
+        try {
+            requestHash = NulsDigestData.calcDigestData(message.getMsgBody().serialize());
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        List<NulsDigestData> heightHashList = new ArrayList<>();
+        List<CompletableFuture<Block>> blockFutures = new ArrayList<>();
+        for (long i = startHeight; i <= endHeight; i++) {
+            NulsDigestData hash = NulsDigestData.calcDigestData(SerializeUtils.uint64ToByteArray(i));
+            heightHashList.add(hash);
+            blockFutures.add(ProtocolCacheHandler.addGetBlockByHeightRequest(hash));
+        }
+        CompletableFuture<CompleteParam> taskFuture = ProtocolCacheHandler.addTaskRequest(requestHash);
+        result.whenComplete((blocks, e) -> {
+            ProtocolCacheHandler.removeTaskFuture(requestHash);
+            for (NulsDigestData hash : heightHashList) {
+                ProtocolCacheHandler.removeBlockByHeightFuture(hash);
+            }
+        });
+        taskFuture.thenAccept(param -> {
+            if (null == param || !param.isSuccess()) {
+                result.completeExceptionally(new NulsRuntimeException(KernelErrorCode.DATA_NOT_FOUND));
+            }
+        });
+        CompletableFuture.allOf(blockFutures.toArray(new CompletableFuture[blockFutures.size()])).thenRun(() -> {
+            List<Block> blockList = new ArrayList<>(blockFutures.size());
+            for (CompletableFuture<Block> future : blockFutures) {
+                Block block = future.join();
+                if (null == block) {
+                    result.completeExceptionally(new NulsRuntimeException(KernelErrorCode.DATA_NOT_FOUND));
+                    return;
+                }
+                blockList.add(block);
+            }
+            result.complete(blockList);
+        });
+
+        Result sendResult = messageBusService.sendToNode(message, node, false);
+        if (!sendResult.isSuccess()) {
+            result.completeExceptionally(new NulsRuntimeException(KernelErrorCode.FAILED));
+        }
+        return result;
+    }
+
     public static List<NulsDigestData> getBlocksHash(Node node, long startHeight, long endHeight) {
 
         if(node == null || startHeight < 0L || endHeight < 0L || startHeight > endHeight) {
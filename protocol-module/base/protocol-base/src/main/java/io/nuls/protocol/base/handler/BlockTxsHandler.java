@@ -0,0 +1,64 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.handler;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.message.bus.handler.AbstractMessageHandler;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.base.utils.CompactBlockUtil;
+import io.nuls.protocol.cache.TemporaryCacheManager;
+import io.nuls.protocol.message.BlockTxsMessage;
+import io.nuls.protocol.model.CompactBlock;
+import io.nuls.protocol.model.TxGroup;
+
+/**
+ * 接收紧凑区块缺少的交易，补全后组装区块
+ * Receives the transactions a compact block was missing and assembles the block.
+ *
+ * @author Niels
+ */
+public class BlockTxsHandler extends AbstractMessageHandler<BlockTxsMessage> {
+
+    private TemporaryCacheManager temporaryCacheManager = TemporaryCacheManager.getInstance();
+
+    @Override
+    public void onMessage(BlockTxsMessage message, Node fromNode) {
+        TxGroup txGroup = message.getMsgBody();
+        if (null == txGroup) {
+            Log.warn("recieved a null block txs form " + fromNode.getId());
+            return;
+        }
+        CompactBlock compactBlock = temporaryCacheManager.takeCompactBlockByRequest(txGroup.getRequestHash());
+        if (null == compactBlock) {
+            return;
+        }
+        if (!CompactBlockUtil.fill(compactBlock, txGroup.getTxList())) {
+            CompactBlockHandler.requestSmallBlock(compactBlock.getHeader().getHash(), fromNode);
+            return;
+        }
+        CompactBlockHandler.newBlock(compactBlock, fromNode);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.handler;
+
+import io.nuls.consensus.service.ConsensusService;
+import io.nuls.core.tools.crypto.Hex;
+import io.nuls.core.tools.log.BlockLog;
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.constant.TransactionErrorCode;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Result;
+import io.nuls.kernel.validate.ValidateResult;
+import io.nuls.message.bus.handler.AbstractMessageHandler;
+import io.nuls.message.bus.service.MessageBusService;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.base.utils.CompactBlockUtil;
+import io.nuls.protocol.cache.TemporaryCacheManager;
+import io.nuls.protocol.message.CompactBlockMessage;
+import io.nuls.protocol.message.GetBlockTxsMessage;
+import io.nuls.protocol.message.GetSmallBlockMessage;
+import io.nuls.protocol.model.CompactBlock;
+import io.nuls.protocol.model.GetBlockTxsParam;
+import io.nuls.protocol.service.BlockService;
+import io.nuls.protocol.utils.SmallBlockDuplicateRemoval;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 接收紧凑区块，用交易池和临时缓存中的交易还原区块，缺少的交易按序号向对方获取，
+ * 短标识冲突或还原结果与默克尔根不符时改为获取携带完整摘要的小区块
+ * Receives compact blocks and rebuilds them from the memory pool and the temporary tx cache. Missing transactions are
+ * fetched from the peer by index; on a short id collision or a merkle mismatch the SmallBlock with full hashes is
+ * requested instead.
+ *
+ * @author Niels
+ */
+public class CompactBlockHandler extends AbstractMessageHandler<CompactBlockMessage> {
+
+    private ConsensusService consensusService = NulsContext.getServiceBean(ConsensusService.class);
+    private BlockService blockService = NulsContext.getServiceBean(BlockService.class);
+    private TemporaryCacheManager temporaryCacheManager = TemporaryCacheManager.getInstance();
+
+    @Override
+    public void onMessage(CompactBlockMessage event, Node fromNode) {
+        CompactBlock compactBlock = event.getMsgBody();
+        if (null == compactBlock) {
+            Log.warn("recieved a null compactBlock!");
+            return;
+        }
+
+        BlockHeader header = compactBlock.getHeader();
+
+        if (!SmallBlockDuplicateRemoval.needProcess(header.getHash())) {
+            return;
+        }
+
+        BlockHeader theBlockHeader = blockService.getBlockHeader(header.getHash()).getData();
+        if (null != theBlockHeader) {
+            return;
+        }
+
+        ValidateResult result = header.verify();
+        boolean isOrphan = result.getErrorCode() == TransactionErrorCode.ORPHAN_TX || result.getErrorCode() == TransactionErrorCode.ORPHAN_BLOCK;
+        BlockLog.debug("recieve new compact block from(" + fromNode.getId() + "), tx count : " + header.getTxCount() + " , header height:" + header.getHeight() + ", preHash:" + header.getPreHash() + " , hash:" + header.getHash() + ", addressHex:" + Hex.encode(header.getPackingAddress()) +
+                "\n and verify block result: " + result.isSuccess() + " , verify message : " + result.getMsg() + " , isOrphan : " + isOrphan);
+
+        if (result.isFailed() && !isOrphan) {
+            BlockLog.debug("discard a CompactBlock:" + header.getHash() + ", from:" + fromNode.getId() + " ,reason:" + result.getMsg());
+            return;
+        }
+        if (compactBlock.getShortIdList().isEmpty() || compactBlock.getShortIdList().size() != header.getTxCount()) {
+            BlockLog.debug("discard a CompactBlock:" + header.getHash() + ", from:" + fromNode.getId() + " ,reason: wrong short id count");
+            return;
+        }
+
+        List<Integer> missingList = CompactBlockUtil.resolve(compactBlock, consensusService.getMemoryTxs(), temporaryCacheManager.getTxs());
+        if (null == missingList) {
+            requestSmallBlock(header.getHash(), fromNode);
+            return;
+        }
+        if (missingList.isEmpty()) {
+            newBlock(compactBlock, fromNode);
+            return;
+        }
+
+        Log.info("block height : " + header.getHeight() + ", tx count : " + header.getTxCount() + " , get block txs of " + missingList.size());
+        GetBlockTxsParam param = new GetBlockTxsParam();
+        param.setBlockHash(header.getHash());
+        param.setIndexList(missingList);
+        NulsDigestData requestHash;
+        try {
+            requestHash = NulsDigestData.calcDigestData(param.serialize());
+        } catch (IOException e) {
+            Log.error(e);
+            return;
+        }
+        temporaryCacheManager.cacheCompactBlockWithRequest(requestHash, compactBlock);
+        GetBlockTxsMessage request = new GetBlockTxsMessage();
+        request.setMsgBody(param);
+        Result sendResult = this.messageBusService.sendToNode(request, fromNode, true);
+        if (sendResult.isFailed()) {
+            Log.warn("get block txs failed,height:" + header.getHeight());
+            temporaryCacheManager.takeCompactBlockByRequest(requestHash);
+            SmallBlockDuplicateRemoval.removeProcessed(header.getHash());
+        }
+    }
+
+    /**
+     * 组装完全还原的紧凑区块并交给共识模块，默克尔根不符时改为获取小区块
+     * Hand a fully resolved compact block to the consensus module, or request the SmallBlock on a merkle mismatch.
+     */
+    static void newBlock(CompactBlock compactBlock, Node fromNode) {
+        Block block = CompactBlockUtil.assemblyBlock(compactBlock);
+        if (null == block) {
+            requestSmallBlock(compactBlock.getHeader().getHash(), fromNode);
+            return;
+        }
+        NulsContext.getServiceBean(ConsensusService.class).newBlock(block, fromNode);
+    }
+
+    /**
+     * 紧凑区块无法还原，改为向对方获取携带完整交易摘要的小区块
+     * The compact block cannot be rebuilt, request the SmallBlock with the full transaction hashes instead.
+     */
+    static void requestSmallBlock(NulsDigestData blockHash, Node fromNode) {
+        BlockLog.debug("compact block " + blockHash + " from " + fromNode.getId() + " cannot be rebuilt, request the small block");
+        SmallBlockDuplicateRemoval.removeProcessed(blockHash);
+        GetSmallBlockMessage message = new GetSmallBlockMessage();
+        message.setMsgBody(blockHash);
+        Result result = NulsContext.getServiceBean(MessageBusService.class).sendToNode(message, fromNode, true);
+        if (result.isFailed()) {
+            Log.warn("get small block failed, hash:" + blockHash);
+        }
+    }
+}
@@ -30,8 +30,11 @@ import io.nuls.kernel.model.Result;
 import io.nuls.message.bus.handler.AbstractMessageHandler;
 import io.nuls.message.bus.service.MessageBusService;
 import io.nuls.network.model.Node;
+import io.nuls.protocol.base.utils.PeerVersionUtil;
+import io.nuls.protocol.message.base.BaseMessage;
 import io.nuls.protocol.utils.SmallBlockDuplicateRemoval;
 import io.nuls.protocol.message.ForwardSmallBlockMessage;
+import io.nuls.protocol.message.GetCompactBlockMessage;
 import io.nuls.protocol.message.GetSmallBlockMessage;
 
 /**
@@ -50,9 +53,17 @@ public class ForwardSmallBlockHandler extends AbstractMessageHandler<ForwardSmal
         if (!SmallBlockDuplicateRemoval.needDownloadSmallBlock(hash)) {
             return;
         }
-        GetSmallBlockMessage getSmallBlockMessage = new GetSmallBlockMessage();
-        getSmallBlockMessage.setMsgBody(hash);
-        Result result = messageBusService.sendToNode(getSmallBlockMessage, fromNode, true);
+        BaseMessage getBlockMessage;
+        if (PeerVersionUtil.supportsCompactBlock(fromNode)) {
+            GetCompactBlockMessage getCompactBlockMessage = new GetCompactBlockMessage();
+            getCompactBlockMessage.setMsgBody(hash);
+            getBlockMessage = getCompactBlockMessage;
+        } else {
+            GetSmallBlockMessage getSmallBlockMessage = new GetSmallBlockMessage();
+            getSmallBlockMessage.setMsgBody(hash);
+            getBlockMessage = getSmallBlockMessage;
+        }
+        Result result = messageBusService.sendToNode(getBlockMessage, fromNode, true);
         if (result.isFailed()) {
             SmallBlockDuplicateRemoval.removeForward(hash);
             return;
@@ -29,6 +29,7 @@ import io.nuls.kernel.model.Result;
 import io.nuls.message.bus.handler.AbstractMessageHandler;
 import io.nuls.network.model.Node;
 import io.nuls.protocol.base.cache.TransactionDuplicateRemoval;
+import io.nuls.protocol.base.cache.TxInventoryCache;
 import io.nuls.protocol.cache.TemporaryCacheManager;
 import io.nuls.protocol.message.ForwardTxMessage;
 import io.nuls.protocol.message.GetTxMessage;
@@ -47,6 +48,7 @@ public class ForwardTxMessageHandler extends AbstractMessageHandler<ForwardTxMes
             return;
         }
         NulsDigestData hash = message.getMsgBody();
+        TxInventoryCache.getInstance().markKnown(fromNode, hash);
         boolean consains = TransactionDuplicateRemoval.mightContain(hash);
         if (consains) {
             return;
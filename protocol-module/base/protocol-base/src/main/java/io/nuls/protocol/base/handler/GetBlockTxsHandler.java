@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.handler;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.message.bus.handler.AbstractMessageHandler;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.cache.TemporaryCacheManager;
+import io.nuls.protocol.message.BlockTxsMessage;
+import io.nuls.protocol.message.GetBlockTxsMessage;
+import io.nuls.protocol.model.GetBlockTxsParam;
+import io.nuls.protocol.model.SmallBlock;
+import io.nuls.protocol.model.TxGroup;
+import io.nuls.protocol.service.TransactionService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按区块内序号应答紧凑区块缺少的交易，区块来自本节点缓存的小区块
+ * Answers the transactions a compact block is missing by their index, using the SmallBlock cached by this node.
+ *
+ * @author Niels
+ */
+public class GetBlockTxsHandler extends AbstractMessageHandler<GetBlockTxsMessage> {
+
+    private TemporaryCacheManager cacheManager = TemporaryCacheManager.getInstance();
+    private TransactionService transactionService = NulsContext.getServiceBean(TransactionService.class);
+
+    @Override
+    public void onMessage(GetBlockTxsMessage message, Node fromNode) {
+        if (message == null || fromNode == null || null == message.getMsgBody()) {
+            return;
+        }
+        GetBlockTxsParam param = message.getMsgBody();
+        SmallBlock smallBlock = cacheManager.getSmallBlockByHash(param.getBlockHash());
+        if (null == smallBlock) {
+            return;
+        }
+        List<NulsDigestData> txHashList = smallBlock.getTxHashList();
+        List<Integer> indexList = param.getIndexList();
+        if (indexList.isEmpty() || indexList.size() > txHashList.size()) {
+            return;
+        }
+        NulsDigestData requestHash;
+        try {
+            requestHash = NulsDigestData.calcDigestData(param.serialize());
+        } catch (IOException e) {
+            Log.error(e);
+            return;
+        }
+        Map<NulsDigestData, Transaction> subTxMap = new HashMap<>();
+        for (Transaction tx : smallBlock.getSubTxList()) {
+            subTxMap.put(tx.getHash(), tx);
+        }
+        List<Transaction> txList = new ArrayList<>(indexList.size());
+        for (Integer index : indexList) {
+            if (index < 0 || index >= txHashList.size()) {
+                return;
+            }
+            NulsDigestData hash = txHashList.get(index);
+            Transaction tx = subTxMap.get(hash);
+            if (null == tx) {
+                tx = transactionService.getTx(hash);
+            }
+            if (null == tx) {
+                Log.warn("the tx of block txs request not found, hash:" + hash);
+                return;
+            }
+            txList.add(tx);
+        }
+        TxGroup txGroup = new TxGroup();
+        txGroup.setRequestHash(requestHash);
+        txGroup.setTxList(txList);
+        BlockTxsMessage blockTxsMessage = new BlockTxsMessage();
+        blockTxsMessage.setMsgBody(txGroup);
+        messageBusService.sendToNode(blockTxsMessage, fromNode, true);
+    }
+}
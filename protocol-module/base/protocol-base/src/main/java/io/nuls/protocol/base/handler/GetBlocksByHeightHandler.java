@@ -33,6 +33,8 @@ import io.nuls.kernel.model.Result;
 import io.nuls.message.bus.handler.AbstractMessageHandler;
 import io.nuls.message.bus.service.MessageBusService;
 import io.nuls.network.model.Node;
+import io.nuls.network.service.NetworkService;
+import io.nuls.protocol.base.cache.SerializedBlockCache;
 import io.nuls.protocol.constant.MessageDataType;
 import io.nuls.protocol.message.*;
 import io.nuls.protocol.model.CompleteParam;
@@ -43,13 +45,26 @@ import io.nuls.protocol.service.BlockService;
 import java.io.IOException;
 
 /**
+ * 按高度从低到高逐个读取并立即发送区块，每个区块的交易一次批量读取，
+ * 连接不可写时暂停读取，最近发送过的区块从共享缓存中直接取序列化结果
+ * Serve the range in ascending height order, sending every block as soon as it is read with its transactions fetched in one batch.
+ * Reading pauses while the channel is not writable and recently served blocks come straight from the shared serialized cache.
+ *
  * @author facjas
  */
 public class GetBlocksByHeightHandler extends AbstractMessageHandler<GetBlocksByHeightMessage> {
 
     private static final int MAX_SIZE = 1000;
+
+    /**
+     * 等待连接恢复可写的最长时间，超时后放弃本次请求
+     * Max time to wait for the channel to drain, the request is dropped afterwards
+     */
+    private static final long WRITABLE_TIMEOUT = 30 * 1000L;
+
     private BlockService blockService = NulsContext.getServiceBean(BlockService.class);
     private MessageBusService messageBusService = NulsContext.getServiceBean(MessageBusService.class);
+    private NetworkService networkService = NulsContext.getServiceBean(NetworkService.class);
 
     @Override
     public void onMessage(GetBlocksByHeightMessage message, Node fromNode) {
@@ -76,28 +91,19 @@ public class GetBlocksByHeightHandler extends AbstractMessageHandler<GetBlocksBy
         // react request
         messageBusService.sendToNode(new ReactMessage(requestHash), fromNode, true);
 
-        BlockHeader startBlockHeader = blockService.getBlockHeader(param.getStartHeight()).getData();
-        if(startBlockHeader == null) {
-            sendNotFound(requestHash, fromNode);
-            return;
-        }
-        Block endBlock = blockService.getBlock(param.getEndHeight()).getData();
-        if(endBlock == null) {
-            sendNotFound(requestHash, fromNode);
-            return;
-        }
-
-        Block block = endBlock;
-        while(true) {
-            sendBlock(block, fromNode);
-            if(block.getHeader().getHash().equals(startBlockHeader.getHash())) {
-                break;
-            }
-            Result<Block> result = blockService.getBlock(block.getHeader().getPreHash());
-            if (result.isFailed() || (block = result.getData()) == null) {
+        for (long height = param.getStartHeight(); height <= param.getEndHeight(); height++) {
+            byte[] blockBytes = getBlockBytes(height);
+            if (blockBytes == null) {
                 sendNotFound(requestHash, fromNode);
                 return;
             }
+            if (!networkService.awaitWritable(fromNode, WRITABLE_TIMEOUT)) {
+                Log.warn("channel not writable, stop sending blocks:" + fromNode.getId() + ",height:" + height);
+                return;
+            }
+            if (!sendBlock(blockBytes, height, fromNode)) {
+                return;
+            }
         }
 
         CompleteMessage completeMessage = new CompleteMessage();
@@ -105,6 +111,33 @@ public class GetBlocksByHeightHandler extends AbstractMessageHandler<GetBlocksBy
         messageBusService.sendToNode(completeMessage, fromNode, true);
     }
 
+    /**
+     * 获取主链上指定高度区块的序列化结果，优先使用缓存
+     * Get the serialized main chain block at the height, the cache is consulted first
+     */
+    private byte[] getBlockBytes(long height) {
+        BlockHeader header = blockService.getBlockHeader(height).getData();
+        if (header == null) {
+            return null;
+        }
+        byte[] blockBytes = SerializedBlockCache.get(header.getHash());
+        if (blockBytes != null) {
+            return blockBytes;
+        }
+        Block block = blockService.getBlock(height).getData();
+        if (block == null) {
+            return null;
+        }
+        try {
+            blockBytes = block.serialize();
+        } catch (IOException | RuntimeException e) {
+            Log.error(e);
+            return null;
+        }
+        SerializedBlockCache.put(block.getHeader().getHash(), blockBytes);
+        return blockBytes;
+    }
+
     private void sendNotFound(NulsDigestData hash, Node node) {
         NotFoundMessage message = new NotFoundMessage();
         NotFound data = new NotFound(MessageDataType.BLOCKS, hash);
@@ -115,12 +148,12 @@ public class GetBlocksByHeightHandler extends AbstractMessageHandler<GetBlocksBy
         }
     }
 
-    private void sendBlock(Block block, Node fromNode) {
-        BlockMessage blockMessage = new BlockMessage();
-        blockMessage.setMsgBody(block);
-        Result result = this.messageBusService.sendToNode(blockMessage, fromNode, true);
+    private boolean sendBlock(byte[] blockBytes, long height, Node fromNode) {
+        Result result = this.messageBusService.sendToNode(new BlockMessage(blockBytes), fromNode, true);
         if (result.isFailed()) {
-            Log.warn("send block failed:" + fromNode.getId() + ",height:" + block.getHeader().getHeight());
+            Log.warn("send block failed:" + fromNode.getId() + ",height:" + height);
+            return false;
         }
+        return true;
     }
 }
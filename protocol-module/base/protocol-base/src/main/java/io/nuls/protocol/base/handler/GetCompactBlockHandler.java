@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.handler;
+
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.message.bus.handler.AbstractMessageHandler;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.base.utils.CompactBlockUtil;
+import io.nuls.protocol.cache.TemporaryCacheManager;
+import io.nuls.protocol.message.CompactBlockMessage;
+import io.nuls.protocol.message.GetCompactBlockMessage;
+import io.nuls.protocol.message.SmallBlockMessage;
+import io.nuls.protocol.model.CompactBlock;
+import io.nuls.protocol.model.SmallBlock;
+
+/**
+ * 应答紧凑区块请求，区块内短标识冲突时改为应答小区块
+ * Answers a compact block request, with the SmallBlock when the short ids of the block collide.
+ *
+ * @author Niels
+ */
+public class GetCompactBlockHandler extends AbstractMessageHandler<GetCompactBlockMessage> {
+
+    private TemporaryCacheManager cacheManager = TemporaryCacheManager.getInstance();
+
+    @Override
+    public void onMessage(GetCompactBlockMessage message, Node fromNode) {
+        if (message == null || fromNode == null || null == message.getMsgBody()) {
+            return;
+        }
+        NulsDigestData blockHash = message.getMsgBody();
+        SmallBlock smallBlock = cacheManager.getSmallBlockByHash(blockHash);
+        if (null == smallBlock) {
+            return;
+        }
+        CompactBlock compactBlock = CompactBlockUtil.toCompactBlock(smallBlock);
+        if (null == compactBlock) {
+            messageBusService.sendToNode(new SmallBlockMessage(smallBlock), fromNode, true);
+            return;
+        }
+        CompactBlockMessage compactBlockMessage = new CompactBlockMessage();
+        compactBlockMessage.setMsgBody(compactBlock);
+        messageBusService.sendToNode(compactBlockMessage, fromNode, true);
+    }
+}
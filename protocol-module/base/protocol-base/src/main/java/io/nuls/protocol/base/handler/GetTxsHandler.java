@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.handler;
+
+import io.nuls.core.tools.log.Log;
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.message.bus.handler.AbstractMessageHandler;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.constant.ProtocolConstant;
+import io.nuls.protocol.message.GetTxsMessage;
+import io.nuls.protocol.message.TxsMessage;
+import io.nuls.protocol.model.GetTxGroupParam;
+import io.nuls.protocol.model.TxGroup;
+import io.nuls.protocol.service.TransactionService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 应答批量交易请求，只返回本节点拥有的交易，按MAX_TXS_MESSAGE_BYTES分成多个TxsMessage
+ * Answers a batch transaction request with the transactions this node has, split into TxsMessage of at most MAX_TXS_MESSAGE_BYTES.
+ *
+ * @author Niels
+ */
+public class GetTxsHandler extends AbstractMessageHandler<GetTxsMessage> {
+
+    private TransactionService transactionService = NulsContext.getServiceBean(TransactionService.class);
+
+    @Override
+    public void onMessage(GetTxsMessage message, Node fromNode) {
+        if (message == null || fromNode == null || null == message.getMsgBody()) {
+            return;
+        }
+        GetTxGroupParam param = message.getMsgBody();
+        List<NulsDigestData> hashList = param.getTxHashList();
+        if (hashList == null || hashList.isEmpty() || hashList.size() > ProtocolConstant.MAX_TX_INVENTORY_SIZE) {
+            return;
+        }
+        NulsDigestData requestHash;
+        try {
+            requestHash = NulsDigestData.calcDigestData(param.serialize());
+        } catch (IOException e) {
+            Log.error(e);
+            return;
+        }
+        List<Transaction> txList = new ArrayList<>();
+        int bytes = 0;
+        for (NulsDigestData hash : hashList) {
+            Transaction tx = transactionService.getTx(hash);
+            if (null == tx) {
+                continue;
+            }
+            int size = tx.size();
+            if (!txList.isEmpty() && bytes + size > ProtocolConstant.MAX_TXS_MESSAGE_BYTES) {
+                sendTxs(requestHash, txList, fromNode);
+                txList = new ArrayList<>();
+                bytes = 0;
+            }
+            txList.add(tx);
+            bytes += size;
+        }
+        if (!txList.isEmpty()) {
+            sendTxs(requestHash, txList, fromNode);
+        }
+    }
+
+    private void sendTxs(NulsDigestData requestHash, List<Transaction> txList, Node node) {
+        TxGroup txGroup = new TxGroup();
+        txGroup.setRequestHash(requestHash);
+        txGroup.setTxList(txList);
+        TxsMessage txsMessage = new TxsMessage();
+        txsMessage.setMsgBody(txGroup);
+        messageBusService.sendToNode(txsMessage, node, true);
+    }
+
+}
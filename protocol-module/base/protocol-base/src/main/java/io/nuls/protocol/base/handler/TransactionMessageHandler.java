@@ -30,6 +30,7 @@ import io.nuls.kernel.model.Transaction;
 import io.nuls.message.bus.handler.AbstractMessageHandler;
 import io.nuls.network.model.Node;
 import io.nuls.protocol.base.cache.TransactionDuplicateRemoval;
+import io.nuls.protocol.base.cache.TxInventoryCache;
 import io.nuls.protocol.message.TransactionMessage;
 import io.nuls.protocol.service.TransactionService;
 
@@ -55,6 +56,7 @@ public class TransactionMessageHandler extends AbstractMessageHandler<Transactio
         }
         NulsDigestData hash = tx.getHash();
         TransactionDuplicateRemoval.insert(hash);
+        TxInventoryCache.getInstance().markKnown(fromNode, hash);
         transactionService.newTx(tx);
     }
 
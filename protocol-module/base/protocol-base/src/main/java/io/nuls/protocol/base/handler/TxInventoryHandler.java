@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.handler;
+
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.message.bus.handler.AbstractMessageHandler;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.base.cache.TransactionDuplicateRemoval;
+import io.nuls.protocol.base.cache.TxInventoryCache;
+import io.nuls.protocol.message.GetTxsMessage;
+import io.nuls.protocol.message.TxInventoryMessage;
+import io.nuls.protocol.model.GetTxGroupParam;
+
+/**
+ * 处理交易清单，用一个GetTxsMessage向通告节点请求本节点缺少的全部交易
+ * Handles a transaction inventory, all the transactions this node is missing are requested with one GetTxsMessage.
+ *
+ * @author Niels
+ */
+public class TxInventoryHandler extends AbstractMessageHandler<TxInventoryMessage> {
+
+    @Override
+    public void onMessage(TxInventoryMessage message, Node fromNode) {
+        if (message == null || fromNode == null || !fromNode.isHandShake() || null == message.getMsgBody()) {
+            return;
+        }
+        GetTxGroupParam param = new GetTxGroupParam();
+        for (NulsDigestData hash : message.getMsgBody().getTxHashList()) {
+            TxInventoryCache.getInstance().markKnown(fromNode, hash);
+            if (TransactionDuplicateRemoval.mightContain(hash)) {
+                continue;
+            }
+            TransactionDuplicateRemoval.insert(hash);
+            param.addHash(hash);
+        }
+        if (param.getTxHashList().isEmpty()) {
+            return;
+        }
+        GetTxsMessage getTxsMessage = new GetTxsMessage();
+        getTxsMessage.setMsgBody(param);
+        messageBusService.sendToNode(getTxsMessage, fromNode, true);
+    }
+
+}
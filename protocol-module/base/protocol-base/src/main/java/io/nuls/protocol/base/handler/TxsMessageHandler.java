@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.handler;
+
+import io.nuls.kernel.context.NulsContext;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.message.bus.handler.AbstractMessageHandler;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.base.cache.TransactionDuplicateRemoval;
+import io.nuls.protocol.base.cache.TxInventoryCache;
+import io.nuls.protocol.message.TxsMessage;
+import io.nuls.protocol.model.TxGroup;
+import io.nuls.protocol.service.TransactionService;
+
+/**
+ * 处理批量获取到的交易，逐笔交给交易服务处理
+ * Handles a batch of fetched transactions, each one is passed to the transaction service.
+ *
+ * @author Niels
+ */
+public class TxsMessageHandler extends AbstractMessageHandler<TxsMessage> {
+
+    private TransactionService transactionService = NulsContext.getServiceBean(TransactionService.class);
+
+    @Override
+    public void onMessage(TxsMessage message, Node fromNode) {
+        TxGroup txGroup = message.getMsgBody();
+        if (null == txGroup || null == txGroup.getTxList()) {
+            return;
+        }
+        for (Transaction tx : txGroup.getTxList()) {
+            if (null == tx || tx.isSystemTx()) {
+                continue;
+            }
+            TransactionDuplicateRemoval.insert(tx.getHash());
+            TxInventoryCache.getInstance().markKnown(fromNode, tx.getHash());
+            transactionService.newTx(tx);
+        }
+    }
+
+}
@@ -36,6 +36,7 @@ import io.nuls.kernel.utils.TransactionManager;
 import io.nuls.message.bus.constant.MessageBusConstant;
 import io.nuls.message.bus.service.MessageBusService;
 import io.nuls.network.constant.NetworkConstant;
+import io.nuls.protocol.base.cache.TxInventoryCache;
 import io.nuls.protocol.base.handler.*;
 import io.nuls.protocol.base.service.DownloadServiceImpl;
 import io.nuls.protocol.message.*;
@@ -54,8 +55,8 @@ public class BaseProtocolsModuleBootstrap extends AbstractProtocolModule {
 
     @Override
     public void init() {
-        TransactionManager.putTx(CoinBaseTransaction.class, null);
-        TransactionManager.putTx(TransferTransaction.class, null);
+        TransactionManager.putTx(CoinBaseTransaction.class, null, CoinBaseTransaction::new);
+        TransactionManager.putTx(TransferTransaction.class, null, TransferTransaction::new);
     }
 
     @Override
@@ -63,6 +64,7 @@ public class BaseProtocolsModuleBootstrap extends AbstractProtocolModule {
         this.waitForDependencyRunning(MessageBusConstant.MODULE_ID_MESSAGE_BUS);
         this.waitForDependencyInited(ConsensusConstant.MODULE_ID_CONSENSUS, NetworkConstant.NETWORK_MODULE_ID);
         BlockService blockService = NulsContext.getServiceBean(BlockService.class);
+        blockService.recoverUnfinishedBlock();
         Block block0 = blockService.getGengsisBlock().getData();
         Block genesisBlock = NulsContext.getInstance().getGenesisBlock();
         if (null == block0) {
@@ -114,6 +116,14 @@ public class BaseProtocolsModuleBootstrap extends AbstractProtocolModule {
         messageBusService.subscribeMessage(GetSmallBlockMessage.class, new GetSmallBlockHandler());
         messageBusService.subscribeMessage(ForwardSmallBlockMessage.class, new ForwardSmallBlockHandler());
         messageBusService.subscribeMessage(ForwardTxMessage.class, new ForwardTxMessageHandler());
+        messageBusService.subscribeMessage(TxInventoryMessage.class, new TxInventoryHandler());
+        messageBusService.subscribeMessage(GetTxsMessage.class, new GetTxsHandler());
+        messageBusService.subscribeMessage(TxsMessage.class, new TxsMessageHandler());
+        messageBusService.subscribeMessage(CompactBlockMessage.class, new CompactBlockHandler());
+        messageBusService.subscribeMessage(GetCompactBlockMessage.class, new GetCompactBlockHandler());
+        messageBusService.subscribeMessage(GetBlockTxsMessage.class, new GetBlockTxsHandler());
+        messageBusService.subscribeMessage(BlockTxsMessage.class, new BlockTxsHandler());
+        TxInventoryCache.getInstance().start();
     }
 
     @Override
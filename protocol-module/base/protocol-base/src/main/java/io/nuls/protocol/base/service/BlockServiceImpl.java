@@ -27,6 +27,8 @@ package io.nuls.protocol.base.service;
 
 import io.nuls.account.ledger.service.AccountLedgerService;
 import io.nuls.core.tools.log.Log;
+import io.nuls.db.service.DBService;
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.lite.annotation.Autowired;
@@ -34,14 +36,21 @@ import io.nuls.kernel.lite.annotation.Service;
 import io.nuls.kernel.model.*;
 import io.nuls.ledger.service.LedgerService;
 import io.nuls.message.bus.service.MessageBusService;
+import io.nuls.network.constant.NetworkErrorCode;
 import io.nuls.network.model.Node;
+import io.nuls.network.service.NetworkService;
+import io.nuls.protocol.base.utils.CompactBlockUtil;
+import io.nuls.protocol.base.utils.PeerVersionUtil;
 import io.nuls.protocol.base.utils.PoConvertUtil;
+import io.nuls.protocol.message.CompactBlockMessage;
 import io.nuls.protocol.message.ForwardSmallBlockMessage;
 import io.nuls.protocol.message.SmallBlockMessage;
+import io.nuls.protocol.model.CompactBlock;
 import io.nuls.protocol.model.SmallBlock;
 import io.nuls.protocol.service.BlockService;
 import io.nuls.protocol.service.TransactionService;
 import io.nuls.protocol.storage.po.BlockHeaderPo;
+import io.nuls.protocol.storage.po.BlockJournalPo;
 import io.nuls.protocol.storage.service.BlockHeaderStorageService;
 
 import java.util.ArrayList;
@@ -66,12 +75,17 @@ public class BlockServiceImpl implements BlockService {
     @Autowired
     private LedgerService ledgerService;
 
+    @Autowired
+    private DBService dbService;
+
     @Autowired
     private TransactionService transactionService;
 
     @Autowired
     private MessageBusService messageBusService;
     @Autowired
+    private NetworkService networkService;
+    @Autowired
     private AccountLedgerService accountLedgerService;
 
     /**
@@ -110,10 +124,12 @@ public class BlockServiceImpl implements BlockService {
      * @return 完整的区块/the complete block
      */
     private Block getBlock(BlockHeaderPo headerPo) {
-        List<Transaction> txList = new ArrayList<>();
-        for (NulsDigestData hash : headerPo.getTxHashList()) {
-            Transaction tx = ledgerService.getTx(hash);
-            txList.add(tx);
+        List<Transaction> txList = ledgerService.getTxs(headerPo.getTxHashList());
+        if (txList == null) {
+            txList = new ArrayList<>();
+            for (NulsDigestData hash : headerPo.getTxHashList()) {
+                txList.add(ledgerService.getTx(hash));
+            }
         }
         Block block = new Block();
         block.setHeader(PoConvertUtil.fromBlockHeaderPo(headerPo));
@@ -202,7 +218,15 @@ public class BlockServiceImpl implements BlockService {
 
     /**
      * 保存区块到存储中
+     * 账本、区块头与预写记录写入同一个跨区域批量操作，先原子地一次提交，提交前任何失败都不会改动存储
+     * 交易业务数据与本地账户账本各自写入存储且不可重复执行，无法加入批量操作，在批量提交之后处理，
+     * 中途崩溃时重启由{@link #recoverUnfinishedBlock()}根据预写记录补完
      * Save the block to the store.
+     * The ledger changes, the block header and the write-ahead record are staged into one multi-area batch which is
+     * committed atomically first, so a failure before the commit leaves the storage untouched.
+     * The transaction business data and the local account ledger write their own storage and can not be applied twice,
+     * so they stay out of the batch and are applied after the commit; if that is interrupted by a crash,
+     * {@link #recoverUnfinishedBlock()} completes them from the write-ahead record at restart.
      *
      * @param block 完整区块/whole block
      * @return 操作结果/operating result
@@ -214,48 +238,74 @@ public class BlockServiceImpl implements BlockService {
             return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
         }
         long height = block.getHeader().getHeight();
-        List<Transaction> savedList = new ArrayList<>();
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        Result result = Result.getSuccess();
         for (Transaction transaction : block.getTxs()) {
             transaction.setBlockHeight(height);
-            Result result = transactionService.commitTx(transaction, block.getHeader());
-            if (result.isSuccess()) {
-                result = ledgerService.saveTx(transaction);
-            }
-            if (result.isSuccess()) {
-                savedList.add(transaction);
-            } else {
-                this.rollbackTxList(savedList, block.getHeader());
-                return result;
+            result = ledgerService.saveTx(transaction, batch);
+            if (result.isFailed()) {
+                break;
             }
         }
-        Result result = this.blockHeaderStorageService.saveBlockHeader(PoConvertUtil.toBlockHeaderPo(block));
+        if (result.isSuccess()) {
+            result = ledgerService.flush(batch);
+        }
+        if (result.isSuccess()) {
+            result = this.blockHeaderStorageService.saveBlockHeader(PoConvertUtil.toBlockHeaderPo(block), batch);
+        }
+        if (result.isSuccess()) {
+            result = this.blockHeaderStorageService.saveBlockJournal(new BlockJournalPo(BlockJournalPo.TYPE_SAVE, block), batch);
+        }
+        if (result.isSuccess()) {
+            result = batch.executeBatch();
+        }
         if (result.isFailed()) {
-            this.rollbackTxList(savedList, block.getHeader());
+            ledgerService.discard();
             return result;
         }
+        ledgerService.committed();
+        List<Transaction> txList = block.getTxs();
+        for (int i = 0; i < txList.size(); i++) {
+            result = transactionService.commitTx(txList.get(i), block.getHeader());
+            if (result.isFailed()) {
+                this.abortSave(block, i);
+                return result;
+            }
+        }
         try {
-            accountLedgerService.saveConfirmedTransactionList(block.getTxs());
+            accountLedgerService.saveConfirmedTransactionList(txList);
         } catch (Exception e) {
             Log.warn("save local tx failed", e);
         }
+        this.removeBlockJournal();
         return Result.getSuccess();
     }
 
     /**
-     * 保存区块失败时，需要将已经存储的交易回滚
-     * When you fail to save the block, you need to roll back the already stored transaction.
+     * 交易业务数据提交失败时，回滚已经提交的交易业务数据，再从存储中删除已提交的区块
+     * When committing the transaction business data fails, roll back the already committed transactions and remove
+     * the block from the storage again.
      */
-    private void rollbackTxList(List<Transaction> savedList, BlockHeader blockHeader) throws NulsException {
-        for (int i = savedList.size() - 1; i >= 0; i--) {
-            Transaction tx = savedList.get(i);
-            transactionService.rollbackTx(tx, blockHeader);
-            ledgerService.rollbackTx(tx);
+    private void abortSave(Block block, int committedCount) throws NulsException {
+        for (int i = committedCount - 1; i >= 0; i--) {
+            transactionService.rollbackTx(block.getTxs().get(i), block.getHeader());
+        }
+        Result result = this.removeFromStorage(block);
+        if (result.isFailed()) {
+            Log.warn("remove the aborted block failed: " + result.getErrorCode());
         }
     }
 
     /**
      * 回滚区块
+     * 先同步写入预写记录，再回滚交易业务数据与本地账户账本，最后区块头删除、账本回滚与预写记录删除写入同一个跨区域批量操作，原子地一次提交
+     * 批量操作提交前区块仍在存储中，中途崩溃时重启由{@link #recoverUnfinishedBlock()}重新提交交易业务数据与本地账户账本
      * roll back the block to the store.
+     * The write-ahead record is synced first, then the transaction business data and the local account ledger are
+     * rolled back, at last the header removal, the ledger rollback and the removal of the record are staged into one
+     * multi-area batch and committed atomically at once. The block stays in the storage until the batch is committed,
+     * so if a crash interrupts the rollback {@link #recoverUnfinishedBlock()} commits the business data and the local
+     * account ledger again at restart.
      *
      * @param block 完整区块/whole block
      * @return 操作结果/operating result
@@ -266,21 +316,115 @@ public class BlockServiceImpl implements BlockService {
         if (null == block) {
             return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
         }
-        this.rollbackTxList(block.getTxs(), block.getHeader());
+        Result result = blockHeaderStorageService.saveBlockJournal(new BlockJournalPo(BlockJournalPo.TYPE_ROLLBACK, block));
+        if (result.isFailed()) {
+            return result;
+        }
+        List<Transaction> txList = block.getTxs();
+        for (int i = txList.size() - 1; i >= 0; i--) {
+            transactionService.rollbackTx(txList.get(i), block.getHeader());
+        }
+        try {
+            accountLedgerService.rollbackTransaction(txList);
+        } catch (Exception e) {
+            Log.warn("rollbackTransaction local tx failed", e);
+        }
+        result = this.removeFromStorage(block);
+        if (result.isFailed()) {
+            for (Transaction tx : txList) {
+                transactionService.commitTx(tx, block.getHeader());
+            }
+            try {
+                accountLedgerService.saveConfirmedTransactionList(txList);
+            } catch (Exception e) {
+                Log.warn("save local tx failed", e);
+            }
+            this.removeBlockJournal();
+        }
+        return result;
+    }
+
+    /**
+     * 区块头删除、账本回滚与预写记录删除写入同一个跨区域批量操作并原子地提交
+     * Stage the header removal, the ledger rollback and the removal of the write-ahead record into one multi-area
+     * batch and commit it atomically.
+     */
+    private Result removeFromStorage(Block block) throws NulsException {
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        // 区块头先于交易删除，最新高度不会指向缺少交易的区块
         BlockHeaderPo po = new BlockHeaderPo();
         po.setHash(block.getHeader().getHash());
         po.setHeight(block.getHeader().getHeight());
         po.setPreHash(block.getHeader().getPreHash());
-        Result result = this.blockHeaderStorageService.removeBlockHerader(po);
+        Result result = this.blockHeaderStorageService.removeBlockHerader(po, batch);
+        List<Transaction> txList = block.getTxs();
+        for (int i = txList.size() - 1; i >= 0 && result.isSuccess(); i--) {
+            result = ledgerService.rollbackTx(txList.get(i), batch);
+        }
+        if (result.isSuccess()) {
+            result = ledgerService.flush(batch);
+        }
+        if (result.isSuccess()) {
+            result = blockHeaderStorageService.removeBlockJournal(batch);
+        }
+        if (result.isSuccess()) {
+            result = batch.executeBatch();
+        }
         if (result.isFailed()) {
+            ledgerService.discard();
             return result;
         }
+        ledgerService.committed();
+        return result;
+    }
+
+    private void removeBlockJournal() {
+        Result result = blockHeaderStorageService.removeBlockJournal();
+        if (result.isFailed()) {
+            Log.warn("remove block journal failed: " + result.getErrorCode());
+        }
+    }
+
+    /**
+     * 启动时处理上次崩溃时未完成的区块保存/回滚
+     * 预写记录存在时区块一定在存储中：保存区块的记录随区块一起提交，回滚区块的记录随区块一起删除，
+     * 因此两种情况都从存储中读出区块，重新提交交易业务数据与本地账户账本
+     * Handle the block save or rollback that was interrupted by the last crash, called once at startup.
+     * Whenever a write-ahead record exists the block is stored: a save commits the record together with the block and
+     * a rollback removes it together with the block. So in both cases the block is read back from the storage and the
+     * transaction business data and the local account ledger are committed again. This is best effort, the processors
+     * that already ran for the block report a failure which is only logged.
+     */
+    @Override
+    public void recoverUnfinishedBlock() {
+        BlockJournalPo journal = blockHeaderStorageService.getBlockJournal();
+        if (null == journal) {
+            return;
+        }
+        Log.warn("recover unfinished block, type: " + journal.getType() + ", height: " + journal.getHeight());
+        BlockHeaderPo headerPo = blockHeaderStorageService.getBlockHeaderPo(journal.getHash());
+        if (null == headerPo) {
+            this.removeBlockJournal();
+            return;
+        }
+        Block block = getBlock(headerPo);
+        BlockHeader header = block.getHeader();
+        List<Transaction> txList = new ArrayList<>();
+        for (Transaction tx : block.getTxs()) {
+            if (null != tx) {
+                tx.setBlockHeight(header.getHeight());
+                txList.add(tx);
+            }
+        }
         try {
-            accountLedgerService.rollbackTransaction(block.getTxs());
+            for (Transaction tx : txList) {
+                transactionService.commitTx(tx, header);
+            }
+            accountLedgerService.saveConfirmedTransactionList(txList);
         } catch (Exception e) {
-            Log.warn("rollbackTransaction local tx failed", e);
+            Log.warn("recover unfinished block failed", e);
         }
-        return result;
+        this.removeBlockJournal();
     }
 
     /**
@@ -299,17 +443,50 @@ public class BlockServiceImpl implements BlockService {
     }
 
     /**
-     * 广播小区块给连接的其他对等节点
-     * The broadcast small block gives the connection to other peers.
+     * 广播小区块给连接的其他对等节点，支持紧凑区块的节点收到紧凑区块，旧版本节点以及区块内短标识冲突时发送小区块
+     * The broadcast small block gives the connection to other peers, peers supporting compact blocks receive a
+     * compact block, older peers (and every peer when the short ids of the block collide) receive the small block.
      *
      * @param smallBlock 小区块/the small block
      * @return 广播结果/Broadcast the results
      */
     @Override
     public Result broadcastBlock(SmallBlock smallBlock) {
-        SmallBlockMessage message = fillSmallBlockMessage(smallBlock);
-        Result<List<String>> result = messageBusService.broadcast(message, null, true, 100);
-        return result;
+        CompactBlock compactBlock = CompactBlockUtil.toCompactBlock(smallBlock);
+        if (null == compactBlock) {
+            SmallBlockMessage message = fillSmallBlockMessage(smallBlock);
+            return messageBusService.broadcast(message, null, true, 100);
+        }
+        List<Node> compactNodeList = new ArrayList<>();
+        List<Node> legacyNodeList = new ArrayList<>();
+        for (Node node : networkService.getAvailableNodes()) {
+            if (PeerVersionUtil.supportsCompactBlock(node)) {
+                compactNodeList.add(node);
+            } else {
+                legacyNodeList.add(node);
+            }
+        }
+        //每组消息只构建一次，整组一次广播，消息只序列化一次
+        //Each group's message is built once and broadcast to the whole group, serialized only once.
+        List<String> nodeIdList = new ArrayList<>();
+        if (!compactNodeList.isEmpty()) {
+            CompactBlockMessage compactBlockMessage = new CompactBlockMessage();
+            compactBlockMessage.setMsgBody(compactBlock);
+            Result<List<String>> result = messageBusService.broadcast(compactBlockMessage, compactNodeList, true);
+            if (result.isSuccess()) {
+                nodeIdList.addAll(result.getData());
+            }
+        }
+        if (!legacyNodeList.isEmpty()) {
+            Result<List<String>> result = messageBusService.broadcast(fillSmallBlockMessage(smallBlock), legacyNodeList, true);
+            if (result.isSuccess()) {
+                nodeIdList.addAll(result.getData());
+            }
+        }
+        if (nodeIdList.isEmpty()) {
+            return Result.getFailed(NetworkErrorCode.NET_BROADCAST_NODE_EMPTY).setData(nodeIdList);
+        }
+        return Result.getSuccess().setData(nodeIdList);
     }
 
     /**
@@ -37,9 +37,9 @@ import io.nuls.kernel.validate.ValidateResult;
 import io.nuls.ledger.service.LedgerService;
 import io.nuls.message.bus.service.MessageBusService;
 import io.nuls.network.model.Node;
+import io.nuls.protocol.base.cache.TxInventoryCache;
 import io.nuls.protocol.cache.TemporaryCacheManager;
 import io.nuls.protocol.constant.ProtocolConstant;
-import io.nuls.protocol.message.ForwardTxMessage;
 import io.nuls.protocol.message.TransactionMessage;
 import io.nuls.protocol.service.TransactionService;
 
@@ -121,6 +121,9 @@ public class TransactionServiceImpl implements TransactionService {
     /**
      * 转发交易给连接的其他对等节点，允许一个列外（不转发给它）
      * Forward Transaction to other peers of the connection, allowing one column (not forward to it)
+     * 交易摘要进入各节点的通告队列，由TxInventoryCache定时批量发送，不支持交易清单的旧版本节点仍收到ForwardTxMessage
+     * The digest is queued per node and announced in batches by TxInventoryCache,
+     * older peers without inventory support still get a ForwardTxMessage.
      *
      * @param tx          完整交易/the whole transaction
      * @param excludeNode 需要排除的节点，一般是因为从该节点处接收的本交易/The nodes that need to be excluded are generally due to the transaction received from the node.
@@ -128,9 +131,8 @@ public class TransactionServiceImpl implements TransactionService {
      */
     @Override
     public Result forwardTx(Transaction tx, Node excludeNode) {
-        ForwardTxMessage message = new ForwardTxMessage();
-        message.setMsgBody(tx.getHash());
-        return messageBusService.broadcast(message, excludeNode, true, 50);
+        TxInventoryCache.getInstance().offer(tx.getHash(), excludeNode);
+        return Result.getSuccess();
     }
 
     /**
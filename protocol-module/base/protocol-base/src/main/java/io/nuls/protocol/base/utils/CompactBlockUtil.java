@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.utils;
+
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.protocol.model.CompactBlock;
+import io.nuls.protocol.model.SmallBlock;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 紧凑区块的生成与还原
+ * Builds compact blocks and rebuilds blocks from them.
+ *
+ * @author: Niels Wang
+ */
+public class CompactBlockUtil {
+
+    /**
+     * 由小区块生成紧凑区块，区块内两笔交易短标识相同时返回null，调用方应改为发送小区块
+     * Build a compact block from a SmallBlock, returns null when two transactions of the block share a short id,
+     * the caller should send the SmallBlock instead.
+     */
+    public static CompactBlock toCompactBlock(SmallBlock smallBlock) {
+        CompactBlock compactBlock = new CompactBlock();
+        compactBlock.setHeader(smallBlock.getHeader());
+        compactBlock.setNonce(ThreadLocalRandom.current().nextLong());
+        List<NulsDigestData> txHashList = smallBlock.getTxHashList();
+        List<Long> shortIdList = new ArrayList<>(txHashList.size());
+        Set<Long> shortIdSet = new HashSet<>(txHashList.size() * 2);
+        for (NulsDigestData hash : txHashList) {
+            long shortId = compactBlock.getShortId(hash);
+            if (!shortIdSet.add(shortId)) {
+                return null;
+            }
+            shortIdList.add(shortId);
+        }
+        compactBlock.setShortIdList(shortIdList);
+        compactBlock.setPrefilledTxList(smallBlock.getSubTxList());
+        return compactBlock;
+    }
+
+    /**
+     * 用预填充交易和本地已有的交易还原紧凑区块，结果记录在resolvedTxs中
+     * Resolve the short ids of a compact block with its prefilled transactions and the local candidates,
+     * the result is kept in resolvedTxs.
+     *
+     * @param candidates 本地已有的交易，如交易池/local transactions, like the memory pool
+     * @return 仍缺少的交易序号，出现短标识冲突时返回null/indexes still missing, null when short ids collide
+     */
+    @SafeVarargs
+    public static List<Integer> resolve(CompactBlock compactBlock, Collection<Transaction>... candidates) {
+        List<Long> shortIdList = compactBlock.getShortIdList();
+        Map<Long, Integer> indexMap = new HashMap<>(shortIdList.size() * 2);
+        for (int i = 0; i < shortIdList.size(); i++) {
+            if (null != indexMap.put(shortIdList.get(i), i)) {
+                return null;
+            }
+        }
+        Transaction[] txs = new Transaction[shortIdList.size()];
+        if (!resolve(compactBlock, indexMap, txs, compactBlock.getPrefilledTxList())) {
+            return null;
+        }
+        for (Collection<Transaction> collection : candidates) {
+            if (!resolve(compactBlock, indexMap, txs, collection)) {
+                return null;
+            }
+        }
+        compactBlock.setResolvedTxs(txs);
+        List<Integer> missingList = new ArrayList<>();
+        for (int i = 0; i < txs.length; i++) {
+            if (null == txs[i]) {
+                missingList.add(i);
+            }
+        }
+        return missingList;
+    }
+
+    private static boolean resolve(CompactBlock compactBlock, Map<Long, Integer> indexMap, Transaction[] txs, Collection<Transaction> collection) {
+        for (Transaction tx : collection) {
+            Integer index = indexMap.get(compactBlock.getShortId(tx.getHash()));
+            if (null == index) {
+                continue;
+            }
+            Transaction other = txs[index];
+            if (null == other) {
+                txs[index] = tx;
+            } else if (!other.getHash().equals(tx.getHash())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将对方返回的交易按序号填入紧凑区块，交易与短标识不匹配时返回false
+     * Put the transactions answered by the peer into their slots, returns false when one does not match its short id.
+     */
+    public static boolean fill(CompactBlock compactBlock, List<Transaction> txList) {
+        Transaction[] txs = compactBlock.getResolvedTxs();
+        if (null == txs || null == txList) {
+            return false;
+        }
+        int i = 0;
+        for (int index = 0; index < txs.length; index++) {
+            if (null != txs[index]) {
+                continue;
+            }
+            if (i >= txList.size()) {
+                return false;
+            }
+            Transaction tx = txList.get(i++);
+            if (compactBlock.getShortId(tx.getHash()) != compactBlock.getShortIdList().get(index)) {
+                return false;
+            }
+            txs[index] = tx;
+        }
+        return i == txList.size();
+    }
+
+    /**
+     * 由完全还原的紧凑区块组装区块，交易与区块头的默克尔根不一致时（短标识误匹配）返回null
+     * Assemble the block from a fully resolved compact block, returns null when the transactions do not match the
+     * merkle root of the header, which means a short id matched the wrong local transaction.
+     */
+    public static Block assemblyBlock(CompactBlock compactBlock) {
+        Transaction[] txs = compactBlock.getResolvedTxs();
+        BlockHeader header = compactBlock.getHeader();
+        List<NulsDigestData> txHashList = new ArrayList<>(txs.length);
+        for (Transaction tx : txs) {
+            if (null == tx) {
+                return null;
+            }
+            txHashList.add(tx.getHash());
+        }
+        if (!header.getMerkleHash().equals(NulsDigestData.calcMerkleDigestData(new ArrayList<>(txHashList)))) {
+            return null;
+        }
+        List<Transaction> txList = new ArrayList<>(txs.length);
+        for (Transaction tx : txs) {
+            tx.setBlockHeight(header.getHeight());
+            txList.add(tx);
+        }
+        Block block = new Block();
+        block.setHeader(header);
+        block.setTxs(txList);
+        return block;
+    }
+}
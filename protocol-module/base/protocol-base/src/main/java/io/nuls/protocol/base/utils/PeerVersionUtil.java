@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.utils;
+
+import io.nuls.core.tools.str.StringUtils;
+import io.nuls.core.tools.str.VersionUtils;
+import io.nuls.network.model.Node;
+import io.nuls.protocol.constant.ProtocolConstant;
+
+/**
+ * 根据节点握手时声明的版本判断其支持的消息，旧版本节点只能收到它们认识的消息
+ * Tells which messages a peer supports from the version declared in its handshake,
+ * older peers must only receive the messages they know.
+ *
+ * @author: Niels Wang
+ */
+public class PeerVersionUtil {
+
+    /**
+     * 节点是否支持交易清单的批量通告与获取
+     * Whether the peer supports batched transaction inventories and fetches
+     */
+    public static boolean supportsTxInventory(Node node) {
+        return atLeast(node, ProtocolConstant.TX_INVENTORY_MIN_VERSION);
+    }
+
+    /**
+     * 节点是否支持紧凑区块的广播与获取
+     * Whether the peer supports compact block relay and fetches
+     */
+    public static boolean supportsCompactBlock(Node node) {
+        return atLeast(node, ProtocolConstant.COMPACT_BLOCK_MIN_VERSION);
+    }
+
+    private static boolean atLeast(Node node, String minVersion) {
+        String version = node.getVersion();
+        if (StringUtils.isBlank(version)) {
+            return false;
+        }
+        try {
+            return !VersionUtils.lowerThan(version, minVersion);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
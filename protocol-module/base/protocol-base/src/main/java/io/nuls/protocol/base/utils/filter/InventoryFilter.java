@@ -25,52 +25,46 @@
 
 package io.nuls.protocol.base.utils.filter;
 
-import com.google.common.hash.BloomFilter;
-import com.google.common.hash.Funnels;
-
-import java.util.concurrent.atomic.AtomicInteger;
+import io.nuls.core.tools.BloomFilter.RollingBloomFilter;
 
 /**
  * 向量清单过滤器
+ * 基于滚动布隆过滤器，写满后只淘汰最老的一代数据，而不是一次性清空全部记录
+ * Backed by a rolling bloom filter: when full only the oldest generation is dropped instead of the whole history.
  *
  * @author ln
  */
 public class InventoryFilter {
 
-    private final int elements;
-    private AtomicInteger size = new AtomicInteger(0);
-
-    private BloomFilter<byte[]> filter;
+    private static final double FALSE_POSITIVE_RATE = 0.00001;
 
-//    private Lock lock = new ReentrantLock();
+    private final RollingBloomFilter filter;
 
     public InventoryFilter(int elements) {
-        this.elements = elements;
-        filter = BloomFilter.create(Funnels.byteArrayFunnel(), elements, 0.00001);
+        this.filter = new RollingBloomFilter(elements, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * @param elements 至少记住的最近数据条数/number of recent entries that are always remembered
+     * @param maxBytes 过滤器占用内存上限/memory budget of the filter
+     */
+    public InventoryFilter(int elements, int maxBytes) {
+        this.filter = new RollingBloomFilter(elements, FALSE_POSITIVE_RATE, maxBytes);
     }
 
-    public BloomFilter getFilter() {
+    public RollingBloomFilter getFilter() {
         return filter;
     }
 
     public void insert(byte[] object) {
-//        lock.lock();
-//        try {
-        filter.put(object);
-        int count = size.incrementAndGet();
-        if (count >= elements - 100) {
-            this.clear();
-        }
-//        } finally {
-//            lock.unlock();
-//        }
+        filter.insert(object);
     }
 
     public boolean contains(byte[] object) {
-        return filter.mightContain(object);
+        return filter.contains(object);
     }
 
     public void clear() {
-        filter = BloomFilter.create(Funnels.byteArrayFunnel(), elements, 0.00001);
+        filter.clear();
     }
 }
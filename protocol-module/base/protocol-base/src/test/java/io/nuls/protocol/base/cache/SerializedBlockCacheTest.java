@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.cache;
+
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.TransactionManager;
+import io.nuls.protocol.message.BlockMessage;
+import io.nuls.protocol.model.tx.TransferTransaction;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class SerializedBlockCacheTest {
+
+    @After
+    public void clear() {
+        SerializedBlockCache.clear();
+    }
+
+    @Test
+    public void testEvict() {
+        List<NulsDigestData> hashList = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            NulsDigestData hash = NulsDigestData.calcDigestData(new byte[]{(byte) i});
+            hashList.add(hash);
+            SerializedBlockCache.put(hash, new byte[10 * 1024 * 1024]);
+            if (i == 1) {
+                assertNotNull(SerializedBlockCache.get(hashList.get(0)));
+            }
+        }
+        assertNull(SerializedBlockCache.get(hashList.get(1)));
+        assertNotNull(SerializedBlockCache.get(hashList.get(0)));
+        assertNotNull(SerializedBlockCache.get(hashList.get(2)));
+        assertNotNull(SerializedBlockCache.get(hashList.get(3)));
+    }
+
+    @Test
+    public void testBlockMessage() throws Exception {
+        TransactionManager.putTx(TransferTransaction.class, null);
+        List<Transaction> txList = new ArrayList<>();
+        List<NulsDigestData> hashList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Transaction tx = new TransferTransaction();
+            tx.setTime(i);
+            tx.setHash(NulsDigestData.calcDigestData(tx.serializeForHash()));
+            txList.add(tx);
+            hashList.add(tx.getHash());
+        }
+        BlockHeader header = new BlockHeader();
+        header.setPreHash(NulsDigestData.calcDigestData(new byte[]{1}));
+        header.setMerkleHash(NulsDigestData.calcMerkleDigestData(hashList));
+        header.setHeight(10);
+        header.setTime(1000L);
+        header.setTxCount(txList.size());
+        header.setExtend(new byte[]{1, 2, 3});
+        Block block = new Block();
+        block.setHeader(header);
+        block.setTxs(txList);
+
+        BlockMessage message = new BlockMessage();
+        message.setMsgBody(block);
+        BlockMessage cachedMessage = new BlockMessage(block.serialize());
+        assertEquals(message.size(), cachedMessage.size());
+        assertArrayEquals(message.serialize(), cachedMessage.serialize());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.cache;
+
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Result;
+import io.nuls.message.bus.service.MessageBusService;
+import io.nuls.network.model.Node;
+import io.nuls.network.service.NetworkService;
+import io.nuls.protocol.message.ForwardTxMessage;
+import io.nuls.protocol.message.TxInventoryMessage;
+import io.nuls.protocol.message.base.BaseMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class TxInventoryCacheTest {
+
+    private final TxInventoryCache cache = TxInventoryCache.getInstance();
+
+    private Node legacyNode;
+    private Node inventoryNode;
+    private Node sourceNode;
+
+    private final List<Object[]> sentList = new ArrayList<>();
+
+    @Before
+    public void init() throws Exception {
+        legacyNode = new Node("1.1.1.1", 8001, Node.OUT);
+        legacyNode.setVersion("1.0.0");
+        inventoryNode = new Node("2.2.2.2", 8001, Node.OUT);
+        inventoryNode.setVersion("1.1.0");
+        sourceNode = new Node("3.3.3.3", 8001, Node.OUT);
+        sourceNode.setVersion("1.1.0");
+        List<Node> nodeList = Arrays.asList(legacyNode, inventoryNode, sourceNode);
+
+        NetworkService networkService = (NetworkService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{NetworkService.class}, (proxy, method, args) -> {
+                    if ("getAvailableNodes".equals(method.getName())) {
+                        return nodeList;
+                    }
+                    return null;
+                });
+        MessageBusService messageBusService = (MessageBusService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{MessageBusService.class}, (proxy, method, args) -> {
+                    if ("sendToNode".equals(method.getName())) {
+                        sentList.add(new Object[]{args[0], args[1]});
+                        return Result.getSuccess();
+                    }
+                    return null;
+                });
+        setField("networkService", networkService);
+        setField("messageBusService", messageBusService);
+        ((Map) getField("inventoryMap")).clear();
+    }
+
+    @Test
+    public void testLegacyPeerGetsForwardTxMessage() throws Exception {
+        NulsDigestData hash = NulsDigestData.calcDigestData(new byte[]{1});
+        cache.offer(hash, sourceNode);
+
+        // 旧版本节点立即收到ForwardTxMessage，支持清单的节点在定时发送时收到TxInventoryMessage
+        assertEquals(1, sentList.size());
+        assertTrue(sentList.get(0)[0] instanceof ForwardTxMessage);
+        assertSame(legacyNode, sentList.get(0)[1]);
+
+        flush();
+        assertEquals(2, sentList.size());
+        TxInventoryMessage message = (TxInventoryMessage) sentList.get(1)[0];
+        assertSame(inventoryNode, sentList.get(1)[1]);
+        assertEquals(Arrays.asList(hash), message.getMsgBody().getTxHashList());
+    }
+
+    @Test
+    public void testKnownInventoryIsNotAnnouncedAgain() throws Exception {
+        NulsDigestData hash = NulsDigestData.calcDigestData(new byte[]{2});
+        cache.markKnown(inventoryNode, hash);
+        cache.markKnown(legacyNode, hash);
+
+        // 交易从其他节点转回时，来源节点和已知该交易的节点都不会再收到通告
+        cache.offer(hash, null);
+        flush();
+        assertEquals(1, sentList.size());
+        assertSame(sourceNode, sentList.get(0)[1]);
+
+        sentList.clear();
+        cache.offer(hash, null);
+        flush();
+        assertTrue(sentList.isEmpty());
+    }
+
+    private void flush() throws Exception {
+        Method method = TxInventoryCache.class.getDeclaredMethod("flush");
+        method.setAccessible(true);
+        method.invoke(cache);
+    }
+
+    private Object getField(String name) throws Exception {
+        Field field = TxInventoryCache.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(cache);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = TxInventoryCache.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(cache, value);
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.download.thread;
+
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.utils.SerializeUtils;
+import io.nuls.network.model.Node;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author ln
+ */
+public class DownloadSchedulerTest {
+
+    private static final long END_HEIGHT = 200;
+
+    private final List<Block> chain = new ArrayList<>();
+    private final Queue<Block> blockQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    private Node nodeA;
+    private Node nodeB;
+
+    @Before
+    public void init() {
+        Block genesis = newBlock(0, NulsDigestData.calcDigestData(new byte[]{0}), (byte) 0);
+        chain.add(genesis);
+        for (long height = 1; height <= END_HEIGHT; height++) {
+            chain.add(newBlock(height, chain.get((int) height - 1).getHeader().getHash(), (byte) 0));
+        }
+        nodeA = new Node("1.1.1.1", 8001, Node.OUT);
+        nodeB = new Node("2.2.2.2", 8001, Node.OUT);
+    }
+
+    @Test
+    public void testWindowSliding() throws Exception {
+        Map<Node, Integer> downloadingMap = new ConcurrentHashMap<>();
+        Map<Node, Integer> maxDownloadingMap = new ConcurrentHashMap<>();
+        Queue<PendingRequest> pendingQueue = new ConcurrentLinkedQueue<>();
+        DownloadScheduler scheduler = new TestScheduler(Arrays.asList(nodeA, nodeB)) {
+            @Override
+            protected CompletableFuture<List<Block>> requestBlocks(Node node, long startHeight, long endHeight) {
+                int downloading = downloadingMap.merge(node, 1, Integer::sum);
+                maxDownloadingMap.merge(node, downloading, Math::max);
+                CompletableFuture<List<Block>> future = new CompletableFuture<>();
+                pendingQueue.offer(new PendingRequest(node, future, chain.subList((int) startHeight, (int) endHeight + 1)));
+                return future;
+            }
+        };
+        Thread thread = new Thread(() -> {
+            try {
+                assertTrue(scheduler.run());
+            } catch (InterruptedException e) {
+                fail();
+            }
+        });
+        thread.start();
+        while (thread.isAlive()) {
+            List<PendingRequest> list = new ArrayList<>();
+            PendingRequest pending;
+            while (null != (pending = pendingQueue.poll())) {
+                list.add(pending);
+            }
+            // 倒序完成请求，后面的段先到达并等待前面的段
+            Collections.reverse(list);
+            for (PendingRequest request : list) {
+                downloadingMap.merge(request.node, -1, Integer::sum);
+                request.future.complete(new ArrayList<>(request.blockList));
+            }
+            Thread.sleep(10L);
+        }
+        thread.join();
+
+        assertDelivered();
+        for (Node node : Arrays.asList(nodeA, nodeB)) {
+            int max = maxDownloadingMap.get(node);
+            assertTrue(max > 1 && max <= 4);
+        }
+    }
+
+    @Test
+    public void testRetryUnlinkedRange() throws Exception {
+        List<Node> requestNodeList = new ArrayList<>();
+        DownloadScheduler scheduler = new TestScheduler(Arrays.asList(nodeA, nodeB)) {
+            @Override
+            protected CompletableFuture<List<Block>> requestBlocks(Node node, long startHeight, long endHeight) {
+                List<Block> blockList = new ArrayList<>(chain.subList((int) startHeight, (int) endHeight + 1));
+                if (startHeight != 21) {
+                    return CompletableFuture.completedFuture(blockList);
+                }
+                requestNodeList.add(node);
+                if (requestNodeList.size() == 1) {
+                    // 段内连续，但首个区块接不上前一段的最后一个区块
+                    blockList = fork(startHeight, endHeight);
+                }
+                return CompletableFuture.completedFuture(blockList);
+            }
+        };
+        assertTrue(scheduler.run());
+
+        assertDelivered();
+        // 接不上的段交给另一个节点重新下载
+        assertEquals(2, requestNodeList.size());
+        assertNotSame(requestNodeList.get(0), requestNodeList.get(1));
+    }
+
+    @Test
+    public void testReassignAfterPeerFailure() throws Exception {
+        List<Long> failedList = new ArrayList<>();
+        List<Long> reassignedList = new ArrayList<>();
+        DownloadScheduler scheduler = new TestScheduler(Arrays.asList(nodeA, nodeB)) {
+            @Override
+            protected CompletableFuture<List<Block>> requestBlocks(Node node, long startHeight, long endHeight) {
+                CompletableFuture<List<Block>> future = new CompletableFuture<>();
+                if (node == nodeA) {
+                    failedList.add(startHeight);
+                    future.completeExceptionally(new RuntimeException("disconnected"));
+                } else {
+                    reassignedList.add(startHeight);
+                    future.complete(new ArrayList<>(chain.subList((int) startHeight, (int) endHeight + 1)));
+                }
+                return future;
+            }
+        };
+        assertTrue(scheduler.run());
+
+        assertDelivered();
+        // 失败结果到达前该节点已领取第一批4个段，之后不再向它请求，失败的段都由另一个节点重新下载
+        assertEquals(4, failedList.size());
+        assertTrue(reassignedList.containsAll(failedList));
+    }
+
+    @Test
+    public void testAllNodesFailed() throws Exception {
+        DownloadScheduler scheduler = new TestScheduler(Arrays.asList(nodeA, nodeB)) {
+            @Override
+            protected CompletableFuture<List<Block>> requestBlocks(Node node, long startHeight, long endHeight) {
+                return CompletableFuture.completedFuture(fork(startHeight, endHeight));
+            }
+        };
+        assertFalse(scheduler.run());
+        assertTrue(blockQueue.isEmpty());
+        assertEquals(0, bufferedBytes.get());
+    }
+
+    private void assertDelivered() {
+        assertEquals(END_HEIGHT, blockQueue.size());
+        NulsDigestData preHash = chain.get(0).getHeader().getHash();
+        long height = 1;
+        for (Block block : blockQueue) {
+            assertEquals(height++, block.getHeader().getHeight());
+            assertEquals(preHash, block.getHeader().getPreHash());
+            preHash = block.getHeader().getHash();
+        }
+    }
+
+    private List<Block> fork(long startHeight, long endHeight) {
+        List<Block> blockList = new ArrayList<>();
+        NulsDigestData preHash = NulsDigestData.calcDigestData(new byte[]{1});
+        for (long height = startHeight; height <= endHeight; height++) {
+            Block block = newBlock(height, preHash, (byte) 1);
+            blockList.add(block);
+            preHash = block.getHeader().getHash();
+        }
+        return blockList;
+    }
+
+    private static Block newBlock(long height, NulsDigestData preHash, byte fork) {
+        BlockHeader header = new BlockHeader();
+        header.setHeight(height);
+        header.setPreHash(preHash);
+        header.setTime(height * 10000L);
+        byte[] bytes = SerializeUtils.uint64ToByteArray(height);
+        bytes[bytes.length - 1] = fork;
+        header.setHash(NulsDigestData.calcDigestData(bytes));
+        Block block = new Block();
+        block.setHeader(header);
+        block.setTxs(new ArrayList<>());
+        return block;
+    }
+
+    private static final class PendingRequest {
+        private final Node node;
+        private final CompletableFuture<List<Block>> future;
+        private final List<Block> blockList;
+
+        PendingRequest(Node node, CompletableFuture<List<Block>> future, List<Block> blockList) {
+            this.node = node;
+            this.future = future;
+            this.blockList = blockList;
+        }
+    }
+
+    private abstract class TestScheduler extends DownloadScheduler {
+        TestScheduler(List<Node> nodes) {
+            super(nodes, 1, chain.get(0).getHeader().getHash(), END_HEIGHT, blockQueue, bufferedBytes);
+        }
+    }
+}
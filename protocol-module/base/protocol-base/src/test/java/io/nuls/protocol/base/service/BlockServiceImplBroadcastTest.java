@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.base.service;
+
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Result;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.TransactionManager;
+import io.nuls.message.bus.service.MessageBusService;
+import io.nuls.network.model.Node;
+import io.nuls.network.service.NetworkService;
+import io.nuls.protocol.message.CompactBlockMessage;
+import io.nuls.protocol.message.SmallBlockMessage;
+import io.nuls.protocol.model.SmallBlock;
+import io.nuls.protocol.model.tx.TransferTransaction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class BlockServiceImplBroadcastTest {
+
+    private final BlockServiceImpl service = new BlockServiceImpl();
+
+    private Node legacyNode;
+    private Node compactNode;
+
+    /**
+     * 每次广播的消息及其接收节点
+     * The message of each broadcast and the nodes receiving it.
+     */
+    private final Map<Object, Collection<?>> broadcastMap = new LinkedHashMap<>();
+
+    private SmallBlock smallBlock;
+
+    @Before
+    public void init() throws Exception {
+        legacyNode = new Node("1.1.1.1", 8001, Node.OUT);
+        legacyNode.setVersion("1.0.0");
+        compactNode = new Node("2.2.2.2", 8001, Node.OUT);
+        compactNode.setVersion("1.1.0");
+        List<Node> nodeList = Arrays.asList(legacyNode, compactNode);
+
+        NetworkService networkService = (NetworkService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{NetworkService.class}, (proxy, method, args) -> {
+                    if ("getAvailableNodes".equals(method.getName())) {
+                        return nodeList;
+                    }
+                    return null;
+                });
+        MessageBusService messageBusService = (MessageBusService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{MessageBusService.class}, (proxy, method, args) -> {
+                    if ("broadcast".equals(method.getName()) && args[1] instanceof Collection) {
+                        Collection<?> nodes = (Collection<?>) args[1];
+                        broadcastMap.put(args[0], nodes);
+                        List<String> idList = new ArrayList<>();
+                        for (Object node : nodes) {
+                            idList.add(((Node) node).getId());
+                        }
+                        return Result.getSuccess().setData(idList);
+                    }
+                    return null;
+                });
+        setField("networkService", networkService);
+        setField("messageBusService", messageBusService);
+
+        TransactionManager.putTx(TransferTransaction.class, null);
+        List<NulsDigestData> hashList = new ArrayList<>();
+        Transaction baseTx = null;
+        for (int i = 0; i < 10; i++) {
+            Transaction tx = new TransferTransaction();
+            tx.setTime(i);
+            tx.setHash(NulsDigestData.calcDigestData(tx.serializeForHash()));
+            hashList.add(tx.getHash());
+            if (null == baseTx) {
+                baseTx = tx;
+            }
+        }
+        BlockHeader header = new BlockHeader();
+        header.setPreHash(NulsDigestData.calcDigestData(new byte[]{1}));
+        header.setMerkleHash(NulsDigestData.calcMerkleDigestData(new ArrayList<>(hashList)));
+        header.setHeight(10);
+        header.setTime(1000L);
+        header.setTxCount(hashList.size());
+        smallBlock = new SmallBlock();
+        smallBlock.setHeader(header);
+        smallBlock.setTxHashList(hashList);
+        smallBlock.addBaseTx(baseTx);
+    }
+
+    @Test
+    public void testLegacyPeerGetsSmallBlock() {
+        Result<List<String>> result = service.broadcastBlock(smallBlock);
+        assertTrue(result.isSuccess());
+        assertEquals(Arrays.asList(compactNode.getId(), legacyNode.getId()), result.getData());
+
+        // 每组一次广播，旧版本节点不认识紧凑区块消息，只能收到小区块
+        assertEquals(2, broadcastMap.size());
+        for (Map.Entry<Object, Collection<?>> entry : broadcastMap.entrySet()) {
+            if (entry.getKey() instanceof SmallBlockMessage) {
+                assertEquals(Collections.singletonList(legacyNode), new ArrayList<>(entry.getValue()));
+                assertSame(smallBlock, ((SmallBlockMessage) entry.getKey()).getMsgBody());
+            } else {
+                assertTrue(entry.getKey() instanceof CompactBlockMessage);
+                assertEquals(Collections.singletonList(compactNode), new ArrayList<>(entry.getValue()));
+            }
+        }
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = BlockServiceImpl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+}
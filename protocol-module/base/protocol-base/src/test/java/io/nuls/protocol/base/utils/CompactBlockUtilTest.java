@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.base.utils;
+
+import io.nuls.core.tools.crypto.SipHash;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.TransactionManager;
+import io.nuls.protocol.model.CompactBlock;
+import io.nuls.protocol.model.SmallBlock;
+import io.nuls.protocol.model.tx.TransferTransaction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author: Niels Wang
+ */
+public class CompactBlockUtilTest {
+
+    private List<Transaction> txList;
+    private SmallBlock smallBlock;
+
+    @Before
+    public void init() throws Exception {
+        TransactionManager.putTx(TransferTransaction.class, null);
+        txList = new ArrayList<>();
+        List<NulsDigestData> hashList = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Transaction tx = new TransferTransaction();
+            tx.setTime(i);
+            tx.setHash(NulsDigestData.calcDigestData(tx.serializeForHash()));
+            txList.add(tx);
+            hashList.add(tx.getHash());
+        }
+        BlockHeader header = new BlockHeader();
+        header.setPreHash(NulsDigestData.calcDigestData(new byte[]{1}));
+        header.setMerkleHash(NulsDigestData.calcMerkleDigestData(new ArrayList<>(hashList)));
+        header.setHeight(10);
+        header.setTime(1000L);
+        header.setTxCount(hashList.size());
+        header.setExtend(new byte[]{1, 2, 3});
+        smallBlock = new SmallBlock();
+        smallBlock.setHeader(header);
+        smallBlock.setTxHashList(hashList);
+        smallBlock.addBaseTx(txList.get(0));
+    }
+
+    @Test
+    public void testSipHash() {
+        byte[] data = new byte[15];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        // reference vector of SipHash-2-4, key 00..0f
+        assertEquals(0xa129ca6149be45e5L, SipHash.hash(0x0706050403020100L, 0x0f0e0d0c0b0a0908L, data));
+    }
+
+    @Test
+    public void testRebuild() throws Exception {
+        CompactBlock compactBlock = CompactBlockUtil.toCompactBlock(smallBlock);
+        assertNotNull(compactBlock);
+        assertTrue(compactBlock.size() < smallBlock.size());
+
+        byte[] bytes = compactBlock.serialize();
+        assertEquals(compactBlock.size(), bytes.length);
+        CompactBlock received = new NulsByteBuffer(bytes).readNulsData(new CompactBlock());
+        assertEquals(compactBlock.getShortIdList(), received.getShortIdList());
+        assertEquals(1, received.getPrefilledTxList().size());
+
+        List<Transaction> pool = new ArrayList<>(txList.subList(1, 150));
+        Collections.shuffle(pool);
+        List<Integer> missingList = CompactBlockUtil.resolve(received, pool);
+        assertNotNull(missingList);
+        assertEquals(50, missingList.size());
+        assertEquals(150, (int) missingList.get(0));
+
+        assertFalse(CompactBlockUtil.fill(received, txList.subList(151, 200)));
+        assertTrue(CompactBlockUtil.fill(received, txList.subList(150, 200)));
+        Block block = CompactBlockUtil.assemblyBlock(received);
+        assertNotNull(block);
+        for (int i = 0; i < txList.size(); i++) {
+            assertEquals(txList.get(i).getHash(), block.getTxs().get(i).getHash());
+        }
+    }
+}
@@ -30,6 +30,7 @@ import com.google.common.hash.Funnels;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Transaction;
 import io.nuls.protocol.model.tx.TransferTransaction;
+import io.nuls.core.tools.crypto.Hex;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -39,6 +40,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertTrue;
+
 /**
  * @author: Niels Wang
  * @date: 2018/7/8
@@ -119,4 +122,28 @@ public class InventoryFilterTest {
         System.out.println("real-size====" + set.size());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRolling() {
+        int elements = 10000;
+        InventoryFilter filter = new InventoryFilter(elements);
+        for (int i = 0; i < elements * 10; i++) {
+            byte[] key = key(i);
+            filter.insert(key);
+            // the most recent elements inserts must never be forgotten
+            assertTrue(filter.contains(key(Math.max(0, i - elements + 1))));
+            assertTrue(filter.contains(key));
+        }
+        int falsePositives = 0;
+        for (int i = elements * 10; i < elements * 20; i++) {
+            if (filter.contains(key(i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 10);
+    }
+
+    private byte[] key(int i) {
+        return NulsDigestData.calcDigestData(Hex.decode(String.format("%08x", i))).getDigestBytes();
+    }
+}
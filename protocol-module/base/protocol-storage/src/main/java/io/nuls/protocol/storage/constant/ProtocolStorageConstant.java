@@ -49,4 +49,16 @@ public interface ProtocolStorageConstant {
      * The index value of the latest block hash stored in the database.
      */
     String BEST_BLOCK_HASH_INDEX = "best_block_hash_index";
+
+    /**
+     * 区块保存/回滚预写记录表名称
+     * Write-ahead record table of block saves and rollbacks.
+     */
+    String DB_NAME_BLOCK_JOURNAL = "block_journal";
+
+    /**
+     * 未完成的区块保存/回滚记录的键
+     * Key of the unfinished block save or rollback record.
+     */
+    String UNFINISHED_BLOCK_KEY = "unfinished_block";
 }
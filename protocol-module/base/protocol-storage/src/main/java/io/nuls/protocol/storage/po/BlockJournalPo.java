@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.storage.po;
+
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.BaseNulsData;
+import io.nuls.kernel.model.Block;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.NulsOutputStreamBuffer;
+import io.nuls.kernel.utils.SerializeUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 区块保存/回滚的预写记录，只包含高度、区块摘要和交易摘要，交易本身从账本存储中读取
+ * 保存区块时记录随区块的跨区域批量操作一起提交，回滚区块时在任何存储改动之前写入、随回滚的批量操作一起删除，
+ * 重启时根据这条记录补完或撤销不在批量操作之中的交易业务数据与本地账户账本
+ * <p>
+ * Write-ahead record of a block save or rollback. It only holds the height, the block hash and the tx hashes, the
+ * transactions themselves are read back from the ledger storage. A save commits the record within the multi-area
+ * batch of the block, a rollback writes it before any storage is touched and removes it within the rollback batch.
+ * At restart the record is used to complete or undo the transaction business data and the local account ledger,
+ * which are not part of the batch.
+ */
+public class BlockJournalPo extends BaseNulsData {
+
+    public static final byte TYPE_SAVE = 1;
+    public static final byte TYPE_ROLLBACK = 2;
+
+    private byte type;
+
+    private long height;
+
+    private NulsDigestData hash;
+
+    private List<NulsDigestData> txHashList;
+
+    public BlockJournalPo() {
+    }
+
+    public BlockJournalPo(byte type, Block block) {
+        this.type = type;
+        this.height = block.getHeader().getHeight();
+        this.hash = block.getHeader().getHash();
+        this.txHashList = new ArrayList<>(block.getTxs().size());
+        for (Transaction tx : block.getTxs()) {
+            this.txHashList.add(tx.getHash());
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 1;
+        size += SerializeUtils.sizeOfVarInt(height);
+        size += SerializeUtils.sizeOfNulsData(hash);
+        size += SerializeUtils.sizeOfVarInt(txHashList.size());
+        for (NulsDigestData txHash : txHashList) {
+            size += SerializeUtils.sizeOfNulsData(txHash);
+        }
+        return size;
+    }
+
+    @Override
+    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        stream.write(type);
+        stream.writeVarInt(height);
+        stream.writeNulsData(hash);
+        stream.writeVarInt(txHashList.size());
+        for (NulsDigestData txHash : txHashList) {
+            stream.writeNulsData(txHash);
+        }
+    }
+
+    @Override
+    public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        this.type = byteBuffer.readByte();
+        this.height = byteBuffer.readVarInt();
+        this.hash = byteBuffer.readHash();
+        long count = byteBuffer.readVarInt();
+        this.txHashList = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            this.txHashList.add(byteBuffer.readHash());
+        }
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public void setType(byte type) {
+        this.type = type;
+    }
+
+    public long getHeight() {
+        return height;
+    }
+
+    public void setHeight(long height) {
+        this.height = height;
+    }
+
+    public NulsDigestData getHash() {
+        return hash;
+    }
+
+    public void setHash(NulsDigestData hash) {
+        this.hash = hash;
+    }
+
+    public List<NulsDigestData> getTxHashList() {
+        return txHashList;
+    }
+
+    public void setTxHashList(List<NulsDigestData> txHashList) {
+        this.txHashList = txHashList;
+    }
+}
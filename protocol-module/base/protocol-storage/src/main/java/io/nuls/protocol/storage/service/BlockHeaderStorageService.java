@@ -25,9 +25,11 @@
 
 package io.nuls.protocol.storage.service;
 
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Result;
 import io.nuls.protocol.storage.po.BlockHeaderPo;
+import io.nuls.protocol.storage.po.BlockJournalPo;
 
 /**
  * 区块头数据存储服务接口
@@ -64,6 +66,16 @@ public interface BlockHeaderStorageService {
      */
     Result saveBlockHeader(BlockHeaderPo po);
 
+    /**
+     * 将区块头数据写入跨区域批量操作，区块头先于高度索引写入
+     * Stage the block header data into the multi-area batch, the header is staged before the height index.
+     *
+     * @param po    区块头数据/block header data
+     * @param batch 跨区域批量操作/multi-area batch
+     * @return 操作结果/operating result
+     */
+    Result saveBlockHeader(BlockHeaderPo po, MultiAreaBatchOperation batch);
+
     /**
      * 从存储中删除区块头数据
      * Remove block header data from storage.
@@ -73,9 +85,59 @@ public interface BlockHeaderStorageService {
      */
     Result removeBlockHerader(BlockHeaderPo po);
 
+    /**
+     * 将区块头的删除写入跨区域批量操作，高度索引先于区块头删除
+     * Stage the removal of the block header into the multi-area batch, the height index is removed before the header.
+     *
+     * @param po    区块头/block header data
+     * @param batch 跨区域批量操作/multi-area batch
+     * @return 操作结果/operating result
+     */
+    Result removeBlockHerader(BlockHeaderPo po, MultiAreaBatchOperation batch);
+
     /**
      * 获取最新的区块头
      * Get the latest block header.
      */
     BlockHeaderPo getBestBlockHeaderPo();
+
+    /**
+     * 同步写入区块回滚的预写记录，同一时间只有一条
+     * Write the write-ahead record of a block rollback synchronously, there is only one at a time.
+     *
+     * @param po 预写记录/write-ahead record
+     * @return 操作结果/operating result
+     */
+    Result saveBlockJournal(BlockJournalPo po);
+
+    /**
+     * 将区块保存的预写记录写入区块的跨区域批量操作
+     * Stage the write-ahead record of a block save into the multi-area batch of the block.
+     *
+     * @param po    预写记录/write-ahead record
+     * @param batch 跨区域批量操作/multi-area batch
+     * @return 操作结果/operating result
+     */
+    Result saveBlockJournal(BlockJournalPo po, MultiAreaBatchOperation batch);
+
+    /**
+     * 获取未完成的区块保存/回滚记录，没有时返回null
+     * Get the unfinished block save or rollback record, null if there is none.
+     */
+    BlockJournalPo getBlockJournal();
+
+    /**
+     * 区块保存/回滚全部完成后删除预写记录
+     * Remove the write-ahead record once the block save or rollback is completely done.
+     */
+    Result removeBlockJournal();
+
+    /**
+     * 将预写记录的删除写入跨区域批量操作
+     * Stage the removal of the write-ahead record into the multi-area batch.
+     *
+     * @param batch 跨区域批量操作/multi-area batch
+     * @return 操作结果/operating result
+     */
+    Result removeBlockJournal(MultiAreaBatchOperation batch);
 }
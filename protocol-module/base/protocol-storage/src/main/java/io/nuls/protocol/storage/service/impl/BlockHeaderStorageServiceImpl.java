@@ -28,6 +28,7 @@ package io.nuls.protocol.storage.service.impl;
 import io.nuls.core.tools.log.Log;
 import io.nuls.db.constant.DBErrorCode;
 import io.nuls.db.service.DBService;
+import io.nuls.db.service.MultiAreaBatchOperation;
 import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.exception.NulsRuntimeException;
@@ -39,9 +40,11 @@ import io.nuls.kernel.model.Result;
 import io.nuls.kernel.utils.VarInt;
 import io.nuls.protocol.storage.constant.ProtocolStorageConstant;
 import io.nuls.protocol.storage.po.BlockHeaderPo;
+import io.nuls.protocol.storage.po.BlockJournalPo;
 import io.nuls.protocol.storage.service.BlockHeaderStorageService;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 区块头数据存储服务实现类
@@ -55,6 +58,8 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
 
     private byte[] BEST_BLOCK_KEY;
 
+    private static final byte[] UNFINISHED_BLOCK_KEY = ProtocolStorageConstant.UNFINISHED_BLOCK_KEY.getBytes(StandardCharsets.UTF_8);
+
     /**
      * 通用数据存储服务
      * Universal data storage services.
@@ -76,6 +81,10 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         if (result.isFailed() && !DBErrorCode.DB_AREA_EXIST.equals(result.getErrorCode())) {
             throw new NulsRuntimeException(result.getErrorCode());
         }
+        result = this.dbService.createArea(ProtocolStorageConstant.DB_NAME_BLOCK_JOURNAL);
+        if (result.isFailed() && !DBErrorCode.DB_AREA_EXIST.equals(result.getErrorCode())) {
+            throw new NulsRuntimeException(result.getErrorCode());
+        }
         try {
             BEST_BLOCK_KEY = NulsDigestData.calcDigestData(ProtocolStorageConstant.BEST_BLOCK_HASH_INDEX.getBytes()).serialize();
         } catch (IOException e) {
@@ -188,6 +197,38 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         return Result.getSuccess();
     }
 
+    /**
+     * 将区块头数据写入跨区域批量操作
+     * Stage the block header data into the multi-area batch.
+     *
+     * @param po    区块头数据/block header data
+     * @param batch 跨区域批量操作/multi-area batch
+     * @return 操作结果/operating result
+     */
+    @Override
+    public Result saveBlockHeader(BlockHeaderPo po, MultiAreaBatchOperation batch) {
+        if (null == po || null == batch) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        byte[] hashBytes;
+        Result result;
+        try {
+            hashBytes = po.getHash().serialize();
+            result = batch.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER, hashBytes, po.serialize());
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.IO_ERROR);
+        }
+        if (result.isFailed()) {
+            return result;
+        }
+        result = batch.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, new VarInt(po.getHeight()).encode(), hashBytes);
+        if (result.isFailed()) {
+            return result;
+        }
+        return batch.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, BEST_BLOCK_KEY, hashBytes);
+    }
+
     private Result removeBlockHerader(byte[] hashBytes) {
         if (null == hashBytes) {
             return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
@@ -221,6 +262,35 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         }
     }
 
+    /**
+     * 将区块头的删除写入跨区域批量操作
+     * Stage the removal of the block header into the multi-area batch.
+     *
+     * @param po    区块头,摘要和高度必须要有/Block heads, abstracts and heights must be available.
+     * @param batch 跨区域批量操作/multi-area batch
+     * @return 操作结果/operating result
+     */
+    @Override
+    public Result removeBlockHerader(BlockHeaderPo po, MultiAreaBatchOperation batch) {
+        if (null == po || po.getHeight() < 0 || po.getHash() == null || po.getPreHash() == null || null == batch) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        Result result = batch.delete(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, new VarInt(po.getHeight()).encode());
+        if (result.isFailed()) {
+            return result;
+        }
+        try {
+            result = batch.put(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER_INDEX, BEST_BLOCK_KEY, po.getPreHash().serialize());
+            if (result.isFailed()) {
+                return result;
+            }
+            return batch.delete(ProtocolStorageConstant.DB_NAME_BLOCK_HEADER, po.getHash().serialize());
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.IO_ERROR);
+        }
+    }
+
     /**
      * 获取最新区块头数据
      * Gets the latest block header data.
@@ -234,4 +304,77 @@ public class BlockHeaderStorageServiceImpl implements BlockHeaderStorageService,
         return getBlockHeaderPo(hashBytes);
     }
 
+    /**
+     * 同步写入区块回滚的预写记录，单区域的批量操作会同步落盘
+     * Write the write-ahead record of a block rollback, a single-area batch is synced to disk.
+     *
+     * @param po 预写记录/write-ahead record
+     * @return 操作结果/operating result
+     */
+    @Override
+    public Result saveBlockJournal(BlockJournalPo po) {
+        if (null == po || null == po.getHash()) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        MultiAreaBatchOperation batch = dbService.createMultiAreaWriteBatch();
+        Result result = saveBlockJournal(po, batch);
+        if (result.isFailed()) {
+            return result;
+        }
+        return batch.executeBatch();
+    }
+
+    /**
+     * 将区块保存的预写记录写入区块的跨区域批量操作，与区块一起提交
+     * Stage the write-ahead record of a block save into the multi-area batch of the block, it is committed with the block.
+     *
+     * @param po    预写记录/write-ahead record
+     * @param batch 跨区域批量操作/multi-area batch
+     * @return 操作结果/operating result
+     */
+    @Override
+    public Result saveBlockJournal(BlockJournalPo po, MultiAreaBatchOperation batch) {
+        if (null == po || null == po.getHash() || null == batch) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        try {
+            return batch.put(ProtocolStorageConstant.DB_NAME_BLOCK_JOURNAL, UNFINISHED_BLOCK_KEY, po.serialize());
+        } catch (IOException e) {
+            Log.error(e);
+            return Result.getFailed(KernelErrorCode.IO_ERROR);
+        }
+    }
+
+    @Override
+    public BlockJournalPo getBlockJournal() {
+        byte[] bytes = dbService.get(ProtocolStorageConstant.DB_NAME_BLOCK_JOURNAL, UNFINISHED_BLOCK_KEY);
+        if (null == bytes) {
+            return null;
+        }
+        BlockJournalPo po = new BlockJournalPo();
+        try {
+            po.parse(bytes, 0);
+        } catch (NulsException e) {
+            Log.error(e);
+            return null;
+        }
+        return po;
+    }
+
+    /**
+     * 删除预写记录，不需要同步落盘：记录残留时重启只会重复执行一次补完
+     * Remove the write-ahead record without a sync, a leftover record only repeats the completion once at restart.
+     */
+    @Override
+    public Result removeBlockJournal() {
+        return dbService.delete(ProtocolStorageConstant.DB_NAME_BLOCK_JOURNAL, UNFINISHED_BLOCK_KEY);
+    }
+
+    @Override
+    public Result removeBlockJournal(MultiAreaBatchOperation batch) {
+        if (null == batch) {
+            return Result.getFailed(KernelErrorCode.NULL_PARAMETER);
+        }
+        return batch.delete(ProtocolStorageConstant.DB_NAME_BLOCK_JOURNAL, UNFINISHED_BLOCK_KEY);
+    }
 }
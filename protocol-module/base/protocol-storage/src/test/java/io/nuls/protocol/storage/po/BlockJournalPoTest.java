@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.protocol.storage.po;
+
+import io.nuls.kernel.model.NulsDigestData;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 区块预写记录单元测试
+ * Block write-ahead record unit test.
+ *
+ * @author: Niels Wang
+ */
+public class BlockJournalPoTest {
+
+    /**
+     * 预写记录只包含高度和摘要，序列化后能完整还原
+     * The record only holds the height and the hashes, and is restored completely from its serialized form.
+     */
+    @Test
+    public void serializeAndParse() throws Exception {
+        BlockJournalPo po = new BlockJournalPo();
+        po.setType(BlockJournalPo.TYPE_SAVE);
+        po.setHeight(1286L);
+        po.setHash(NulsDigestData.calcDigestData("block-hash".getBytes()));
+        List<NulsDigestData> txHashList = new ArrayList<>();
+        txHashList.add(NulsDigestData.calcDigestData("first-tx-hash".getBytes()));
+        txHashList.add(NulsDigestData.calcDigestData("second-tx-hash".getBytes()));
+        po.setTxHashList(txHashList);
+
+        byte[] bytes = po.serialize();
+        assertEquals(po.size(), bytes.length);
+
+        BlockJournalPo newPo = new BlockJournalPo();
+        newPo.parse(bytes, 0);
+        assertEquals(BlockJournalPo.TYPE_SAVE, newPo.getType());
+        assertEquals(po.getHeight(), newPo.getHeight());
+        assertEquals(po.getHash(), newPo.getHash());
+        assertEquals(txHashList, newPo.getTxHashList());
+    }
+}
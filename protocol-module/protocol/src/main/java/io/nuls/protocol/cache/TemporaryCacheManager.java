@@ -27,8 +27,11 @@ package io.nuls.protocol.cache;
 import io.nuls.cache.LimitHashMap;
 import io.nuls.kernel.model.NulsDigestData;
 import io.nuls.kernel.model.Transaction;
+import io.nuls.protocol.model.CompactBlock;
 import io.nuls.protocol.model.SmallBlock;
 
+import java.util.Collection;
+
 /**
  * Used for sharing temporary data between multiple hander.
  * 用于不同的handler之间共享交易数据，交易缓存池中的数据已经放入，直到自动销毁前，不做清理
@@ -40,6 +43,7 @@ public class TemporaryCacheManager {
 
     private LimitHashMap<NulsDigestData, SmallBlock> smallBlockCacheMap = new LimitHashMap<>(100);
     private LimitHashMap<NulsDigestData, NulsDigestData> smallBlockHashCacheMap = new LimitHashMap<>(100);
+    private LimitHashMap<NulsDigestData, CompactBlock> compactBlockCacheMap = new LimitHashMap<>(100);
 //    private CacheMap<NulsDigestData, Transaction> txCacheMap = new CacheMap<>("temp-tx-cache", 128, NulsDigestData.class, Transaction.class, 0, 3600);
 
     private LimitHashMap<NulsDigestData, Transaction> txCacheMap = new LimitHashMap<>(100000);
@@ -84,6 +88,32 @@ public class TemporaryCacheManager {
         return smallBlockCacheMap.get(blockHash);
     }
 
+    /**
+     * 缓存等待补全交易的紧凑区块，以补全请求的摘要为标识
+     * Cache a compact block that waits for its missing transactions, identified by the hash of the request.
+     *
+     * @param requestHash  getBlockTxsRequestHash
+     * @param compactBlock 部分还原的紧凑区块/the partially resolved compact block
+     */
+    public void cacheCompactBlockWithRequest(NulsDigestData requestHash, CompactBlock compactBlock) {
+        compactBlockCacheMap.put(requestHash, compactBlock);
+    }
+
+    /**
+     * 取出等待补全交易的紧凑区块，取出后从缓存中移除
+     * Take the compact block waiting for the answered request, it is removed from the cache.
+     *
+     * @param requestHash getBlockTxsRequestHash
+     * @return CompactBlock
+     */
+    public CompactBlock takeCompactBlockByRequest(NulsDigestData requestHash) {
+        CompactBlock compactBlock = compactBlockCacheMap.get(requestHash);
+        if (null != compactBlock) {
+            compactBlockCacheMap.remove(requestHash);
+        }
+        return compactBlock;
+    }
+
     /**
      * 缓存一个交易，缓存的标识就是交易的hash对象，该交易在内存中存在，直到内存大小达到限制或者存活时间超过1000秒
      * Cache a transaction where the identity of the cache is the hash object of the transaction,
@@ -129,6 +159,7 @@ public class TemporaryCacheManager {
      */
     public void clear() {
         this.smallBlockCacheMap.clear();
+        this.compactBlockCacheMap.clear();
         this.txCacheMap.clear();
     }
 
@@ -138,9 +169,20 @@ public class TemporaryCacheManager {
      */
     public void destroy() {
         this.smallBlockCacheMap.clear();
+        this.compactBlockCacheMap.clear();
         this.txCacheMap.clear();
     }
 
+    /**
+     * 缓存中的所有交易，用于还原紧凑区块
+     * All cached transactions, used to resolve compact blocks.
+     *
+     * @return transactions
+     */
+    public Collection<Transaction> getTxs() {
+        return txCacheMap.values();
+    }
+
     public boolean containsTx(NulsDigestData txHash) {
         return txCacheMap.containsKey(txHash);
     }
@@ -158,6 +158,79 @@ public interface ProtocolConstant extends NulsConstant {
     short PROTOCOL_FORWARD_NEW_BLOCK = 18;
     short PROTOCOL_GET_SMALL_BLOCK = 19;
     short PROTOCOL_GET_TRANSACTION = 20;
+    /**
+     * 批量通告新交易摘要的消息类型
+     * The type of message announcing a batch of new transaction digests
+     */
+    short PROTOCOL_TX_INVENTORY = 21;
+    /**
+     * 批量获取交易的消息类型
+     * The type of message fetching a batch of transactions
+     */
+    short PROTOCOL_GET_TXS = 22;
+    /**
+     * 批量获取交易的应答消息类型
+     * The type of message answering a batch transaction fetch
+     */
+    short PROTOCOL_TXS = 23;
+    /**
+     * 紧凑区块的消息类型
+     * The type of message carrying a compact block
+     */
+    short PROTOCOL_COMPACT_BLOCK = 24;
+    /**
+     * 获取紧凑区块的消息类型
+     * The type of message requesting a compact block
+     */
+    short PROTOCOL_GET_COMPACT_BLOCK = 25;
+    /**
+     * 按区块内序号获取交易的消息类型
+     * The type of message fetching transactions of a block by their index
+     */
+    short PROTOCOL_GET_BLOCK_TXS = 26;
+    /**
+     * 按区块内序号获取交易的应答消息类型
+     * The type of message answering a fetch of block transactions by index
+     */
+    short PROTOCOL_BLOCK_TXS = 27;
+
+    /**
+     * 单个交易清单或批量请求中最多的交易摘要数
+     * Max transaction digests in one inventory or batch request
+     */
+    int MAX_TX_INVENTORY_SIZE = 1000;
+    /**
+     * 每个节点待通告交易队列的最大长度，超出后丢弃
+     * Max length of the per node announce queue, digests beyond it are dropped
+     */
+    int MAX_TX_INVENTORY_QUEUE_SIZE = 50000;
+    /**
+     * 发送交易清单的间隔（毫秒）
+     * Interval between two inventory flushes in milliseconds
+     */
+    int TX_INVENTORY_INTERVAL = 200;
+    /**
+     * 每个节点记录的已知交易摘要数，已知的交易不再向该节点通告
+     * Max transaction digests remembered as known per node, known transactions are never announced to the node again
+     */
+    int MAX_KNOWN_TX_INVENTORY_SIZE = 20000;
+    /**
+     * 支持交易清单（TxInventory、GetTxs、Txs）的最低节点版本，更低版本的节点仍收到ForwardTxMessage
+     * Lowest peer version supporting transaction inventories (TxInventory, GetTxs, Txs),
+     * older peers still receive ForwardTxMessage
+     */
+    String TX_INVENTORY_MIN_VERSION = "1.1.0";
+    /**
+     * 支持紧凑区块（CompactBlock、GetCompactBlock）的最低节点版本，更低版本的节点仍收到SmallBlockMessage
+     * Lowest peer version supporting compact blocks (CompactBlock, GetCompactBlock),
+     * older peers still receive SmallBlockMessage
+     */
+    String COMPACT_BLOCK_MIN_VERSION = "1.1.0";
+    /**
+     * 单个批量应答消息中交易的最大字节数
+     * Max bytes of transactions in one batch answer
+     */
+    int MAX_TXS_MESSAGE_BYTES = 2 * 1024 * 1024;
 
 
     /**
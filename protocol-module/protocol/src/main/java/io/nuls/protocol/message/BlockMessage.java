@@ -26,8 +26,11 @@ package io.nuls.protocol.message;
 import io.nuls.kernel.exception.NulsException;
 import io.nuls.kernel.model.Block;
 import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.NulsOutputStreamBuffer;
 import io.nuls.protocol.constant.ProtocolConstant;
 
+import java.io.IOException;
+
 /**
  * 区块在网络消息中的承载类
  * The host class of the block in the network message.
@@ -35,10 +38,40 @@ import io.nuls.protocol.constant.ProtocolConstant;
  * @author Niels
  */
 public class BlockMessage extends BaseProtocolMessage<Block> {
+
+    /**
+     * 已序列化的区块，不为空时直接写出，发送方无需重新序列化区块
+     * The already serialized block, written as is when present so the sender skips serializing the block again.
+     */
+    private transient byte[] blockBytes;
+
     public BlockMessage() {
         super(ProtocolConstant.PROTOCOL_BLOCK);
     }
 
+    public BlockMessage(byte[] blockBytes) {
+        this();
+        this.blockBytes = blockBytes;
+    }
+
+    @Override
+    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        if (blockBytes == null) {
+            super.serializeToStream(stream);
+            return;
+        }
+        stream.writeNulsData(getHeader());
+        stream.write(blockBytes);
+    }
+
+    @Override
+    public int size() {
+        if (blockBytes == null) {
+            return super.size();
+        }
+        return getHeader().size() + blockBytes.length;
+    }
+
     @Override
     protected Block parseMessageBody(NulsByteBuffer byteBuffer) throws NulsException {
         return byteBuffer.readNulsData(new Block());
@@ -31,6 +31,7 @@ import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.utils.NulsOutputStreamBuffer;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * 所有网络上传输的消息的基类，定义了网络消息的基本格式
@@ -63,8 +64,8 @@ public abstract class BaseMessage<T extends BaseNulsData> extends BaseNulsData {
 //     */
     @Override
     protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        stream.write(header.serialize());
-        stream.write(msgBody.serialize());
+        stream.writeNulsData(header);
+        stream.writeNulsData(msgBody);
     }
 
     @Override
@@ -96,18 +97,14 @@ public abstract class BaseMessage<T extends BaseNulsData> extends BaseNulsData {
         if (header == null || msgBody == null) {
             return 0x00;
         }
-        byte xor = 0x00;
-        byte[] data = new byte[0];
+        XorOutputStream xor = new XorOutputStream();
         try {
-            data = msgBody.serialize();
+            msgBody.serialize(xor);
         } catch (IOException e) {
             Log.error(e);
         }
-        for (int i = 0; i < data.length; i++) {
-            xor ^= data[i];
-        }
-        header.setXor(xor);
-        return xor;
+        header.setXor(xor.value);
+        return xor.value;
     }
 
     public T getMsgBody() {
@@ -137,4 +134,25 @@ public abstract class BaseMessage<T extends BaseNulsData> extends BaseNulsData {
         return hash;
     }
 
+
+    /**
+     * 边写边异或，封存的消息体直接以原始字节流过，不生成中间数组
+     * XORs the bytes as they are written, a sealed body streams its original bytes through without an intermediate array
+     */
+    private static class XorOutputStream extends OutputStream {
+
+        private byte value;
+
+        @Override
+        public void write(int b) {
+            value ^= (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                value ^= b[i];
+            }
+        }
+    }
 }
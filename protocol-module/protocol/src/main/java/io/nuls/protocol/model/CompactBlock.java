@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package io.nuls.protocol.model;
+
+import io.nuls.core.tools.crypto.Sha256Hash;
+import io.nuls.core.tools.crypto.SipHash;
+import io.nuls.kernel.exception.NulsException;
+import io.nuls.kernel.model.BaseNulsData;
+import io.nuls.kernel.model.BlockHeader;
+import io.nuls.kernel.model.NulsDigestData;
+import io.nuls.kernel.model.Transaction;
+import io.nuls.kernel.utils.NulsByteBuffer;
+import io.nuls.kernel.utils.NulsOutputStreamBuffer;
+import io.nuls.kernel.utils.SerializeUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 紧凑区块，与小区块作用相同，但交易摘要被替换为按区块加盐的6字节短标识
+ * 接收方使用交易池中的交易还原区块，短标识冲突时退回到携带完整摘要的小区块
+ * Compact block, used like the SmallBlock but every transaction hash is replaced by a 6 byte short id salted per block.
+ * The receiver rebuilds the block from the transactions it already has and falls back to the SmallBlock with full
+ * hashes when short ids collide.
+ *
+ * @author Niels
+ */
+public class CompactBlock extends BaseNulsData {
+
+    public static final int SHORT_ID_LENGTH = 6;
+
+    private static final long SHORT_ID_MASK = 0xFFFFFFFFFFFFL;
+
+    /**
+     * 区块头
+     * block header
+     */
+    private BlockHeader header;
+
+    /**
+     * 短标识的盐
+     * salt of the short ids
+     */
+    private long nonce;
+
+    /**
+     * 按区块内顺序排列的交易短标识
+     * short ids of all transactions, in block order
+     */
+    private List<Long> shortIdList;
+
+    /**
+     * 预先填充的交易（其他节点一定没有的交易）
+     * Prefilled transactions (transactions that no other node can have)
+     */
+    private List<Transaction> prefilledTxList = new ArrayList<>();
+
+    /**
+     * 接收方还原过程中已找到的交易，不参与序列化
+     * Transactions already resolved by the receiver, not serialized.
+     */
+    private transient Transaction[] resolvedTxs;
+
+    private transient long[] keys;
+
+    public CompactBlock() {
+    }
+
+    @Override
+    public int size() {
+        int size = header.size();
+        size += SerializeUtils.sizeOfInt64();
+        size += SerializeUtils.sizeOfVarInt(shortIdList.size());
+        size += shortIdList.size() * SHORT_ID_LENGTH;
+        size += SerializeUtils.sizeOfVarInt(prefilledTxList.size());
+        for (Transaction tx : prefilledTxList) {
+            size += SerializeUtils.sizeOfNulsData(tx);
+        }
+        return size;
+    }
+
+    @Override
+    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        stream.writeNulsData(header);
+        stream.writeInt64(nonce);
+        stream.writeVarInt(shortIdList.size());
+        for (Long shortId : shortIdList) {
+            stream.writeUint48(shortId);
+        }
+        stream.writeVarInt(prefilledTxList.size());
+        for (Transaction tx : prefilledTxList) {
+            stream.writeNulsData(tx);
+        }
+    }
+
+    @Override
+    public void parse(NulsByteBuffer byteBuffer) throws NulsException {
+        this.header = byteBuffer.readNulsData(new BlockHeader());
+        this.nonce = byteBuffer.readInt64();
+
+        long shortIdCount = byteBuffer.readVarInt();
+        this.shortIdList = new ArrayList<>();
+        for (int i = 0; i < shortIdCount; i++) {
+            byte[] bytes = byteBuffer.readBytes(SHORT_ID_LENGTH);
+            long shortId = 0;
+            for (int j = SHORT_ID_LENGTH - 1; j >= 0; j--) {
+                shortId = (shortId << 8) | (bytes[j] & 0xFF);
+            }
+            this.shortIdList.add(shortId);
+        }
+
+        this.prefilledTxList = new ArrayList<>();
+        long prefilledCount = byteBuffer.readVarInt();
+        for (int i = 0; i < prefilledCount; i++) {
+            Transaction tx = byteBuffer.readTransaction();
+            tx.setBlockHeight(header.getHeight());
+            this.prefilledTxList.add(tx);
+        }
+    }
+
+    /**
+     * 计算交易在本区块中的短标识：SipHash-2-4(sha256(区块摘要 + 盐), 交易摘要)的低48位
+     * Short id of a transaction inside this block: the low 48 bits of SipHash-2-4 keyed by sha256(block hash + nonce).
+     *
+     * @param txHash 交易摘要/transaction hash
+     * @return short id
+     */
+    public long getShortId(NulsDigestData txHash) {
+        long[] keys = this.keys;
+        if (null == keys) {
+            byte[] blockHash = header.getHash().getDigestBytes();
+            byte[] seed = new byte[blockHash.length + SerializeUtils.sizeOfInt64()];
+            System.arraycopy(blockHash, 0, seed, 0, blockHash.length);
+            SerializeUtils.uint64ToByteArrayLE(nonce, seed, blockHash.length);
+            byte[] digest = Sha256Hash.hash(seed);
+            keys = new long[]{SipHash.readLongLE(digest, 0), SipHash.readLongLE(digest, 8)};
+            this.keys = keys;
+        }
+        return SipHash.hash(keys[0], keys[1], txHash.getDigestBytes()) & SHORT_ID_MASK;
+    }
+
+    /**
+     * 区块头
+     * block header
+     * @return BlockHeader
+     */
+    public BlockHeader getHeader() {
+        return header;
+    }
+
+    public void setHeader(BlockHeader header) {
+        this.header = header;
+        this.keys = null;
+    }
+
+    public long getNonce() {
+        return nonce;
+    }
+
+    public void setNonce(long nonce) {
+        this.nonce = nonce;
+        this.keys = null;
+    }
+
+    public List<Long> getShortIdList() {
+        return shortIdList;
+    }
+
+    public void setShortIdList(List<Long> shortIdList) {
+        this.shortIdList = shortIdList;
+    }
+
+    public List<Transaction> getPrefilledTxList() {
+        return prefilledTxList;
+    }
+
+    public void setPrefilledTxList(List<Transaction> prefilledTxList) {
+        this.prefilledTxList = prefilledTxList;
+    }
+
+    public Transaction[] getResolvedTxs() {
+        return resolvedTxs;
+    }
+
+    public void setResolvedTxs(Transaction[] resolvedTxs) {
+        this.resolvedTxs = resolvedTxs;
+    }
+}
@@ -28,6 +28,7 @@ import io.nuls.kernel.constant.KernelErrorCode;
 import io.nuls.kernel.lite.annotation.Component;
 import io.nuls.kernel.model.Transaction;
 import io.nuls.kernel.script.P2PKHScriptSig;
+import io.nuls.kernel.script.SignatureCache;
 import io.nuls.kernel.utils.NulsByteBuffer;
 import io.nuls.kernel.validate.NulsDataValidator;
 import io.nuls.kernel.validate.ValidateResult;
@@ -52,8 +53,15 @@ public class TxSignValidator implements NulsDataValidator<Transaction> {
         } catch (Exception e) {
             return ValidateResult.getFailedResult(this.getClass().getName(), KernelErrorCode.SIGNATURE_ERROR);
         }
+        if (SignatureCache.contains(tx.getHash(), p2PKHScriptSig)) {
+            return ValidateResult.getSuccessResult();
+        }
         try {
-            return p2PKHScriptSig.verifySign(tx.getHash());
+            ValidateResult result = p2PKHScriptSig.verifySign(tx.getHash());
+            if (result.isSuccess()) {
+                SignatureCache.add(tx.getHash(), p2PKHScriptSig);
+            }
+            return result;
         } catch (Exception e) {
             Log.error(e);
             return ValidateResult.getFailedResult(this.getClass().getName(), KernelErrorCode.SIGNATURE_ERROR);
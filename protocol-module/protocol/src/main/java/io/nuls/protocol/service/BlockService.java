@@ -113,6 +113,12 @@ public interface BlockService {
      */
     Result rollbackBlock(Block block) throws NulsException;
 
+    /**
+     * 启动时补完上次崩溃时未完成的区块保存/回滚
+     * Complete the block save or rollback that was interrupted by the last crash, called once at startup.
+     */
+    void recoverUnfinishedBlock();
+
     /**
      * 转发区块给连接的其他对等节点，允许一个列外（不转发给它）
      * Forward block to other peers of the connection, allowing one column (not forward to it)
@@ -50,4 +50,12 @@ public class SmallBlockDuplicateRemoval {
     public static void removeForward(NulsDigestData hash) {
         processorOfForward.remove(hash);
     }
+
+    /**
+     * 紧凑区块无法还原时调用，使随后收到的同一区块的小区块能被处理
+     * Called when a compact block cannot be rebuilt, so the SmallBlock of the same block is processed when it arrives.
+     */
+    public static void removeProcessed(NulsDigestData hash) {
+        processorOfSmallBlock.remove(hash);
+    }
 }
@@ -75,6 +75,15 @@ public class BloomFilter {
     }
 
     public static int murmurHash3(byte[] data, long nTweak, int hashNum, byte[] object) {
+        int h1 = murmurHash3(nTweak, hashNum, object);
+        return (int) ((h1 & 0xFFFFFFFFL) % (data.length * 8));
+    }
+
+    /**
+     * 计算未取模的32位murmur3哈希值
+     * Returns the raw 32-bit murmur3 hash, before it is reduced to a bit index.
+     */
+    public static int murmurHash3(long nTweak, int hashNum, byte[] object) {
         int h1 = (int) (hashNum * 0xFBA4C795L + nTweak);
         final int c1 = 0xcc9e2d51;
         final int c2 = 0x1b873593;
@@ -124,7 +133,7 @@ public class BloomFilter {
         h1 *= 0xc2b2ae35;
         h1 ^= h1 >>> 16;
 
-        return (int) ((h1 & 0xFFFFFFFFL) % (data.length * 8));
+        return h1;
     }
 
     public synchronized boolean contains(byte[] object) {
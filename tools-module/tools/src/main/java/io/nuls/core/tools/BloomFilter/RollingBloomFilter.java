@@ -0,0 +1,198 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package io.nuls.core.tools.BloomFilter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Math.*;
+
+/**
+ * 滚动（分代）布隆过滤器
+ * 数据按插入顺序写入当前代，当前代写满后清空最老的一代并将其作为新的当前代，
+ * 因此至少最近插入的elements条数据一定能被查到，不会出现整体清空时的"全部遗忘"。
+ * 插入和查询都不加锁，位数组使用CAS更新。
+ * <p>
+ * Rolling (generational) bloom filter.
+ * Inserts go into the current generation. Once it is full, the oldest generation is cleared and becomes the new
+ * current one, so at least the most recent {@code elements} inserts are always remembered and there is never a
+ * moment where the whole history is forgotten at once. Inserts and lookups are lock-free, bits are set with CAS.
+ *
+ * @author: Niels Wang
+ */
+public class RollingBloomFilter {
+
+    private static final int GENERATIONS = 3;
+    private static final int MAX_HASH_FUNCS = 50;
+
+    private final int elements;
+    private final int generationCapacity;
+    private final long bitsPerGeneration;
+    private final int hashFuncs;
+    private final long nTweak;
+
+    private final AtomicLongArray[] generations;
+    private final AtomicInteger generationSize = new AtomicInteger(0);
+    private volatile int current;
+
+    /**
+     * @param elements          滑动窗口内需要记住的数据条数/number of recent inserts that must be remembered
+     * @param falsePositiveRate 整个窗口的误判率/false-positive rate over the whole window
+     */
+    public RollingBloomFilter(int elements, double falsePositiveRate) {
+        this(elements, falsePositiveRate, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param elements          滑动窗口内需要记住的数据条数/number of recent inserts that must be remembered
+     * @param falsePositiveRate 整个窗口的误判率/false-positive rate over the whole window
+     * @param maxBytes          所有代位数组占用内存的上限，超出时以更高的误判率为代价缩小位数组
+     *                          /memory budget of all generations, bit arrays are shrunk (raising the false-positive
+     *                          rate) when it would be exceeded
+     */
+    public RollingBloomFilter(int elements, double falsePositiveRate, int maxBytes) {
+        if (elements <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || maxBytes <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.elements = elements;
+        // GENERATIONS-1 full generations always cover the window
+        this.generationCapacity = (elements + GENERATIONS - 2) / (GENERATIONS - 1);
+        // a lookup checks every generation, so each one gets an equal share of the false-positive rate
+        double generationRate = falsePositiveRate / GENERATIONS;
+        long bits = (long) ceil(-generationCapacity * log(generationRate) / (log(2) * log(2)));
+        long maxBits = (long) maxBytes * 8 / GENERATIONS;
+        bits = max(64, min(bits, maxBits));
+        this.bitsPerGeneration = (bits + 63) / 64 * 64;
+        int funcs = (int) round((double) bitsPerGeneration / generationCapacity * log(2));
+        this.hashFuncs = max(1, min(funcs, MAX_HASH_FUNCS));
+        this.nTweak = ThreadLocalRandom.current().nextLong();
+        this.generations = new AtomicLongArray[GENERATIONS];
+        for (int i = 0; i < GENERATIONS; i++) {
+            generations[i] = new AtomicLongArray((int) (bitsPerGeneration / 64));
+        }
+    }
+
+    public void insert(byte[] object) {
+        AtomicLongArray bits = generations[current];
+        int h1 = BloomFilter.murmurHash3(nTweak, 0, object);
+        int h2 = BloomFilter.murmurHash3(nTweak, 1, object);
+        for (int i = 0; i < hashFuncs; i++) {
+            long index = bitIndex(h1, h2, i);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long value = bits.get(word);
+            while ((value & mask) == 0 && !bits.compareAndSet(word, value, value | mask)) {
+                value = bits.get(word);
+            }
+        }
+        if (generationSize.incrementAndGet() == generationCapacity) {
+            rotate();
+        }
+    }
+
+    public boolean contains(byte[] object) {
+        int h1 = BloomFilter.murmurHash3(nTweak, 0, object);
+        int h2 = BloomFilter.murmurHash3(nTweak, 1, object);
+        for (AtomicLongArray bits : generations) {
+            if (contains(bits, h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 清空所有代
+     * Forget everything in every generation.
+     */
+    public void clear() {
+        for (AtomicLongArray bits : generations) {
+            clear(bits);
+        }
+        generationSize.set(0);
+    }
+
+    /**
+     * 整个窗口写满时的理论误判率
+     * Theoretical false-positive rate once the whole window is filled.
+     */
+    public double getFalsePositiveRate() {
+        double generationRate = pow(1 - pow(E, -1.0 * hashFuncs * generationCapacity / bitsPerGeneration), hashFuncs);
+        return 1 - pow(1 - generationRate, GENERATIONS);
+    }
+
+    public int getElements() {
+        return elements;
+    }
+
+    public int getHashFuncs() {
+        return hashFuncs;
+    }
+
+    public long getSizeInBytes() {
+        return bitsPerGeneration / 8 * GENERATIONS;
+    }
+
+    @Override
+    public String toString() {
+        return "Rolling bloom filter of " + GENERATIONS + " generations, " + getSizeInBytes() + " bytes with "
+                + hashFuncs + " hash functions.";
+    }
+
+    /**
+     * 只有让当前代计数恰好达到容量的线程执行轮换，其余线程继续写入旧的当前代，
+     * 最多让旧代略微超出容量，不影响正确性。
+     * Only the thread whose insert fills the generation rotates; concurrent inserts keep writing the old generation,
+     * which may overfill it slightly but never loses an entry.
+     */
+    private void rotate() {
+        int next = (current + 1) % GENERATIONS;
+        clear(generations[next]);
+        current = next;
+        generationSize.set(0);
+    }
+
+    private boolean contains(AtomicLongArray bits, int h1, int h2) {
+        for (int i = 0; i < hashFuncs; i++) {
+            long index = bitIndex(h1, h2, i);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long bitIndex(int h1, int h2, int i) {
+        long hash = (h1 & 0xFFFFFFFFL) + i * (h2 & 0xFFFFFFFFL);
+        return hash % bitsPerGeneration;
+    }
+
+    private static void clear(AtomicLongArray bits) {
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0L);
+        }
+    }
+}
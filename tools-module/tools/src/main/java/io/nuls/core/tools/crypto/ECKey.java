@@ -51,7 +51,9 @@ import org.spongycastle.math.ec.FixedPointUtil;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 椭圆曲线加密
@@ -68,6 +70,19 @@ public class ECKey {
 
     private static final SecureRandom SECURE_RANDOM;    //随机种子
 
+    /**
+     * 已解码公钥的缓存，解压公钥需要一次开方运算，解码后的点还会保留首次验签时建立的预计算表
+     * Cache of decoded public keys, decompressing a key costs a square root and the decoded point keeps the precomputation built by its first verification
+     */
+    private static final int MAX_PUB_KEY_CACHE_SIZE = 4096;
+    private static final ConcurrentHashMap<ByteBuffer, ECPublicKeyParameters> PUB_KEY_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 每个线程复用一个验签器，每次验签前重新初始化公钥
+     * One verifier reused per thread, re-initialised with the public key before every verification
+     */
+    private static final ThreadLocal<ECDSASigner> VERIFIER = ThreadLocal.withInitial(ECDSASigner::new);
+
     static {
         if (Util.isAndroidRuntime()) {
             new LinuxSecureRandom();
@@ -231,10 +246,26 @@ public class ECKey {
         return CURVE.getCurve().createPoint(x, y, compressed);
     }
 
+    /**
+     * 获取公钥对应的验签参数，已解码的公钥从缓存中取得，缓存满时整体清空
+     * Get the verification parameters of a public key, decoded keys come from the cache which is cleared as a whole once full
+     */
+    public static ECPublicKeyParameters getPublicKeyParameters(byte[] pub) {
+        ECPublicKeyParameters params = PUB_KEY_CACHE.get(ByteBuffer.wrap(pub));
+        if (params != null) {
+            return params;
+        }
+        params = new ECPublicKeyParameters(CURVE.getCurve().decodePoint(pub), CURVE);
+        if (PUB_KEY_CACHE.size() >= MAX_PUB_KEY_CACHE_SIZE) {
+            PUB_KEY_CACHE.clear();
+        }
+        PUB_KEY_CACHE.put(ByteBuffer.wrap(pub.clone()), params);
+        return params;
+    }
+
     public static boolean verify(byte[] data, ECDSASignature signature, byte[] pub) {
-        ECDSASigner signer = new ECDSASigner();
-        ECPublicKeyParameters params = new ECPublicKeyParameters(CURVE.getCurve().decodePoint(pub), CURVE);
-        signer.init(false, params);
+        ECDSASigner signer = VERIFIER.get();
+        signer.init(false, getPublicKeyParameters(pub));
         try {
             return signer.verifySignature(data, signature.r, signature.s);
         } catch (NullPointerException e) {
@@ -42,6 +42,8 @@ import java.util.Arrays;
  */
 public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
 	private static final long serialVersionUID = 3986948258337764647L;
+
+	private static final ThreadLocal<MessageDigest> THREAD_DIGEST = ThreadLocal.withInitial(Sha256Hash::newDigest);
 	
 	public static final int LENGTH = 32; // bytes
     public static final Sha256Hash ZERO_HASH = wrap(new byte[LENGTH]);
@@ -159,6 +161,20 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
         }
     }
 
+    /**
+     * Returns the SHA-256 MessageDigest owned by the calling thread, already reset.
+     *
+     * The instance is reused by every hash of this thread, so it must not be
+     * kept or handed to another thread.
+     *
+     * @return the reset SHA-256 MessageDigest of the calling thread
+     */
+    public static MessageDigest threadDigest() {
+        MessageDigest digest = THREAD_DIGEST.get();
+        digest.reset();
+        return digest;
+    }
+
     /**
      * Calculates the SHA-256 hash of the given bytes.
      *
@@ -178,7 +194,7 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
      * @return the hash (in big-endian order)
      */
     public static byte[] hash(byte[] input, int offset, int length) {
-        MessageDigest digest = newDigest();
+        MessageDigest digest = threadDigest();
         digest.update(input, offset, length);
         return digest.digest();
     }
@@ -204,14 +220,14 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
      * @return the double-hash (in big-endian order)
      */
     public static byte[] hashTwice(byte[] input, int offset, int length) {
-        MessageDigest digest = newDigest();
+        MessageDigest digest = threadDigest();
         digest.update(input, offset, length);
         return digest.digest(digest.digest());
     }
 
     public static byte[] hashTwice(byte[] input1, int offset1, int length1,
                                    byte[] input2, int offset2, int length2) {
-        MessageDigest digest = newDigest();
+        MessageDigest digest = threadDigest();
         digest.update(input1, offset1, length1);
         digest.update(input2, offset2, length2);
         return digest.digest(digest.digest());